@@ -11,6 +11,8 @@ import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
 import java.util.Collections;
 
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
 @Configuration
 public class GatewayConfig {
 
@@ -38,6 +40,12 @@ public class GatewayConfig {
                         .uri("lb://DENTAL-RECORDS-SERVICE"))
 
                 // X-Ray Service Routes
+                // Streaming uploads of up to 512MB outlast the global response timeout; the ingress
+                // in front of the gateway allows the same ten minutes for this path
+                .route("xray-upload-stream", r -> r.path("/api/patient/xray/upload-xray-stream")
+                        .metadata(RESPONSE_TIMEOUT_ATTR, 600_000)
+                        .uri("lb://XRAY-SERVICE"))
+
                 .route("xray-service", r -> r.path("/api/patient/xray/**")
                         .uri("lb://XRAY-SERVICE"))
 
@@ -48,6 +56,11 @@ public class GatewayConfig {
                 ).uri("lb://TREATMENT-SERVICE"))
 
                 // Notification Service Routes
+                // The SSE stream stays open indefinitely, so it must not inherit the global response timeout
+                .route("notification-stream", r -> r.path("/api/in/notifications/admin/stream")
+                        .metadata(RESPONSE_TIMEOUT_ATTR, -1)
+                        .uri("lb://NOTIFICATION-SERVICE"))
+
                 .route("notification-service", r -> r.path("/api/in/notifications/**")
                         .uri("lb://NOTIFICATION-SERVICE"))
 
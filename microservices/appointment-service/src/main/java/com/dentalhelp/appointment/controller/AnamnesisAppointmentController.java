@@ -2,12 +2,17 @@ package com.dentalhelp.appointment.controller;
 
 import com.dentalhelp.appointment.dto.AnamnesisAppointmentDto;
 import com.dentalhelp.appointment.dto.ApiResponse;
+import com.dentalhelp.appointment.dto.AppointmentDetailsDto;
+import com.dentalhelp.appointment.dto.AppointmentDto;
 import com.dentalhelp.appointment.model.AnamnesisAppointment;
+import com.dentalhelp.appointment.model.Appointment;
 import com.dentalhelp.appointment.service.AppointmentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/in/appointment_request")
 @RequiredArgsConstructor
@@ -25,15 +30,43 @@ public class AnamnesisAppointmentController {
     public ResponseEntity<ApiResponse> getAnamnesisAppointment(@PathVariable Long appointmentId) {
         AnamnesisAppointment anamnesis = appointmentService.getAnamnesisAppointment(appointmentId);
 
+        AnamnesisAppointmentDto dto = toAnamnesisDto(anamnesis, appointmentId);
+
+        return ResponseEntity.ok(ApiResponse.success("Anamnesis details", dto));
+    }
+
+    @PostMapping("/getAppointmentsDetails")
+    public ResponseEntity<ApiResponse> getAppointmentsDetails(@RequestBody List<Long> appointmentIds) {
+        List<AppointmentDetailsDto> details = appointmentService.getAppointmentsWithAnamnesis(appointmentIds).stream()
+                .map(appointment -> new AppointmentDetailsDto(
+                        toAppointmentDto(appointment),
+                        appointment.getAnamnesisAppointment() == null
+                                ? null
+                                : toAnamnesisDto(appointment.getAnamnesisAppointment(), appointment.getAppointmentId())))
+                .toList();
+
+        return ResponseEntity.ok(ApiResponse.success("Appointments details", details));
+    }
+
+    private AppointmentDto toAppointmentDto(Appointment appointment) {
+        AppointmentDto dto = new AppointmentDto();
+        dto.setAppointmentId(appointment.getAppointmentId());
+        dto.setPatientCnp(appointment.getPatientCnp());
+        dto.setAppointmentReason(appointment.getAppointmentReason());
+        dto.setDate(appointment.getStartDateHour());
+        dto.setHour(appointment.getEndDateHour());
+        return dto;
+    }
+
+    private AnamnesisAppointmentDto toAnamnesisDto(AnamnesisAppointment anamnesis, Long appointmentId) {
         AnamnesisAppointmentDto dto = new AnamnesisAppointmentDto();
         dto.setAnamneseAppointmentId(anamnesis.getAnamneseAppointmentId());
-        dto.setAppointmentId(anamnesis.getAppointment().getAppointmentId());
+        dto.setAppointmentId(appointmentId);
         dto.setAppointmentReason(anamnesis.getAppointmentReason());
         dto.setCurrentMedication(anamnesis.getCurrentMedication());
         dto.setRecentMedication(anamnesis.getRecentMedication());
         dto.setPregnancy(anamnesis.getPregnancy());
         dto.setCurrentSymptoms(anamnesis.getCurrentSymptoms());
-
-        return ResponseEntity.ok(ApiResponse.success("Anamnesis details", dto));
+        return dto;
     }
 }
@@ -2,6 +2,7 @@ package com.dentalhelp.appointment.controller;
 
 import com.dentalhelp.appointment.dto.ApiResponse;
 import com.dentalhelp.appointment.dto.AppointmentRequestDto;
+import com.dentalhelp.appointment.dto.BulkRequestResultDto;
 import com.dentalhelp.appointment.dto.ConfirmAppointmentDto;
 import com.dentalhelp.appointment.model.AppointmentRequest;
 import com.dentalhelp.appointment.service.AppointmentService;
@@ -48,4 +49,16 @@ public class ConfirmAppointmentController {
         appointmentService.rejectAppointmentRequest(requestId);
         return ResponseEntity.ok(ApiResponse.success("Appointment request rejected", null));
     }
+
+    @PostMapping("/save-appointments/bulk")
+    public ResponseEntity<ApiResponse> confirmAppointments(@RequestBody List<ConfirmAppointmentDto> confirmDtos) {
+        List<BulkRequestResultDto> results = appointmentService.confirmAppointmentRequests(confirmDtos);
+        return ResponseEntity.ok(ApiResponse.success("Appointment requests processed", results));
+    }
+
+    @PostMapping("/reject-appointments/bulk")
+    public ResponseEntity<ApiResponse> rejectAppointments(@RequestBody List<Long> requestIds) {
+        List<BulkRequestResultDto> results = appointmentService.rejectAppointmentRequests(requestIds);
+        return ResponseEntity.ok(ApiResponse.success("Appointment requests processed", results));
+    }
 }
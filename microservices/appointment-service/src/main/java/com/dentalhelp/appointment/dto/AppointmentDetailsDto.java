@@ -0,0 +1,13 @@
+package com.dentalhelp.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentDetailsDto {
+    private AppointmentDto appointment;
+    private AnamnesisAppointmentDto anamnesis;
+}
@@ -0,0 +1,34 @@
+package com.dentalhelp.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRequestResultDto {
+    private Long requestId;
+    private Long appointmentId;
+    private boolean success;
+    private String message;
+
+    public static BulkRequestResultDto success(Long requestId, Long appointmentId) {
+        return BulkRequestResultDto.builder()
+                .requestId(requestId)
+                .appointmentId(appointmentId)
+                .success(true)
+                .message("OK")
+                .build();
+    }
+
+    public static BulkRequestResultDto failure(Long requestId, String message) {
+        return BulkRequestResultDto.builder()
+                .requestId(requestId)
+                .success(false)
+                .message(message)
+                .build();
+    }
+}
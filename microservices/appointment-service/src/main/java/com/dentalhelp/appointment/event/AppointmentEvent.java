@@ -12,6 +12,7 @@ import java.io.Serializable;
 @AllArgsConstructor
 @NoArgsConstructor
 public class AppointmentEvent implements Serializable {
+    private String eventId; // Stable across relay retries, consumers deduplicate on it
     private Long appointmentId;
     private String patientCnp;
     private String patientEmail;
@@ -0,0 +1,48 @@
+package com.dentalhelp.appointment.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "appointment_outbox", indexes = {
+    @Index(name = "idx_outbox_sent_id", columnList = "sentAt, id")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(nullable = false)
+    private String routingKey;
+
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    private int attempts;
+
+    // Not claimable before this time: a relay's claim lease, or the retry backoff after a failure
+    private LocalDateTime availableAt;
+
+    // Set once the event is given up on (unreadable payload or max attempts); parked rows are never relayed
+    private LocalDateTime parkedAt;
+
+    @Column(length = 500)
+    private String lastError;
+}
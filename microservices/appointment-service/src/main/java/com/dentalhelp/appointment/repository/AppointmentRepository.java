@@ -2,8 +2,11 @@ package com.dentalhelp.appointment.repository;
 
 import com.dentalhelp.appointment.model.Appointment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +14,7 @@ import java.util.Optional;
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     Optional<Appointment> findByAppointmentId(Long appointmentId);
     List<Appointment> findByPatientCnp(String patientCnp);
+
+    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.anamnesisAppointment WHERE a.appointmentId IN :appointmentIds")
+    List<Appointment> findWithAnamnesisByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds);
 }
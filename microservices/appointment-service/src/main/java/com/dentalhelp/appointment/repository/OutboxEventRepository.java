@@ -0,0 +1,42 @@
+package com.dentalhelp.appointment.repository;
+
+import com.dentalhelp.appointment.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED (-2) lets several relay instances claim disjoint batches; the locks are only held
+    // for the short claiming transaction, the claim itself is the availableAt lease
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.sentAt IS NULL AND e.parkedAt IS NULL " +
+           "AND (e.availableAt IS NULL OR e.availableAt <= :now) ORDER BY e.id")
+    List<OutboxEvent> findClaimableForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countBySentAtIsNullAndParkedAtIsNull();
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.availableAt = NULL WHERE e.id IN :ids AND e.sentAt IS NULL")
+    int releaseClaims(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.parkedAt = :parkedAt, e.lastError = :error WHERE e.id = :id")
+    int park(@Param("id") Long id, @Param("parkedAt") LocalDateTime parkedAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,6 +2,7 @@ package com.dentalhelp.appointment.service;
 
 import com.dentalhelp.appointment.dto.*;
 import com.dentalhelp.appointment.event.AppointmentEvent;
+import com.dentalhelp.appointment.exception.BadRequestException;
 import com.dentalhelp.appointment.exception.ResourceNotFoundException;
 import com.dentalhelp.appointment.model.AnamnesisAppointment;
 import com.dentalhelp.appointment.model.Appointment;
@@ -10,27 +11,34 @@ import com.dentalhelp.appointment.repository.AnamnesisAppointmentRepository;
 import com.dentalhelp.appointment.repository.AppointmentRepository;
 import com.dentalhelp.appointment.repository.AppointmentRequestRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-
-import static com.dentalhelp.appointment.config.RabbitMQConfig.APPOINTMENT_EXCHANGE;
-import static com.dentalhelp.appointment.config.RabbitMQConfig.APPOINTMENT_ROUTING_KEY;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
 
+    public static final int MAX_BULK_SIZE = 500;
+    public static final int MAX_DETAILS_LOOKUP = 500;
+
     private final AppointmentRepository appointmentRepository;
     private final AppointmentRequestRepository appointmentRequestRepository;
     private final AnamnesisAppointmentRepository anamnesisAppointmentRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
 
     // Appointment CRUD Operations
 
+    @Transactional
     public Appointment saveAppointment(AppointmentDto appointmentDto) {
         Appointment appointment = new Appointment();
         appointment.setAppointmentReason(appointmentDto.getAppointmentReason());
@@ -87,6 +95,7 @@ public class AppointmentService {
 
     // Appointment Request Operations
 
+    @Transactional
     public AppointmentRequest createAppointmentRequest(AppointmentRequestDto requestDto) {
         AppointmentRequest request = AppointmentRequest.builder()
                 .patientCnp(requestDto.getPatientCnp())
@@ -145,6 +154,100 @@ public class AppointmentService {
         publishAppointmentRejectedEvent(request);
     }
 
+    /**
+     * Confirms many appointment requests in a single transaction. Requests are loaded with one
+     * query, removed with one batched delete and the resulting events are published together.
+     * Results are returned in input order; missing, unknown or duplicate ids are reported per item.
+     */
+    @Transactional
+    public List<BulkRequestResultDto> confirmAppointmentRequests(List<ConfirmAppointmentDto> confirmDtos) {
+        validateBulkSize(confirmDtos);
+
+        Map<Long, AppointmentRequest> requestsById = findRequestsById(
+                confirmDtos.stream().map(AppointmentService::requestIdOf).toList());
+
+        List<BulkRequestResultDto> results = new ArrayList<>();
+        List<Integer> pendingPositions = new ArrayList<>();
+        List<Long> confirmedRequestIds = new ArrayList<>();
+        List<Appointment> appointments = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+
+        for (ConfirmAppointmentDto confirmDto : confirmDtos) {
+            Long requestId = requestIdOf(confirmDto);
+            BulkRequestResultDto failure = checkBulkItem(requestId, seen, requestsById);
+            if (failure != null) {
+                results.add(failure);
+                continue;
+            }
+
+            AppointmentRequest request = requestsById.get(requestId);
+            Appointment appointment = new Appointment();
+            appointment.setPatientCnp(request.getPatientCnp());
+            appointment.setAppointmentReason(request.getAppointmentReason());
+            appointment.setStartDateHour(confirmDto.getDate());
+            appointment.setEndDateHour(confirmDto.getHour());
+
+            appointments.add(appointment);
+            confirmedRequestIds.add(requestId);
+            pendingPositions.add(results.size());
+            results.add(null);
+        }
+
+        if (!appointments.isEmpty()) {
+            List<Appointment> savedAppointments = appointmentRepository.saveAll(appointments);
+            appointmentRequestRepository.deleteAllByIdInBatch(confirmedRequestIds);
+
+            for (int i = 0; i < savedAppointments.size(); i++) {
+                results.set(pendingPositions.get(i), BulkRequestResultDto.success(
+                        confirmedRequestIds.get(i), savedAppointments.get(i).getAppointmentId()));
+            }
+
+            publishAppointmentEvents(savedAppointments.stream()
+                    .map(appointment -> buildAppointmentEvent(appointment, "CONFIRMED"))
+                    .toList());
+        }
+
+        return results;
+    }
+
+    /**
+     * Rejects many appointment requests in a single transaction with one batched delete and
+     * one batched event publish. Results are returned in input order.
+     */
+    @Transactional
+    public List<BulkRequestResultDto> rejectAppointmentRequests(List<Long> requestIds) {
+        validateBulkSize(requestIds);
+
+        Map<Long, AppointmentRequest> requestsById = findRequestsById(requestIds);
+
+        List<BulkRequestResultDto> results = new ArrayList<>();
+        List<AppointmentRequest> rejected = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+
+        for (Long requestId : requestIds) {
+            BulkRequestResultDto failure = checkBulkItem(requestId, seen, requestsById);
+            if (failure != null) {
+                results.add(failure);
+                continue;
+            }
+
+            rejected.add(requestsById.get(requestId));
+            results.add(BulkRequestResultDto.success(requestId, null));
+        }
+
+        if (!rejected.isEmpty()) {
+            appointmentRequestRepository.deleteAllByIdInBatch(rejected.stream()
+                    .map(AppointmentRequest::getAppointmentRequestId)
+                    .toList());
+
+            publishAppointmentEvents(rejected.stream()
+                    .map(request -> buildRequestEvent(request, "REJECTED"))
+                    .toList());
+        }
+
+        return results;
+    }
+
     @Transactional
     public void updateAppointmentRequest(Long requestId, AppointmentRequestDto requestDto) {
         AppointmentRequest request = appointmentRequestRepository.findByAppointmentRequestId(requestId)
@@ -187,126 +290,114 @@ public class AppointmentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Anamnesis not found for appointment: " + appointmentId));
     }
 
+    /**
+     * Loads appointments together with their anamnesis in a single IN query, for callers that
+     * assemble several visits at once. Unknown ids are simply absent from the result.
+     */
+    public List<Appointment> getAppointmentsWithAnamnesis(List<Long> appointmentIds) {
+        if (appointmentIds == null || appointmentIds.isEmpty()) {
+            throw new BadRequestException("At least one appointment id is required");
+        }
+        List<Long> distinctIds = appointmentIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinctIds.size() > MAX_DETAILS_LOOKUP) {
+            throw new BadRequestException("A maximum of " + MAX_DETAILS_LOOKUP + " appointments can be looked up at once");
+        }
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        return appointmentRepository.findWithAnamnesisByAppointmentIdIn(distinctIds);
+    }
+
+    // Bulk Helpers
+
+    private void validateBulkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("At least one appointment request is required");
+        }
+        if (items.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("A maximum of " + MAX_BULK_SIZE + " appointment requests can be processed at once");
+        }
+    }
+
+    private Map<Long, AppointmentRequest> findRequestsById(List<Long> requestIds) {
+        List<Long> distinctIds = requestIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        return appointmentRequestRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(AppointmentRequest::getAppointmentRequestId, Function.identity()));
+    }
+
+    // A null element in the request body is reported like an item without an id
+    private static Long requestIdOf(ConfirmAppointmentDto confirmDto) {
+        return confirmDto != null ? confirmDto.getRequestId() : null;
+    }
+
+    private BulkRequestResultDto checkBulkItem(Long requestId, Set<Long> seen, Map<Long, AppointmentRequest> requestsById) {
+        if (requestId == null) {
+            return BulkRequestResultDto.failure(null, "Appointment request id is required");
+        }
+        if (!seen.add(requestId)) {
+            return BulkRequestResultDto.failure(requestId, "Duplicate appointment request id");
+        }
+        if (!requestsById.containsKey(requestId)) {
+            return BulkRequestResultDto.failure(requestId, "Appointment request not found");
+        }
+        return null;
+    }
+
     // Event Publishing Methods
+    // Events are written to the outbox in the same transaction and relayed to RabbitMQ by OutboxRelay
 
     private void publishAppointmentCreatedEvent(Appointment appointment) {
-        try {
-            AppointmentEvent event = AppointmentEvent.builder()
-                    .appointmentId(appointment.getAppointmentId())
-                    .patientCnp(appointment.getPatientCnp())
-                    .patientEmail(null) // Email will be fetched by notification service if needed
-                    .appointmentDate(appointment.getStartDateHour() != null ? appointment.getStartDateHour().toString() : null)
-                    .eventType("CREATED")
-                    .build();
-
-            rabbitTemplate.convertAndSend(
-                    APPOINTMENT_EXCHANGE,
-                    APPOINTMENT_ROUTING_KEY,
-                    event
-            );
-        } catch (Exception e) {
-            // Log error but don't fail the transaction
-            System.err.println("Failed to publish appointment created event: " + e.getMessage());
-        }
+        outboxService.enqueue(buildAppointmentEvent(appointment, "CREATED"));
     }
 
     private void publishAppointmentModifiedEvent(Appointment appointment) {
-        try {
-            AppointmentEvent event = AppointmentEvent.builder()
-                    .appointmentId(appointment.getAppointmentId())
-                    .patientCnp(appointment.getPatientCnp())
-                    .patientEmail(null) // Email will be fetched by notification service if needed
-                    .appointmentDate(appointment.getStartDateHour() != null ? appointment.getStartDateHour().toString() : null)
-                    .eventType("MODIFIED")
-                    .build();
-
-            rabbitTemplate.convertAndSend(
-                    APPOINTMENT_EXCHANGE,
-                    APPOINTMENT_ROUTING_KEY,
-                    event
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to publish appointment modified event: " + e.getMessage());
-        }
+        outboxService.enqueue(buildAppointmentEvent(appointment, "MODIFIED"));
     }
 
     private void publishAppointmentDeletedEvent(Appointment appointment) {
-        try {
-            AppointmentEvent event = AppointmentEvent.builder()
-                    .appointmentId(appointment.getAppointmentId())
-                    .patientCnp(appointment.getPatientCnp())
-                    .patientEmail(null) // Email will be fetched by notification service if needed
-                    .appointmentDate(appointment.getStartDateHour() != null ? appointment.getStartDateHour().toString() : null)
-                    .eventType("DELETED")
-                    .build();
-
-            rabbitTemplate.convertAndSend(
-                    APPOINTMENT_EXCHANGE,
-                    APPOINTMENT_ROUTING_KEY,
-                    event
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to publish appointment deleted event: " + e.getMessage());
-        }
+        outboxService.enqueue(buildAppointmentEvent(appointment, "DELETED"));
     }
 
     private void publishAppointmentRequestCreatedEvent(AppointmentRequest request) {
-        try {
-            AppointmentEvent event = AppointmentEvent.builder()
-                    .appointmentId(null) // No appointment ID yet for requests
-                    .patientCnp(request.getPatientCnp())
-                    .patientEmail(null) // Email will be fetched by notification service if needed
-                    .appointmentDate(request.getDesiredAppointmentTime() != null ? request.getDesiredAppointmentTime().toString() : null)
-                    .eventType("CREATED")
-                    .build();
-
-            rabbitTemplate.convertAndSend(
-                    APPOINTMENT_EXCHANGE,
-                    APPOINTMENT_ROUTING_KEY,
-                    event
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to publish appointment request event: " + e.getMessage());
-        }
+        outboxService.enqueue(buildRequestEvent(request, "CREATED"));
     }
 
     private void publishAppointmentConfirmedEvent(Appointment appointment) {
-        try {
-            AppointmentEvent event = AppointmentEvent.builder()
-                    .appointmentId(appointment.getAppointmentId())
-                    .patientCnp(appointment.getPatientCnp())
-                    .patientEmail(null) // Email will be fetched by notification service if needed
-                    .appointmentDate(appointment.getStartDateHour() != null ? appointment.getStartDateHour().toString() : null)
-                    .eventType("CONFIRMED")
-                    .build();
-
-            rabbitTemplate.convertAndSend(
-                    APPOINTMENT_EXCHANGE,
-                    APPOINTMENT_ROUTING_KEY,
-                    event
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to publish appointment confirmed event: " + e.getMessage());
-        }
+        outboxService.enqueue(buildAppointmentEvent(appointment, "CONFIRMED"));
     }
 
     private void publishAppointmentRejectedEvent(AppointmentRequest request) {
-        try {
-            AppointmentEvent event = AppointmentEvent.builder()
-                    .appointmentId(null) // No appointment ID for rejected requests
-                    .patientCnp(request.getPatientCnp())
-                    .patientEmail(null) // Email will be fetched by notification service if needed
-                    .appointmentDate(request.getDesiredAppointmentTime() != null ? request.getDesiredAppointmentTime().toString() : null)
-                    .eventType("REJECTED")
-                    .build();
-
-            rabbitTemplate.convertAndSend(
-                    APPOINTMENT_EXCHANGE,
-                    APPOINTMENT_ROUTING_KEY,
-                    event
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to publish appointment rejected event: " + e.getMessage());
-        }
+        outboxService.enqueue(buildRequestEvent(request, "REJECTED"));
+    }
+
+    private void publishAppointmentEvents(List<AppointmentEvent> events) {
+        outboxService.enqueueAll(events);
+    }
+
+    private AppointmentEvent buildAppointmentEvent(Appointment appointment, String eventType) {
+        return AppointmentEvent.builder()
+                .appointmentId(appointment.getAppointmentId())
+                .patientCnp(appointment.getPatientCnp())
+                .patientEmail(null) // Email will be fetched by notification service if needed
+                .appointmentDate(appointment.getStartDateHour() != null ? appointment.getStartDateHour().toString() : null)
+                .eventType(eventType)
+                .build();
+    }
+
+    private AppointmentEvent buildRequestEvent(AppointmentRequest request, String eventType) {
+        return AppointmentEvent.builder()
+                .appointmentId(null) // No appointment ID for requests
+                .patientCnp(request.getPatientCnp())
+                .patientEmail(null) // Email will be fetched by notification service if needed
+                .appointmentDate(request.getDesiredAppointmentTime() != null ? request.getDesiredAppointmentTime().toString() : null)
+                .eventType(eventType)
+                .build();
     }
 }
@@ -0,0 +1,152 @@
+package com.dentalhelp.appointment.service;
+
+import com.dentalhelp.appointment.event.AppointmentEvent;
+import com.dentalhelp.appointment.model.OutboxEvent;
+import com.dentalhelp.appointment.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the appointment outbox in batches. Every row of a batch is published with a
+ * correlated publisher confirm and only rows acknowledged by the broker are marked as sent.
+ * Nacked or unconfirmed rows are retried with backoff and parked after max-attempts.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxService outboxService;
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs = 5000;
+
+    @Value("${outbox.relay.retention-hours:72}")
+    private long retentionHours = 72;
+
+    /**
+     * Not transactional on purpose: rows are claimed and their outcome recorded in two short
+     * transactions, so no row lock is held while RabbitTemplate retries or confirms are awaited.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relayPendingEvents() {
+        List<OutboxEvent> batch = outboxService.claimBatch(batchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<OutboxEvent> published = new ArrayList<>();
+        List<CorrelationData> confirms = new ArrayList<>();
+        Map<Long, String> failures = new HashMap<>();
+        List<Long> unattempted = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent outboxEvent = batch.get(i);
+            AppointmentEvent event;
+            try {
+                event = outboxService.readPayload(outboxEvent);
+            } catch (IllegalStateException e) {
+                // Retrying cannot fix an unreadable row; park it so it does not block the rows behind it
+                outboxService.park(outboxEvent.getId(), e.getMessage());
+                continue;
+            }
+
+            CorrelationData correlation = new CorrelationData(String.valueOf(outboxEvent.getId()));
+            try {
+                // Stamped right before the send so the lag excludes claiming and payload decoding
+                recordConfirmLag(correlation, System.nanoTime());
+                rabbitTemplate.convertAndSend(outboxEvent.getExchange(), outboxEvent.getRoutingKey(), event,
+                        message -> withMessageId(message, event.getEventId()), correlation);
+            } catch (AmqpException e) {
+                // Broker unavailable: not the row's fault, so hand this and the rest of the batch back untouched
+                log.warn("Outbox relay stopped after {} of {} events: {}", published.size(), batch.size(), e.getMessage());
+                batch.subList(i, batch.size()).forEach(remaining -> unattempted.add(remaining.getId()));
+                break;
+            }
+            published.add(outboxEvent);
+            confirms.add(correlation);
+        }
+
+        List<Long> acknowledged = awaitConfirms(published, confirms, failures);
+        outboxService.completeBatch(acknowledged, failures, unattempted);
+    }
+
+    @Scheduled(cron = "${outbox.relay.purge-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeSentEvents() {
+        int purged = outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Purged {} sent outbox events", purged);
+        }
+    }
+
+    private List<Long> awaitConfirms(List<OutboxEvent> published, List<CorrelationData> confirms,
+                                     Map<Long, String> failures) {
+        List<Long> acknowledged = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+
+        for (int i = 0; i < published.size(); i++) {
+            OutboxEvent outboxEvent = published.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                CorrelationData.Confirm confirm = confirms.get(i).getFuture().get(remaining, TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    acknowledged.add(outboxEvent.getId());
+                    continue;
+                }
+                log.warn("Broker nacked outbox event {}: {}", outboxEvent.getId(), confirm.getReason());
+                failures.put(outboxEvent.getId(), "nacked: " + confirm.getReason());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(outboxEvent.getId(), "interrupted while awaiting confirm");
+            } catch (Exception e) {
+                log.warn("No publisher confirm for outbox event {}: {}", outboxEvent.getId(), e.getMessage());
+                failures.put(outboxEvent.getId(), "no confirm: " + e.getMessage());
+            }
+        }
+        return acknowledged;
+    }
+
+    // With correlated confirms the broker's ack or nack completes the CorrelationData future
+    private void recordConfirmLag(CorrelationData correlation, long sentAtNanos) {
+        correlation.getFuture().whenComplete((confirm, error) -> Timer.builder("rabbitmq.publish.confirm.lag")
+                .description("Time between publishing a message and receiving its publisher confirm")
+                .tag("result", error != null ? "error" : confirm.isAck() ? "ack" : "nack")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - sentAtNanos, TimeUnit.NANOSECONDS));
+    }
+
+    private static Message withMessageId(Message message, String eventId) {
+        if (eventId != null) {
+            message.getMessageProperties().setMessageId(eventId);
+        }
+        return message;
+    }
+}
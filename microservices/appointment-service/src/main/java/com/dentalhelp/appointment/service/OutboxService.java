@@ -0,0 +1,138 @@
+package com.dentalhelp.appointment.service;
+
+import com.dentalhelp.appointment.event.AppointmentEvent;
+import com.dentalhelp.appointment.model.OutboxEvent;
+import com.dentalhelp.appointment.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.dentalhelp.appointment.config.RabbitMQConfig.APPOINTMENT_EXCHANGE;
+import static com.dentalhelp.appointment.config.RabbitMQConfig.APPOINTMENT_ROUTING_KEY;
+
+/**
+ * Records appointment events in the outbox table as part of the caller's transaction.
+ * {@link OutboxRelay} publishes them to RabbitMQ once the transaction has committed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${outbox.relay.claim-lease-ms:60000}")
+    private long claimLeaseMs = 60_000;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Value("${outbox.relay.retry-base-ms:1000}")
+    private long retryBaseMs = 1000;
+
+    @Value("${outbox.relay.retry-max-ms:300000}")
+    private long retryMaxMs = 300_000;
+
+    @Transactional
+    public void enqueue(AppointmentEvent event) {
+        outboxEventRepository.save(toOutboxEvent(event));
+    }
+
+    @Transactional
+    public void enqueueAll(List<AppointmentEvent> events) {
+        outboxEventRepository.saveAll(events.stream().map(this::toOutboxEvent).toList());
+    }
+
+    /**
+     * Claims up to batchSize due events in a short transaction and returns them detached. The
+     * claim is a lease on availableAt, so the row locks are released before anything is
+     * published; a relay that dies mid-batch only delays its rows until the lease runs out.
+     */
+    @Transactional
+    public List<OutboxEvent> claimBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.findClaimableForUpdate(now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseUntil = now.plus(Duration.ofMillis(claimLeaseMs));
+        batch.forEach(outboxEvent -> outboxEvent.setAvailableAt(leaseUntil));
+        return batch;
+    }
+
+    /**
+     * Records the outcome of a relayed batch: acknowledged rows are sent, failed rows back off
+     * exponentially and are parked after max-attempts, rows never tried are released at once.
+     */
+    @Transactional
+    public void completeBatch(List<Long> sentIds, Map<Long, String> failures, List<Long> unattemptedIds) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.markSent(sentIds, now);
+        }
+        if (!unattemptedIds.isEmpty()) {
+            outboxEventRepository.releaseClaims(unattemptedIds);
+        }
+        for (OutboxEvent outboxEvent : outboxEventRepository.findAllById(failures.keySet())) {
+            String error = truncate(failures.get(outboxEvent.getId()));
+            outboxEvent.setAttempts(outboxEvent.getAttempts() + 1);
+            outboxEvent.setLastError(error);
+            if (outboxEvent.getAttempts() >= maxAttempts) {
+                outboxEvent.setParkedAt(now);
+                log.error("Parking outbox event {} after {} attempts: {}", outboxEvent.getId(), outboxEvent.getAttempts(), error);
+            } else {
+                outboxEvent.setAvailableAt(now.plus(Duration.ofMillis(backoffMs(outboxEvent.getAttempts()))));
+            }
+        }
+    }
+
+    /** Takes an event out of the relay for good, e.g. when its payload cannot be read. */
+    @Transactional
+    public void park(Long id, String reason) {
+        log.error("Parking outbox event {}: {}", id, reason);
+        outboxEventRepository.park(id, LocalDateTime.now(), truncate(reason));
+    }
+
+    long backoffMs(int attempts) {
+        // attempts >= 1 here; the shift is capped so it cannot overflow
+        return Math.min(retryMaxMs, retryBaseMs << Math.min(attempts - 1, 20));
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    public AppointmentEvent readPayload(OutboxEvent outboxEvent) {
+        try {
+            return objectMapper.readValue(outboxEvent.getPayload(), AppointmentEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload for event " + outboxEvent.getId(), e);
+        }
+    }
+
+    private OutboxEvent toOutboxEvent(AppointmentEvent event) {
+        if (event.getEventId() == null) {
+            event.setEventId(UUID.randomUUID().toString());
+        }
+        try {
+            return OutboxEvent.builder()
+                    .exchange(APPOINTMENT_EXCHANGE)
+                    .routingKey(APPOINTMENT_ROUTING_KEY)
+                    .eventType(event.getEventType())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .createdAt(LocalDateTime.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize appointment event", e);
+        }
+    }
+}
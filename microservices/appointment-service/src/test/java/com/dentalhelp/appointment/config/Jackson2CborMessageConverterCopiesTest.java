@@ -0,0 +1,41 @@
+package com.dentalhelp.appointment.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Jackson2CborMessageConverter is copied into every service that publishes or consumes CBOR, as
+ * the services share no module. This keeps the copies identical apart from their package, so a
+ * change such as TRUSTED_PACKAGES has to be made in all of them. Skipped when the service is
+ * built outside the full repository checkout.
+ */
+class Jackson2CborMessageConverterCopiesTest {
+
+    private static final List<String> SERVICES = List.of("appointment", "auth", "notification");
+
+    @Test
+    void testCopiesAreIdenticalAcrossServices() throws IOException {
+        String own = withoutPackage(copyIn("appointment"));
+        for (String service : SERVICES) {
+            Path copy = copyIn(service);
+            assumeTrue(Files.exists(copy), "Sibling services are not checked out");
+            assertEquals(own, withoutPackage(copy), "Jackson2CborMessageConverter differs in " + service + "-service");
+        }
+    }
+
+    private static Path copyIn(String service) {
+        return Path.of("..", service + "-service", "src", "main", "java", "com", "dentalhelp", service, "config",
+                "Jackson2CborMessageConverter.java");
+    }
+
+    private static String withoutPackage(Path source) throws IOException {
+        return Files.readString(source).replaceFirst("package [\\w.]+;", "");
+    }
+}
@@ -0,0 +1,58 @@
+package com.dentalhelp.appointment.config;
+
+import com.dentalhelp.appointment.event.AppointmentEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares message size and encode/decode cost of the JSON and CBOR converters for a typical AppointmentEvent.
+ * Timings are printed, not asserted, since they depend on the machine running the build, so this is kept
+ * out of the normal suite. Run it with {@code mvn test -Dtest=MessageConverterBenchmarkTest -Dbenchmark=true}.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MessageConverterBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final AppointmentEvent event = AppointmentEvent.builder()
+            .eventId("3f0c2a8e-4b7d-4a55-9b1e-2f6d8c9e1a77")
+            .appointmentId(48213L)
+            .patientCnp("1960512123456")
+            .patientEmail("patient@example.com")
+            .appointmentDate("2024-12-01T10:30:00")
+            .eventType("CONFIRMED")
+            .build();
+
+    @Test
+    void benchmarkEncodeDecode() {
+        report("json", new Jackson2JsonMessageConverter());
+        report("cbor", new Jackson2CborMessageConverter());
+    }
+
+    private void report(String name, MessageConverter messageConverter) {
+        run(messageConverter, WARMUP);
+        long start = System.nanoTime();
+        int bytes = run(messageConverter, ITERATIONS);
+        long nanosPerRoundTrip = (System.nanoTime() - start) / ITERATIONS;
+        System.out.printf("%s: %d bytes/message, %d ns per encode+decode%n", name, bytes, nanosPerRoundTrip);
+    }
+
+    private int run(MessageConverter messageConverter, int iterations) {
+        int bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            Message message = messageConverter.toMessage(event, new MessageProperties());
+            bytes = message.getBody().length;
+            assertNotNull(messageConverter.fromMessage(message));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,48 @@
+package com.dentalhelp.appointment.config;
+
+import com.dentalhelp.appointment.event.AppointmentEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageConverterTest {
+
+    private final AppointmentEvent event = AppointmentEvent.builder()
+            .eventId("3f0c2a8e-4b7d-4a55-9b1e-2f6d8c9e1a77")
+            .appointmentId(48213L)
+            .patientCnp("1960512123456")
+            .patientEmail("patient@example.com")
+            .appointmentDate("2024-12-01T10:30:00")
+            .eventType("CONFIRMED")
+            .build();
+
+    @Test
+    void testCborIsSmallerAndRoundTrips() {
+        Message json = new Jackson2JsonMessageConverter().toMessage(event, new MessageProperties());
+        Message cbor = new Jackson2CborMessageConverter().toMessage(event, new MessageProperties());
+
+        assertEquals(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR, cbor.getMessageProperties().getContentType());
+        assertTrue(cbor.getBody().length < json.getBody().length);
+        assertEquals(event, converter("json").fromMessage(cbor));
+        assertEquals(event, converter("cbor").fromMessage(json));
+    }
+
+    @Test
+    void testFromMessage_RejectsTypeHeaderOutsideTrustedPackages() {
+        Message cbor = new Jackson2CborMessageConverter().toMessage(event, new MessageProperties());
+        cbor.getMessageProperties().setHeader("__TypeId__", "java.net.URL");
+
+        assertThrows(IllegalArgumentException.class, () -> new Jackson2CborMessageConverter().fromMessage(cbor));
+    }
+
+    private MessageConverter converter(String format) {
+        RabbitMQConfig config = new RabbitMQConfig();
+        ReflectionTestUtils.setField(config, "serializationFormat", format);
+        return config.messageConverter();
+    }
+}
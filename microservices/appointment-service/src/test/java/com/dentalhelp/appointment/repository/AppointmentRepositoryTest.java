@@ -1,5 +1,6 @@
 package com.dentalhelp.appointment.repository;
 
+import com.dentalhelp.appointment.model.AnamnesisAppointment;
 import com.dentalhelp.appointment.model.Appointment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -149,4 +150,39 @@ class AppointmentRepositoryTest {
         // Assert
         assertEquals(2, all.size());
     }
+
+    @Test
+    void testFindWithAnamnesisByAppointmentIdIn() {
+        // Arrange
+        Appointment withAnamnesis = entityManager.persistAndFlush(testAppointment);
+        entityManager.persistAndFlush(AnamnesisAppointment.builder()
+                .appointmentReason("Pain")
+                .currentSymptoms("Sensitivity to cold")
+                .appointment(withAnamnesis)
+                .build());
+
+        Appointment withoutAnamnesis = new Appointment();
+        withoutAnamnesis.setStartDateHour("2024-12-02T11:00:00");
+        withoutAnamnesis.setEndDateHour("2024-12-02T12:00:00");
+        withoutAnamnesis.setPatientCnp("1234567890123");
+        withoutAnamnesis.setAppointmentReason("Cleaning");
+        entityManager.persistAndFlush(withoutAnamnesis);
+        entityManager.clear();
+
+        // Act
+        List<Appointment> found = appointmentRepository.findWithAnamnesisByAppointmentIdIn(
+                List.of(withAnamnesis.getAppointmentId(), withoutAnamnesis.getAppointmentId(), 999999L));
+
+        // Assert
+        assertEquals(2, found.size());
+        Appointment first = found.stream()
+                .filter(a -> a.getAppointmentId().equals(withAnamnesis.getAppointmentId()))
+                .findFirst()
+                .orElseThrow();
+        assertNotNull(first.getAnamnesisAppointment());
+        assertEquals("Sensitivity to cold", first.getAnamnesisAppointment().getCurrentSymptoms());
+        assertTrue(found.stream()
+                .filter(a -> a.getAppointmentId().equals(withoutAnamnesis.getAppointmentId()))
+                .allMatch(a -> a.getAnamnesisAppointment() == null));
+    }
 }
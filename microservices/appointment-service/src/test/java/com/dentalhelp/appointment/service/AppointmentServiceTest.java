@@ -1,6 +1,7 @@
 package com.dentalhelp.appointment.service;
 
 import com.dentalhelp.appointment.dto.*;
+import com.dentalhelp.appointment.exception.BadRequestException;
 import com.dentalhelp.appointment.exception.ResourceNotFoundException;
 import com.dentalhelp.appointment.model.AnamnesisAppointment;
 import com.dentalhelp.appointment.model.Appointment;
@@ -14,7 +15,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -38,7 +38,7 @@ class AppointmentServiceTest {
     private AnamnesisAppointmentRepository anamnesisAppointmentRepository;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxService outboxService;
 
     @InjectMocks
     private AppointmentService appointmentService;
@@ -79,6 +79,7 @@ class AppointmentServiceTest {
         Appointment result = appointmentService.saveAppointment(testAppointmentDto);
         assertNotNull(result);
         verify(appointmentRepository).save(any(Appointment.class));
+        verify(outboxService).enqueue(any());
     }
 
     @Test
@@ -130,4 +131,58 @@ class AppointmentServiceTest {
         assertNotNull(result);
         verify(appointmentRequestRepository).save(any(AppointmentRequest.class));
     }
+
+    @Test
+    void testConfirmAppointmentRequests_ReportsPerItemResults() {
+        ConfirmAppointmentDto valid = new ConfirmAppointmentDto(1L, "2024-12-15T10:00", "2024-12-15T11:00");
+        ConfirmAppointmentDto missing = new ConfirmAppointmentDto(2L, "2024-12-15T12:00", "2024-12-15T13:00");
+        ConfirmAppointmentDto duplicate = new ConfirmAppointmentDto(1L, "2024-12-16T10:00", "2024-12-16T11:00");
+
+        when(appointmentRequestRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(testAppointmentRequest));
+        when(appointmentRepository.saveAll(anyList())).thenReturn(List.of(testAppointment));
+
+        List<BulkRequestResultDto> results = appointmentService.confirmAppointmentRequests(List.of(valid, missing, duplicate));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(1L, results.get(0).getAppointmentId());
+        assertFalse(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        verify(appointmentRequestRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(outboxService).enqueueAll(argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    void testConfirmAppointmentRequests_NullItemFailsOnlyThatItem() {
+        ConfirmAppointmentDto valid = new ConfirmAppointmentDto(1L, "2024-12-15T10:00", "2024-12-15T11:00");
+
+        when(appointmentRequestRepository.findAllById(List.of(1L))).thenReturn(List.of(testAppointmentRequest));
+        when(appointmentRepository.saveAll(anyList())).thenReturn(List.of(testAppointment));
+
+        List<BulkRequestResultDto> results = appointmentService.confirmAppointmentRequests(Arrays.asList(null, valid));
+
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        verify(appointmentRequestRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void testRejectAppointmentRequests_DeletesInBatch() {
+        when(appointmentRequestRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(testAppointmentRequest));
+
+        List<BulkRequestResultDto> results = appointmentService.rejectAppointmentRequests(List.of(1L, 3L));
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        verify(appointmentRequestRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(appointmentRequestRepository, never()).delete(any(AppointmentRequest.class));
+    }
+
+    @Test
+    void testRejectAppointmentRequests_EmptyList() {
+        assertThrows(BadRequestException.class, () -> appointmentService.rejectAppointmentRequests(List.of()));
+        verifyNoInteractions(appointmentRequestRepository);
+    }
 }
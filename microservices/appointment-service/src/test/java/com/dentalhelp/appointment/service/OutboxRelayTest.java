@@ -0,0 +1,132 @@
+package com.dentalhelp.appointment.service;
+
+import com.dentalhelp.appointment.event.AppointmentEvent;
+import com.dentalhelp.appointment.model.OutboxEvent;
+import com.dentalhelp.appointment.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    private OutboxEvent outboxEvent(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .exchange("appointment.exchange")
+                .routingKey("appointment.notification")
+                .eventType("CREATED")
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void testRelayPendingEvents_MarksOnlyAcknowledgedEventsAsSent() {
+        OutboxEvent acked = outboxEvent(1L);
+        OutboxEvent nacked = outboxEvent(2L);
+        when(outboxService.claimBatch(anyInt())).thenReturn(List.of(acked, nacked));
+        when(outboxService.readPayload(any())).thenReturn(new AppointmentEvent());
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(4);
+            correlation.getFuture().complete(new CorrelationData.Confirm("1".equals(correlation.getId()), "nack"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        outboxRelay.relayPendingEvents();
+
+        verify(outboxService).completeBatch(eq(List.of(1L)), eq(Map.of(2L, "nacked: nack")), eq(List.of()));
+        assertEquals(1, meterRegistry.get("rabbitmq.publish.confirm.lag").tag("result", "ack").timer().count());
+        assertEquals(1, meterRegistry.get("rabbitmq.publish.confirm.lag").tag("result", "nack").timer().count());
+    }
+
+    @Test
+    void testRelayPendingEvents_BrokerDownKeepsEventsPending() {
+        OutboxEvent pending = outboxEvent(1L);
+        when(outboxService.claimBatch(anyInt())).thenReturn(List.of(pending, outboxEvent(2L)));
+        when(outboxService.readPayload(any())).thenReturn(new AppointmentEvent());
+        doThrow(new AmqpConnectException(new RuntimeException("connection refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        outboxRelay.relayPendingEvents();
+
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+        // A broker outage does not count against the rows: both are handed back untouched
+        verify(outboxService).completeBatch(eq(List.of()), eq(Map.of()), eq(List.of(1L, 2L)));
+    }
+
+    @Test
+    void testRelayPendingEvents_UnreadablePayloadIsParkedAndBatchContinues() {
+        when(outboxService.claimBatch(anyInt())).thenReturn(List.of(outboxEvent(1L), outboxEvent(2L)));
+        when(outboxService.readPayload(any()))
+                .thenThrow(new IllegalStateException("Unreadable outbox payload for event 1"))
+                .thenReturn(new AppointmentEvent());
+        doAnswer(invocation -> {
+            invocation.<CorrelationData>getArgument(4).getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        outboxRelay.relayPendingEvents();
+
+        verify(outboxService).park(1L, "Unreadable outbox payload for event 1");
+        verify(outboxService).completeBatch(eq(List.of(2L)), eq(Map.of()), eq(List.of()));
+    }
+
+    @Test
+    void testRelayPendingEvents_StampsEventIdAsMessageId() {
+        AppointmentEvent event = AppointmentEvent.builder().eventId("evt-1").eventType("CREATED").build();
+        when(outboxService.claimBatch(anyInt())).thenReturn(List.of(outboxEvent(1L)));
+        when(outboxService.readPayload(any())).thenReturn(event);
+
+        outboxRelay.relayPendingEvents();
+
+        ArgumentCaptor<MessagePostProcessor> postProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate).convertAndSend(anyString(), anyString(), eq(event), postProcessor.capture(), any(CorrelationData.class));
+        Message message = postProcessor.getValue().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+        assertEquals("evt-1", message.getMessageProperties().getMessageId());
+    }
+
+    @Test
+    void testRelayPendingEvents_NothingPending() {
+        when(outboxService.claimBatch(anyInt())).thenReturn(List.of());
+
+        outboxRelay.relayPendingEvents();
+
+        verifyNoInteractions(rabbitTemplate);
+    }
+}
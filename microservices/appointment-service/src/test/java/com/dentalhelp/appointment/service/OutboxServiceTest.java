@@ -0,0 +1,78 @@
+package com.dentalhelp.appointment.service;
+
+import com.dentalhelp.appointment.model.OutboxEvent;
+import com.dentalhelp.appointment.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxService(outboxEventRepository, new ObjectMapper());
+    }
+
+    @Test
+    void testClaimBatch_LeasesClaimedRows() {
+        OutboxEvent outboxEvent = OutboxEvent.builder().id(1L).build();
+        when(outboxEventRepository.findClaimableForUpdate(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(outboxEvent));
+
+        List<OutboxEvent> claimed = outboxService.claimBatch(10);
+
+        assertEquals(1, claimed.size());
+        assertTrue(outboxEvent.getAvailableAt().isAfter(LocalDateTime.now().plusSeconds(30)));
+    }
+
+    @Test
+    void testCompleteBatch_FailureBacksOff() {
+        OutboxEvent outboxEvent = OutboxEvent.builder().id(1L).attempts(2).build();
+        when(outboxEventRepository.findAllById(Set.of(1L))).thenReturn(List.of(outboxEvent));
+
+        outboxService.completeBatch(List.of(), Map.of(1L, "nacked"), List.of());
+
+        assertEquals(3, outboxEvent.getAttempts());
+        assertNull(outboxEvent.getParkedAt());
+        assertTrue(outboxEvent.getAvailableAt().isAfter(LocalDateTime.now().plusSeconds(3)));
+        assertEquals("nacked", outboxEvent.getLastError());
+    }
+
+    @Test
+    void testCompleteBatch_ParksAfterMaxAttempts() {
+        OutboxEvent outboxEvent = OutboxEvent.builder().id(1L).attempts(9).build();
+        when(outboxEventRepository.findAllById(Set.of(1L))).thenReturn(List.of(outboxEvent));
+
+        outboxService.completeBatch(List.of(7L), Map.of(1L, "no confirm"), List.of(8L));
+
+        assertNotNull(outboxEvent.getParkedAt());
+        verify(outboxEventRepository).markSent(eq(List.of(7L)), any(LocalDateTime.class));
+        verify(outboxEventRepository).releaseClaims(List.of(8L));
+    }
+
+    @Test
+    void testBackoffIsCapped() {
+        assertEquals(1000, outboxService.backoffMs(1));
+        assertEquals(4000, outboxService.backoffMs(3));
+        assertEquals(300_000, outboxService.backoffMs(60));
+    }
+}
@@ -0,0 +1,77 @@
+package com.dentalhelp.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes messages from a small bounded executor so callers never wait on the broker.
+ * The returned future completes with the broker's publisher confirm, or exceptionally if
+ * the message could not be handed over.
+ */
+@Slf4j
+@Component
+public class AsyncRabbitPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final TaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    public AsyncRabbitPublisher(RabbitTemplate rabbitTemplate,
+                                @Qualifier("rabbitPublisherExecutor") TaskExecutor executor,
+                                MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CompletableFuture<CorrelationData.Confirm> publish(String exchange, String routingKey, Object payload) {
+        String messageId = UUID.randomUUID().toString();
+        CorrelationData correlation = new CorrelationData(messageId);
+        try {
+            executor.execute(() -> {
+                try {
+                    // Stamped on the publisher thread so time spent queued in the executor is not counted
+                    recordConfirmLag(correlation, System.nanoTime());
+                    rabbitTemplate.convertAndSend(exchange, routingKey, payload, message -> {
+                        // Lets consumers drop redeliveries of the same message
+                        message.getMessageProperties().setMessageId(messageId);
+                        return message;
+                    }, correlation);
+                } catch (Exception e) {
+                    correlation.getFuture().completeExceptionally(e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("Publisher queue full, dropping message for {}/{}", exchange, routingKey);
+            correlation.getFuture().completeExceptionally(e);
+        }
+        return correlation.getFuture();
+    }
+
+    // With correlated confirms the broker's ack or nack completes the CorrelationData future
+    private void recordConfirmLag(CorrelationData correlation, long sentAtNanos) {
+        correlation.getFuture().whenComplete((confirm, error) -> {
+            String result = error != null ? "error" : confirm.isAck() ? "ack" : "nack";
+            if ("nack".equals(result)) {
+                log.warn("Broker nacked message {}: {}", correlation.getId(), confirm.getReason());
+            }
+            Timer.builder("rabbitmq.publish.confirm.lag")
+                    .description("Time between publishing a message and receiving its publisher confirm")
+                    .tag("result", result)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - sentAtNanos, TimeUnit.NANOSECONDS);
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.dentalhelp.auth.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.IOException;
+
+/**
+ * Binary counterpart of {@code Jackson2JsonMessageConverter}: the same Jackson data binding and
+ * type-id headers, but bodies are encoded as CBOR (RFC 8949), which is smaller and cheaper to parse.
+ * The same file lives in appointment-, auth- and notification-service; keep the copies identical
+ * (Jackson2CborMessageConverterCopiesTest checks this).
+ */
+public class Jackson2CborMessageConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE_CBOR = "application/cbor";
+
+    // Packages the __TypeId__ header may name, besides java.util and java.lang which are always trusted.
+    // Anything else is rejected, so a crafted header cannot make Jackson instantiate arbitrary classes
+    static final String[] TRUSTED_PACKAGES = {
+            "com.dentalhelp.appointment.event",
+            "com.dentalhelp.notification.event"
+    };
+
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    public Jackson2CborMessageConverter() {
+        typeMapper.setTrustedPackages(TRUSTED_PACKAGES);
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        byte[] body;
+        try {
+            body = cborMapper.writeValueAsBytes(object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert message content to CBOR", e);
+        }
+        messageProperties.setContentType(CONTENT_TYPE_CBOR);
+        messageProperties.setContentLength(body.length);
+        typeMapper.fromJavaType(cborMapper.constructType(object.getClass()), messageProperties);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        // Listener methods supply the inferred argument type, so producer class names need not match
+        JavaType targetType = typeMapper.toJavaType(message.getMessageProperties());
+        try {
+            return cborMapper.readValue(message.getBody(), targetType);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert CBOR message content", e);
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.dentalhelp.auth.service.impl;
 
+import com.dentalhelp.auth.config.AsyncRabbitPublisher;
 import com.dentalhelp.auth.service.EmailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -24,7 +24,7 @@ import static com.dentalhelp.auth.config.RabbitMQConfig.EMAIL_ROUTING_KEY;
 public class EmailServiceImpl implements EmailService {
 
     private final JavaMailSender mailSender;
-    private final RabbitTemplate rabbitTemplate;
+    private final AsyncRabbitPublisher rabbitPublisher;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
@@ -75,8 +75,15 @@ public class EmailServiceImpl implements EmailService {
                 emailData.put("to", to);
                 emailData.put("subject", subject);
                 emailData.put("body", body);
-                rabbitTemplate.convertAndSend(EMAIL_EXCHANGE, EMAIL_ROUTING_KEY, emailData);
-                log.info("Email queued in RabbitMQ for {}", to);
+                rabbitPublisher.publish(EMAIL_EXCHANGE, EMAIL_ROUTING_KEY, emailData)
+                        .whenComplete((confirm, rabbitEx) -> {
+                            if (rabbitEx != null || !confirm.isAck()) {
+                                log.error("Failed to queue email in RabbitMQ for {}: {}", to,
+                                        rabbitEx != null ? rabbitEx.getMessage() : confirm.getReason());
+                            } else {
+                                log.info("Email queued in RabbitMQ for {}", to);
+                            }
+                        });
             } catch (Exception rabbitEx) {
                 log.error("Failed to queue email in RabbitMQ for {}: {}", to, rabbitEx.getMessage());
                 // Even if both fail, we don't care - code is already logged
@@ -0,0 +1,84 @@
+package com.dentalhelp.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AsyncRabbitPublisherTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testPublish_CompletesWithBrokerConfirm() {
+        AsyncRabbitPublisher publisher = new AsyncRabbitPublisher(rabbitTemplate, new SyncTaskExecutor(), meterRegistry);
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(4);
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq("email.exchange"), eq("email.send"), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        CompletableFuture<CorrelationData.Confirm> result = publisher.publish("email.exchange", "email.send", Map.of("to", "a@b.c"));
+
+        assertTrue(result.join().isAck());
+        assertEquals(1, meterRegistry.get("rabbitmq.publish.confirm.lag").tag("result", "ack").timer().count());
+    }
+
+    @Test
+    void testPublish_ConfirmLagExcludesExecutorQueueTime() throws Exception {
+        Runnable[] queued = new Runnable[1];
+        AsyncRabbitPublisher publisher = new AsyncRabbitPublisher(rabbitTemplate, task -> queued[0] = task, meterRegistry);
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(4);
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        publisher.publish("email.exchange", "email.send", Map.of());
+        Thread.sleep(200);
+        queued[0].run();
+
+        Timer lag = meterRegistry.get("rabbitmq.publish.confirm.lag").timer();
+        assertTrue(lag.totalTime(TimeUnit.MILLISECONDS) < 200);
+    }
+
+    @Test
+    void testPublish_SendFailureCompletesExceptionally() {
+        AsyncRabbitPublisher publisher = new AsyncRabbitPublisher(rabbitTemplate, new SyncTaskExecutor(), meterRegistry);
+        doThrow(new AmqpConnectException(new RuntimeException("connection refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class), any(CorrelationData.class));
+
+        CompletableFuture<CorrelationData.Confirm> result = publisher.publish("email.exchange", "email.send", Map.of());
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void testPublish_RejectedWhenQueueFull() {
+        TaskExecutor fullExecutor = task -> {
+            throw new TaskRejectedException("full");
+        };
+        AsyncRabbitPublisher publisher = new AsyncRabbitPublisher(rabbitTemplate, fullExecutor, meterRegistry);
+
+        CompletableFuture<CorrelationData.Confirm> result = publisher.publish("email.exchange", "email.send", Map.of());
+
+        assertTrue(result.isCompletedExceptionally());
+        verifyNoInteractions(rabbitTemplate);
+    }
+}
@@ -0,0 +1,41 @@
+package com.dentalhelp.dentalrecords.config;
+
+import com.dentalhelp.dentalrecords.service.PatientChart;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PATIENT_CHARTS = "patientCharts";
+
+    @Value("${chart-cache.max-weight:50000}")
+    private long maxWeight;
+
+    @Value("${chart-cache.expire-after-write-minutes:30}")
+    private long expireAfterWriteMinutes;
+
+    // Charts are weighed by their number of interventions and problems, so a few patients with
+    // long histories cannot push out many small charts; the TTL bounds staleness on peers that
+    // missed an invalidation broadcast.
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PATIENT_CHARTS);
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Object key, Object value) ->
+                        value instanceof PatientChart chart ? chart.getEntryCount() + 1 : 1)
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .recordStats());
+        return cacheManager;
+    }
+}
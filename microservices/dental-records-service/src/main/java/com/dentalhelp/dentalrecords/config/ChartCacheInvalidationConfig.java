@@ -0,0 +1,39 @@
+package com.dentalhelp.dentalrecords.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Every instance binds its own exclusive, auto-deleted queue to the fanout exchange, so a chart
+// write on one instance reaches all running peers and nothing piles up for stopped ones.
+@Configuration
+@ConditionalOnProperty(name = "rabbitmq.chart-invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class ChartCacheInvalidationConfig {
+
+    @Value("${rabbitmq.exchange.chart-invalidation:dental-chart.invalidation}")
+    private String chartInvalidationExchange;
+
+    @Bean
+    public FanoutExchange chartInvalidationExchange() {
+        return new FanoutExchange(chartInvalidationExchange);
+    }
+
+    @Bean
+    public Queue chartInvalidationQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(chartInvalidationExchange + "."));
+    }
+
+    @Bean
+    public Binding chartInvalidationBinding() {
+        return BindingBuilder
+                .bind(chartInvalidationQueue())
+                .to(chartInvalidationExchange());
+    }
+}
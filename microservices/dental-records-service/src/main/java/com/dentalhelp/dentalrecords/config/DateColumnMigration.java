@@ -0,0 +1,120 @@
+package com.dentalhelp.dentalrecords.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data migration of the free-form date_intervention / date_problem varchar columns into the
+ * typed intervention_date / problem_date columns. Rows whose typed column is still NULL are
+ * walked in id order in batches and each parsed value is copied; the legacy columns are kept
+ * for instances still on the old version and dropped in a later release. Values that match none
+ * of the known formats stay NULL for manual review. Like ExtractedFlagMigration it finishes
+ * before Tomcat accepts requests, so timeline and chart reads never see dates still sitting in
+ * the legacy columns, and a failure stops the startup.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+public class DateColumnMigration implements SmartInitializingSingleton {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final List<DateTimeFormatter> LEGACY_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("d.M.yyyy"),
+            DateTimeFormatter.ofPattern("d/M/yyyy"),
+            DateTimeFormatter.ofPattern("d-M-yyyy"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    public DateColumnMigration(JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int migrated = migrate("teeth_interventions", "intervention_id", "date_intervention", "intervention_date")
+                + migrate("teeth_problems", "problem_id", "date_problem", "problem_date");
+        if (migrated > 0) {
+            Cache charts = cacheManager.getCache(CacheConfig.PATIENT_CHARTS);
+            if (charts != null) {
+                charts.clear();
+            }
+        }
+    }
+
+    int migrate(String table, String idColumn, String legacyColumn, String dateColumn) {
+        if (!JdbcSchema.hasColumn(jdbcTemplate, table, legacyColumn)) {
+            return 0;
+        }
+        String select = "SELECT " + idColumn + " AS id, " + legacyColumn + " AS legacy FROM " + table
+                + " WHERE " + legacyColumn + " IS NOT NULL AND " + dateColumn + " IS NULL AND " + idColumn
+                + " > ? ORDER BY " + idColumn + " LIMIT " + BATCH_SIZE;
+        String update = "UPDATE " + table + " SET " + dateColumn + " = ? WHERE " + idColumn + " = ? AND "
+                + dateColumn + " IS NULL";
+
+        int migrated = 0;
+        int unparseable = 0;
+        long lastId = Long.MIN_VALUE;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList(select, lastId);
+            List<Object[]> batch = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                LocalDate date = parseLegacyDate((String) row.get("legacy"));
+                if (date == null) {
+                    unparseable++;
+                } else {
+                    batch.add(new Object[]{Date.valueOf(date), lastId});
+                }
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(update, batch);
+                migrated += batch.size();
+            }
+        } while (rows.size() == BATCH_SIZE);
+
+        if (migrated > 0 || unparseable > 0) {
+            log.info("Migrated {} rows from {}.{} to {}; {} values could not be parsed",
+                    migrated, table, legacyColumn, dateColumn, unparseable);
+        }
+        return migrated;
+    }
+
+    static LocalDate parseLegacyDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        // ISO timestamps such as 2024-01-15T10:30:00Z keep only their date part
+        if (trimmed.length() > 10 && trimmed.charAt(10) == 'T') {
+            trimmed = trimmed.substring(0, 10);
+        }
+        for (DateTimeFormatter format : LEGACY_FORMATS) {
+            try {
+                return LocalDate.parse(trimmed, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+}
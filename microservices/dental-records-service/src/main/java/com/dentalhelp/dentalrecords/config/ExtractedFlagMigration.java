@@ -0,0 +1,62 @@
+package com.dentalhelp.dentalrecords.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Data migration for teeth_interventions: copies the legacy is_extracted varchar
+ * ("true"/"false") into the boolean extracted column that ddl-auto adds next to it. The legacy
+ * column is only read, never cleared, so instances still on the old version keep working during
+ * a rolling deploy; ToothIntervention writes both columns, and the column is dropped in a later
+ * release. Only rows whose two columns disagree are updated, which makes reruns idempotent and
+ * picks up rows written by old instances since the last start. It runs once all singletons
+ * exist and before the web server starts, so no request reads a half-migrated table; a failure
+ * stops the startup.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+public class ExtractedFlagMigration implements SmartInitializingSingleton {
+
+    static final String TABLE = "teeth_interventions";
+    static final String LEGACY_COLUMN = "is_extracted";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    public ExtractedFlagMigration(JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    public int migrate() {
+        if (!JdbcSchema.hasColumn(jdbcTemplate, TABLE, LEGACY_COLUMN)) {
+            return 0;
+        }
+        String legacyValue = "CASE WHEN LOWER(" + LEGACY_COLUMN + ") = 'true' THEN TRUE ELSE FALSE END";
+        int migrated = jdbcTemplate.update(
+                "UPDATE " + TABLE + " SET extracted = " + legacyValue +
+                " WHERE " + LEGACY_COLUMN + " IS NOT NULL AND extracted <> " + legacyValue);
+        if (migrated > 0) {
+            log.info("Migrated {} rows from {}.{} to extracted", migrated, TABLE, LEGACY_COLUMN);
+            // Charts read before the migration finished would show every tooth as present
+            Cache charts = cacheManager.getCache(CacheConfig.PATIENT_CHARTS);
+            if (charts != null) {
+                charts.clear();
+            }
+        }
+        return migrated;
+    }
+}
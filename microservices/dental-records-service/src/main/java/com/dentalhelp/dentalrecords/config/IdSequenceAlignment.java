@@ -0,0 +1,66 @@
+package com.dentalhelp.dentalrecords.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Interventions and problems used to get IDENTITY ids, which keeps Hibernate from batching
+ * inserts. They now come from pooled sequences; MySQL has no sequences, so Hibernate emulates
+ * each one with a single-row {@code <name>_seq} table that ddl-auto creates starting at 1.
+ * Before the first insert this moves such a table past the ids already handed out by
+ * AUTO_INCREMENT. It only ever moves the value forward, so instances can run it concurrently.
+ * <p>
+ * Instances still on the IDENTITY version keep inserting through AUTO_INCREMENT. After aligning,
+ * the MySQL AUTO_INCREMENT counter is moved past the block the sequence has just reserved, so a
+ * straggling old instance cannot take one of its ids. That only covers the current block, so the
+ * release that introduces the sequences has to stop every old instance before the new ones
+ * start (scale the deployment to zero, then up) instead of rolling.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+public class IdSequenceAlignment {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignAll() {
+        try {
+            align("teeth_interventions_seq", "teeth_interventions", "intervention_id");
+            align("teeth_problems_seq", "teeth_problems", "problem_id");
+        } catch (RuntimeException e) {
+            log.error("Could not align id sequences with existing rows", e);
+        }
+    }
+
+    // The pooled optimizer hands out (next_val - ALLOCATION_SIZE, next_val], so next_val must
+    // stay above MAX(id) + ALLOCATION_SIZE
+    int align(String sequenceTable, String table, String idColumn) {
+        if (!JdbcSchema.hasTable(jdbcTemplate, sequenceTable)) {
+            return 0;
+        }
+        String floor = "(SELECT COALESCE(MAX(" + idColumn + "), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + table + ")";
+        int updated = jdbcTemplate.update(
+                "UPDATE " + sequenceTable + " SET next_val = " + floor + " WHERE next_val < " + floor);
+        if (updated > 0) {
+            log.info("Moved {} past the existing ids of {}", sequenceTable, table);
+        }
+        if (JdbcSchema.isMySql(jdbcTemplate)) {
+            Long nextVal = jdbcTemplate.queryForObject("SELECT next_val FROM " + sequenceTable, Long.class);
+            // MySQL raises a value below MAX(id) + 1 to that, so this never reuses an inserted id
+            jdbcTemplate.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + (nextVal + ALLOCATION_SIZE));
+        }
+        return updated;
+    }
+}
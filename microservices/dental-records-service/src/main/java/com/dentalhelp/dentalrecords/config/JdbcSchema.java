@@ -0,0 +1,54 @@
+package com.dentalhelp.dentalrecords.config;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Schema lookups shared by the startup migrations. Works on MySQL (lower-case identifiers)
+ * as well as on the H2 test database (upper-case identifiers).
+ */
+final class JdbcSchema {
+
+    private JdbcSchema() {
+    }
+
+    static boolean hasTable(JdbcTemplate jdbcTemplate, String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null,
+                    identifier(metaData, table), new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        }));
+    }
+
+    static boolean hasColumn(JdbcTemplate jdbcTemplate, String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null,
+                    identifier(metaData, table), null)) {
+                while (columns.next()) {
+                    if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    static boolean isMySql(JdbcTemplate jdbcTemplate) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            String product = connection.getMetaData().getDatabaseProductName();
+            return "MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product);
+        }));
+    }
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        return metaData.storesUpperCaseIdentifiers() ? name.toUpperCase() : name;
+    }
+}
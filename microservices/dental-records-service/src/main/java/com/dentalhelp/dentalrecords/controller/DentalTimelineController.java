@@ -0,0 +1,30 @@
+package com.dentalhelp.dentalrecords.controller;
+
+import com.dentalhelp.dentalrecords.dto.ApiResponse;
+import com.dentalhelp.dentalrecords.dto.TimelinePageDto;
+import com.dentalhelp.dentalrecords.service.DentalTimelineService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/in/teeth")
+@RequiredArgsConstructor
+public class DentalTimelineController {
+
+    private final DentalTimelineService dentalTimelineService;
+
+    @GetMapping("/get_patient_timeline/{cnp}")
+    public ResponseEntity<ApiResponse> getPatientTimeline(
+            @PathVariable String cnp,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        TimelinePageDto page = dentalTimelineService.getPatientTimeline(cnp, from, to, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success("Timeline retrieved successfully", page));
+    }
+}
@@ -0,0 +1,39 @@
+package com.dentalhelp.dentalrecords.controller;
+
+import com.dentalhelp.dentalrecords.dto.ApiResponse;
+import com.dentalhelp.dentalrecords.dto.InterventionSearchResultDto;
+import com.dentalhelp.dentalrecords.search.InterventionNotesIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/in/teeth")
+@RequiredArgsConstructor
+public class InterventionSearchController {
+
+    private final InterventionNotesIndex interventionNotesIndex;
+
+    @GetMapping("/search_interventions")
+    public ResponseEntity<ApiResponse> searchInterventions(
+            @RequestParam String q,
+            @RequestParam(required = false) String patientCnp,
+            @RequestParam(required = false) Integer toothNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        InterventionSearchResultDto result =
+                interventionNotesIndex.search(q, patientCnp, toothNumber, from, to, page, size);
+        return ResponseEntity.ok(ApiResponse.success("Intervention search results", result));
+    }
+
+    @PostMapping("/rebuild_intervention_search_index")
+    public ResponseEntity<ApiResponse> rebuildSearchIndex() {
+        int indexed = interventionNotesIndex.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Search index rebuilt", indexed));
+    }
+}
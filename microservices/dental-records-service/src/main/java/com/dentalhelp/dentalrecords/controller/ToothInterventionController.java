@@ -1,6 +1,9 @@
 package com.dentalhelp.dentalrecords.controller;
 
 import com.dentalhelp.dentalrecords.dto.ApiResponse;
+import com.dentalhelp.dentalrecords.dto.ChartChangesDto;
+import com.dentalhelp.dentalrecords.dto.ChartChangesResultDto;
+import com.dentalhelp.dentalrecords.dto.OdontogramDto;
 import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
 import com.dentalhelp.dentalrecords.service.DentalRecordsService;
 import lombok.RequiredArgsConstructor;
@@ -39,12 +42,26 @@ public class ToothInterventionController {
         return ResponseEntity.ok(ApiResponse.success("Extracted teeth retrieved successfully", interventions));
     }
 
+    @GetMapping("/get_patient_odontogram/{cnp}")
+    public ResponseEntity<ApiResponse> getPatientOdontogram(@PathVariable String cnp) {
+        OdontogramDto odontogram = dentalRecordsService.getPatientOdontogram(cnp);
+        return ResponseEntity.ok(ApiResponse.success("Odontogram retrieved successfully", odontogram));
+    }
+
     @PostMapping("/addNewIntervention")
     public ResponseEntity<ApiResponse> addNewIntervention(@RequestBody ToothInterventionDto dto) {
         dentalRecordsService.addNewIntervention(dto);
         return ResponseEntity.ok(ApiResponse.success("New intervention added successfully", null));
     }
 
+    @PostMapping("/applyChartChanges/{cnp}")
+    public ResponseEntity<ApiResponse> applyChartChanges(
+            @PathVariable String cnp,
+            @RequestBody ChartChangesDto changes) {
+        ChartChangesResultDto result = dentalRecordsService.applyChartChanges(cnp, changes);
+        return ResponseEntity.ok(ApiResponse.success("Chart changes applied", result));
+    }
+
     @DeleteMapping("/deleteIntervention/{interventionId}")
     public ResponseEntity<ApiResponse> deleteIntervention(@PathVariable Long interventionId) {
         dentalRecordsService.deleteIntervention(interventionId);
@@ -0,0 +1,28 @@
+package com.dentalhelp.dentalrecords.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of edits to one patient's chart. Interventions and problems without an id are
+ * created, the ones with an id are updated; the id lists name the records to delete.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChartChangesDto {
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<ToothInterventionDto> interventions = new ArrayList<>();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<Long> deletedInterventionIds = new ArrayList<>();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<ToothProblemDto> problems = new ArrayList<>();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<Long> deletedProblemIds = new ArrayList<>();
+}
@@ -0,0 +1,41 @@
+package com.dentalhelp.dentalrecords.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChartChangesResultDto {
+    private int applied;
+    private int failed;
+    private List<ItemResult> items = new ArrayList<>();
+
+    public void add(ItemResult item) {
+        items.add(item);
+        if (item.isSuccess()) {
+            applied++;
+        } else {
+            failed++;
+        }
+    }
+
+    /**
+     * Outcome of one entry; {@code index} is its position in the list it was submitted in.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemResult {
+        private String recordType;
+        private String operation;
+        private int index;
+        private Long id;
+        private boolean success;
+        private String message;
+    }
+}
@@ -0,0 +1,34 @@
+package com.dentalhelp.dentalrecords.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InterventionSearchResultDto {
+    private long totalHits;
+    private int page;
+    private int size;
+    private List<Hit> hits;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Hit {
+        private Long interventionId;
+        private String patientCnp;
+        private int toothNumber;
+        private LocalDate dateIntervention;
+        private boolean extracted;
+        private String interventionDetails;
+        private float score;
+    }
+}
@@ -0,0 +1,19 @@
+package com.dentalhelp.dentalrecords.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Full dental chart of a patient: one entry per FDI tooth position (32 permanent
+ * followed by 20 primary teeth), plus any non-standard tooth numbers found in the records.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OdontogramDto {
+    private String patientCnp;
+    private List<ToothChartEntryDto> teeth;
+}
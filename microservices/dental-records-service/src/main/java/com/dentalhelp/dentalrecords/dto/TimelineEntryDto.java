@@ -0,0 +1,22 @@
+package com.dentalhelp.dentalrecords.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One row of a patient's dental history; {@code isExtracted} is only set for interventions.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimelineEntryDto {
+    private String recordType;
+    private Long id;
+    private int toothNumber;
+    private LocalDate date;
+    private String details;
+    private Boolean isExtracted;
+}
@@ -0,0 +1,19 @@
+package com.dentalhelp.dentalrecords.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of the timeline, newest first. Pass {@code nextCursor} back to read the next page;
+ * it is null on the last one.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimelinePageDto {
+    private List<TimelineEntryDto> entries;
+    private String nextCursor;
+}
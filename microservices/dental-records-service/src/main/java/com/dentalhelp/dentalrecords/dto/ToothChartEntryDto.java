@@ -0,0 +1,22 @@
+package com.dentalhelp.dentalrecords.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ToothChartEntryDto {
+    private int toothNumber;
+    private boolean extracted;
+    private List<ToothInterventionDto> interventions = new ArrayList<>();
+    private List<ToothProblemDto> problems = new ArrayList<>();
+
+    public ToothChartEntryDto(int toothNumber) {
+        this.toothNumber = toothNumber;
+    }
+}
@@ -4,14 +4,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class ToothInterventionDto {
     private Long interventionId;
     private int toothNumber;
-    private String isExtracted;
+    private Boolean isExtracted;
     private String patientCnp;
-    private String dateIntervention;
+    private LocalDate dateIntervention;
     private String interventionDetails;
 }
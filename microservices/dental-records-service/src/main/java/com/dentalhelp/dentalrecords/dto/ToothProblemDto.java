@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -11,6 +13,6 @@ public class ToothProblemDto {
     private Long problemId;
     private int toothNumber;
     private String patientCnp;
-    private String dateProblem;
+    private LocalDate dateProblem;
     private String problemDetails;
 }
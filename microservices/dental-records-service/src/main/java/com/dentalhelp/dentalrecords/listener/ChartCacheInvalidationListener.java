@@ -0,0 +1,32 @@
+package com.dentalhelp.dentalrecords.listener;
+
+import com.dentalhelp.dentalrecords.search.InterventionNotesIndex;
+import com.dentalhelp.dentalrecords.service.ChartCacheInvalidationPublisher;
+import com.dentalhelp.dentalrecords.service.PatientChartCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "rabbitmq.chart-invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class ChartCacheInvalidationListener {
+
+    private final PatientChartCache patientChartCache;
+    private final ChartCacheInvalidationPublisher invalidationPublisher;
+    private final InterventionNotesIndex interventionNotesIndex;
+
+    @RabbitListener(queues = "#{chartInvalidationQueue.name}")
+    public void handleInvalidation(String patientCnp,
+                                   @Header(name = ChartCacheInvalidationPublisher.ORIGIN_HEADER, required = false) String origin) {
+        if (!invalidationPublisher.getInstanceId().equals(origin)) {
+            patientChartCache.evictLocal(patientCnp);
+            // Each instance keeps its own search index; a peer's chart change means our copy is stale too
+            interventionNotesIndex.reindexPatient(patientCnp);
+        }
+    }
+}
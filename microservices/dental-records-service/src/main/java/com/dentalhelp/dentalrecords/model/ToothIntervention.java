@@ -1,23 +1,55 @@
 package com.dentalhelp.dentalrecords.model;
 
+import com.dentalhelp.dentalrecords.config.IdSequenceAlignment;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDate;
+
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @Entity
 @Builder
-@Table(name = "teeth_interventions")
+@Table(name = "teeth_interventions", indexes = {
+    @Index(name = "idx_intervention_cnp_tooth", columnList = "patientCnp, toothNumber"),
+    @Index(name = "idx_intervention_cnp_date", columnList = "patientCnp, intervention_date")
+})
 public class ToothIntervention {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tooth_intervention_seq")
+    @SequenceGenerator(name = "tooth_intervention_seq", sequenceName = "teeth_interventions_seq",
+            allocationSize = IdSequenceAlignment.ALLOCATION_SIZE)
     private Long interventionId;
 
     private int toothNumber;
-    private String isExtracted;
+    // Replaces the legacy is_extracted varchar column, see ExtractedFlagMigration
+    @Column(nullable = false)
+    private boolean extracted;
     private String patientCnp;
-    private String dateIntervention;
+    // Replaces the legacy free-form date_intervention varchar column, see DateColumnMigration
+    @Column(name = "intervention_date")
+    private LocalDate dateIntervention;
     private String interventionDetails;
+
+    // Written alongside extracted and dateIntervention until the legacy columns are dropped, so
+    // instances still on the old version read current values and the migrations never copy a
+    // stale one back
+    @Column(name = "is_extracted")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String legacyExtracted;
+
+    @Column(name = "date_intervention")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String legacyDateIntervention;
+
+    @PrePersist
+    @PreUpdate
+    void writeLegacyColumns() {
+        legacyExtracted = String.valueOf(extracted);
+        legacyDateIntervention = dateIntervention != null ? dateIntervention.toString() : null;
+    }
 }
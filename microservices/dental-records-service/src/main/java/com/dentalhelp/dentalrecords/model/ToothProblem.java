@@ -1,22 +1,44 @@
 package com.dentalhelp.dentalrecords.model;
 
+import com.dentalhelp.dentalrecords.config.IdSequenceAlignment;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDate;
+
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @Entity
 @Builder
-@Table(name = "teeth_problems")
+@Table(name = "teeth_problems", indexes = {
+    @Index(name = "idx_problem_cnp_tooth", columnList = "patientCnp, toothNumber"),
+    @Index(name = "idx_problem_cnp_date", columnList = "patientCnp, problem_date")
+})
 public class ToothProblem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tooth_problem_seq")
+    @SequenceGenerator(name = "tooth_problem_seq", sequenceName = "teeth_problems_seq",
+            allocationSize = IdSequenceAlignment.ALLOCATION_SIZE)
     private Long problemId;
 
     private int toothNumber;
     private String patientCnp;
-    private String dateProblem;
+    // Replaces the legacy free-form date_problem varchar column, see DateColumnMigration
+    @Column(name = "problem_date")
+    private LocalDate dateProblem;
     private String problemDetails;
+
+    // Written alongside dateProblem until the legacy column is dropped, see ToothIntervention
+    @Column(name = "date_problem")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String legacyDateProblem;
+
+    @PrePersist
+    @PreUpdate
+    void writeLegacyColumns() {
+        legacyDateProblem = dateProblem != null ? dateProblem.toString() : null;
+    }
 }
@@ -1,9 +1,14 @@
 package com.dentalhelp.dentalrecords.repository;
 
+import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
 import com.dentalhelp.dentalrecords.model.ToothIntervention;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +16,25 @@ import java.util.Optional;
 public interface ToothInterventionRepository extends JpaRepository<ToothIntervention, Long> {
     List<ToothIntervention> findByPatientCnpAndToothNumber(String patientCnp, int toothNumber);
     List<ToothIntervention> findByPatientCnp(String patientCnp);
-    List<ToothIntervention> findByPatientCnpAndIsExtracted(String patientCnp, String isExtracted);
+    List<ToothIntervention> findByPatientCnpAndExtracted(String patientCnp, boolean extracted);
     Optional<ToothIntervention> findByInterventionId(Long interventionId);
     void deleteByPatientCnpAndToothNumber(String patientCnp, int toothNumber);
+
+    @Query("SELECT new com.dentalhelp.dentalrecords.dto.ToothInterventionDto(" +
+           "i.interventionId, i.toothNumber, i.extracted, i.patientCnp, i.dateIntervention, i.interventionDetails) " +
+           "FROM ToothIntervention i WHERE i.patientCnp = :patientCnp")
+    List<ToothInterventionDto> findDtosByPatientCnp(@Param("patientCnp") String patientCnp);
+
+    // Keyset page over the (patientCnp, intervention_date) index, newest first
+    @Query("SELECT new com.dentalhelp.dentalrecords.dto.ToothInterventionDto(" +
+           "i.interventionId, i.toothNumber, i.extracted, i.patientCnp, i.dateIntervention, i.interventionDetails) " +
+           "FROM ToothIntervention i WHERE i.patientCnp = :patientCnp AND i.dateIntervention >= :from " +
+           "AND (i.dateIntervention < :beforeDate " +
+           "OR (i.dateIntervention = :beforeDate AND i.interventionId < :beforeId)) " +
+           "ORDER BY i.dateIntervention DESC, i.interventionId DESC")
+    List<ToothInterventionDto> findTimelinePage(@Param("patientCnp") String patientCnp,
+                                                @Param("from") LocalDate from,
+                                                @Param("beforeDate") LocalDate beforeDate,
+                                                @Param("beforeId") Long beforeId,
+                                                Pageable pageable);
 }
@@ -1,9 +1,14 @@
 package com.dentalhelp.dentalrecords.repository;
 
+import com.dentalhelp.dentalrecords.dto.ToothProblemDto;
 import com.dentalhelp.dentalrecords.model.ToothProblem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,22 @@ public interface ToothProblemRepository extends JpaRepository<ToothProblem, Long
     List<ToothProblem> findByPatientCnpAndToothNumber(String patientCnp, int toothNumber);
     List<ToothProblem> findByPatientCnp(String patientCnp);
     Optional<ToothProblem> findByProblemId(Long problemId);
+
+    @Query("SELECT new com.dentalhelp.dentalrecords.dto.ToothProblemDto(" +
+           "p.problemId, p.toothNumber, p.patientCnp, p.dateProblem, p.problemDetails) " +
+           "FROM ToothProblem p WHERE p.patientCnp = :patientCnp")
+    List<ToothProblemDto> findDtosByPatientCnp(@Param("patientCnp") String patientCnp);
+
+    // Keyset page over the (patientCnp, problem_date) index, newest first
+    @Query("SELECT new com.dentalhelp.dentalrecords.dto.ToothProblemDto(" +
+           "p.problemId, p.toothNumber, p.patientCnp, p.dateProblem, p.problemDetails) " +
+           "FROM ToothProblem p WHERE p.patientCnp = :patientCnp AND p.dateProblem >= :from " +
+           "AND (p.dateProblem < :beforeDate " +
+           "OR (p.dateProblem = :beforeDate AND p.problemId < :beforeId)) " +
+           "ORDER BY p.dateProblem DESC, p.problemId DESC")
+    List<ToothProblemDto> findTimelinePage(@Param("patientCnp") String patientCnp,
+                                           @Param("from") LocalDate from,
+                                           @Param("beforeDate") LocalDate beforeDate,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
 }
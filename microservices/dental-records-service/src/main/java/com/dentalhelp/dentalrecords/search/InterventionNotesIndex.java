@@ -0,0 +1,366 @@
+package com.dentalhelp.dentalrecords.search;
+
+import com.dentalhelp.dentalrecords.dto.InterventionSearchResultDto;
+import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
+import com.dentalhelp.dentalrecords.exception.BadRequestException;
+import com.dentalhelp.dentalrecords.model.ToothIntervention;
+import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process Lucene index over tooth intervention notes. Maintenance is per patient: after a
+ * write commits, that patient's documents are replaced from one DTO query, which is also what
+ * peers do when they receive the chart invalidation for the CNP. A full rebuild loads the database
+ * into a staging directory without holding the write lock, then swaps it in under the lock and
+ * replays the patients replaced meanwhile, so incremental writes never wait on the reload.
+ * The index directory is in memory unless intervention-search.index-path is set.
+ */
+@Slf4j
+@Component
+public class InterventionNotesIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private static final String INTERVENTION_ID = "interventionId";
+    private static final String PATIENT_CNP = "patientCnp";
+    private static final String TOOTH_NUMBER = "toothNumber";
+    private static final String DATE = "dateIntervention";
+    private static final String EXTRACTED = "extracted";
+    private static final String DETAILS = "interventionDetails";
+
+    private final ToothInterventionRepository toothInterventionRepository;
+    private final String indexPath;
+    private final Analyzer analyzer = new InterventionNotesAnalyzer();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private Directory directory;
+    // Latest documents per patient replaced while a rebuild is staging; guarded by writeLock
+    private Map<String, List<Document>> updatesDuringRebuild;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+
+    public InterventionNotesIndex(ToothInterventionRepository toothInterventionRepository,
+                                  @Value("${intervention-search.index-path:}") String indexPath) {
+        this.toothInterventionRepository = toothInterventionRepository;
+        this.indexPath = indexPath;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        directory = indexPath == null || indexPath.isBlank()
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Path.of(indexPath));
+        openWriter();
+    }
+
+    private void openWriter() throws IOException {
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    // Incremental Maintenance
+
+    /**
+     * Re-reads the patient's interventions once the current transaction (if any) has committed.
+     * Failures are logged rather than thrown because the database write already succeeded;
+     * the next rebuild repairs the gap.
+     */
+    public void reindexPatient(String patientCnp) {
+        if (patientCnp == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    replacePatient(patientCnp);
+                }
+            });
+        } else {
+            replacePatient(patientCnp);
+        }
+    }
+
+    private void replacePatient(String patientCnp) {
+        writeLock.lock();
+        try {
+            List<Document> documents = new ArrayList<>();
+            for (ToothInterventionDto dto : toothInterventionRepository.findDtosByPatientCnp(patientCnp)) {
+                documents.add(toDocument(dto.getInterventionId(), dto.getPatientCnp(), dto.getToothNumber(),
+                        dto.getDateIntervention(), Boolean.TRUE.equals(dto.getIsExtracted()), dto.getInterventionDetails()));
+            }
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.put(patientCnp, documents);
+            }
+            apply(patientCnp, documents);
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException | RuntimeException e) {
+            log.error("Reindexing intervention notes for patient {} failed", patientCnp, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with the current database content. Searches keep seeing the
+     * previous snapshot until the rebuild has committed.
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try (Directory staging = new ByteBuffersDirectory()) {
+            recordUpdatesDuringRebuild(true);
+            int indexed = buildInto(staging);
+            swapIn(staging);
+            return indexed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Rebuilding the intervention notes index failed", e);
+        } finally {
+            recordUpdatesDuringRebuild(false);
+            rebuildLock.unlock();
+        }
+    }
+
+    private void recordUpdatesDuringRebuild(boolean enabled) {
+        writeLock.lock();
+        try {
+            updatesDuringRebuild = enabled ? new LinkedHashMap<>() : null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int buildInto(Directory staging) throws IOException {
+        try (IndexWriter stagingWriter = new IndexWriter(staging, new IndexWriterConfig(analyzer))) {
+            int indexed = 0;
+
+            Page<ToothIntervention> interventions;
+            int page = 0;
+            do {
+                interventions = toothInterventionRepository.findAll(
+                        PageRequest.of(page++, REBUILD_PAGE_SIZE, Sort.by("interventionId")));
+                for (ToothIntervention intervention : interventions) {
+                    stagingWriter.addDocument(toDocument(intervention.getInterventionId(), intervention.getPatientCnp(),
+                            intervention.getToothNumber(), intervention.getDateIntervention(),
+                            intervention.isExtracted(), intervention.getInterventionDetails()));
+                    indexed++;
+                }
+            } while (interventions.hasNext());
+
+            return indexed;
+        }
+    }
+
+    // Only the segment copy and the replay run under the write lock, not the database reload
+    private void swapIn(Directory staging) throws IOException {
+        writeLock.lock();
+        try {
+            writer.deleteAll();
+            writer.addIndexes(staging);
+            for (Map.Entry<String, List<Document>> update : updatesDuringRebuild.entrySet()) {
+                apply(update.getKey(), update.getValue());
+            }
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException | RuntimeException e) {
+            rollbackQuietly();
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Deletes the patient's old documents and adds the new ones as one atomic block
+    private void apply(String patientCnp, List<Document> documents) throws IOException {
+        writer.updateDocuments(new Term(PATIENT_CNP, patientCnp), documents);
+    }
+
+    // Search
+
+    public InterventionSearchResultDto search(String text, String patientCnp, Integer toothNumber,
+                                              LocalDate from, LocalDate to, int page, int size) {
+        if (text == null || text.isBlank()) {
+            throw new BadRequestException("Search text is required");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((long) (page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new BadRequestException("Results beyond the first " + MAX_RESULT_WINDOW + " hits are not available, refine the search");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+
+        Query query = buildQuery(text, patientCnp, toothNumber, from, to);
+        SearcherManager manager;
+        IndexSearcher searcher;
+        while (true) {
+            manager = searcherManager;
+            try {
+                searcher = manager.acquire();
+                break;
+            } catch (AlreadyClosedException e) {
+                // A failed rebuild replaced the manager after we read it; retry on the new one
+                if (manager == searcherManager) {
+                    throw e;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        try {
+            TopDocs top = searcher.search(query, (page + 1) * size);
+            StoredFields storedFields = searcher.storedFields();
+
+            List<InterventionSearchResultDto.Hit> hits = new ArrayList<>();
+            ScoreDoc[] scoreDocs = top.scoreDocs;
+            for (int i = page * size; i < scoreDocs.length; i++) {
+                hits.add(toHit(storedFields.document(scoreDocs[i].doc), scoreDocs[i].score));
+            }
+
+            return InterventionSearchResultDto.builder()
+                    .totalHits(searcher.count(query))
+                    .page(page)
+                    .size(size)
+                    .hits(hits)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                manager.release(searcher);
+            } catch (IOException e) {
+                log.warn("Releasing intervention notes searcher failed", e);
+            }
+        }
+    }
+
+    private Query buildQuery(String text, String patientCnp, Integer toothNumber, LocalDate from, LocalDate to) {
+        QueryParser parser = new QueryParser(DETAILS, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        try {
+            query.add(parser.parse(QueryParser.escape(text.trim())), BooleanClause.Occur.MUST);
+        } catch (ParseException e) {
+            throw new BadRequestException("Search text could not be parsed");
+        }
+
+        if (patientCnp != null && !patientCnp.isBlank()) {
+            query.add(new TermQuery(new Term(PATIENT_CNP, patientCnp)), BooleanClause.Occur.FILTER);
+        }
+        if (toothNumber != null) {
+            query.add(IntPoint.newExactQuery(TOOTH_NUMBER, toothNumber), BooleanClause.Occur.FILTER);
+        }
+        if (from != null || to != null) {
+            query.add(LongPoint.newRangeQuery(DATE,
+                    from != null ? from.toEpochDay() : Long.MIN_VALUE,
+                    to != null ? to.toEpochDay() : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private InterventionSearchResultDto.Hit toHit(Document document, float score) {
+        IndexableField date = document.getField(DATE);
+        return InterventionSearchResultDto.Hit.builder()
+                .interventionId(document.getField(INTERVENTION_ID).numericValue().longValue())
+                .patientCnp(document.get(PATIENT_CNP))
+                .toothNumber(document.getField(TOOTH_NUMBER).numericValue().intValue())
+                .dateIntervention(date != null ? LocalDate.ofEpochDay(date.numericValue().longValue()) : null)
+                .extracted(Boolean.parseBoolean(document.get(EXTRACTED)))
+                .interventionDetails(document.get(DETAILS))
+                .score(score)
+                .build();
+    }
+
+    private static Document toDocument(Long interventionId, String patientCnp, int toothNumber,
+                                       LocalDate dateIntervention, boolean extracted, String interventionDetails) {
+        Document document = new Document();
+        document.add(new StoredField(INTERVENTION_ID, interventionId));
+        if (patientCnp != null) {
+            document.add(new StringField(PATIENT_CNP, patientCnp, Field.Store.YES));
+        }
+        document.add(new IntPoint(TOOTH_NUMBER, toothNumber));
+        document.add(new StoredField(TOOTH_NUMBER, toothNumber));
+        if (dateIntervention != null) {
+            document.add(new LongPoint(DATE, dateIntervention.toEpochDay()));
+            document.add(new StoredField(DATE, dateIntervention.toEpochDay()));
+        }
+        document.add(new StoredField(EXTRACTED, String.valueOf(extracted)));
+        if (interventionDetails != null && !interventionDetails.isBlank()) {
+            document.add(new TextField(DETAILS, interventionDetails, Field.Store.YES));
+        }
+        return document;
+    }
+
+    private void rollbackQuietly() {
+        SearcherManager previous = searcherManager;
+        try {
+            // IndexWriter.rollback closes the writer, so reopen it on the same directory. The old
+            // manager is closed only after the new one is published; searches that still acquire
+            // from it retry, and searchers already handed out stay usable until released
+            writer.rollback();
+            openWriter();
+            previous.close();
+        } catch (IOException e) {
+            log.error("Reopening the intervention notes index after a failed rebuild failed", e);
+        }
+    }
+}
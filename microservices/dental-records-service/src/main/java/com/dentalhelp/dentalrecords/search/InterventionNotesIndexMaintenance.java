@@ -0,0 +1,35 @@
+package com.dentalhelp.dentalrecords.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the index once on startup. A persisted index stays searchable meanwhile, and the
+ * rebuild picks up any chart changes this instance missed while it was down.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "intervention-search.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class InterventionNotesIndexMaintenance {
+
+    private final InterventionNotesIndex interventionNotesIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            long start = System.nanoTime();
+            int indexed = interventionNotesIndex.rebuild();
+            log.info("Rebuilt intervention notes index: {} interventions in {} ms",
+                    indexed, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Rebuilding intervention notes index failed", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.dentalhelp.dentalrecords.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts evicted CNPs to the other instances. The message body is just the CNP; the origin
+ * header lets an instance ignore its own broadcasts.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rabbitmq.chart-invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class ChartCacheInvalidationPublisher {
+
+    public static final String ORIGIN_HEADER = "x-origin-instance";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final RabbitTemplate rabbitTemplate;
+    private final String exchange;
+
+    // A dedicated template without the shared retry policy: a broker outage must not hold up
+    // the write request, and peers fall back to the cache TTL.
+    public ChartCacheInvalidationPublisher(ConnectionFactory connectionFactory,
+                                           @Value("${rabbitmq.exchange.chart-invalidation:dental-chart.invalidation}") String exchange) {
+        this.rabbitTemplate = new RabbitTemplate(connectionFactory);
+        this.exchange = exchange;
+    }
+
+    public void publish(String patientCnp) {
+        try {
+            rabbitTemplate.convertAndSend(exchange, "", patientCnp, message -> {
+                message.getMessageProperties().setHeader(ORIGIN_HEADER, instanceId);
+                return message;
+            });
+        } catch (AmqpException e) {
+            log.warn("Could not broadcast chart invalidation: {}", e.getMessage());
+        }
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
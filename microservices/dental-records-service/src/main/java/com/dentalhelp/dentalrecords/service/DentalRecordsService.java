@@ -1,5 +1,10 @@
 package com.dentalhelp.dentalrecords.service;
 
+import com.dentalhelp.dentalrecords.dto.ChartChangesDto;
+import com.dentalhelp.dentalrecords.dto.ChartChangesResultDto;
+import com.dentalhelp.dentalrecords.dto.ChartChangesResultDto.ItemResult;
+import com.dentalhelp.dentalrecords.dto.OdontogramDto;
+import com.dentalhelp.dentalrecords.dto.ToothChartEntryDto;
 import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
 import com.dentalhelp.dentalrecords.dto.ToothProblemDto;
 import com.dentalhelp.dentalrecords.exception.BadRequestException;
@@ -8,13 +13,18 @@ import com.dentalhelp.dentalrecords.model.ToothIntervention;
 import com.dentalhelp.dentalrecords.model.ToothProblem;
 import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
 import com.dentalhelp.dentalrecords.repository.ToothProblemRepository;
+import com.dentalhelp.dentalrecords.search.InterventionNotesIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
@@ -22,62 +32,63 @@ public class DentalRecordsService {
 
     private final ToothInterventionRepository toothInterventionRepository;
     private final ToothProblemRepository toothProblemRepository;
+    private final PatientChartCache patientChartCache;
+    private final InterventionNotesIndex interventionNotesIndex;
+
+    /**
+     * FDI tooth positions in chart order: permanent quadrants 1-4 (8 teeth each),
+     * then primary quadrants 5-8 (5 teeth each).
+     */
+    static final int[] FDI_TOOTH_NUMBERS = buildFdiToothNumbers();
+
+    static final int MAX_CHART_CHANGES = 500;
+
+    private static final String INTERVENTION = "INTERVENTION";
+    private static final String PROBLEM = "PROBLEM";
+    private static final String CREATED = "CREATED";
+    private static final String UPDATED = "UPDATED";
+    private static final String DELETED = "DELETED";
+
+    private static int[] buildFdiToothNumbers() {
+        int[] numbers = new int[52];
+        int i = 0;
+        for (int quadrant = 1; quadrant <= 8; quadrant++) {
+            int teethInQuadrant = quadrant <= 4 ? 8 : 5;
+            for (int tooth = 1; tooth <= teethInQuadrant; tooth++) {
+                numbers[i++] = quadrant * 10 + tooth;
+            }
+        }
+        return numbers;
+    }
 
     // Tooth Intervention Operations
 
     public List<ToothInterventionDto> getAllPatientToothIntervention(String patientCnp, int toothNumber) {
-        List<ToothIntervention> interventions = toothInterventionRepository
-                .findByPatientCnpAndToothNumber(patientCnp, toothNumber);
-
         List<ToothInterventionDto> dtos = new ArrayList<>();
-        for (ToothIntervention intervention : interventions) {
-            if (!"true".equals(intervention.getIsExtracted())) {
-                ToothInterventionDto dto = new ToothInterventionDto();
-                dto.setInterventionId(intervention.getInterventionId());
-                dto.setDateIntervention(intervention.getDateIntervention());
-                dto.setToothNumber(intervention.getToothNumber());
-                dto.setInterventionDetails(intervention.getInterventionDetails());
-                dto.setPatientCnp(patientCnp);
-                dto.setIsExtracted(intervention.getIsExtracted());
-                dtos.add(dto);
+        for (ToothInterventionDto intervention : patientChartCache.getChart(patientCnp).getInterventions()) {
+            if (intervention.getToothNumber() == toothNumber && !Boolean.TRUE.equals(intervention.getIsExtracted())) {
+                dtos.add(intervention);
             }
         }
         return dtos;
     }
 
     public List<ToothInterventionDto> getAllPatientToothInterventions(String patientCnp) {
-        List<ToothIntervention> interventions = toothInterventionRepository.findByPatientCnp(patientCnp);
-
         List<ToothInterventionDto> dtos = new ArrayList<>();
-        for (ToothIntervention intervention : interventions) {
-            if (!"true".equals(intervention.getIsExtracted())) {
-                ToothInterventionDto dto = new ToothInterventionDto();
-                dto.setInterventionId(intervention.getInterventionId());
-                dto.setDateIntervention(intervention.getDateIntervention());
-                dto.setToothNumber(intervention.getToothNumber());
-                dto.setInterventionDetails(intervention.getInterventionDetails());
-                dto.setPatientCnp(patientCnp);
-                dto.setIsExtracted(intervention.getIsExtracted());
-                dtos.add(dto);
+        for (ToothInterventionDto intervention : patientChartCache.getChart(patientCnp).getInterventions()) {
+            if (!Boolean.TRUE.equals(intervention.getIsExtracted())) {
+                dtos.add(intervention);
             }
         }
         return dtos;
     }
 
     public List<ToothInterventionDto> getPatientAllExtractedTooth(String patientCnp) {
-        List<ToothIntervention> interventions = toothInterventionRepository
-                .findByPatientCnpAndIsExtracted(patientCnp, "true");
-
         List<ToothInterventionDto> dtos = new ArrayList<>();
-        for (ToothIntervention intervention : interventions) {
-            ToothInterventionDto dto = new ToothInterventionDto();
-            dto.setInterventionId(intervention.getInterventionId());
-            dto.setDateIntervention(intervention.getDateIntervention());
-            dto.setToothNumber(intervention.getToothNumber());
-            dto.setInterventionDetails(intervention.getInterventionDetails());
-            dto.setPatientCnp(patientCnp);
-            dto.setIsExtracted(intervention.getIsExtracted());
-            dtos.add(dto);
+        for (ToothInterventionDto intervention : patientChartCache.getChart(patientCnp).getInterventions()) {
+            if (Boolean.TRUE.equals(intervention.getIsExtracted())) {
+                dtos.add(intervention);
+            }
         }
         return dtos;
     }
@@ -87,11 +98,13 @@ public class DentalRecordsService {
                 .dateIntervention(dto.getDateIntervention())
                 .toothNumber(dto.getToothNumber())
                 .interventionDetails(dto.getInterventionDetails())
-                .isExtracted(dto.getIsExtracted())
+                .extracted(Boolean.TRUE.equals(dto.getIsExtracted()))
                 .patientCnp(dto.getPatientCnp())
                 .build();
 
         toothInterventionRepository.save(intervention);
+        patientChartCache.evict(dto.getPatientCnp());
+        interventionNotesIndex.reindexPatient(dto.getPatientCnp());
     }
 
     @Transactional
@@ -100,6 +113,8 @@ public class DentalRecordsService {
                 .orElseThrow(() -> new ResourceNotFoundException("Intervention not found with id: " + interventionId));
 
         toothInterventionRepository.delete(intervention);
+        patientChartCache.evict(intervention.getPatientCnp());
+        interventionNotesIndex.reindexPatient(intervention.getPatientCnp());
     }
 
     @Transactional
@@ -110,51 +125,222 @@ public class DentalRecordsService {
         intervention.setDateIntervention(dto.getDateIntervention());
         intervention.setToothNumber(dto.getToothNumber());
         intervention.setInterventionDetails(dto.getInterventionDetails());
-        intervention.setIsExtracted(dto.getIsExtracted());
+        intervention.setExtracted(Boolean.TRUE.equals(dto.getIsExtracted()));
 
         toothInterventionRepository.save(intervention);
+        patientChartCache.evict(intervention.getPatientCnp());
+        interventionNotesIndex.reindexPatient(intervention.getPatientCnp());
     }
 
     @Transactional
     public void deleteTeethExtraction(String cnp, int toothNumber) {
         toothInterventionRepository.deleteByPatientCnpAndToothNumber(cnp, toothNumber);
+        patientChartCache.evict(cnp);
+        interventionNotesIndex.reindexPatient(cnp);
     }
 
-    // Tooth Problem Operations
+    // Chart Batch Operations
 
-    public List<ToothProblemDto> getPatientToothProblems(String patientCnp, int toothNumber) {
-        List<ToothProblem> problems = toothProblemRepository
-                .findByPatientCnpAndToothNumber(patientCnp, toothNumber);
+    /**
+     * Applies a whole chart diff in one transaction. Referenced records are loaded with one
+     * IN query per table and new ones take pooled sequence ids, so Hibernate can send the
+     * inserts, updates and deletes as JDBC batches. Entries that do not resolve to a record
+     * of this patient are reported as failed and skipped; the rest are still applied.
+     */
+    @Transactional
+    public ChartChangesResultDto applyChartChanges(String patientCnp, ChartChangesDto changes) {
+        int total = changes.getInterventions().size() + changes.getDeletedInterventionIds().size()
+                + changes.getProblems().size() + changes.getDeletedProblemIds().size();
+        if (total == 0) {
+            throw new BadRequestException("No chart changes submitted");
+        }
+        if (total > MAX_CHART_CHANGES) {
+            throw new BadRequestException("At most " + MAX_CHART_CHANGES + " chart changes can be applied at once");
+        }
 
-        List<ToothProblemDto> dtos = new ArrayList<>();
-        for (ToothProblem problem : problems) {
-            ToothProblemDto dto = new ToothProblemDto();
-            dto.setProblemId(problem.getProblemId());
-            dto.setToothNumber(problem.getToothNumber());
-            dto.setPatientCnp(patientCnp);
-            dto.setDateProblem(problem.getDateProblem());
-            dto.setProblemDetails(problem.getProblemDetails());
-            dtos.add(dto);
+        ChartChangesResultDto result = new ChartChangesResultDto();
+        applyInterventionChanges(patientCnp, changes, result);
+        applyProblemChanges(patientCnp, changes, result);
+        patientChartCache.evict(patientCnp);
+        interventionNotesIndex.reindexPatient(patientCnp);
+        return result;
+    }
+
+    private void applyInterventionChanges(String patientCnp, ChartChangesDto changes, ChartChangesResultDto result) {
+        List<Long> ids = new ArrayList<>(changes.getDeletedInterventionIds());
+        for (ToothInterventionDto dto : changes.getInterventions()) {
+            if (dto.getInterventionId() != null) {
+                ids.add(dto.getInterventionId());
+            }
         }
-        return dtos;
+        Map<Long, ToothIntervention> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (ToothIntervention intervention : toothInterventionRepository.findAllById(ids)) {
+                if (patientCnp.equals(intervention.getPatientCnp())) {
+                    existing.put(intervention.getInterventionId(), intervention);
+                }
+            }
+        }
+
+        List<ToothInterventionDto> upserts = changes.getInterventions();
+        for (int i = 0; i < upserts.size(); i++) {
+            ToothInterventionDto dto = upserts.get(i);
+            if (dto.getInterventionId() == null) {
+                ToothIntervention saved = toothInterventionRepository.save(ToothIntervention.builder()
+                        .dateIntervention(dto.getDateIntervention())
+                        .toothNumber(dto.getToothNumber())
+                        .interventionDetails(dto.getInterventionDetails())
+                        .extracted(Boolean.TRUE.equals(dto.getIsExtracted()))
+                        .patientCnp(patientCnp)
+                        .build());
+                result.add(new ItemResult(INTERVENTION, CREATED, i, saved.getInterventionId(), true, null));
+                continue;
+            }
+            ToothIntervention intervention = existing.get(dto.getInterventionId());
+            if (intervention == null) {
+                result.add(notFound(INTERVENTION, UPDATED, i, dto.getInterventionId()));
+                continue;
+            }
+            // Managed entity: the change is flushed with the rest of the batch on commit
+            intervention.setDateIntervention(dto.getDateIntervention());
+            intervention.setToothNumber(dto.getToothNumber());
+            intervention.setInterventionDetails(dto.getInterventionDetails());
+            intervention.setExtracted(Boolean.TRUE.equals(dto.getIsExtracted()));
+            result.add(new ItemResult(INTERVENTION, UPDATED, i, intervention.getInterventionId(), true, null));
+        }
+
+        List<ToothIntervention> toDelete = new ArrayList<>();
+        List<Long> deletedIds = changes.getDeletedInterventionIds();
+        for (int i = 0; i < deletedIds.size(); i++) {
+            ToothIntervention intervention = existing.remove(deletedIds.get(i));
+            if (intervention == null) {
+                result.add(notFound(INTERVENTION, DELETED, i, deletedIds.get(i)));
+                continue;
+            }
+            toDelete.add(intervention);
+            result.add(new ItemResult(INTERVENTION, DELETED, i, intervention.getInterventionId(), true, null));
+        }
+        toothInterventionRepository.deleteAll(toDelete);
     }
 
-    public List<ToothProblemDto> getPatientAllToothProblems(String patientCnp) {
-        List<ToothProblem> problems = toothProblemRepository.findByPatientCnp(patientCnp);
+    private void applyProblemChanges(String patientCnp, ChartChangesDto changes, ChartChangesResultDto result) {
+        List<Long> ids = new ArrayList<>(changes.getDeletedProblemIds());
+        for (ToothProblemDto dto : changes.getProblems()) {
+            if (dto.getProblemId() != null) {
+                ids.add(dto.getProblemId());
+            }
+        }
+        Map<Long, ToothProblem> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (ToothProblem problem : toothProblemRepository.findAllById(ids)) {
+                if (patientCnp.equals(problem.getPatientCnp())) {
+                    existing.put(problem.getProblemId(), problem);
+                }
+            }
+        }
+
+        List<ToothProblemDto> upserts = changes.getProblems();
+        for (int i = 0; i < upserts.size(); i++) {
+            ToothProblemDto dto = upserts.get(i);
+            if (dto.getProblemId() == null) {
+                ToothProblem saved = toothProblemRepository.save(ToothProblem.builder()
+                        .toothNumber(dto.getToothNumber())
+                        .patientCnp(patientCnp)
+                        .dateProblem(dto.getDateProblem())
+                        .problemDetails(dto.getProblemDetails())
+                        .build());
+                result.add(new ItemResult(PROBLEM, CREATED, i, saved.getProblemId(), true, null));
+                continue;
+            }
+            ToothProblem problem = existing.get(dto.getProblemId());
+            if (problem == null) {
+                result.add(notFound(PROBLEM, UPDATED, i, dto.getProblemId()));
+                continue;
+            }
+            problem.setToothNumber(dto.getToothNumber());
+            problem.setDateProblem(dto.getDateProblem());
+            problem.setProblemDetails(dto.getProblemDetails());
+            result.add(new ItemResult(PROBLEM, UPDATED, i, problem.getProblemId(), true, null));
+        }
+
+        List<ToothProblem> toDelete = new ArrayList<>();
+        List<Long> deletedIds = changes.getDeletedProblemIds();
+        for (int i = 0; i < deletedIds.size(); i++) {
+            ToothProblem problem = existing.remove(deletedIds.get(i));
+            if (problem == null) {
+                result.add(notFound(PROBLEM, DELETED, i, deletedIds.get(i)));
+                continue;
+            }
+            toDelete.add(problem);
+            result.add(new ItemResult(PROBLEM, DELETED, i, problem.getProblemId(), true, null));
+        }
+        toothProblemRepository.deleteAll(toDelete);
+    }
+
+    private ItemResult notFound(String recordType, String operation, int index, Long id) {
+        String label = INTERVENTION.equals(recordType) ? "Intervention" : "Problem";
+        return new ItemResult(recordType, operation, index, id, false,
+                label + " not found for this patient with id: " + id);
+    }
+
+    // Odontogram
+
+    /**
+     * Lays the cached chart out over the FDI positions. On a miss the chart is loaded with
+     * one query for interventions and one for problems, both served by the
+     * (patientCnp, toothNumber) indexes. Every FDI position is present even when empty;
+     * unknown tooth numbers are appended in ascending order.
+     */
+    public OdontogramDto getPatientOdontogram(String patientCnp) {
+        Map<Integer, ToothChartEntryDto> slots = new LinkedHashMap<>();
+        for (int toothNumber : FDI_TOOTH_NUMBERS) {
+            slots.put(toothNumber, new ToothChartEntryDto(toothNumber));
+        }
+        Map<Integer, ToothChartEntryDto> otherTeeth = new TreeMap<>();
+        PatientChart chart = patientChartCache.getChart(patientCnp);
 
+        for (ToothInterventionDto intervention : chart.getInterventions()) {
+            ToothChartEntryDto entry = chartEntry(slots, otherTeeth, intervention.getToothNumber());
+            if (Boolean.TRUE.equals(intervention.getIsExtracted())) {
+                entry.setExtracted(true);
+            } else {
+                entry.getInterventions().add(intervention);
+            }
+        }
+
+        for (ToothProblemDto problem : chart.getProblems()) {
+            chartEntry(slots, otherTeeth, problem.getToothNumber()).getProblems().add(problem);
+        }
+
+        List<ToothChartEntryDto> teeth = new ArrayList<>(slots.size() + otherTeeth.size());
+        teeth.addAll(slots.values());
+        teeth.addAll(otherTeeth.values());
+        return new OdontogramDto(patientCnp, teeth);
+    }
+
+    private ToothChartEntryDto chartEntry(Map<Integer, ToothChartEntryDto> slots,
+                                          Map<Integer, ToothChartEntryDto> otherTeeth,
+                                          int toothNumber) {
+        ToothChartEntryDto entry = slots.get(toothNumber);
+        return entry != null ? entry : otherTeeth.computeIfAbsent(toothNumber, ToothChartEntryDto::new);
+    }
+
+    // Tooth Problem Operations
+
+    public List<ToothProblemDto> getPatientToothProblems(String patientCnp, int toothNumber) {
         List<ToothProblemDto> dtos = new ArrayList<>();
-        for (ToothProblem problem : problems) {
-            ToothProblemDto dto = new ToothProblemDto();
-            dto.setProblemId(problem.getProblemId());
-            dto.setToothNumber(problem.getToothNumber());
-            dto.setPatientCnp(patientCnp);
-            dto.setDateProblem(problem.getDateProblem());
-            dto.setProblemDetails(problem.getProblemDetails());
-            dtos.add(dto);
+        for (ToothProblemDto problem : patientChartCache.getChart(patientCnp).getProblems()) {
+            if (problem.getToothNumber() == toothNumber) {
+                dtos.add(problem);
+            }
         }
         return dtos;
     }
 
+    public List<ToothProblemDto> getPatientAllToothProblems(String patientCnp) {
+        return new ArrayList<>(patientChartCache.getChart(patientCnp).getProblems());
+    }
+
     public void addNewProblem(ToothProblemDto dto) {
         ToothProblem problem = ToothProblem.builder()
                 .toothNumber(dto.getToothNumber())
@@ -164,6 +350,7 @@ public class DentalRecordsService {
                 .build();
 
         toothProblemRepository.save(problem);
+        patientChartCache.evict(dto.getPatientCnp());
     }
 
     @Transactional
@@ -172,6 +359,7 @@ public class DentalRecordsService {
                 .orElseThrow(() -> new ResourceNotFoundException("Problem not found with id: " + problemId));
 
         toothProblemRepository.delete(problem);
+        patientChartCache.evict(problem.getPatientCnp());
     }
 
     @Transactional
@@ -184,5 +372,6 @@ public class DentalRecordsService {
         problem.setProblemDetails(dto.getProblemDetails());
 
         toothProblemRepository.save(problem);
+        patientChartCache.evict(problem.getPatientCnp());
     }
 }
@@ -0,0 +1,120 @@
+package com.dentalhelp.dentalrecords.service;
+
+import com.dentalhelp.dentalrecords.dto.TimelineEntryDto;
+import com.dentalhelp.dentalrecords.dto.TimelinePageDto;
+import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
+import com.dentalhelp.dentalrecords.dto.ToothProblemDto;
+import com.dentalhelp.dentalrecords.exception.BadRequestException;
+import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
+import com.dentalhelp.dentalrecords.repository.ToothProblemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merged, newest-first history of a patient's interventions and problems. Each page reads at
+ * most limit + 1 rows per table through a keyset range on the (patientCnp, date) indexes and
+ * merges the two sorted streams, so the cost of a page does not grow with the patient's history.
+ * Entries are ordered by date, then interventions before problems, then by descending id;
+ * records without a date are not part of the timeline.
+ */
+@Service
+@RequiredArgsConstructor
+public class DentalTimelineService {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+    static final LocalDate EARLIEST_DATE = LocalDate.of(1900, 1, 1);
+    static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final String INTERVENTION = "INTERVENTION";
+    private static final String PROBLEM = "PROBLEM";
+
+    private final ToothInterventionRepository toothInterventionRepository;
+    private final ToothProblemRepository toothProblemRepository;
+
+    public TimelinePageDto getPatientTimeline(String patientCnp, LocalDate from, LocalDate to,
+                                              String cursor, Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_LIMIT;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        LocalDate lower = from != null ? from : EARLIEST_DATE;
+        LocalDate beforeDate = to != null ? to : LATEST_DATE;
+        if (lower.isAfter(beforeDate)) {
+            throw new BadRequestException("from must not be after to");
+        }
+
+        // Long.MAX_VALUE keeps every row on beforeDate, Long.MIN_VALUE skips them all
+        long interventionBeforeId = Long.MAX_VALUE;
+        long problemBeforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            TimelineEntryDto last = decodeCursor(cursor);
+            if (!last.getDate().isAfter(beforeDate)) {
+                beforeDate = last.getDate();
+                if (INTERVENTION.equals(last.getRecordType())) {
+                    interventionBeforeId = last.getId();
+                } else {
+                    interventionBeforeId = Long.MIN_VALUE;
+                    problemBeforeId = last.getId();
+                }
+            }
+        }
+
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<ToothInterventionDto> interventions = toothInterventionRepository
+                .findTimelinePage(patientCnp, lower, beforeDate, interventionBeforeId, window);
+        List<ToothProblemDto> problems = toothProblemRepository
+                .findTimelinePage(patientCnp, lower, beforeDate, problemBeforeId, window);
+
+        List<TimelineEntryDto> entries = new ArrayList<>(pageSize);
+        int i = 0;
+        int p = 0;
+        while (entries.size() < pageSize && (i < interventions.size() || p < problems.size())) {
+            boolean takeIntervention = p >= problems.size()
+                    || (i < interventions.size()
+                        && !interventions.get(i).getDateIntervention().isBefore(problems.get(p).getDateProblem()));
+            if (takeIntervention) {
+                ToothInterventionDto intervention = interventions.get(i++);
+                entries.add(new TimelineEntryDto(INTERVENTION, intervention.getInterventionId(),
+                        intervention.getToothNumber(), intervention.getDateIntervention(),
+                        intervention.getInterventionDetails(), intervention.getIsExtracted()));
+            } else {
+                ToothProblemDto problem = problems.get(p++);
+                entries.add(new TimelineEntryDto(PROBLEM, problem.getProblemId(), problem.getToothNumber(),
+                        problem.getDateProblem(), problem.getProblemDetails(), null));
+            }
+        }
+
+        boolean hasMore = interventions.size() + problems.size() > entries.size();
+        String nextCursor = hasMore ? encodeCursor(entries.get(entries.size() - 1)) : null;
+        return new TimelinePageDto(entries, nextCursor);
+    }
+
+    // Cursor format: <date>_<I|P>_<id>, e.g. 2024-01-15_I_123
+    static String encodeCursor(TimelineEntryDto entry) {
+        return entry.getDate() + "_" + entry.getRecordType().charAt(0) + "_" + entry.getId();
+    }
+
+    static TimelineEntryDto decodeCursor(String cursor) {
+        String[] parts = cursor.split("_");
+        if (parts.length != 3 || !("I".equals(parts[1]) || "P".equals(parts[1]))) {
+            throw new BadRequestException("Invalid timeline cursor: " + cursor);
+        }
+        try {
+            TimelineEntryDto entry = new TimelineEntryDto();
+            entry.setDate(LocalDate.parse(parts[0]));
+            entry.setRecordType("I".equals(parts[1]) ? INTERVENTION : PROBLEM);
+            entry.setId(Long.parseLong(parts[2]));
+            return entry;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new BadRequestException("Invalid timeline cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.dentalhelp.dentalrecords.service;
+
+import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
+import com.dentalhelp.dentalrecords.dto.ToothProblemDto;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Cached snapshot of everything recorded on one patient's teeth. Instances are shared
+ * between readers, so the lists are unmodifiable and the DTOs must not be changed.
+ */
+@Getter
+public class PatientChart {
+    private final List<ToothInterventionDto> interventions;
+    private final List<ToothProblemDto> problems;
+
+    public PatientChart(List<ToothInterventionDto> interventions, List<ToothProblemDto> problems) {
+        this.interventions = List.copyOf(interventions);
+        this.problems = List.copyOf(problems);
+    }
+
+    public int getEntryCount() {
+        return interventions.size() + problems.size();
+    }
+}
@@ -0,0 +1,77 @@
+package com.dentalhelp.dentalrecords.service;
+
+import com.dentalhelp.dentalrecords.config.CacheConfig;
+import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
+import com.dentalhelp.dentalrecords.repository.ToothProblemRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-CNP cache of patient charts. A miss loads the chart with one intervention query and one
+ * problem query; every write path evicts the affected CNP once its transaction has committed
+ * and tells the other instances to do the same.
+ */
+@Component
+public class PatientChartCache {
+
+    private final Cache cache;
+    private final ToothInterventionRepository toothInterventionRepository;
+    private final ToothProblemRepository toothProblemRepository;
+    private final ObjectProvider<ChartCacheInvalidationPublisher> invalidationPublisher;
+
+    public PatientChartCache(CacheManager cacheManager,
+                             ToothInterventionRepository toothInterventionRepository,
+                             ToothProblemRepository toothProblemRepository,
+                             ObjectProvider<ChartCacheInvalidationPublisher> invalidationPublisher) {
+        this.cache = cacheManager.getCache(CacheConfig.PATIENT_CHARTS);
+        this.toothInterventionRepository = toothInterventionRepository;
+        this.toothProblemRepository = toothProblemRepository;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    public PatientChart getChart(String patientCnp) {
+        return cache.get(patientCnp, () -> load(patientCnp));
+    }
+
+    /**
+     * Evicts after commit so a concurrent reader cannot re-cache the pre-write state; Caffeine
+     * serialises the eviction behind any load already in flight for the same CNP.
+     */
+    public void evict(String patientCnp) {
+        if (patientCnp == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndBroadcast(patientCnp);
+                }
+            });
+        } else {
+            evictAndBroadcast(patientCnp);
+        }
+    }
+
+    /**
+     * Drops the entry on this instance only; used for invalidations received from peers.
+     */
+    public void evictLocal(String patientCnp) {
+        cache.evict(patientCnp);
+    }
+
+    private void evictAndBroadcast(String patientCnp) {
+        cache.evict(patientCnp);
+        invalidationPublisher.ifAvailable(publisher -> publisher.publish(patientCnp));
+    }
+
+    private PatientChart load(String patientCnp) {
+        return new PatientChart(
+                toothInterventionRepository.findDtosByPatientCnp(patientCnp),
+                toothProblemRepository.findDtosByPatientCnp(patientCnp));
+    }
+}
@@ -0,0 +1,105 @@
+package com.dentalhelp.dentalrecords.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DateColumnMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DateColumnMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration = new DateColumnMigration(jdbcTemplate, new CaffeineCacheManager(CacheConfig.PATIENT_CHARTS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM teeth_problems");
+    }
+
+    @Test
+    void testMigrate_ParsesKnownFormatsAndKeepsTheRest() {
+        insertLegacyRow(1L, "2024-01-15");
+        insertLegacyRow(2L, "15.02.2024");
+        insertLegacyRow(3L, "2024-03-01T09:30:00.000Z");
+        insertLegacyRow(4L, "last spring");
+
+        int migrated = migration.migrate("teeth_problems", "problem_id", "date_problem", "problem_date");
+
+        assertEquals(3, migrated);
+        assertEquals(LocalDate.parse("2024-02-15"), problemDate(2L));
+        assertEquals(LocalDate.parse("2024-03-01"), problemDate(3L));
+        assertNull(problemDate(4L));
+        // Legacy values stay in place for instances still on the old version
+        assertEquals("15.02.2024", jdbcTemplate.queryForObject(
+                "SELECT date_problem FROM teeth_problems WHERE problem_id = 2", String.class));
+        assertEquals("last spring", jdbcTemplate.queryForObject(
+                "SELECT date_problem FROM teeth_problems WHERE problem_id = 4", String.class));
+        assertEquals(0, migration.migrate("teeth_problems", "problem_id", "date_problem", "problem_date"));
+    }
+
+    @Test
+    void testMigrate_WalksAllBatches() {
+        for (long id = 1; id <= DateColumnMigration.BATCH_SIZE + 3; id++) {
+            insertLegacyRow(id, "2024-01-01");
+        }
+
+        assertEquals(DateColumnMigration.BATCH_SIZE + 3,
+                migration.migrate("teeth_problems", "problem_id", "date_problem", "problem_date"));
+    }
+
+    @Test
+    void testMigrate_DoesNotOverwriteTypedDates() {
+        insertLegacyRow(1L, "2024-01-15");
+        jdbcTemplate.update("UPDATE teeth_problems SET problem_date = ? WHERE problem_id = 1", LocalDate.parse("2024-06-01"));
+
+        assertEquals(0, migration.migrate("teeth_problems", "problem_id", "date_problem", "problem_date"));
+        assertEquals(LocalDate.parse("2024-06-01"), problemDate(1L));
+    }
+
+    @Test
+    void testMigrate_NoLegacyColumn_DoesNothing() {
+        jdbcTemplate.execute("ALTER TABLE teeth_interventions DROP COLUMN date_intervention");
+        try {
+            assertEquals(0, migration.migrate("teeth_interventions", "intervention_id", "date_intervention", "intervention_date"));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE teeth_interventions ADD COLUMN date_intervention VARCHAR(255)");
+        }
+    }
+
+    @Test
+    void testParseLegacyDate() {
+        assertEquals(LocalDate.parse("2024-05-07"), DateColumnMigration.parseLegacyDate(" 7/5/2024 "));
+        assertEquals(LocalDate.parse("2024-05-07"), DateColumnMigration.parseLegacyDate("07-05-2024"));
+        assertNull(DateColumnMigration.parseLegacyDate(""));
+        assertNull(DateColumnMigration.parseLegacyDate("2024-13-01"));
+    }
+
+    private void insertLegacyRow(long id, String legacyDate) {
+        jdbcTemplate.update("INSERT INTO teeth_problems (problem_id, tooth_number, patient_cnp, date_problem) " +
+                "VALUES (?, 11, '1234567890123', ?)", id, legacyDate);
+    }
+
+    private LocalDate problemDate(long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT problem_date FROM teeth_problems WHERE problem_id = ?", LocalDate.class, id);
+    }
+}
@@ -0,0 +1,115 @@
+package com.dentalhelp.dentalrecords.config;
+
+import com.dentalhelp.dentalrecords.model.ToothIntervention;
+import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExtractedFlagMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ToothInterventionRepository toothInterventionRepository;
+
+    private CaffeineCacheManager cacheManager;
+    private ExtractedFlagMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager(CacheConfig.PATIENT_CHARTS);
+        migration = new ExtractedFlagMigration(jdbcTemplate, cacheManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        toothInterventionRepository.deleteAll();
+    }
+
+    @Test
+    void testMigrate_NoLegacyColumn_DoesNothing() {
+        jdbcTemplate.execute("ALTER TABLE teeth_interventions DROP COLUMN is_extracted");
+        try {
+            assertEquals(0, migration.migrate());
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE teeth_interventions ADD COLUMN is_extracted VARCHAR(255)");
+        }
+    }
+
+    @Test
+    void testMigrate_CopiesLegacyValuesAndKeepsThem() {
+        // Arrange
+        insertLegacyRow(1L, 18, "true");
+        insertLegacyRow(2L, 17, "false");
+        insertLegacyRow(3L, 16, "TRUE");
+        cacheManager.getCache(CacheConfig.PATIENT_CHARTS).put("1234567890123", "stale");
+
+        // Act
+        int migrated = migration.migrate();
+
+        // Assert: the "false" row already agreed with the default and needs no update
+        assertEquals(2, migrated);
+        assertEquals(2, toothInterventionRepository.findByPatientCnpAndExtracted("1234567890123", true).size());
+        assertEquals(1, toothInterventionRepository.findByPatientCnpAndExtracted("1234567890123", false).size());
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM teeth_interventions WHERE is_extracted IS NOT NULL", Integer.class));
+        assertNull(cacheManager.getCache(CacheConfig.PATIENT_CHARTS).get("1234567890123"));
+
+        // A second run finds nothing left to migrate
+        assertEquals(0, migration.migrate());
+    }
+
+    @Test
+    void testMigrate_PicksUpLegacyWritesFromOldInstances() {
+        // Arrange
+        insertLegacyRow(1L, 18, "false");
+        migration.migrate();
+        // An instance still on the old version extracts the tooth through the legacy column only
+        jdbcTemplate.update("UPDATE teeth_interventions SET is_extracted = 'true' WHERE intervention_id = 1");
+
+        // Act
+        int migrated = migration.migrate();
+
+        // Assert
+        assertEquals(1, migrated);
+        assertEquals(1, toothInterventionRepository.findByPatientCnpAndExtracted("1234567890123", true).size());
+    }
+
+    @Test
+    void testMigrate_DoesNotOverwriteRowsWrittenAfterMigration() {
+        // Arrange
+        ToothIntervention intervention = toothInterventionRepository.save(ToothIntervention.builder()
+                .patientCnp("1234567890123")
+                .toothNumber(21)
+                .extracted(false)
+                .build());
+        intervention.setExtracted(true);
+        toothInterventionRepository.save(intervention);
+
+        // Act
+        int migrated = migration.migrate();
+
+        // Assert
+        assertEquals(0, migrated);
+        assertEquals(1, toothInterventionRepository.findByPatientCnpAndExtracted("1234567890123", true).size());
+    }
+
+    private void insertLegacyRow(long id, int toothNumber, String isExtracted) {
+        jdbcTemplate.update("INSERT INTO teeth_interventions (intervention_id, tooth_number, patient_cnp, extracted, is_extracted) " +
+                "VALUES (?, ?, ?, FALSE, ?)", id, toothNumber, "1234567890123", isExtracted);
+    }
+}
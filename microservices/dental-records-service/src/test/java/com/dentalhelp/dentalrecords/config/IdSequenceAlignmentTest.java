@@ -0,0 +1,69 @@
+package com.dentalhelp.dentalrecords.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// H2 has native sequences, so the MySQL-style emulation table is created by hand here
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdSequenceAlignmentTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private IdSequenceAlignment alignment;
+
+    @BeforeEach
+    void setUp() {
+        alignment = new IdSequenceAlignment(jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE legacy_records (record_id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE legacy_records_seq (next_val BIGINT)");
+        jdbcTemplate.update("INSERT INTO legacy_records_seq VALUES (1)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE legacy_records");
+        jdbcTemplate.execute("DROP TABLE legacy_records_seq");
+    }
+
+    @Test
+    void testAlign_MovesSequencePastExistingIds() {
+        jdbcTemplate.update("INSERT INTO legacy_records VALUES (240)");
+
+        assertEquals(1, alignment.align("legacy_records_seq", "legacy_records", "record_id"));
+
+        long nextVal = nextVal();
+        assertEquals(240 + IdSequenceAlignment.ALLOCATION_SIZE + 1, nextVal);
+        // The first pooled block starts above every existing id
+        assertTrue(nextVal - IdSequenceAlignment.ALLOCATION_SIZE + 1 > 240);
+    }
+
+    @Test
+    void testAlign_NeverMovesSequenceBackwards() {
+        jdbcTemplate.update("INSERT INTO legacy_records VALUES (10)");
+        jdbcTemplate.update("UPDATE legacy_records_seq SET next_val = 5000");
+
+        assertEquals(0, alignment.align("legacy_records_seq", "legacy_records", "record_id"));
+        assertEquals(5000, nextVal());
+    }
+
+    @Test
+    void testAlign_SkipsNativeSequences() {
+        assertEquals(0, alignment.align("teeth_interventions_seq", "teeth_interventions", "intervention_id"));
+    }
+
+    private long nextVal() {
+        return jdbcTemplate.queryForObject("SELECT next_val FROM legacy_records_seq", Long.class);
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
@@ -39,8 +40,8 @@ class ToothInterventionControllerTest {
         interventionDto.setPatientCnp("1234567890123");
         interventionDto.setToothNumber(5);
         interventionDto.setInterventionDetails("Composite filling");
-        interventionDto.setDateIntervention("2024-12-01");
-        interventionDto.setIsExtracted("false");
+        interventionDto.setDateIntervention(LocalDate.parse("2024-12-01"));
+        interventionDto.setIsExtracted(false);
     }
 
     @Test
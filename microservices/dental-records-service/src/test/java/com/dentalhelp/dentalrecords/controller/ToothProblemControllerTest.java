@@ -11,6 +11,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
@@ -39,7 +40,7 @@ class ToothProblemControllerTest {
         toothProblemDto.setPatientCnp("1234567890123");
         toothProblemDto.setToothNumber(5);
         toothProblemDto.setProblemDetails("Cavity detected");
-        toothProblemDto.setDateProblem("2024-12-01");
+        toothProblemDto.setDateProblem(LocalDate.parse("2024-12-01"));
     }
 
     @Test
@@ -1,5 +1,6 @@
 package com.dentalhelp.dentalrecords.repository;
 
+import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
 import com.dentalhelp.dentalrecords.model.ToothIntervention;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,8 +33,8 @@ class ToothInterventionRepositoryTest {
         testIntervention.setPatientCnp("1234567890123");
         testIntervention.setToothNumber(5);
         testIntervention.setInterventionDetails("Composite filling");
-        testIntervention.setDateIntervention("2024-12-01");
-        testIntervention.setIsExtracted("false");
+        testIntervention.setDateIntervention(LocalDate.parse("2024-12-01"));
+        testIntervention.setExtracted(false);
     }
 
     @Test
@@ -70,8 +72,8 @@ class ToothInterventionRepositoryTest {
         another.setPatientCnp("1234567890123");
         another.setToothNumber(10);
         another.setInterventionDetails("Root canal treatment");
-        another.setDateIntervention("2024-12-02");
-        another.setIsExtracted("false");
+        another.setDateIntervention(LocalDate.parse("2024-12-02"));
+        another.setExtracted(false);
         entityManager.persistAndFlush(another);
 
         // Act
@@ -83,9 +85,9 @@ class ToothInterventionRepositoryTest {
     }
 
     @Test
-    void testFindByPatientCnpAndIsExtracted() {
+    void testFindByPatientCnpAndExtracted() {
         // Arrange
-        testIntervention.setIsExtracted("true");
+        testIntervention.setExtracted(true);
         testIntervention.setInterventionDetails("EXTRACTION");
         entityManager.persistAndFlush(testIntervention);
 
@@ -93,16 +95,33 @@ class ToothInterventionRepositoryTest {
         nonExtracted.setPatientCnp("1234567890123");
         nonExtracted.setToothNumber(10);
         nonExtracted.setInterventionDetails("Filling");
-        nonExtracted.setDateIntervention("2024-12-03");
-        nonExtracted.setIsExtracted("false");
+        nonExtracted.setDateIntervention(LocalDate.parse("2024-12-03"));
+        nonExtracted.setExtracted(false);
         entityManager.persistAndFlush(nonExtracted);
 
         // Act
-        List<ToothIntervention> extracted = toothInterventionRepository.findByPatientCnpAndIsExtracted("1234567890123", "true");
+        List<ToothIntervention> extracted = toothInterventionRepository.findByPatientCnpAndExtracted("1234567890123", true);
 
         // Assert
         assertEquals(1, extracted.size());
-        assertEquals("true", extracted.get(0).getIsExtracted());
+        assertTrue(extracted.get(0).isExtracted());
+    }
+
+    @Test
+    void testFindDtosByPatientCnp() {
+        // Arrange
+        testIntervention.setExtracted(true);
+        entityManager.persistAndFlush(testIntervention);
+
+        // Act
+        List<ToothInterventionDto> dtos = toothInterventionRepository.findDtosByPatientCnp("1234567890123");
+
+        // Assert
+        assertEquals(1, dtos.size());
+        assertEquals(testIntervention.getInterventionId(), dtos.get(0).getInterventionId());
+        assertEquals(5, dtos.get(0).getToothNumber());
+        assertTrue(dtos.get(0).getIsExtracted());
+        assertEquals("Composite filling", dtos.get(0).getInterventionDetails());
     }
 
     @Test
@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,7 +32,7 @@ class ToothProblemRepositoryTest {
         testProblem.setPatientCnp("1234567890123");
         testProblem.setToothNumber(5);
         testProblem.setProblemDetails("Cavity");
-        testProblem.setDateProblem("2024-12-01");
+        testProblem.setDateProblem(LocalDate.parse("2024-12-01"));
     }
 
     @Test
@@ -69,7 +70,7 @@ class ToothProblemRepositoryTest {
         anotherProblem.setPatientCnp("1234567890123");
         anotherProblem.setToothNumber(10);
         anotherProblem.setProblemDetails("Crack");
-        anotherProblem.setDateProblem("2024-12-02");
+        anotherProblem.setDateProblem(LocalDate.parse("2024-12-02"));
         entityManager.persistAndFlush(anotherProblem);
 
         // Act
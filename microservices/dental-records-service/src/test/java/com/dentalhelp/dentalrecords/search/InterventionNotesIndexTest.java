@@ -0,0 +1,139 @@
+package com.dentalhelp.dentalrecords.search;
+
+import com.dentalhelp.dentalrecords.dto.InterventionSearchResultDto;
+import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
+import com.dentalhelp.dentalrecords.exception.BadRequestException;
+import com.dentalhelp.dentalrecords.model.ToothIntervention;
+import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(InterventionNotesIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InterventionNotesIndexTest {
+
+    private static final String CNP = "1234567890123";
+    private static final String OTHER_CNP = "2987654321098";
+
+    @Autowired
+    private InterventionNotesIndex interventionNotesIndex;
+
+    @Autowired
+    private ToothInterventionRepository toothInterventionRepository;
+
+    @AfterEach
+    void tearDown() {
+        toothInterventionRepository.deleteAll();
+        interventionNotesIndex.rebuild();
+    }
+
+    @Test
+    void testRebuild_SearchesDetailsWithFilters() {
+        save(CNP, 36, LocalDate.of(2025, 2, 10), "Root canal, prescribed amoxicilină");
+        save(CNP, 46, LocalDate.of(2024, 5, 2), "Filling, prescribed amoxicillin");
+        save(OTHER_CNP, 36, LocalDate.of(2025, 3, 1), "Scaling and polishing");
+
+        assertEquals(3, interventionNotesIndex.rebuild());
+
+        InterventionSearchResultDto folded = interventionNotesIndex.search("amoxicilina", null, null, null, null, 0, 20);
+        assertEquals(1, folded.getTotalHits());
+        assertEquals(36, folded.getHits().get(0).getToothNumber());
+        assertEquals(LocalDate.of(2025, 2, 10), folded.getHits().get(0).getDateIntervention());
+
+        assertEquals(2, interventionNotesIndex.search("prescribed", CNP, null, null, null, 0, 20).getTotalHits());
+        assertEquals(1, interventionNotesIndex.search("prescribed", CNP, 46, null, null, 0, 20).getTotalHits());
+        assertEquals(1, interventionNotesIndex.search("prescribed", null, null,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), 0, 20).getTotalHits());
+        assertEquals(0, interventionNotesIndex.search("prescribed", OTHER_CNP, null, null, null, 0, 20).getTotalHits());
+    }
+
+    @Test
+    void testReindexPatient_ReplacesOnlyThatPatientsDocuments() {
+        ToothIntervention intervention = save(CNP, 11, LocalDate.of(2025, 1, 5), "Composite veneer");
+        save(OTHER_CNP, 21, LocalDate.of(2025, 1, 6), "Composite filling");
+        interventionNotesIndex.rebuild();
+
+        intervention.setInterventionDetails("Ceramic crown");
+        toothInterventionRepository.save(intervention);
+        interventionNotesIndex.reindexPatient(CNP);
+
+        InterventionSearchResultDto composite = interventionNotesIndex.search("composite", null, null, null, null, 0, 20);
+        assertEquals(1, composite.getTotalHits());
+        assertEquals(OTHER_CNP, composite.getHits().get(0).getPatientCnp());
+        assertEquals(1, interventionNotesIndex.search("crown", CNP, null, null, null, 0, 20).getTotalHits());
+
+        toothInterventionRepository.delete(intervention);
+        interventionNotesIndex.reindexPatient(CNP);
+        assertEquals(0, interventionNotesIndex.search("crown", null, null, null, null, 0, 20).getTotalHits());
+    }
+
+    @Test
+    void testRebuild_DoesNotBlockReindexAndKeepsIt() throws Exception {
+        ToothInterventionRepository repository = mock(ToothInterventionRepository.class);
+        InterventionNotesIndex index = new InterventionNotesIndex(repository, "");
+        index.open();
+        ToothIntervention loaded = ToothIntervention.builder()
+                .interventionId(1L).patientCnp(CNP).toothNumber(11).interventionDetails("Composite veneer").build();
+        when(repository.findDtosByPatientCnp(OTHER_CNP)).thenReturn(List.of(
+                new ToothInterventionDto(2L, 21, false, OTHER_CNP, null, "Ceramic crown")));
+        when(repository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            // A reindex from another thread completes while the reload is still running
+            CompletableFuture.runAsync(() -> index.reindexPatient(OTHER_CNP)).get(5, TimeUnit.SECONDS);
+            return new PageImpl<>(List.of(loaded));
+        });
+
+        try {
+            assertEquals(1, index.rebuild());
+            assertEquals(1, index.search("veneer", null, null, null, null, 0, 20).getTotalHits());
+            assertEquals(1, index.search("crown", OTHER_CNP, null, null, null, 0, 20).getTotalHits());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    void testSearch_PagesAndRejectsInvalidRequests() {
+        for (int tooth = 11; tooth <= 15; tooth++) {
+            save(CNP, tooth, LocalDate.of(2025, 1, tooth), "Sealant applied");
+        }
+        interventionNotesIndex.rebuild();
+
+        InterventionSearchResultDto lastPage = interventionNotesIndex.search("sealant", CNP, null, null, null, 2, 2);
+        assertEquals(5, lastPage.getTotalHits());
+        assertEquals(1, lastPage.getHits().size());
+
+        assertThrows(BadRequestException.class, () ->
+                interventionNotesIndex.search("", null, null, null, null, 0, 20));
+        assertThrows(BadRequestException.class, () ->
+                interventionNotesIndex.search("sealant", null, null, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), 0, 20));
+    }
+
+    private ToothIntervention save(String cnp, int toothNumber, LocalDate date, String details) {
+        return toothInterventionRepository.save(ToothIntervention.builder()
+                .patientCnp(cnp)
+                .toothNumber(toothNumber)
+                .dateIntervention(date)
+                .interventionDetails(details)
+                .build());
+    }
+}
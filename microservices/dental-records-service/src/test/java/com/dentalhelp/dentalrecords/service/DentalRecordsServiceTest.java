@@ -1,25 +1,37 @@
 package com.dentalhelp.dentalrecords.service;
 
+import com.dentalhelp.dentalrecords.config.CacheConfig;
+import com.dentalhelp.dentalrecords.dto.ChartChangesDto;
+import com.dentalhelp.dentalrecords.dto.ChartChangesResultDto;
+import com.dentalhelp.dentalrecords.dto.OdontogramDto;
+import com.dentalhelp.dentalrecords.dto.ToothChartEntryDto;
 import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
 import com.dentalhelp.dentalrecords.dto.ToothProblemDto;
+import com.dentalhelp.dentalrecords.exception.BadRequestException;
 import com.dentalhelp.dentalrecords.exception.ResourceNotFoundException;
 import com.dentalhelp.dentalrecords.model.ToothIntervention;
 import com.dentalhelp.dentalrecords.model.ToothProblem;
 import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
 import com.dentalhelp.dentalrecords.repository.ToothProblemRepository;
+import com.dentalhelp.dentalrecords.search.InterventionNotesIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,7 +43,12 @@ class DentalRecordsServiceTest {
     @Mock
     private ToothProblemRepository toothProblemRepository;
 
-    @InjectMocks
+    @Mock
+    private ObjectProvider<ChartCacheInvalidationPublisher> invalidationPublisher;
+
+    @Mock
+    private InterventionNotesIndex interventionNotesIndex;
+
     private DentalRecordsService dentalRecordsService;
 
     private ToothIntervention testIntervention;
@@ -43,28 +60,34 @@ class DentalRecordsServiceTest {
 
     @BeforeEach
     void setUp() {
+        PatientChartCache patientChartCache = new PatientChartCache(
+                new CaffeineCacheManager(CacheConfig.PATIENT_CHARTS),
+                toothInterventionRepository, toothProblemRepository, invalidationPublisher);
+        dentalRecordsService = new DentalRecordsService(
+                toothInterventionRepository, toothProblemRepository, patientChartCache, interventionNotesIndex);
+
         testIntervention = ToothIntervention.builder()
                 .interventionId(1L)
                 .patientCnp(patientCnp)
                 .toothNumber(toothNumber)
-                .dateIntervention("2024-01-15")
+                .dateIntervention(LocalDate.parse("2024-01-15"))
                 .interventionDetails("Root canal")
-                .isExtracted("false")
+                .extracted(false)
                 .build();
 
         testInterventionDto = new ToothInterventionDto();
         testInterventionDto.setInterventionId(1L);
         testInterventionDto.setPatientCnp(patientCnp);
         testInterventionDto.setToothNumber(toothNumber);
-        testInterventionDto.setDateIntervention("2024-01-15");
+        testInterventionDto.setDateIntervention(LocalDate.parse("2024-01-15"));
         testInterventionDto.setInterventionDetails("Root canal");
-        testInterventionDto.setIsExtracted("false");
+        testInterventionDto.setIsExtracted(false);
 
         testProblem = ToothProblem.builder()
                 .problemId(1L)
                 .patientCnp(patientCnp)
                 .toothNumber(toothNumber)
-                .dateProblem("2024-01-10")
+                .dateProblem(LocalDate.parse("2024-01-10"))
                 .problemDetails("Cavity detected")
                 .build();
 
@@ -72,7 +95,7 @@ class DentalRecordsServiceTest {
         testProblemDto.setProblemId(1L);
         testProblemDto.setPatientCnp(patientCnp);
         testProblemDto.setToothNumber(toothNumber);
-        testProblemDto.setDateProblem("2024-01-10");
+        testProblemDto.setDateProblem(LocalDate.parse("2024-01-10"));
         testProblemDto.setProblemDetails("Cavity detected");
     }
 
@@ -81,8 +104,8 @@ class DentalRecordsServiceTest {
     @Test
     void testGetAllPatientToothIntervention_Success() {
         // Arrange
-        when(toothInterventionRepository.findByPatientCnpAndToothNumber(patientCnp, toothNumber))
-                .thenReturn(Arrays.asList(testIntervention));
+        when(toothInterventionRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(interventionDtos(testIntervention));
 
         // Act
         List<ToothInterventionDto> result = dentalRecordsService.getAllPatientToothIntervention(patientCnp, toothNumber);
@@ -92,7 +115,7 @@ class DentalRecordsServiceTest {
         assertEquals(1, result.size());
         assertEquals(testIntervention.getInterventionId(), result.get(0).getInterventionId());
         assertEquals(testIntervention.getInterventionDetails(), result.get(0).getInterventionDetails());
-        verify(toothInterventionRepository).findByPatientCnpAndToothNumber(patientCnp, toothNumber);
+        verify(toothInterventionRepository).findDtosByPatientCnp(patientCnp);
     }
 
     @Test
@@ -102,13 +125,13 @@ class DentalRecordsServiceTest {
                 .interventionId(2L)
                 .patientCnp(patientCnp)
                 .toothNumber(toothNumber)
-                .dateIntervention("2024-01-20")
+                .dateIntervention(LocalDate.parse("2024-01-20"))
                 .interventionDetails("Extraction")
-                .isExtracted("true")
+                .extracted(true)
                 .build();
 
-        when(toothInterventionRepository.findByPatientCnpAndToothNumber(patientCnp, toothNumber))
-                .thenReturn(Arrays.asList(testIntervention, extractedIntervention));
+        when(toothInterventionRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(interventionDtos(testIntervention, extractedIntervention));
 
         // Act
         List<ToothInterventionDto> result = dentalRecordsService.getAllPatientToothIntervention(patientCnp, toothNumber);
@@ -122,8 +145,8 @@ class DentalRecordsServiceTest {
     @Test
     void testGetAllPatientToothInterventions_Success() {
         // Arrange
-        when(toothInterventionRepository.findByPatientCnp(patientCnp))
-                .thenReturn(Arrays.asList(testIntervention));
+        when(toothInterventionRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(interventionDtos(testIntervention));
 
         // Act
         List<ToothInterventionDto> result = dentalRecordsService.getAllPatientToothInterventions(patientCnp);
@@ -132,7 +155,7 @@ class DentalRecordsServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testIntervention.getInterventionId(), result.get(0).getInterventionId());
-        verify(toothInterventionRepository).findByPatientCnp(patientCnp);
+        verify(toothInterventionRepository).findDtosByPatientCnp(patientCnp);
     }
 
     @Test
@@ -142,13 +165,13 @@ class DentalRecordsServiceTest {
                 .interventionId(2L)
                 .patientCnp(patientCnp)
                 .toothNumber(toothNumber)
-                .dateIntervention("2024-01-20")
+                .dateIntervention(LocalDate.parse("2024-01-20"))
                 .interventionDetails("Extraction")
-                .isExtracted("true")
+                .extracted(true)
                 .build();
 
-        when(toothInterventionRepository.findByPatientCnpAndIsExtracted(patientCnp, "true"))
-                .thenReturn(Arrays.asList(extractedIntervention));
+        when(toothInterventionRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(interventionDtos(extractedIntervention));
 
         // Act
         List<ToothInterventionDto> result = dentalRecordsService.getPatientAllExtractedTooth(patientCnp);
@@ -156,8 +179,8 @@ class DentalRecordsServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals("true", result.get(0).getIsExtracted());
-        verify(toothInterventionRepository).findByPatientCnpAndIsExtracted(patientCnp, "true");
+        assertTrue(result.get(0).getIsExtracted());
+        verify(toothInterventionRepository).findDtosByPatientCnp(patientCnp);
     }
 
     @Test
@@ -184,6 +207,7 @@ class DentalRecordsServiceTest {
         // Assert
         verify(toothInterventionRepository).findByInterventionId(1L);
         verify(toothInterventionRepository).delete(testIntervention);
+        verify(interventionNotesIndex).reindexPatient(testIntervention.getPatientCnp());
     }
 
     @Test
@@ -241,13 +265,32 @@ class DentalRecordsServiceTest {
         verify(toothInterventionRepository).deleteByPatientCnpAndToothNumber(patientCnp, toothNumber);
     }
 
+    @Test
+    void testChartReads_ServedFromCacheUntilWrite() {
+        // Arrange
+        when(toothInterventionRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(interventionDtos(testIntervention));
+
+        // Act
+        dentalRecordsService.getAllPatientToothInterventions(patientCnp);
+        dentalRecordsService.getPatientAllExtractedTooth(patientCnp);
+        dentalRecordsService.getPatientToothProblems(patientCnp, toothNumber);
+        dentalRecordsService.addNewIntervention(testInterventionDto);
+        dentalRecordsService.getAllPatientToothIntervention(patientCnp, toothNumber);
+
+        // Assert
+        verify(toothInterventionRepository, times(2)).findDtosByPatientCnp(patientCnp);
+        verify(toothProblemRepository, times(2)).findDtosByPatientCnp(patientCnp);
+        verify(invalidationPublisher).ifAvailable(any());
+    }
+
     // Tooth Problem Tests
 
     @Test
     void testGetPatientToothProblems_Success() {
         // Arrange
-        when(toothProblemRepository.findByPatientCnpAndToothNumber(patientCnp, toothNumber))
-                .thenReturn(Arrays.asList(testProblem));
+        when(toothProblemRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(problemDtos(testProblem));
 
         // Act
         List<ToothProblemDto> result = dentalRecordsService.getPatientToothProblems(patientCnp, toothNumber);
@@ -257,14 +300,14 @@ class DentalRecordsServiceTest {
         assertEquals(1, result.size());
         assertEquals(testProblem.getProblemId(), result.get(0).getProblemId());
         assertEquals(testProblem.getProblemDetails(), result.get(0).getProblemDetails());
-        verify(toothProblemRepository).findByPatientCnpAndToothNumber(patientCnp, toothNumber);
+        verify(toothProblemRepository).findDtosByPatientCnp(patientCnp);
     }
 
     @Test
     void testGetPatientAllToothProblems_Success() {
         // Arrange
-        when(toothProblemRepository.findByPatientCnp(patientCnp))
-                .thenReturn(Arrays.asList(testProblem));
+        when(toothProblemRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(problemDtos(testProblem));
 
         // Act
         List<ToothProblemDto> result = dentalRecordsService.getPatientAllToothProblems(patientCnp);
@@ -273,7 +316,7 @@ class DentalRecordsServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testProblem.getProblemId(), result.get(0).getProblemId());
-        verify(toothProblemRepository).findByPatientCnp(patientCnp);
+        verify(toothProblemRepository).findDtosByPatientCnp(patientCnp);
     }
 
     @Test
@@ -347,4 +390,176 @@ class DentalRecordsServiceTest {
         verify(toothProblemRepository).findByProblemId(999L);
         verify(toothProblemRepository, never()).save(any());
     }
+
+    // Chart Batch Tests
+
+    @Test
+    void testApplyChartChanges_CreatesUpdatesAndDeletes() {
+        // Arrange
+        ToothProblem otherProblem = ToothProblem.builder()
+                .problemId(2L)
+                .patientCnp(patientCnp)
+                .toothNumber(21)
+                .build();
+        when(toothInterventionRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(testIntervention));
+        when(toothInterventionRepository.save(any(ToothIntervention.class))).thenAnswer(invocation -> {
+            ToothIntervention saved = invocation.getArgument(0);
+            saved.setInterventionId(100L);
+            return saved;
+        });
+        when(toothProblemRepository.findAllById(List.of(2L)))
+                .thenReturn(List.of(otherProblem));
+
+        ToothInterventionDto newIntervention = new ToothInterventionDto(null, 36, true, null, LocalDate.parse("2024-03-01"), "Extraction");
+        testInterventionDto.setInterventionDetails("Root canal, second session");
+        ChartChangesDto changes = new ChartChangesDto(
+                List.of(newIntervention, testInterventionDto), List.of(), List.of(), List.of(2L));
+
+        // Act
+        ChartChangesResultDto result = dentalRecordsService.applyChartChanges(patientCnp, changes);
+
+        // Assert
+        assertEquals(3, result.getApplied());
+        assertEquals(0, result.getFailed());
+        assertEquals(100L, result.getItems().get(0).getId());
+        assertEquals("CREATED", result.getItems().get(0).getOperation());
+        assertEquals("UPDATED", result.getItems().get(1).getOperation());
+        assertEquals("DELETED", result.getItems().get(2).getOperation());
+        assertEquals("Root canal, second session", testIntervention.getInterventionDetails());
+        verify(toothInterventionRepository, times(1)).save(argThat(saved ->
+                saved.isExtracted() && patientCnp.equals(saved.getPatientCnp()) && saved.getToothNumber() == 36));
+        verify(toothProblemRepository).deleteAll(List.of(otherProblem));
+        verify(invalidationPublisher).ifAvailable(any());
+    }
+
+    @Test
+    void testApplyChartChanges_ReportsRecordsOfOtherPatientsAsFailed() {
+        // Arrange
+        ToothIntervention foreign = ToothIntervention.builder()
+                .interventionId(5L)
+                .patientCnp("9999999999999")
+                .toothNumber(11)
+                .build();
+        when(toothInterventionRepository.findAllById(List.of(5L, 6L)))
+                .thenReturn(List.of(foreign));
+        ChartChangesDto changes = new ChartChangesDto(List.of(), List.of(5L, 6L), List.of(), List.of());
+
+        // Act
+        ChartChangesResultDto result = dentalRecordsService.applyChartChanges(patientCnp, changes);
+
+        // Assert
+        assertEquals(0, result.getApplied());
+        assertEquals(2, result.getFailed());
+        assertFalse(result.getItems().get(0).isSuccess());
+        assertEquals(1, result.getItems().get(1).getIndex());
+        verify(toothInterventionRepository).deleteAll(List.of());
+    }
+
+    @Test
+    void testApplyChartChanges_RejectsEmptyAndOversizedBatches() {
+        assertThrows(BadRequestException.class, () ->
+            dentalRecordsService.applyChartChanges(patientCnp, new ChartChangesDto()));
+
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 0; id <= DentalRecordsService.MAX_CHART_CHANGES; id++) {
+            tooMany.add(id);
+        }
+        assertThrows(BadRequestException.class, () ->
+            dentalRecordsService.applyChartChanges(patientCnp,
+                    new ChartChangesDto(List.of(), tooMany, List.of(), List.of())));
+        verifyNoInteractions(toothInterventionRepository);
+    }
+
+    // Odontogram Tests
+
+    @Test
+    void testGetPatientOdontogram_GroupsRecordsIntoFdiSlots() {
+        // Arrange
+        ToothIntervention extraction = ToothIntervention.builder()
+                .interventionId(2L)
+                .patientCnp(patientCnp)
+                .toothNumber(48)
+                .dateIntervention(LocalDate.parse("2024-02-01"))
+                .interventionDetails("Extraction")
+                .extracted(true)
+                .build();
+        when(toothInterventionRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(interventionDtos(testIntervention, extraction));
+        when(toothProblemRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(problemDtos(testProblem));
+
+        // Act
+        OdontogramDto result = dentalRecordsService.getPatientOdontogram(patientCnp);
+
+        // Assert
+        assertEquals(patientCnp, result.getPatientCnp());
+        assertEquals(52, result.getTeeth().size());
+        assertEquals(11, result.getTeeth().get(0).getToothNumber());
+        assertEquals(85, result.getTeeth().get(51).getToothNumber());
+
+        ToothChartEntryDto tooth15 = findTooth(result, toothNumber);
+        assertFalse(tooth15.isExtracted());
+        assertEquals(1, tooth15.getInterventions().size());
+        assertEquals("Root canal", tooth15.getInterventions().get(0).getInterventionDetails());
+        assertEquals(1, tooth15.getProblems().size());
+
+        ToothChartEntryDto tooth48 = findTooth(result, 48);
+        assertTrue(tooth48.isExtracted());
+        assertTrue(tooth48.getInterventions().isEmpty());
+
+        verify(toothInterventionRepository, times(1)).findDtosByPatientCnp(patientCnp);
+        verify(toothProblemRepository, times(1)).findDtosByPatientCnp(patientCnp);
+        verify(toothInterventionRepository, never()).findByPatientCnpAndToothNumber(any(), anyInt());
+    }
+
+    @Test
+    void testGetPatientOdontogram_AppendsNonStandardTeethInOrder() {
+        // Arrange
+        ToothIntervention legacyNumbering = ToothIntervention.builder()
+                .interventionId(3L)
+                .patientCnp(patientCnp)
+                .toothNumber(5)
+                .extracted(false)
+                .build();
+        ToothProblem supernumerary = ToothProblem.builder()
+                .problemId(2L)
+                .patientCnp(patientCnp)
+                .toothNumber(91)
+                .build();
+        when(toothInterventionRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(interventionDtos(legacyNumbering));
+        when(toothProblemRepository.findDtosByPatientCnp(patientCnp))
+                .thenReturn(problemDtos(supernumerary));
+
+        // Act
+        OdontogramDto result = dentalRecordsService.getPatientOdontogram(patientCnp);
+
+        // Assert
+        assertEquals(54, result.getTeeth().size());
+        assertEquals(5, result.getTeeth().get(52).getToothNumber());
+        assertEquals(91, result.getTeeth().get(53).getToothNumber());
+        assertEquals(1, result.getTeeth().get(53).getProblems().size());
+    }
+
+    private ToothChartEntryDto findTooth(OdontogramDto odontogram, int number) {
+        return odontogram.getTeeth().stream()
+                .filter(entry -> entry.getToothNumber() == number)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<ToothInterventionDto> interventionDtos(ToothIntervention... interventions) {
+        return Arrays.stream(interventions)
+                .map(i -> new ToothInterventionDto(i.getInterventionId(), i.getToothNumber(), i.isExtracted(),
+                        i.getPatientCnp(), i.getDateIntervention(), i.getInterventionDetails()))
+                .toList();
+    }
+
+    private List<ToothProblemDto> problemDtos(ToothProblem... problems) {
+        return Arrays.stream(problems)
+                .map(p -> new ToothProblemDto(p.getProblemId(), p.getToothNumber(), p.getPatientCnp(),
+                        p.getDateProblem(), p.getProblemDetails()))
+                .toList();
+    }
 }
@@ -0,0 +1,113 @@
+package com.dentalhelp.dentalrecords.service;
+
+import com.dentalhelp.dentalrecords.dto.TimelineEntryDto;
+import com.dentalhelp.dentalrecords.dto.TimelinePageDto;
+import com.dentalhelp.dentalrecords.exception.BadRequestException;
+import com.dentalhelp.dentalrecords.model.ToothIntervention;
+import com.dentalhelp.dentalrecords.model.ToothProblem;
+import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
+import com.dentalhelp.dentalrecords.repository.ToothProblemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(DentalTimelineService.class)
+class DentalTimelineServiceTest {
+
+    private static final String CNP = "1234567890123";
+
+    @Autowired
+    private ToothInterventionRepository toothInterventionRepository;
+
+    @Autowired
+    private ToothProblemRepository toothProblemRepository;
+
+    @Autowired
+    private DentalTimelineService dentalTimelineService;
+
+    @BeforeEach
+    void setUp() {
+        intervention("2024-03-01", "Filling");
+        intervention("2024-01-15", "Root canal");
+        intervention("2024-01-15", "Crown");
+        problem("2024-02-10", "Cavity");
+        problem("2024-01-15", "Pain");
+        problem("2023-12-01", "Sensitivity");
+        // Other patients and undated records never show up
+        toothInterventionRepository.save(ToothIntervention.builder()
+                .patientCnp("9999999999999").toothNumber(11).dateIntervention(LocalDate.parse("2024-02-01")).build());
+        toothProblemRepository.save(ToothProblem.builder().patientCnp(CNP).toothNumber(11).problemDetails("Undated").build());
+    }
+
+    @Test
+    void testTimeline_MergesNewestFirst() {
+        TimelinePageDto page = dentalTimelineService.getPatientTimeline(CNP, null, null, null, null);
+
+        assertEquals(List.of("Filling", "Cavity", "Crown", "Root canal", "Pain", "Sensitivity"), details(page.getEntries()));
+        assertEquals("INTERVENTION", page.getEntries().get(0).getRecordType());
+        assertEquals("PROBLEM", page.getEntries().get(1).getRecordType());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testTimeline_PagesWithCursorWithoutGapsOrRepeats() {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TimelinePageDto page = dentalTimelineService.getPatientTimeline(CNP, null, null, cursor, 2);
+            assertTrue(page.getEntries().size() <= 2);
+            seen.addAll(details(page.getEntries()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("Filling", "Cavity", "Crown", "Root canal", "Pain", "Sensitivity"), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testTimeline_FiltersByDateRange() {
+        TimelinePageDto page = dentalTimelineService.getPatientTimeline(
+                CNP, LocalDate.parse("2024-01-15"), LocalDate.parse("2024-02-10"), null, null);
+
+        assertEquals(List.of("Cavity", "Crown", "Root canal", "Pain"), details(page.getEntries()));
+    }
+
+    @Test
+    void testTimeline_RejectsInvalidArguments() {
+        assertThrows(BadRequestException.class, () ->
+            dentalTimelineService.getPatientTimeline(CNP, null, null, null, DentalTimelineService.MAX_LIMIT + 1));
+        assertThrows(BadRequestException.class, () ->
+            dentalTimelineService.getPatientTimeline(CNP, LocalDate.parse("2024-02-01"), LocalDate.parse("2024-01-01"), null, null));
+        assertThrows(BadRequestException.class, () ->
+            dentalTimelineService.getPatientTimeline(CNP, null, null, "2024-01-15_X_1", null));
+    }
+
+    private void intervention(String date, String details) {
+        toothInterventionRepository.save(ToothIntervention.builder()
+                .patientCnp(CNP).toothNumber(16).dateIntervention(LocalDate.parse(date)).interventionDetails(details).build());
+    }
+
+    private void problem(String date, String details) {
+        toothProblemRepository.save(ToothProblem.builder()
+                .patientCnp(CNP).toothNumber(26).dateProblem(LocalDate.parse(date)).problemDetails(details).build());
+    }
+
+    private List<String> details(List<TimelineEntryDto> entries) {
+        return entries.stream()
+                .map(TimelineEntryDto::getDetails)
+                .toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.dentalhelp.dentalrecords.service;
+
+import com.dentalhelp.dentalrecords.config.CacheConfig;
+import com.dentalhelp.dentalrecords.dto.ToothInterventionDto;
+import com.dentalhelp.dentalrecords.repository.ToothInterventionRepository;
+import com.dentalhelp.dentalrecords.repository.ToothProblemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientChartCacheTest {
+
+    private static final String CNP = "1234567890123";
+
+    @Mock
+    private ToothInterventionRepository toothInterventionRepository;
+
+    @Mock
+    private ToothProblemRepository toothProblemRepository;
+
+    @Mock
+    private ChartCacheInvalidationPublisher publisher;
+
+    private PatientChartCache patientChartCache;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("publisher", publisher);
+        patientChartCache = new PatientChartCache(
+                new CaffeineCacheManager(CacheConfig.PATIENT_CHARTS),
+                toothInterventionRepository, toothProblemRepository,
+                beanFactory.getBeanProvider(ChartCacheInvalidationPublisher.class));
+
+        lenient().when(toothInterventionRepository.findDtosByPatientCnp(CNP)).thenReturn(List.of(
+                new ToothInterventionDto(1L, 11, false, CNP, LocalDate.parse("2024-01-15"), "Filling")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testGetChart_LoadsOncePerCnp() {
+        PatientChart first = patientChartCache.getChart(CNP);
+        PatientChart second = patientChartCache.getChart(CNP);
+
+        assertSame(first, second);
+        assertEquals(1, first.getEntryCount());
+        verify(toothInterventionRepository, times(1)).findDtosByPatientCnp(CNP);
+        verify(toothProblemRepository, times(1)).findDtosByPatientCnp(CNP);
+    }
+
+    @Test
+    void testEvict_WithoutTransaction_ReloadsAndBroadcasts() {
+        patientChartCache.getChart(CNP);
+
+        patientChartCache.evict(CNP);
+        patientChartCache.getChart(CNP);
+
+        verify(toothInterventionRepository, times(2)).findDtosByPatientCnp(CNP);
+        verify(publisher).publish(CNP);
+    }
+
+    @Test
+    void testEvict_InsideTransaction_WaitsForCommit() {
+        PatientChart cached = patientChartCache.getChart(CNP);
+        TransactionSynchronizationManager.initSynchronization();
+
+        patientChartCache.evict(CNP);
+
+        assertSame(cached, patientChartCache.getChart(CNP));
+        verify(publisher, never()).publish(any());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        assertNotSame(cached, patientChartCache.getChart(CNP));
+        verify(publisher).publish(CNP);
+    }
+
+    @Test
+    void testEvictLocal_DoesNotBroadcast() {
+        patientChartCache.getChart(CNP);
+
+        patientChartCache.evictLocal(CNP);
+        patientChartCache.getChart(CNP);
+
+        verify(toothInterventionRepository, times(2)).findDtosByPatientCnp(CNP);
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void testEvict_NullCnp_IsIgnored() {
+        patientChartCache.evict(null);
+
+        verifyNoInteractions(publisher);
+    }
+}
@@ -0,0 +1,23 @@
+package com.dentalhelp.notification.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class NotificationStreamConfig {
+
+    // Writes to SSE clients happen here, never on the Rabbit listener or request threads
+    @Bean
+    public ThreadPoolTaskExecutor notificationStreamExecutor(
+            @Value("${notifications.stream.send-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("sse-send-");
+        executor.initialize();
+        return executor;
+    }
+}
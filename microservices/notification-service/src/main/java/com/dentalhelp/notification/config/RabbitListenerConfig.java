@@ -0,0 +1,95 @@
+package com.dentalhelp.notification.config;
+
+import com.dentalhelp.notification.listener.FailedMessageRouter;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One listener container factory per queue so concurrency and prefetch can be tuned independently.
+ * Failures are never retried in the consumer thread: the message is handed to
+ * {@link FailedMessageRouter}, which parks it in a TTL retry queue, and the consumer moves on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rabbitmq.listener.enabled", havingValue = "true", matchIfMissing = true)
+public class RabbitListenerConfig {
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory appointmentListenerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            FailedMessageRouter failedMessageRouter,
+            @Value("${rabbitmq.listener.appointment.concurrency:2}") int concurrency,
+            @Value("${rabbitmq.listener.appointment.max-concurrency:8}") int maxConcurrency,
+            @Value("${rabbitmq.listener.appointment.prefetch:20}") int prefetch) {
+        return singleMessageFactory(connectionFactory, messageConverter, failedMessageRouter,
+                concurrency, maxConcurrency, prefetch);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory userListenerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            FailedMessageRouter failedMessageRouter,
+            @Value("${rabbitmq.listener.user.concurrency:1}") int concurrency,
+            @Value("${rabbitmq.listener.user.max-concurrency:4}") int maxConcurrency,
+            @Value("${rabbitmq.listener.user.prefetch:10}") int prefetch) {
+        return singleMessageFactory(connectionFactory, messageConverter, failedMessageRouter,
+                concurrency, maxConcurrency, prefetch);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory emailListenerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            @Value("${rabbitmq.listener.email.concurrency:2}") int concurrency,
+            @Value("${rabbitmq.listener.email.max-concurrency:8}") int maxConcurrency,
+            @Value("${rabbitmq.listener.email.prefetch:50}") int prefetch,
+            @Value("${rabbitmq.listener.email.batch-size:20}") int batchSize,
+            @Value("${rabbitmq.listener.email.batch-timeout-ms:500}") long batchTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = baseFactory(connectionFactory, messageConverter,
+                concurrency, maxConcurrency, Math.max(prefetch, batchSize));
+        // The listener routes failed messages itself and acknowledges the rest. A batch that still fails
+        // as a whole is rejected without requeue, so emails already sent from it are never sent again;
+        // its messages are dead-lettered to the parking lot instead
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchTimeoutMs);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
+    private SimpleRabbitListenerContainerFactory singleMessageFactory(ConnectionFactory connectionFactory,
+                                                                      MessageConverter messageConverter,
+                                                                      FailedMessageRouter failedMessageRouter,
+                                                                      int concurrency, int maxConcurrency, int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = baseFactory(connectionFactory, messageConverter,
+                concurrency, maxConcurrency, prefetch);
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(failedMessageRouter)
+                .build());
+        return factory;
+    }
+
+    private SimpleRabbitListenerContainerFactory baseFactory(ConnectionFactory connectionFactory,
+                                                             MessageConverter messageConverter,
+                                                             int concurrency, int maxConcurrency, int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setPrefetchCount(prefetch);
+        return factory;
+    }
+}
@@ -4,15 +4,25 @@ import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class RabbitMQConfig {
 
+    public static final String RETRY_EXCHANGE = "notification.retry.exchange";
+    public static final String RETRY_SUFFIX = ".retry.";
+    public static final String DEAD_LETTER_EXCHANGE = "notification.dlx";
+    public static final String PARKING_LOT_SUFFIX = ".parking-lot";
+
     @Value("${rabbitmq.exchange.appointment}")
     private String appointmentExchange;
 
@@ -40,6 +50,12 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing.email:email.send}")
     private String emailRoutingKey;
 
+    @Value("${rabbitmq.serialization.format:json}")
+    private String serializationFormat;
+
+    @Value("${rabbitmq.retry.delays-ms:5000,30000,300000}")
+    private long[] retryDelaysMs;
+
     // Appointment Exchange and Queue
     @Bean
     public TopicExchange appointmentExchange() {
@@ -97,10 +113,60 @@ public class RabbitMQConfig {
                 .with(emailRoutingKey);
     }
 
+    // Delayed retry: a failed message goes to <queue>.retry.<n>, waits there until the tier's TTL
+    // expires and is then dead-lettered back to the original queue through the default exchange.
+    // Once every tier is used up it is parked in <queue>.parking-lot via the dead-letter exchange.
+    @Bean
+    public DirectExchange retryExchange() {
+        return new DirectExchange(RETRY_EXCHANGE);
+    }
+
+    // Also the target of the notification-dlx-* broker policies (rabbitmq-init/definitions.json), which make
+    // the consumed queues dead-letter rejected messages to their parking lot. A policy rather than queue
+    // arguments, because the queues already exist on the broker without arguments and a redeclare with
+    // different ones fails.
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Declarables retryAndParkingLotQueues() {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String queue : consumedQueues()) {
+            for (int tier = 0; tier < retryDelaysMs.length; tier++) {
+                Queue retryQueue = QueueBuilder.durable(queue + RETRY_SUFFIX + tier)
+                        .ttl((int) retryDelaysMs[tier])
+                        .deadLetterExchange("")
+                        .deadLetterRoutingKey(queue)
+                        .build();
+                declarables.add(retryQueue);
+                declarables.add(BindingBuilder.bind(retryQueue).to(retryExchange()).with(queue + RETRY_SUFFIX + tier));
+            }
+
+            Queue parkingLot = QueueBuilder.durable(queue + PARKING_LOT_SUFFIX).build();
+            declarables.add(parkingLot);
+            declarables.add(BindingBuilder.bind(parkingLot).to(deadLetterExchange()).with(queue));
+        }
+        return new Declarables(declarables);
+    }
+
+    private List<String> consumedQueues() {
+        return List.of(appointmentNotificationQueue, userNotificationQueue, emailQueue);
+    }
+
     // Message Converter
     @Bean
     public MessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+        // Outgoing messages use the configured format; incoming ones are decoded by their content type,
+        // so JSON and CBOR producers can coexist while a rollout is in progress
+        MessageConverter json = new Jackson2JsonMessageConverter();
+        MessageConverter cbor = new Jackson2CborMessageConverter();
+        ContentTypeDelegatingMessageConverter converter =
+                new ContentTypeDelegatingMessageConverter("cbor".equalsIgnoreCase(serializationFormat) ? cbor : json);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR, cbor);
+        return converter;
     }
 
     @Bean
@@ -110,6 +176,18 @@ public class RabbitMQConfig {
         return rabbitTemplate;
     }
 
+    @Bean
+    public ThreadPoolTaskExecutor deadLetterReplayExecutor() {
+        // Replays are rate limited and long running; one at a time keeps the original queues from being flooded
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(5);
+        executor.setThreadNamePrefix("dlq-replay-");
+        executor.initialize();
+        return executor;
+    }
+
     @Bean
     public RabbitAdmin rabbitAdmin(ConnectionFactory connectionFactory) {
         RabbitAdmin admin = new RabbitAdmin(connectionFactory);
@@ -25,6 +25,20 @@ public class AdminNotificationController {
         return ResponseEntity.ok(ApiResponse.success("Notifications retrieved successfully", notifications));
     }
 
+    @GetMapping("/get_notifications/since/{id}")
+    public ResponseEntity<ApiResponse> getNotificationsSince(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<AdminNotificationDto> notifications = notificationService.getNotificationsSince(id, limit);
+        return ResponseEntity.ok(ApiResponse.success("Notifications retrieved successfully", notifications));
+    }
+
+    @GetMapping("/unread_count")
+    public ResponseEntity<ApiResponse> getUnreadCount() {
+        long unread = notificationService.getUnreadCount();
+        return ResponseEntity.ok(ApiResponse.success("Unread count retrieved successfully", unread));
+    }
+
     @PostMapping("/send_notification/late_appointment/{id}")
     public ResponseEntity<ApiResponse> sendLateAppointmentNotification(
             @PathVariable Long id,
@@ -51,6 +65,12 @@ public class AdminNotificationController {
         return ResponseEntity.ok(ApiResponse.success("Notification marked as read", null));
     }
 
+    @PutMapping("/read_notifications")
+    public ResponseEntity<ApiResponse> markNotificationsAsRead(@RequestBody List<Long> ids) {
+        int updated = notificationService.markAllAsRead(ids);
+        return ResponseEntity.ok(ApiResponse.success("Notifications marked as read", updated));
+    }
+
     @DeleteMapping("/delete_notification/{id}")
     public ResponseEntity<ApiResponse> deleteNotification(@PathVariable Long id) {
         notificationService.deleteNotification(id);
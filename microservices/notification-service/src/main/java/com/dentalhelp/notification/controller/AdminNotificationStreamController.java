@@ -0,0 +1,22 @@
+package com.dentalhelp.notification.controller;
+
+import com.dentalhelp.notification.service.NotificationStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/in/notifications/admin")
+@RequiredArgsConstructor
+public class AdminNotificationStreamController {
+
+    private final NotificationStreamService notificationStreamService;
+
+    // EventSource reconnects on its own and sends the last id it saw in Last-Event-ID
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return notificationStreamService.subscribe(lastEventId);
+    }
+}
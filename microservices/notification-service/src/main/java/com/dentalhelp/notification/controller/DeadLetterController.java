@@ -0,0 +1,52 @@
+package com.dentalhelp.notification.controller;
+
+import com.dentalhelp.notification.dto.ApiResponse;
+import com.dentalhelp.notification.dto.DeadLetterQueueDto;
+import com.dentalhelp.notification.dto.ParkedMessageDto;
+import com.dentalhelp.notification.dto.ReplayResultDto;
+import com.dentalhelp.notification.service.DeadLetterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/in/notifications/admin/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse> getParkingLots() {
+        List<DeadLetterQueueDto> parkingLots = deadLetterService.getParkingLots();
+        return ResponseEntity.ok(ApiResponse.success("Parking lots retrieved successfully", parkingLots));
+    }
+
+    @GetMapping("/{queue}/messages")
+    public ResponseEntity<ApiResponse> getParkedMessages(
+            @PathVariable String queue,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        List<ParkedMessageDto> messages = deadLetterService.peekParkedMessages(queue, limit);
+        return ResponseEntity.ok(ApiResponse.success("Parked messages retrieved successfully", messages));
+    }
+
+    @PostMapping("/{queue}/replay")
+    public ResponseEntity<ApiResponse> replayParkedMessages(
+            @PathVariable String queue,
+            @RequestParam(required = false) Integer maxMessages,
+            @RequestParam(required = false) Integer ratePerSecond) {
+
+        ReplayResultDto job = deadLetterService.startReplay(queue, maxMessages, ratePerSecond);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Replay started", job));
+    }
+
+    @GetMapping("/replay-jobs/{jobId}")
+    public ResponseEntity<ApiResponse> getReplayJob(@PathVariable String jobId) {
+        ReplayResultDto job = deadLetterService.getReplayJob(jobId);
+        return ResponseEntity.ok(ApiResponse.success("Replay job retrieved successfully", job));
+    }
+}
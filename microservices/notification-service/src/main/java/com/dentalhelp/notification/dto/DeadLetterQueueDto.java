@@ -0,0 +1,13 @@
+package com.dentalhelp.notification.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterQueueDto {
+    private String queue;
+    private String parkingLotQueue;
+    private long parkedMessages;
+}
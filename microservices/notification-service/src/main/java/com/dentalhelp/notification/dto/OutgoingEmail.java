@@ -0,0 +1,14 @@
+package com.dentalhelp.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutgoingEmail {
+    private String to;
+    private String subject;
+    private String body;
+}
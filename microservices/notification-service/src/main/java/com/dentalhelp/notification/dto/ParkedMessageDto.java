@@ -0,0 +1,15 @@
+package com.dentalhelp.notification.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParkedMessageDto {
+    private String queue;
+    private String messageId;
+    private Integer retryCount;
+    private String lastError;
+    private String payload;
+}
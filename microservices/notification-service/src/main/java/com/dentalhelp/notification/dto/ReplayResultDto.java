@@ -0,0 +1,20 @@
+package com.dentalhelp.notification.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReplayResultDto {
+    private String jobId;
+    private String queue;
+    private Status status;
+    private int replayed;
+    private int ratePerSecond;
+    private String error;
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+}
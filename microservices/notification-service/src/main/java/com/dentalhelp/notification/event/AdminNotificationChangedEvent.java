@@ -0,0 +1,17 @@
+package com.dentalhelp.notification.event;
+
+import com.dentalhelp.notification.dto.AdminNotificationDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published by {@code NotificationService} whenever an admin notification is created, updated or deleted.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdminNotificationChangedEvent {
+    private String changeType; // CREATED, UPDATED, DELETED
+    private AdminNotificationDto notification;
+}
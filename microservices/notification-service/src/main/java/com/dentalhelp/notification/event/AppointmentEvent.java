@@ -15,4 +15,5 @@ public class AppointmentEvent implements Serializable {
     private String patientEmail;
     private String appointmentDate;
     private String eventType; // CREATED, MODIFIED, DELETED, CONFIRMED, REJECTED
+    private String eventId; // Set by the producer's outbox; also sent as the AMQP message id
 }
@@ -0,0 +1,11 @@
+package com.dentalhelp.notification.exception;
+
+/**
+ * Thrown when another consumer currently holds the claim on a message id. The message must not be
+ * dropped, because that consumer may still fail; it is routed to a retry tier and checked again later.
+ */
+public class MessageInProgressException extends RuntimeException {
+    public MessageInProgressException(String messageId) {
+        super("Message " + messageId + " is being processed by another consumer");
+    }
+}
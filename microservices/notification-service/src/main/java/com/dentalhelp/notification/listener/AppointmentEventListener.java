@@ -3,46 +3,64 @@ package com.dentalhelp.notification.listener;
 import com.dentalhelp.notification.event.AppointmentEvent;
 import com.dentalhelp.notification.model.NotificationType;
 import com.dentalhelp.notification.service.EmailService;
+import com.dentalhelp.notification.service.MessageDeduplicator;
 import com.dentalhelp.notification.service.NotificationService;
+import com.dentalhelp.notification.service.ReminderScheduler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Component
+@Lazy(false)
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "rabbitmq.listener.enabled", havingValue = "true", matchIfMissing = true)
 public class AppointmentEventListener {
 
     private final NotificationService notificationService;
     private final EmailService emailService;
+    private final ObjectProvider<ReminderScheduler> reminderScheduler;
+    private final MessageDeduplicator messageDeduplicator;
 
-    @RabbitListener(queues = "${rabbitmq.queue.appointment.notification}")
-    public void handleAppointmentEvent(AppointmentEvent event) {
-        try {
-            switch (event.getEventType()) {
-                case "CREATED":
-                    handleAppointmentCreated(event);
-                    break;
-                case "MODIFIED":
-                    handleAppointmentModified(event);
-                    break;
-                case "DELETED":
-                    handleAppointmentDeleted(event);
-                    break;
-                case "CONFIRMED":
-                    handleAppointmentConfirmed(event);
-                    break;
-                case "REJECTED":
-                    handleAppointmentRejected(event);
-                    break;
-                default:
-                    System.out.println("Unknown event type: " + event.getEventType());
-            }
-        } catch (Exception e) {
-            System.err.println("Error processing appointment event: " + e.getMessage());
+    // Exceptions propagate to the container, which hands the message to FailedMessageRouter
+    @RabbitListener(queues = "${rabbitmq.queue.appointment.notification}", containerFactory = "appointmentListenerFactory")
+    public void handleAppointmentEvent(AppointmentEvent event,
+                                       @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId,
+                                       @Header(name = AmqpHeaders.CONSUMER_QUEUE, required = false) String queue) {
+        String eventId = messageId != null ? messageId : event.getEventId();
+        messageDeduplicator.runOnce(eventId, queue, () -> dispatch(event));
+    }
+
+    private void dispatch(AppointmentEvent event) {
+        switch (event.getEventType()) {
+            case "CREATED":
+                handleAppointmentCreated(event);
+                break;
+            case "MODIFIED":
+                handleAppointmentModified(event);
+                break;
+            case "DELETED":
+                handleAppointmentDeleted(event);
+                break;
+            case "CONFIRMED":
+                handleAppointmentConfirmed(event);
+                break;
+            case "REJECTED":
+                handleAppointmentRejected(event);
+                break;
+            default:
+                System.out.println("Unknown event type: " + event.getEventType());
         }
     }
 
     private void handleAppointmentCreated(AppointmentEvent event) {
+        // Requests carry no appointment id; appointments created directly by the clinic do
+        reminderScheduler.ifAvailable(scheduler -> scheduler.schedule(event));
+
         // Create admin notification
         notificationService.createNotification(
                 event.getAppointmentId(),
@@ -62,6 +80,8 @@ public class AppointmentEventListener {
     }
 
     private void handleAppointmentModified(AppointmentEvent event) {
+        reminderScheduler.ifAvailable(scheduler -> scheduler.schedule(event));
+
         if (event.getPatientEmail() != null) {
             emailService.sendEmail(
                     event.getPatientEmail(),
@@ -72,6 +92,8 @@ public class AppointmentEventListener {
     }
 
     private void handleAppointmentDeleted(AppointmentEvent event) {
+        reminderScheduler.ifAvailable(scheduler -> scheduler.cancel(event.getAppointmentId()));
+
         if (event.getPatientEmail() != null) {
             emailService.sendAppointmentCancellationEmail(
                     event.getPatientEmail(),
@@ -81,6 +103,8 @@ public class AppointmentEventListener {
     }
 
     private void handleAppointmentConfirmed(AppointmentEvent event) {
+        reminderScheduler.ifAvailable(scheduler -> scheduler.schedule(event));
+
         if (event.getPatientEmail() != null) {
             emailService.sendAppointmentConfirmationEmail(
                     event.getPatientEmail(),
@@ -1,34 +1,95 @@
 package com.dentalhelp.notification.listener;
 
-import com.dentalhelp.notification.service.EmailService;
+import com.dentalhelp.notification.dto.OutgoingEmail;
+import com.dentalhelp.notification.exception.MessageInProgressException;
+import com.dentalhelp.notification.service.MailDispatcher;
+import com.dentalhelp.notification.service.MessageDeduplicator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
 @Component
+@Lazy(false)
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "rabbitmq.listener.enabled", havingValue = "true", matchIfMissing = true)
 public class EmailQueueListener {
 
-    private final EmailService emailService;
+    private final MailDispatcher mailDispatcher;
+    private final MessageConverter messageConverter;
+    private final FailedMessageRouter failedMessageRouter;
+    private final MessageDeduplicator messageDeduplicator;
 
-    @RabbitListener(queues = "email.queue")
-    public void handleEmailRequest(Map<String, String> emailData) {
-        try {
-            String to = emailData.get("to");
-            String subject = emailData.get("subject");
-            String body = emailData.get("body");
+    @RabbitListener(queues = "${rabbitmq.queue.email}", containerFactory = "emailListenerFactory")
+    public void handleEmailRequests(List<Message> messages) {
+        log.debug("Received batch of {} email requests", messages.size());
 
-            log.info("Received email request from queue for: {}", to);
+        List<Message> accepted = new ArrayList<>();
+        List<OutgoingEmail> emails = new ArrayList<>();
+        for (Message message : messages) {
+            MessageProperties properties = message.getMessageProperties();
+            try {
+                if (!messageDeduplicator.tryClaim(properties.getMessageId(), properties.getConsumerQueue())) {
+                    log.info("Dropping duplicate email request {}", properties.getMessageId());
+                    continue;
+                }
+            } catch (MessageInProgressException e) {
+                // Another consumer may still fail it; check again after the retry delay
+                failedMessageRouter.recover(message, e);
+                continue;
+            }
+            try {
+                emails.add(toEmail(message));
+                accepted.add(message);
+            } catch (Exception e) {
+                log.error("Unreadable email request from queue: {}", e.getMessage());
+                messageDeduplicator.release(properties.getMessageId());
+                failedMessageRouter.recover(message, e);
+            }
+        }
 
-            emailService.sendEmail(to, subject, body);
+        Map<Integer, Exception> failures;
+        try {
+            MailDispatcher.BatchResult result = mailDispatcher.sendBatch(emails);
+            log.info("Sent {} of {} queued emails", result.getSent(), emails.size());
+            failures = result.getFailures();
+        } catch (RuntimeException e) {
+            // Nothing is known to have been sent, so every message goes to its retry tier individually
+            log.error("Email batch of {} failed: {}", emails.size(), e.getMessage());
+            failures = new LinkedHashMap<>();
+            for (int i = 0; i < emails.size(); i++) {
+                failures.put(i, e);
+            }
+        }
 
-            log.info("Email sent successfully to: {}", to);
-        } catch (Exception e) {
-            log.error("Error processing email from queue: {}", e.getMessage());
+        // Only the failed messages are retried; the rest of the batch is acknowledged
+        for (int i = 0; i < accepted.size(); i++) {
+            String messageId = accepted.get(i).getMessageProperties().getMessageId();
+            Exception failure = failures.get(i);
+            if (failure == null) {
+                messageDeduplicator.complete(messageId);
+                continue;
+            }
+            log.error("Error sending email to {}: {}", emails.get(i).getTo(), failure.getMessage());
+            messageDeduplicator.release(messageId);
+            failedMessageRouter.recover(accepted.get(i), failure);
         }
     }
+
+    @SuppressWarnings("unchecked")
+    private OutgoingEmail toEmail(Message message) {
+        Map<String, String> emailData = (Map<String, String>) messageConverter.fromMessage(message);
+        return new OutgoingEmail(emailData.get("to"), emailData.get("subject"), emailData.get("body"));
+    }
 }
@@ -0,0 +1,78 @@
+package com.dentalhelp.notification.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import static com.dentalhelp.notification.config.RabbitMQConfig.DEAD_LETTER_EXCHANGE;
+import static com.dentalhelp.notification.config.RabbitMQConfig.RETRY_EXCHANGE;
+import static com.dentalhelp.notification.config.RabbitMQConfig.RETRY_SUFFIX;
+
+/**
+ * Sends a message that failed processing to the next retry tier of the queue it was consumed from.
+ * Each tier redelivers after a longer TTL, so the consumer thread never sleeps between attempts.
+ * When all tiers are used up the message is parked for inspection and manual replay.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FailedMessageRouter implements MessageRecoverer {
+
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String LAST_ERROR_HEADER = "x-last-error";
+    public static final String ORIGINAL_QUEUE_HEADER = "x-original-queue";
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbitmq.retry.delays-ms:5000,30000,300000}")
+    private long[] retryDelaysMs = {5000, 30000, 300000};
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        String queue = properties.getConsumerQueue();
+        int retries = retryCount(properties);
+        String error = rootCauseMessage(cause);
+
+        if (queue == null) {
+            queue = (String) properties.getHeader(ORIGINAL_QUEUE_HEADER);
+        }
+        if (queue == null) {
+            log.error("Dropping failed message without consumer queue: {}", error);
+            return;
+        }
+
+        properties.setHeader(ORIGINAL_QUEUE_HEADER, queue);
+        properties.setHeader(LAST_ERROR_HEADER, error);
+
+        if (retries >= retryDelaysMs.length) {
+            rabbitTemplate.send(DEAD_LETTER_EXCHANGE, queue, message);
+            log.error("Parked message from {} after {} retries: {}", queue, retries, error);
+            return;
+        }
+
+        properties.setHeader(RETRY_COUNT_HEADER, retries + 1);
+        rabbitTemplate.send(RETRY_EXCHANGE, queue + RETRY_SUFFIX + retries, message);
+        log.warn("Message from {} scheduled for retry {}/{} in {} ms: {}",
+                queue, retries + 1, retryDelaysMs.length, retryDelaysMs[retries], error);
+    }
+
+    static int retryCount(MessageProperties properties) {
+        Object value = properties.getHeader(RETRY_COUNT_HEADER);
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static String rootCauseMessage(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
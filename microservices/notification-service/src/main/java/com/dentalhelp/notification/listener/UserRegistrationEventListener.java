@@ -2,26 +2,33 @@ package com.dentalhelp.notification.listener;
 
 import com.dentalhelp.notification.event.UserRegistrationEvent;
 import com.dentalhelp.notification.service.EmailService;
+import com.dentalhelp.notification.service.MessageDeduplicator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Component
+@Lazy(false)
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "rabbitmq.listener.enabled", havingValue = "true", matchIfMissing = true)
 public class UserRegistrationEventListener {
 
     private final EmailService emailService;
+    private final MessageDeduplicator messageDeduplicator;
 
-    @RabbitListener(queues = "${rabbitmq.queue.user.notification}")
-    public void handleUserRegistration(UserRegistrationEvent event) {
-        try {
-            emailService.sendEmail(
-                    event.getEmail(),
-                    "Welcome to DentHelp",
-                    "Welcome " + event.getUsername() + "!\n\nThank you for registering with DentHelp."
-            );
-        } catch (Exception e) {
-            System.err.println("Error processing user registration event: " + e.getMessage());
-        }
+    // Exceptions propagate to the container, which hands the message to FailedMessageRouter
+    @RabbitListener(queues = "${rabbitmq.queue.user.notification}", containerFactory = "userListenerFactory")
+    public void handleUserRegistration(UserRegistrationEvent event,
+                                       @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId,
+                                       @Header(name = AmqpHeaders.CONSUMER_QUEUE, required = false) String queue) {
+        messageDeduplicator.runOnce(messageId, queue, () -> emailService.deliverEmail(
+                event.getEmail(),
+                "Welcome to DentHelp",
+                "Welcome " + event.getUsername() + "!\n\nThank you for registering with DentHelp."
+        ));
     }
 }
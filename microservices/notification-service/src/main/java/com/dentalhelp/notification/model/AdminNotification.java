@@ -3,13 +3,18 @@ package com.dentalhelp.notification.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @Entity
 @Builder
-@Table(name = "admin_notifications")
+@Table(name = "admin_notifications", indexes = {
+    @Index(name = "idx_notification_status_id", columnList = "notificationStatus, notificationId"),
+    @Index(name = "idx_notification_status_created", columnList = "notificationStatus, createdAt")
+})
 public class AdminNotification {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,6 +23,9 @@ public class AdminNotification {
     private Long appointmentId;
     private String observations;
     private String date;
+
+    // Range-scannable creation time used by the retention job; date stays the display value
+    private LocalDateTime createdAt;
     private String patientCnp;
 
     @Enumerated(EnumType.STRING)
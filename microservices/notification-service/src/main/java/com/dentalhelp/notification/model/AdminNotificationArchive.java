@@ -0,0 +1,61 @@
+package com.dentalhelp.notification.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Builder
+@Table(name = "admin_notifications_archive", indexes = {
+    @Index(name = "idx_archive_patient_cnp", columnList = "patientCnp"),
+    @Index(name = "idx_archive_created", columnList = "createdAt")
+})
+public class AdminNotificationArchive implements Persistable<Long> {
+    // Keeps the id of the archived row, so it is not generated here
+    @Id
+    private Long notificationId;
+
+    private Long appointmentId;
+    private String observations;
+    private String date;
+    private String patientCnp;
+    private LocalDateTime createdAt;
+    private LocalDateTime archivedAt;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationType notificationType;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationStatus notificationStatus;
+
+    @Override
+    public Long getId() {
+        return notificationId;
+    }
+
+    // Archive rows are written once and never updated, so save() can INSERT without a SELECT first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public static AdminNotificationArchive of(AdminNotification notification, LocalDateTime archivedAt) {
+        return AdminNotificationArchive.builder()
+                .notificationId(notification.getNotificationId())
+                .appointmentId(notification.getAppointmentId())
+                .observations(notification.getObservations())
+                .date(notification.getDate())
+                .patientCnp(notification.getPatientCnp())
+                .createdAt(notification.getCreatedAt())
+                .archivedAt(archivedAt)
+                .notificationType(notification.getNotificationType())
+                .notificationStatus(notification.getNotificationStatus())
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.dentalhelp.notification.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Builder
+@Table(name = "appointment_reminders", indexes = {
+    @Index(name = "idx_reminder_remind_at", columnList = "remindAt")
+})
+public class AppointmentReminder {
+    // One pending reminder per appointment, so reschedules overwrite the row
+    @Id
+    private Long appointmentId;
+
+    private String patientCnp;
+    private String patientEmail;
+    private String appointmentDate;
+
+    @Column(nullable = false)
+    private LocalDateTime appointmentAt;
+
+    @Column(nullable = false)
+    private LocalDateTime remindAt;
+
+    private int attempts;
+
+    // Claimed by the instance sending it; a SENDING row whose claim is older than the lease is claimable again
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ReminderStatus status = ReminderStatus.PENDING;
+
+    private LocalDateTime claimedAt;
+}
@@ -0,0 +1,60 @@
+package com.dentalhelp.notification.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Builder
+@Table(name = "processed_messages", indexes = {
+    @Index(name = "idx_processed_at", columnList = "processedAt")
+})
+public class ProcessedMessage implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String messageId;
+
+    @Column(length = 64)
+    private String queue;
+
+    // Claim time while PROCESSING, completion time once DONE
+    private LocalDateTime processedAt;
+
+    // Rows written before the status existed are finished messages, so null counts as DONE
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    @Builder.Default
+    private Status status = Status.PROCESSING;
+
+    // Inserted, never merged, so a duplicate id fails on the primary key instead of being updated
+    @Transient
+    @Builder.Default
+    private boolean newEntry = true;
+
+    @Override
+    public String getId() {
+        return messageId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newEntry = false;
+    }
+
+    public enum Status {
+        PROCESSING,
+        DONE
+    }
+}
@@ -0,0 +1,6 @@
+package com.dentalhelp.notification.model;
+
+public enum ReminderStatus {
+    PENDING,
+    SENDING
+}
@@ -0,0 +1,9 @@
+package com.dentalhelp.notification.repository;
+
+import com.dentalhelp.notification.model.AdminNotificationArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AdminNotificationArchiveRepository extends JpaRepository<AdminNotificationArchive, Long> {
+}
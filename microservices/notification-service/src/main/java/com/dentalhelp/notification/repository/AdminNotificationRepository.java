@@ -1,9 +1,17 @@
 package com.dentalhelp.notification.repository;
 
 import com.dentalhelp.notification.model.AdminNotification;
+import com.dentalhelp.notification.model.NotificationStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +19,28 @@ import java.util.Optional;
 public interface AdminNotificationRepository extends JpaRepository<AdminNotification, Long> {
     List<AdminNotification> findAllByOrderByNotificationIdDesc();
     Optional<AdminNotification> findByNotificationId(Long notificationId);
+
+    long countByNotificationStatus(NotificationStatus notificationStatus);
+
+    List<AdminNotification> findByNotificationIdGreaterThanOrderByNotificationIdAsc(Long notificationId, Pageable pageable);
+
+    // Locked so concurrent bulk updates agree on which rows each of them changed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<AdminNotification> findByNotificationIdInAndNotificationStatus(List<Long> notificationIds, NotificationStatus status);
+
+    // Only rows whose status actually changes are counted, which keeps the unread counter exact
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AdminNotification n SET n.notificationStatus = :status " +
+           "WHERE n.notificationId IN :ids AND n.notificationStatus <> :status")
+    int updateStatusByIdIn(@Param("ids") List<Long> ids, @Param("status") NotificationStatus status);
+
+    // Served by idx_notification_status_created, so each retention batch is a short index range scan
+    @Query("SELECT n.notificationId FROM AdminNotification n " +
+           "WHERE n.notificationStatus = :status AND n.createdAt < :cutoff ORDER BY n.createdAt")
+    List<Long> findIdsForRetention(@Param("status") NotificationStatus status,
+                                   @Param("cutoff") LocalDateTime cutoff,
+                                   Pageable pageable);
+
+    // Equality on the status keeps this on idx_notification_status_created instead of scanning the table
+    List<AdminNotification> findByNotificationStatusAndCreatedAtIsNull(NotificationStatus status, Pageable pageable);
 }
@@ -0,0 +1,39 @@
+package com.dentalhelp.notification.repository;
+
+import com.dentalhelp.notification.model.AppointmentReminder;
+import com.dentalhelp.notification.model.ReminderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentReminderRepository extends JpaRepository<AppointmentReminder, Long> {
+    // Keyset pagination used to rebuild the in-memory schedule on startup
+    List<AppointmentReminder> findByAppointmentIdGreaterThanOrderByAppointmentIdAsc(Long appointmentId, Pageable pageable);
+
+    // Overdue rows, picked up by the sweep in case the instance holding them in its wheel went away
+    @Query("SELECT r.appointmentId FROM AppointmentReminder r WHERE r.remindAt <= :now ORDER BY r.remindAt")
+    List<Long> findOverdueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claims a due reminder for sending. Only one instance gets an affected row of 1;
+     * a claim left behind by a crashed instance expires after the lease.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AppointmentReminder r SET r.status = :sending, r.claimedAt = :now " +
+           "WHERE r.appointmentId = :appointmentId AND r.remindAt <= :now " +
+           "AND (r.status = :pending OR r.claimedAt < :staleBefore)")
+    int claim(@Param("appointmentId") Long appointmentId,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore,
+              @Param("pending") ReminderStatus pending,
+              @Param("sending") ReminderStatus sending);
+}
@@ -0,0 +1,38 @@
+package com.dentalhelp.notification.repository;
+
+import com.dentalhelp.notification.model.ProcessedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+    // Takes over a claim whose consumer died mid-processing; only one caller sees an affected row
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProcessedMessage p SET p.processedAt = :now, p.queue = :queue " +
+           "WHERE p.messageId = :messageId AND p.status = :processing AND p.processedAt < :staleBefore")
+    int reclaimStale(@Param("messageId") String messageId,
+                     @Param("queue") String queue,
+                     @Param("now") LocalDateTime now,
+                     @Param("staleBefore") LocalDateTime staleBefore,
+                     @Param("processing") ProcessedMessage.Status processing);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProcessedMessage p SET p.status = :done, p.processedAt = :now WHERE p.messageId = :messageId")
+    int markDone(@Param("messageId") String messageId,
+                 @Param("now") LocalDateTime now,
+                 @Param("done") ProcessedMessage.Status done);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProcessedMessage p WHERE p.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,286 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.config.Jackson2CborMessageConverter;
+import com.dentalhelp.notification.dto.DeadLetterQueueDto;
+import com.dentalhelp.notification.dto.ParkedMessageDto;
+import com.dentalhelp.notification.dto.ReplayResultDto;
+import com.dentalhelp.notification.exception.BadRequestException;
+import com.dentalhelp.notification.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ReturnListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.dentalhelp.notification.config.RabbitMQConfig.PARKING_LOT_SUFFIX;
+import static com.dentalhelp.notification.listener.FailedMessageRouter.LAST_ERROR_HEADER;
+import static com.dentalhelp.notification.listener.FailedMessageRouter.ORIGINAL_QUEUE_HEADER;
+import static com.dentalhelp.notification.listener.FailedMessageRouter.RETRY_COUNT_HEADER;
+
+/**
+ * Inspection and replay of messages parked after exhausting all retry tiers.
+ * Messages are moved with manual acks, and a message is only removed from the
+ * parking lot once the broker has confirmed its republish and routed it to the
+ * original queue.
+ * Replays are rate limited and can take minutes, so they run as background jobs
+ * whose progress is polled by id.
+ */
+@Slf4j
+@Service
+public class DeadLetterService {
+
+    private static final int MAX_PAYLOAD_PREVIEW = 2000;
+    private static final int MAX_TRACKED_JOBS = 100;
+    private static final ObjectMapper CBOR_MAPPER = new CBORMapper();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitAdmin rabbitAdmin;
+    private final TaskExecutor replayExecutor;
+    private final Map<String, ReplayJob> replayJobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ReplayJob> eldest) {
+            return size() > MAX_TRACKED_JOBS;
+        }
+    });
+
+    @Value("${rabbitmq.queue.appointment.notification}")
+    private String appointmentNotificationQueue;
+
+    @Value("${rabbitmq.queue.user.notification}")
+    private String userNotificationQueue;
+
+    @Value("${rabbitmq.queue.email:email.queue}")
+    private String emailQueue;
+
+    @Value("${rabbitmq.dead-letter.replay.max-messages:500}")
+    private int maxReplayMessages = 500;
+
+    @Value("${rabbitmq.dead-letter.replay.default-rate-per-second:20}")
+    private int defaultRatePerSecond = 20;
+
+    @Value("${rabbitmq.dead-letter.replay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs = 5000;
+
+    public DeadLetterService(RabbitTemplate rabbitTemplate,
+                             RabbitAdmin rabbitAdmin,
+                             @Qualifier("deadLetterReplayExecutor") TaskExecutor replayExecutor) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.rabbitAdmin = rabbitAdmin;
+        this.replayExecutor = replayExecutor;
+    }
+
+    public List<DeadLetterQueueDto> getParkingLots() {
+        List<DeadLetterQueueDto> parkingLots = new ArrayList<>();
+        for (String queue : knownQueues()) {
+            QueueInformation info = rabbitAdmin.getQueueInfo(queue + PARKING_LOT_SUFFIX);
+            parkingLots.add(DeadLetterQueueDto.builder()
+                    .queue(queue)
+                    .parkingLotQueue(queue + PARKING_LOT_SUFFIX)
+                    .parkedMessages(info != null ? info.getMessageCount() : 0)
+                    .build());
+        }
+        return parkingLots;
+    }
+
+    public List<ParkedMessageDto> peekParkedMessages(String queue, int limit) {
+        String parkingLot = parkingLotFor(queue);
+        int boundedLimit = Math.max(1, Math.min(limit, maxReplayMessages));
+
+        return rabbitTemplate.execute(channel -> {
+            List<ParkedMessageDto> parked = new ArrayList<>();
+            long lastDeliveryTag = -1;
+            for (int i = 0; i < boundedLimit; i++) {
+                GetResponse response = channel.basicGet(parkingLot, false);
+                if (response == null) {
+                    break;
+                }
+                parked.add(toDto(queue, response));
+                lastDeliveryTag = response.getEnvelope().getDeliveryTag();
+            }
+            // Peeking must not consume: put everything back in its original order
+            if (lastDeliveryTag >= 0) {
+                channel.basicNack(lastDeliveryTag, true, true);
+            }
+            return parked;
+        });
+    }
+
+    /**
+     * Starts replaying up to {@code maxMessages} parked messages in the background and returns the job.
+     */
+    public ReplayResultDto startReplay(String queue, Integer maxMessages, Integer ratePerSecond) {
+        String parkingLot = parkingLotFor(queue);
+        int limit = maxMessages != null ? Math.max(0, Math.min(maxMessages, maxReplayMessages)) : maxReplayMessages;
+        int rate = ratePerSecond != null && ratePerSecond > 0 ? ratePerSecond : defaultRatePerSecond;
+
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), queue, rate);
+        replayJobs.put(job.jobId, job);
+        try {
+            replayExecutor.execute(() -> runReplay(job, parkingLot, limit));
+        } catch (TaskRejectedException e) {
+            replayJobs.remove(job.jobId);
+            throw new BadRequestException("Too many replays in progress, try again later");
+        }
+        return job.toDto();
+    }
+
+    public ReplayResultDto getReplayJob(String jobId) {
+        ReplayJob job = replayJobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Replay job not found with id: " + jobId);
+        }
+        return job.toDto();
+    }
+
+    private void runReplay(ReplayJob job, String parkingLot, int limit) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / job.ratePerSecond;
+        try {
+            rabbitTemplate.execute(channel -> {
+                // Mandatory publishes with confirms: a message the broker drops or cannot route is
+                // nacked back into the parking lot instead of being acked away
+                channel.confirmSelect();
+                AtomicBoolean returned = new AtomicBoolean();
+                ReturnListener returnListener = channel.addReturnListener(unroutable -> returned.set(true));
+                try {
+                    long nextSendAt = System.nanoTime();
+                    while (job.replayed.get() < limit) {
+                        GetResponse response = channel.basicGet(parkingLot, false);
+                        if (response == null) {
+                            break;
+                        }
+                        long deliveryTag = response.getEnvelope().getDeliveryTag();
+
+                        long wait = nextSendAt - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        returned.set(false);
+                        channel.basicPublish("", job.queue, true, resetRetryHeaders(response.getProps()), response.getBody());
+                        boolean confirmed;
+                        try {
+                            confirmed = channel.waitForConfirms(confirmTimeoutMs);
+                        } catch (TimeoutException e) {
+                            confirmed = false;
+                        }
+                        if (!confirmed || returned.get()) {
+                            channel.basicNack(deliveryTag, false, true);
+                            throw new AmqpException("Broker did not confirm the republish to " + job.queue
+                                    + (returned.get() ? ", the queue does not exist" : ""));
+                        }
+                        channel.basicAck(deliveryTag, false);
+
+                        job.replayed.incrementAndGet();
+                        nextSendAt += intervalNanos;
+                    }
+                    return null;
+                } finally {
+                    channel.removeReturnListener(returnListener);
+                }
+            });
+            job.status = ReplayResultDto.Status.COMPLETED;
+            log.info("Replayed {} parked messages to {}", job.replayed.get(), job.queue);
+        } catch (RuntimeException e) {
+            // Messages not yet acked stay in the parking lot, so a failed job can simply be started again
+            job.error = e.getMessage();
+            job.status = ReplayResultDto.Status.FAILED;
+            log.error("Replay to {} failed after {} messages: {}", job.queue, job.replayed.get(), e.getMessage());
+        }
+    }
+
+    private List<String> knownQueues() {
+        return List.of(appointmentNotificationQueue, userNotificationQueue, emailQueue);
+    }
+
+    private String parkingLotFor(String queue) {
+        if (!knownQueues().contains(queue)) {
+            throw new BadRequestException("Unknown queue: " + queue);
+        }
+        return queue + PARKING_LOT_SUFFIX;
+    }
+
+    private AMQP.BasicProperties resetRetryHeaders(AMQP.BasicProperties properties) {
+        Map<String, Object> headers = properties.getHeaders() != null
+                ? new HashMap<>(properties.getHeaders())
+                : new HashMap<>();
+        headers.remove(RETRY_COUNT_HEADER);
+        headers.remove(LAST_ERROR_HEADER);
+        headers.remove(ORIGINAL_QUEUE_HEADER);
+        return properties.builder().headers(headers).build();
+    }
+
+    private static String previewPayload(String contentType, byte[] body) {
+        if (Jackson2CborMessageConverter.CONTENT_TYPE_CBOR.equals(contentType)) {
+            try {
+                return CBOR_MAPPER.readTree(body).toString();
+            } catch (IOException e) {
+                return "<unreadable CBOR payload, " + body.length + " bytes>";
+            }
+        }
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static final class ReplayJob {
+        private final String jobId;
+        private final String queue;
+        private final int ratePerSecond;
+        private final AtomicInteger replayed = new AtomicInteger();
+        private volatile ReplayResultDto.Status status = ReplayResultDto.Status.RUNNING;
+        private volatile String error;
+
+        private ReplayJob(String jobId, String queue, int ratePerSecond) {
+            this.jobId = jobId;
+            this.queue = queue;
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        private ReplayResultDto toDto() {
+            return ReplayResultDto.builder()
+                    .jobId(jobId)
+                    .queue(queue)
+                    .status(status)
+                    .replayed(replayed.get())
+                    .ratePerSecond(ratePerSecond)
+                    .error(error)
+                    .build();
+        }
+    }
+
+    private ParkedMessageDto toDto(String queue, GetResponse response) {
+        AMQP.BasicProperties properties = response.getProps();
+        Map<String, Object> headers = properties.getHeaders() != null ? properties.getHeaders() : Map.of();
+        String payload = previewPayload(properties.getContentType(), response.getBody());
+
+        return ParkedMessageDto.builder()
+                .queue(queue)
+                .messageId(properties.getMessageId())
+                .retryCount(headers.get(RETRY_COUNT_HEADER) instanceof Number number ? number.intValue() : 0)
+                .lastError(headers.get(LAST_ERROR_HEADER) != null ? headers.get(LAST_ERROR_HEADER).toString() : null)
+                .payload(payload.length() > MAX_PAYLOAD_PREVIEW ? payload.substring(0, MAX_PAYLOAD_PREVIEW) : payload)
+                .build();
+    }
+}
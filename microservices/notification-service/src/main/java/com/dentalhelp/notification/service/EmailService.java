@@ -1,41 +1,50 @@
 package com.dentalhelp.notification.service;
 
+import com.dentalhelp.notification.dto.OutgoingEmail;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.MailSendException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final MailDispatcher mailDispatcher;
 
     @Async
     public void sendEmail(String to, String subject, String body) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-
-            mailSender.send(message);
+            deliverEmail(to, subject, body);
         } catch (Exception e) {
             System.err.println("Failed to send email: " + e.getMessage());
         }
     }
 
+    /**
+     * Sends synchronously and lets {@link MailSendException} propagate,
+     * so queue consumers can route the message to a retry queue on failure.
+     */
+    public void deliverEmail(String to, String subject, String body) {
+        MailDispatcher.BatchResult result = mailDispatcher.sendBatch(List.of(new OutgoingEmail(to, subject, body)));
+        if (!result.getFailures().isEmpty()) {
+            Exception failure = result.getFailures().get(0);
+            throw new MailSendException("Failed to send email to " + to + ": " + failure.getMessage(), failure);
+        }
+    }
+
     public void sendAppointmentReminderEmail(String recipientEmail, String appointmentDate) {
+        OutgoingEmail reminder = buildAppointmentReminderEmail(recipientEmail, appointmentDate);
+        sendEmail(reminder.getTo(), reminder.getSubject(), reminder.getBody());
+    }
+
+    public OutgoingEmail buildAppointmentReminderEmail(String recipientEmail, String appointmentDate) {
         String subject = "Reminder: Programare la dentist";
         String body = "Bună ziua,\n\nAceasta este o reamintire că aveți o programare la data de "
                 + appointmentDate + ".\n\nVă mulțumim!";
-        sendEmail(recipientEmail, subject, body);
+        return new OutgoingEmail(recipientEmail, subject, body);
     }
 
     public void sendAppointmentConfirmationEmail(String recipientEmail, String appointmentDate) {
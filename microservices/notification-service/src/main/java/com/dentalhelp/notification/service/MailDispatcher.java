@@ -0,0 +1,243 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.dto.OutgoingEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends emails in batches over pooled, already authenticated SMTP connections.
+ * Sends are paced by a token bucket so the provider's per-second quota is never exceeded.
+ */
+@Slf4j
+@Service
+public class MailDispatcher implements DisposableBean {
+
+    private final JavaMailSender mailSender;
+    private final SmtpTransportPool transportPool;
+    private final TokenBucket rateLimiter;
+    private final String fromEmail;
+
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          MeterRegistry meterRegistry,
+                          @Value("${spring.mail.username:}") String fromEmail,
+                          @Value("${mail.dispatch.pool-size:4}") int poolSize,
+                          @Value("${mail.dispatch.borrow-timeout-ms:30000}") long borrowTimeoutMs,
+                          @Value("${mail.dispatch.rate-per-second:10}") double ratePerSecond) {
+        this.mailSender = mailSender;
+        this.fromEmail = fromEmail;
+        // Mocked or custom senders have no session to pool; they fall back to JavaMailSender batch sends
+        this.transportPool = mailSender instanceof JavaMailSenderImpl impl
+                ? new SmtpTransportPool(impl, poolSize, borrowTimeoutMs)
+                : null;
+        this.rateLimiter = new TokenBucket(ratePerSecond);
+
+        String provider = transportPool != null && transportPool.getHost() != null ? transportPool.getHost() : "default";
+        this.batchTimer = Timer.builder("mail.dispatch.batch")
+                .description("Time to send one batch of emails")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("mail.dispatch.batch.size")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("mail.dispatch.messages")
+                .tag("provider", provider).tag("result", "sent")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.dispatch.messages")
+                .tag("provider", provider).tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends all emails and reports failures per position in the input list.
+     */
+    public BatchResult sendBatch(List<OutgoingEmail> emails) {
+        BatchResult result = new BatchResult();
+        if (emails.isEmpty()) {
+            return result;
+        }
+
+        batchSize.record(emails.size());
+        long start = System.nanoTime();
+        try {
+            if (transportPool != null) {
+                sendPooled(emails, result);
+            } else {
+                sendWithMailSender(emails, result);
+            }
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        sentCounter.increment(result.getSent());
+        failedCounter.increment(result.getFailures().size());
+        return result;
+    }
+
+    private void sendPooled(List<OutgoingEmail> emails, BatchResult result) {
+        Transport transport = null;
+        int next = 0;
+        try {
+            transport = transportPool.borrow();
+            for (; next < emails.size(); next++) {
+                rateLimiter.acquire();
+                MimeMessage message;
+                try {
+                    message = toMimeMessage(emails.get(next));
+                } catch (MessagingException e) {
+                    result.failures.put(next, e);
+                    continue;
+                }
+
+                try {
+                    transport.sendMessage(message, message.getAllRecipients());
+                    result.sent++;
+                } catch (MessagingException e) {
+                    if (transport.isConnected()) {
+                        result.failures.put(next, e);
+                        continue;
+                    }
+                    // The server dropped the pooled connection: replace it and retry this message once
+                    transportPool.release(transport, false);
+                    transport = null;
+                    transport = transportPool.borrow();
+                    try {
+                        transport.sendMessage(message, message.getAllRecipients());
+                        result.sent++;
+                    } catch (MessagingException retryFailure) {
+                        result.failures.put(next, retryFailure);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markFailedFrom(next, emails.size(), result, e);
+        } catch (MessagingException e) {
+            log.warn("Could not obtain SMTP connection: {}", e.getMessage());
+            markFailedFrom(next, emails.size(), result, e);
+        } finally {
+            if (transport != null) {
+                transportPool.release(transport, true);
+            }
+        }
+    }
+
+    private void sendWithMailSender(List<OutgoingEmail> emails, BatchResult result) {
+        SimpleMailMessage[] messages = emails.stream().map(this::toSimpleMessage).toArray(SimpleMailMessage[]::new);
+        for (int i = 0; i < messages.length; i++) {
+            rateLimiter.acquire();
+        }
+        try {
+            mailSender.send(messages);
+            result.sent = messages.length;
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int i = 0; i < messages.length; i++) {
+                Exception failure = failed.isEmpty() ? e : failed.get(messages[i]);
+                if (failure != null) {
+                    result.failures.put(i, failure);
+                } else {
+                    result.sent++;
+                }
+            }
+        } catch (Exception e) {
+            markFailedFrom(0, messages.length, result, e);
+        }
+    }
+
+    private void markFailedFrom(int from, int size, BatchResult result, Exception cause) {
+        for (int i = from; i < size; i++) {
+            result.failures.putIfAbsent(i, cause);
+        }
+    }
+
+    private MimeMessage toMimeMessage(OutgoingEmail email) throws MessagingException {
+        MimeMessage message = new MimeMessage(transportPool.getSession());
+        if (fromEmail != null && !fromEmail.isEmpty()) {
+            message.setFrom(new InternetAddress(fromEmail));
+        }
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(email.getTo()));
+        message.setSubject(email.getSubject(), "UTF-8");
+        message.setText(email.getBody(), "UTF-8");
+        message.saveChanges();
+        return message;
+    }
+
+    private SimpleMailMessage toSimpleMessage(OutgoingEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(email.getTo());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+
+    @Override
+    public void destroy() {
+        if (transportPool != null) {
+            transportPool.close();
+        }
+    }
+
+    @Getter
+    public static class BatchResult {
+        private int sent;
+        private final Map<Integer, Exception> failures = new LinkedHashMap<>();
+    }
+
+    /**
+     * Minimal token bucket allowing short bursts of up to one second's worth of sends.
+     */
+    static class TokenBucket {
+        private final double ratePerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double ratePerSecond) {
+            this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, ratePerSecond);
+            this.tokens = capacity;
+        }
+
+        void acquire() {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+                lastRefill = now;
+                tokens -= 1;
+                wait = tokens >= 0 ? 0 : (long) (-tokens / ratePerNano);
+            }
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.exception.MessageInProgressException;
+import com.dentalhelp.notification.model.ProcessedMessage;
+import com.dentalhelp.notification.repository.ProcessedMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Drops redelivered messages before any work is done for them.
+ * A message id is claimed by inserting it into {@code processed_messages} as PROCESSING; the primary key
+ * makes the claim atomic across consumers and instances. The row only becomes DONE after the work
+ * succeeded, and only DONE ids cause a redelivery to be dropped. A PROCESSING claim older than the lease
+ * belongs to a consumer that died mid-message and is taken over; a fresh one makes the redelivery wait
+ * in a retry tier. Finished ids are also kept in an in-memory LRU, so a redelivery storm is rejected
+ * without touching the database. A claim is released again when processing fails.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class MessageDeduplicator {
+
+    private final ProcessedMessageRepository processedMessageRepository;
+    private final Map<String, Boolean> recentIds;
+    private final long retentionHours;
+    private final long claimLeaseMs;
+    private final MeterRegistry meterRegistry;
+
+    public MessageDeduplicator(ProcessedMessageRepository processedMessageRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${rabbitmq.dedup.cache-size:10000}") int cacheSize,
+                               @Value("${rabbitmq.dedup.retention-hours:168}") long retentionHours,
+                               @Value("${rabbitmq.dedup.claim-lease-ms:120000}") long claimLeaseMs) {
+        this.processedMessageRepository = processedMessageRepository;
+        this.meterRegistry = meterRegistry;
+        this.retentionHours = retentionHours;
+        this.claimLeaseMs = claimLeaseMs;
+        this.recentIds = Collections.synchronizedMap(new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Claims the message id. Returns {@code false} when it was already processed and the message should be
+     * dropped. Throws {@link MessageInProgressException} while another consumer holds a live claim.
+     * Messages without an id cannot be deduplicated and are always claimed.
+     */
+    public boolean tryClaim(String messageId, String queue) {
+        if (messageId == null || messageId.isBlank()) {
+            return true;
+        }
+        if (recentIds.containsKey(messageId)) {
+            duplicate(queue);
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            processedMessageRepository.saveAndFlush(ProcessedMessage.builder()
+                    .messageId(messageId)
+                    .queue(queue)
+                    .processedAt(now)
+                    .status(ProcessedMessage.Status.PROCESSING)
+                    .build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Already claimed: finished, still running elsewhere, or abandoned by a consumer that died
+        }
+
+        if (processedMessageRepository.reclaimStale(messageId, queue, now,
+                now.minusNanos(claimLeaseMs * 1_000_000), ProcessedMessage.Status.PROCESSING) == 1) {
+            log.warn("Taking over abandoned claim on message {}", messageId);
+            return true;
+        }
+        ProcessedMessage existing = processedMessageRepository.findById(messageId).orElse(null);
+        if (existing == null || existing.getStatus() == ProcessedMessage.Status.PROCESSING) {
+            throw new MessageInProgressException(messageId);
+        }
+        recentIds.put(messageId, Boolean.TRUE);
+        duplicate(queue);
+        return false;
+    }
+
+    /**
+     * Records that the message was fully processed, so later redeliveries are dropped.
+     */
+    public void complete(String messageId) {
+        if (messageId == null || messageId.isBlank()) {
+            return;
+        }
+        processedMessageRepository.markDone(messageId, LocalDateTime.now(), ProcessedMessage.Status.DONE);
+        recentIds.put(messageId, Boolean.TRUE);
+    }
+
+    /**
+     * Gives the id back after failed processing so a redelivery is handled again.
+     */
+    public void release(String messageId) {
+        if (messageId == null || messageId.isBlank()) {
+            return;
+        }
+        recentIds.remove(messageId);
+        try {
+            processedMessageRepository.deleteById(messageId);
+        } catch (Exception e) {
+            log.warn("Could not release message id {}: {}", messageId, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs {@code work} once per message id, releasing the claim if it throws.
+     * A crash before {@link #complete} leaves a PROCESSING claim that expires, so the message is redone
+     * rather than lost.
+     */
+    public void runOnce(String messageId, String queue, Runnable work) {
+        if (!tryClaim(messageId, queue)) {
+            log.info("Dropping duplicate message {} from {}", messageId, queue);
+            return;
+        }
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            release(messageId);
+            throw e;
+        }
+        complete(messageId);
+    }
+
+    @Scheduled(cron = "${rabbitmq.dedup.purge-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        int purged = processedMessageRepository.deleteProcessedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Purged {} processed message ids", purged);
+        }
+    }
+
+    private void duplicate(String queue) {
+        Counter.builder("rabbitmq.consumer.duplicates")
+                .description("Redelivered messages dropped before processing")
+                .tag("queue", queue == null ? "unknown" : queue)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,198 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.event.AdminNotificationChangedEvent;
+import com.dentalhelp.notification.model.AdminNotification;
+import com.dentalhelp.notification.model.AdminNotificationArchive;
+import com.dentalhelp.notification.model.NotificationStatus;
+import com.dentalhelp.notification.repository.AdminNotificationArchiveRepository;
+import com.dentalhelp.notification.repository.AdminNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves {@link NotificationStatus#SEEN} admin notifications older than the retention period out of the hot table.
+ * Work is split into small batches, each in its own short transaction that only touches the rows it selected
+ * by primary key, so the table is never locked for long and concurrent inserts are not blocked.
+ * Removed rows are announced as DELETED so open admin streams drop them too.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "notifications.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationRetentionJob {
+
+    private final AdminNotificationRepository notificationRepository;
+    private final AdminNotificationArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long retentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseMs;
+    private final boolean archive;
+
+    private final Counter archivedCounter;
+    private final Counter deletedCounter;
+    private final Counter backfilledCounter;
+    private final Timer runTimer;
+
+    private volatile boolean backfillComplete;
+
+    public NotificationRetentionJob(AdminNotificationRepository notificationRepository,
+                                    AdminNotificationArchiveRepository archiveRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${notifications.retention.days:90}") long retentionDays,
+                                    @Value("${notifications.retention.batch-size:500}") int batchSize,
+                                    @Value("${notifications.retention.max-batches-per-run:200}") int maxBatchesPerRun,
+                                    @Value("${notifications.retention.pause-ms:100}") long pauseMs,
+                                    @Value("${notifications.retention.archive:true}") boolean archive) {
+        this.notificationRepository = notificationRepository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseMs = pauseMs;
+        this.archive = archive;
+
+        this.archivedCounter = Counter.builder("notifications.retention.rows").tag("action", "archived").register(meterRegistry);
+        this.deletedCounter = Counter.builder("notifications.retention.rows").tag("action", "deleted").register(meterRegistry);
+        this.backfilledCounter = Counter.builder("notifications.retention.rows").tag("action", "backfilled").register(meterRegistry);
+        this.runTimer = Timer.builder("notifications.retention.run")
+                .description("Duration of one retention run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}")
+    public void run() {
+        long start = System.nanoTime();
+        try {
+            if (!backfillComplete) {
+                backfillCreatedAt();
+            }
+            int moved = archiveExpired(LocalDateTime.now().minusDays(retentionDays));
+            if (moved > 0) {
+                log.info("Notification retention moved {} rows out of admin_notifications", moved);
+            }
+        } finally {
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Archives or deletes seen notifications created before {@code cutoff}, in bounded batches.
+     */
+    public int archiveExpired(LocalDateTime cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> moveBatch(cutoff));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    /**
+     * Rows created before the createdAt column existed only have the formatted date; derive it once.
+     * New rows always get createdAt, so once a pass finds nothing left the job stops looking.
+     */
+    public int backfillCreatedAt() {
+        int total = 0;
+        int batches = 0;
+        for (NotificationStatus status : NotificationStatus.values()) {
+            int count;
+            do {
+                if (batches++ == maxBatchesPerRun) {
+                    // Out of budget for this run; carry on next time
+                    return total;
+                }
+                Integer filled = transactionTemplate.execute(tx -> {
+                    List<AdminNotification> missing = notificationRepository
+                            .findByNotificationStatusAndCreatedAtIsNull(status, PageRequest.of(0, batchSize));
+                    LocalDateTime now = LocalDateTime.now();
+                    missing.forEach(n -> n.setCreatedAt(parseDate(n.getDate(), now)));
+                    notificationRepository.saveAll(missing);
+                    return missing.size();
+                });
+                count = filled != null ? filled : 0;
+                backfilledCounter.increment(count);
+                total += count;
+            } while (count == batchSize);
+        }
+        backfillComplete = true;
+        return total;
+    }
+
+    private int moveBatch(LocalDateTime cutoff) {
+        List<Long> ids = notificationRepository.findIdsForRetention(
+                NotificationStatus.SEEN, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<AdminNotification> expired = notificationRepository.findAllById(ids);
+        if (archive) {
+            LocalDateTime archivedAt = LocalDateTime.now();
+            List<AdminNotificationArchive> copies = expired.stream()
+                    .map(n -> AdminNotificationArchive.of(n, archivedAt))
+                    .toList();
+            archiveRepository.saveAll(copies);
+            archivedCounter.increment(copies.size());
+        } else {
+            deletedCounter.increment(ids.size());
+        }
+        notificationRepository.deleteAllByIdInBatch(ids);
+        // Delivered after this batch commits, like the events NotificationService publishes
+        expired.forEach(n -> eventPublisher.publishEvent(
+                new AdminNotificationChangedEvent("DELETED", NotificationService.convertToDto(n))));
+        return ids.size();
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static LocalDateTime parseDate(String date, LocalDateTime fallback) {
+        if (date == null) {
+            return fallback;
+        }
+        try {
+            return LocalDateTime.parse(date, NotificationService.DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            // Unknown format: start the retention clock now rather than never expiring the row
+            return fallback;
+        }
+    }
+}
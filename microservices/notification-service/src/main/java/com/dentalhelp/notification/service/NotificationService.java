@@ -1,44 +1,74 @@
 package com.dentalhelp.notification.service;
 
 import com.dentalhelp.notification.dto.AdminNotificationDto;
+import com.dentalhelp.notification.event.AdminNotificationChangedEvent;
+import com.dentalhelp.notification.exception.BadRequestException;
 import com.dentalhelp.notification.exception.ResourceNotFoundException;
 import com.dentalhelp.notification.model.AdminNotification;
 import com.dentalhelp.notification.model.NotificationStatus;
 import com.dentalhelp.notification.model.NotificationType;
 import com.dentalhelp.notification.repository.AdminNotificationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_DELTA_SIZE = 500;
+    private static final int MAX_BULK_SIZE = 500;
+
     private final AdminNotificationRepository notificationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnreadNotificationCounter unreadCounter;
 
     public List<AdminNotificationDto> getAllNotifications() {
         return notificationRepository.findAllByOrderByNotificationIdDesc().stream()
-                .map(this::convertToDto)
+                .map(NotificationService::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Notifications created after {@code afterId}, oldest first, so clients can page forward by the last id they hold.
+     */
+    public List<AdminNotificationDto> getNotificationsSince(Long afterId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_DELTA_SIZE);
+        return notificationRepository
+                .findByNotificationIdGreaterThanOrderByNotificationIdAsc(afterId, PageRequest.of(0, pageSize)).stream()
+                .map(NotificationService::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    public long getUnreadCount() {
+        return unreadCounter.get();
+    }
+
     @Transactional
     public void createNotification(Long appointmentId, String patientCnp, String observations, NotificationType type) {
+        LocalDateTime now = LocalDateTime.now();
         AdminNotification notification = AdminNotification.builder()
                 .appointmentId(appointmentId)
                 .patientCnp(patientCnp)
                 .observations(observations)
-                .date(getCurrentDateTime())
+                .date(now.format(DATE_FORMAT))
+                .createdAt(now)
                 .notificationType(type)
                 .notificationStatus(NotificationStatus.NEW)
                 .build();
 
         notificationRepository.save(notification);
+        unreadCounter.adjustAfterCommit(1);
+        eventPublisher.publishEvent(new AdminNotificationChangedEvent("CREATED", convertToDto(notification)));
     }
 
     @Transactional
@@ -46,8 +76,12 @@ public class NotificationService {
         AdminNotification notification = notificationRepository.findByNotificationId(notificationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found with id: " + notificationId));
 
+        if (notification.getNotificationStatus() == NotificationStatus.NEW) {
+            unreadCounter.adjustAfterCommit(-1);
+        }
         notification.setNotificationStatus(NotificationStatus.SEEN);
         notificationRepository.save(notification);
+        eventPublisher.publishEvent(new AdminNotificationChangedEvent("UPDATED", convertToDto(notification)));
     }
 
     @Transactional
@@ -56,9 +90,43 @@ public class NotificationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found with id: " + notificationId));
 
         notificationRepository.delete(notification);
+        if (notification.getNotificationStatus() == NotificationStatus.NEW) {
+            unreadCounter.adjustAfterCommit(-1);
+        }
+        eventPublisher.publishEvent(new AdminNotificationChangedEvent("DELETED", convertToDto(notification)));
     }
 
-    private AdminNotificationDto convertToDto(AdminNotification notification) {
+    /**
+     * Marks all given notifications as read with a single UPDATE and returns how many were still unread.
+     * Only those rows are announced to stream subscribers; unknown and already seen ids are skipped.
+     */
+    @Transactional
+    public int markAllAsRead(List<Long> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        if (notificationIds.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("At most " + MAX_BULK_SIZE + " notifications can be marked as read at once");
+        }
+
+        List<Long> distinctIds = notificationIds.stream().filter(Objects::nonNull).distinct().toList();
+        List<AdminNotification> unread = notificationRepository
+                .findByNotificationIdInAndNotificationStatus(distinctIds, NotificationStatus.NEW);
+        if (unread.isEmpty()) {
+            return 0;
+        }
+
+        int updated = notificationRepository.updateStatusByIdIn(
+                unread.stream().map(AdminNotification::getNotificationId).toList(), NotificationStatus.SEEN);
+        unreadCounter.adjustAfterCommit(-updated);
+        for (AdminNotification notification : unread) {
+            notification.setNotificationStatus(NotificationStatus.SEEN);
+            eventPublisher.publishEvent(new AdminNotificationChangedEvent("UPDATED", convertToDto(notification)));
+        }
+        return updated;
+    }
+
+    static AdminNotificationDto convertToDto(AdminNotification notification) {
         return AdminNotificationDto.builder()
                 .notificationId(notification.getNotificationId())
                 .appointmentId(notification.getAppointmentId())
@@ -69,9 +137,4 @@ public class NotificationService {
                 .notificationStatus(notification.getNotificationStatus())
                 .build();
     }
-
-    private String getCurrentDateTime() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return LocalDateTime.now().format(formatter);
-    }
 }
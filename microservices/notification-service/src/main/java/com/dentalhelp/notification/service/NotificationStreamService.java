@@ -0,0 +1,242 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.event.AdminNotificationChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes admin notification changes to connected browsers over Server-Sent Events.
+ * The most recent events are kept in a bounded ring buffer so a reconnecting client can
+ * resume from its {@code Last-Event-ID}; clients that fell further behind receive a
+ * {@code reset} event and reload the list once.
+ * Each subscriber has its own outbound queue drained on a dedicated executor, so a slow client
+ * never blocks the thread that changed the notification. A subscriber is registered under the
+ * same lock that appends to the buffer, and events are deduplicated by sequence, so nothing is
+ * lost or sent twice between the replay and the live stream.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class NotificationStreamService {
+
+    static final String RESET_EVENT = "reset";
+
+    // Event ids are "<streamId>-<sequence>", so ids issued before a restart are never mistaken for current ones
+    private final String streamId = Long.toString(System.currentTimeMillis(), 36);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Deque<BufferedEvent> buffer = new ArrayDeque<>();
+    private final int bufferSize;
+    private final long emitterTimeoutMs;
+    private final Executor sendExecutor;
+    private long sequence;
+
+    public NotificationStreamService(@Value("${notifications.stream.buffer-size:256}") int bufferSize,
+                                     @Value("${notifications.stream.timeout-ms:1800000}") long emitterTimeoutMs,
+                                     @Qualifier("notificationStreamExecutor") Executor sendExecutor) {
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.sendExecutor = sendExecutor;
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (buffer) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                Optional<List<BufferedEvent>> missed = eventsAfter(lastEventId);
+                if (missed.isPresent()) {
+                    missed.get().forEach(subscriber::enqueue);
+                } else {
+                    subscriber.enqueue(new Outbound(0, SseEmitter.event().name(RESET_EVENT).data("")));
+                }
+            }
+            // Registered before the lock is released, so every later append reaches this subscriber
+            subscribers.add(subscriber);
+        }
+        subscriber.drain();
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationChanged(AdminNotificationChangedEvent change) {
+        synchronized (buffer) {
+            BufferedEvent event = new BufferedEvent(++sequence, streamId + "-" + sequence, change);
+            buffer.addLast(event);
+            if (buffer.size() > bufferSize) {
+                buffer.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.enqueue(event));
+        }
+        subscribers.forEach(Subscriber::drain);
+    }
+
+    // Keeps idle connections open through proxies and drops clients that went away
+    @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-ms:15000}")
+    public void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(new Outbound(0, SseEmitter.event().comment("heartbeat")));
+            subscriber.drain();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    String getLastEventId() {
+        synchronized (buffer) {
+            return streamId + "-" + sequence;
+        }
+    }
+
+    /**
+     * Returns the buffered events after {@code lastEventId}, or empty when that id is unknown
+     * or already evicted and the client has to reload.
+     */
+    Optional<List<BufferedEvent>> eventsAfter(String lastEventId) {
+        String prefix = streamId + "-";
+        if (!lastEventId.startsWith(prefix)) {
+            return Optional.empty();
+        }
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+
+        synchronized (buffer) {
+            long oldestBuffered = sequence - buffer.size() + 1;
+            if (lastSequence > sequence || lastSequence < oldestBuffered - 1) {
+                return Optional.empty();
+            }
+            List<BufferedEvent> missed = new ArrayList<>();
+            long current = oldestBuffered;
+            for (BufferedEvent event : buffer) {
+                if (current++ > lastSequence) {
+                    missed.add(event);
+                }
+            }
+            return Optional.of(missed);
+        }
+    }
+
+    private record Outbound(long sequence, SseEmitter.SseEventBuilder event) {
+    }
+
+    /**
+     * One connected client. Events are queued in order and written by at most one executor task at
+     * a time; a client whose queue outgrows the replay buffer is disconnected and resumes on reconnect.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Outbound> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private long lastSentSequence;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(BufferedEvent event) {
+            enqueue(new Outbound(event.sequence, event.toSse()));
+        }
+
+        void enqueue(Outbound outbound) {
+            if (pendingCount.incrementAndGet() > bufferSize) {
+                log.debug("Notification stream subscriber fell behind, disconnecting");
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            pending.add(outbound);
+        }
+
+        void drain() {
+            if (pending.isEmpty() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sendExecutor.execute(this::sendPending);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                subscribers.remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void sendPending() {
+            try {
+                Outbound outbound;
+                while ((outbound = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    // Heartbeats and resets carry sequence 0; buffered events are sent at most once
+                    if (outbound.sequence() > 0) {
+                        if (outbound.sequence() <= lastSentSequence) {
+                            continue;
+                        }
+                        lastSentSequence = outbound.sequence();
+                    }
+                    emitter.send(outbound.event());
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                log.debug("Dropping notification stream subscriber: {}", e.getMessage());
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Events enqueued after the last poll but before the flag was cleared
+            drain();
+        }
+    }
+
+    static final class BufferedEvent {
+        private final long sequence;
+        private final String id;
+        private final AdminNotificationChangedEvent change;
+
+        BufferedEvent(long sequence, String id, AdminNotificationChangedEvent change) {
+            this.sequence = sequence;
+            this.id = id;
+            this.change = change;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event()
+                    .id(id)
+                    .name(change.getChangeType().toLowerCase())
+                    .data(change.getNotification());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dentalhelp.notification.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Looks up patient contact details in auth-service. Appointment events only carry the patient's CNP,
+ * so the email address is resolved when a reminder is about to be sent.
+ */
+@Service
+public class PatientDirectory {
+
+    private final RestTemplate restTemplate;
+    private final String patientInfoUrl;
+
+    public PatientDirectory(RestTemplate restTemplate,
+                            @Value("${reminders.patient-info-url:http://AUTH-SERVICE/api/admin/auth/get-patient-info/{cnp}}") String patientInfoUrl) {
+        this.restTemplate = restTemplate;
+        this.patientInfoUrl = patientInfoUrl;
+    }
+
+    /**
+     * Returns the patient's email, or empty when the patient is unknown or has none.
+     * Other failures are thrown so the caller can retry later.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<String> findEmail(String patientCnp) {
+        if (patientCnp == null || patientCnp.isBlank()) {
+            return Optional.empty();
+        }
+        ResponseEntity<Map> response;
+        try {
+            response = restTemplate.getForEntity(patientInfoUrl, Map.class, patientCnp);
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+        if (response.getBody() == null || !(response.getBody().get("data") instanceof Map<?, ?> data)) {
+            return Optional.empty();
+        }
+        Object email = ((Map<String, Object>) data).get("email");
+        return email instanceof String value && !value.isBlank() ? Optional.of(value) : Optional.empty();
+    }
+}
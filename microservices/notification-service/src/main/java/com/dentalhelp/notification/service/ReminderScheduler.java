@@ -0,0 +1,265 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.dto.OutgoingEmail;
+import com.dentalhelp.notification.event.AppointmentEvent;
+import com.dentalhelp.notification.model.AppointmentReminder;
+import com.dentalhelp.notification.model.ReminderStatus;
+import com.dentalhelp.notification.repository.AppointmentReminderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sends appointment reminders a configurable lead time before each appointment.
+ * Pending reminders are persisted in {@code appointment_reminders} and mirrored in a
+ * {@link TimingWheel}, so the periodic tick never queries the database unless something is due.
+ * The wheel is rebuilt from the table on startup. Every instance keeps its own wheel, so a due row is
+ * claimed in the table before it is sent, and a slow sweep picks up overdue rows whose instance is gone.
+ * Appointment events carry no email address; it is looked up in auth-service when the reminder fires.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@ConditionalOnProperty(name = "reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+
+    private static final DateTimeFormatter SPACED_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+
+    private final AppointmentReminderRepository reminderRepository;
+    private final EmailService emailService;
+    private final MailDispatcher mailDispatcher;
+    private final PatientDirectory patientDirectory;
+    private final TimingWheel<Long> wheel;
+    private final long leadHours;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final long claimLeaseMs;
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter expiredCounter;
+
+    public ReminderScheduler(AppointmentReminderRepository reminderRepository,
+                             EmailService emailService,
+                             MailDispatcher mailDispatcher,
+                             PatientDirectory patientDirectory,
+                             MeterRegistry meterRegistry,
+                             @Value("${reminders.lead-hours:24}") long leadHours,
+                             @Value("${reminders.tick-ms:60000}") long tickMs,
+                             @Value("${reminders.wheel-size:1440}") int wheelSize,
+                             @Value("${reminders.batch-size:50}") int batchSize,
+                             @Value("${reminders.max-attempts:3}") int maxAttempts,
+                             @Value("${reminders.retry-delay-ms:300000}") long retryDelayMs,
+                             @Value("${reminders.claim-lease-ms:600000}") long claimLeaseMs) {
+        this.reminderRepository = reminderRepository;
+        this.emailService = emailService;
+        this.mailDispatcher = mailDispatcher;
+        this.patientDirectory = patientDirectory;
+        this.wheel = new TimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        this.leadHours = leadHours;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+        this.claimLeaseMs = claimLeaseMs;
+
+        Gauge.builder("reminders.pending", wheel, TimingWheel::size)
+                .description("Appointment reminders waiting in the timing wheel")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("reminders.fired").tag("result", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("reminders.fired").tag("result", "failed").register(meterRegistry);
+        this.expiredCounter = Counter.builder("reminders.fired").tag("result", "expired").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSchedule() {
+        long lastId = Long.MIN_VALUE;
+        int loaded = 0;
+        List<AppointmentReminder> page;
+        do {
+            page = reminderRepository.findByAppointmentIdGreaterThanOrderByAppointmentIdAsc(lastId, PageRequest.of(0, 1000));
+            for (AppointmentReminder reminder : page) {
+                // Events consumed while rebuilding already hold the newer deadline
+                wheel.scheduleIfAbsent(reminder.getAppointmentId(), toEpochMillis(reminder.getRemindAt()));
+                lastId = reminder.getAppointmentId();
+            }
+            loaded += page.size();
+        } while (!page.isEmpty());
+        log.info("Rebuilt reminder schedule with {} pending reminders", loaded);
+    }
+
+    /**
+     * Schedules or reschedules the reminder of a confirmed appointment.
+     */
+    @Transactional
+    public void schedule(AppointmentEvent event) {
+        if (event.getAppointmentId() == null) {
+            return;
+        }
+        LocalDateTime appointmentAt = parseAppointmentDate(event.getAppointmentDate());
+        LocalDateTime now = LocalDateTime.now();
+        boolean reachable = event.getPatientEmail() != null || event.getPatientCnp() != null;
+        if (!reachable || appointmentAt == null || !appointmentAt.isAfter(now)) {
+            cancel(event.getAppointmentId());
+            return;
+        }
+
+        LocalDateTime remindAt = appointmentAt.minusHours(leadHours);
+        AppointmentReminder reminder = AppointmentReminder.builder()
+                .appointmentId(event.getAppointmentId())
+                .patientCnp(event.getPatientCnp())
+                .patientEmail(event.getPatientEmail())
+                .appointmentDate(event.getAppointmentDate())
+                .appointmentAt(appointmentAt)
+                .remindAt(remindAt.isBefore(now) ? now : remindAt)
+                .attempts(0)
+                .status(ReminderStatus.PENDING)
+                .build();
+        reminderRepository.save(reminder);
+        wheel.schedule(reminder.getAppointmentId(), toEpochMillis(reminder.getRemindAt()));
+    }
+
+    @Transactional
+    public void cancel(Long appointmentId) {
+        if (appointmentId == null) {
+            return;
+        }
+        wheel.cancel(appointmentId);
+        if (reminderRepository.existsById(appointmentId)) {
+            reminderRepository.deleteById(appointmentId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reminders.tick-ms:60000}")
+    public void fireDueReminders() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            fireBatch(due.subList(from, Math.min(from + batchSize, due.size())));
+        }
+    }
+
+    /**
+     * Puts overdue rows back into this instance's wheel: retries rescheduled by another instance,
+     * reminders consumed by an instance that has since stopped, and claims that expired mid-send.
+     */
+    @Scheduled(fixedDelayString = "${reminders.sweep-ms:300000}", initialDelayString = "${reminders.sweep-ms:300000}")
+    public void sweepOverdue() {
+        List<Long> overdue = reminderRepository.findOverdueIds(LocalDateTime.now(), PageRequest.of(0, batchSize * 10));
+        long now = System.currentTimeMillis();
+        overdue.forEach(id -> wheel.scheduleIfAbsent(id, now));
+    }
+
+    private void fireBatch(List<Long> appointmentIds) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusNanos(claimLeaseMs * 1_000_000);
+        List<AppointmentReminder> sendable = new ArrayList<>();
+        List<OutgoingEmail> emails = new ArrayList<>();
+        List<AppointmentReminder> retries = new ArrayList<>();
+        List<Long> finished = new ArrayList<>();
+        // The table is the source of truth: rows deleted or moved since they were scheduled are skipped
+        for (AppointmentReminder reminder : reminderRepository.findAllById(appointmentIds)) {
+            if (reminder.getRemindAt().isAfter(now)) {
+                wheel.scheduleIfAbsent(reminder.getAppointmentId(), toEpochMillis(reminder.getRemindAt()));
+            } else if (!reminder.getAppointmentAt().isAfter(now)) {
+                expiredCounter.increment();
+                finished.add(reminder.getAppointmentId());
+            } else if (reminderRepository.claim(reminder.getAppointmentId(), now, staleBefore,
+                    ReminderStatus.PENDING, ReminderStatus.SENDING) == 1) {
+                try {
+                    Optional<String> email = reminder.getPatientEmail() != null
+                            ? Optional.of(reminder.getPatientEmail())
+                            : patientDirectory.findEmail(reminder.getPatientCnp());
+                    if (email.isEmpty()) {
+                        log.warn("No email known for patient of appointment {}, dropping reminder", reminder.getAppointmentId());
+                        failedCounter.increment();
+                        finished.add(reminder.getAppointmentId());
+                        continue;
+                    }
+                    emails.add(emailService.buildAppointmentReminderEmail(email.get(), reminder.getAppointmentDate()));
+                    sendable.add(reminder);
+                } catch (RuntimeException e) {
+                    retryOrGiveUp(reminder, e, now, retries, finished);
+                }
+            }
+            // Otherwise another instance holds the claim and sends it
+        }
+
+        if (!sendable.isEmpty()) {
+            Map<Integer, Exception> failures = mailDispatcher.sendBatch(emails).getFailures();
+            for (int i = 0; i < sendable.size(); i++) {
+                if (!failures.containsKey(i)) {
+                    sentCounter.increment();
+                    finished.add(sendable.get(i).getAppointmentId());
+                } else {
+                    retryOrGiveUp(sendable.get(i), failures.get(i), now, retries, finished);
+                }
+            }
+        }
+
+        if (!retries.isEmpty()) {
+            reminderRepository.saveAll(retries);
+            retries.forEach(r -> wheel.schedule(r.getAppointmentId(), toEpochMillis(r.getRemindAt())));
+        }
+        if (!finished.isEmpty()) {
+            reminderRepository.deleteAllByIdInBatch(finished);
+        }
+    }
+
+    private void retryOrGiveUp(AppointmentReminder reminder, Exception failure, LocalDateTime now,
+                               List<AppointmentReminder> retries, List<Long> finished) {
+        failedCounter.increment();
+        if (reminder.getAttempts() + 1 < maxAttempts) {
+            reminder.setAttempts(reminder.getAttempts() + 1);
+            reminder.setRemindAt(now.plusNanos(retryDelayMs * 1_000_000));
+            reminder.setStatus(ReminderStatus.PENDING);
+            reminder.setClaimedAt(null);
+            retries.add(reminder);
+        } else {
+            log.warn("Giving up on reminder for appointment {}: {}", reminder.getAppointmentId(), failure.getMessage());
+            finished.add(reminder.getAppointmentId());
+        }
+    }
+
+    public int getPendingCount() {
+        return wheel.size();
+    }
+
+    static LocalDateTime parseAppointmentDate(String appointmentDate) {
+        if (appointmentDate == null || appointmentDate.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(appointmentDate);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(appointmentDate, SPACED_DATE_TIME);
+            } catch (DateTimeParseException ignored) {
+                // Date-only or free-form values carry no time to remind against
+                return null;
+            }
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,105 @@
+package com.dentalhelp.notification.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps up to {@code size} connected and authenticated SMTP transports alive so that
+ * STARTTLS and AUTH are paid once per connection instead of once per message.
+ */
+@Slf4j
+public class SmtpTransportPool implements AutoCloseable {
+
+    private final Session session;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+
+    private final BlockingQueue<Transport> idle = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private final long borrowTimeoutMs;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender, int size, long borrowTimeoutMs) {
+        this.session = mailSender.getSession();
+        this.protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+        this.host = mailSender.getHost();
+        this.port = mailSender.getPort();
+        this.username = mailSender.getUsername();
+        this.password = mailSender.getPassword();
+        this.permits = new Semaphore(size, true);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public Transport borrow() throws MessagingException, InterruptedException {
+        if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("Timed out waiting for an SMTP connection to " + host);
+        }
+        Transport transport = idle.poll();
+        try {
+            if (transport == null || !transport.isConnected()) {
+                closeQuietly(transport);
+                transport = connect();
+            }
+            return transport;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a transport to the pool. Broken transports are closed instead of being reused.
+     */
+    public void release(Transport transport, boolean healthy) {
+        if (healthy && transport.isConnected()) {
+            idle.offer(transport);
+        } else {
+            closeQuietly(transport);
+        }
+        permits.release();
+    }
+
+    @Override
+    public void close() {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            closeQuietly(transport);
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = session.getTransport(protocol);
+        transport.connect(host, port, username, password);
+        log.debug("Opened SMTP connection to {}:{}", host, port);
+        return transport;
+    }
+
+    private void closeQuietly(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+}
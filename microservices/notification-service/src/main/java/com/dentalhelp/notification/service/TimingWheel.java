@@ -0,0 +1,105 @@
+package com.dentalhelp.notification.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel. Deadlines are hashed into {@code wheelSize} buckets of {@code tickMillis};
+ * deadlines further away than one revolution carry a round counter. Scheduling and cancelling
+ * are O(1) and each tick only visits the keys hashed into its own bucket.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long startMillis;
+    private final List<Map<K, Slot>> buckets;
+    private final Map<K, Slot> slots = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.startMillis = startMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Schedules the key, replacing any deadline it already had. Past deadlines fire on the next tick.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.max(Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis), currentTick);
+        Slot slot = new Slot((int) (tick % wheelSize), (tick - currentTick) / wheelSize);
+        buckets.get(slot.bucket).put(key, slot);
+        slots.put(key, slot);
+    }
+
+    public synchronized boolean scheduleIfAbsent(K key, long deadlineMillis) {
+        if (slots.containsKey(key)) {
+            return false;
+        }
+        schedule(key, deadlineMillis);
+        return true;
+    }
+
+    public synchronized boolean cancel(K key) {
+        Slot slot = slots.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        buckets.get(slot.bucket).remove(key);
+        return true;
+    }
+
+    /**
+     * Advances the wheel up to {@code nowMillis} and removes and returns every key that became due.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<K> due = new ArrayList<>();
+        while (currentTick <= targetTick) {
+            Iterator<Map.Entry<K, Slot>> entries = buckets.get((int) (currentTick % wheelSize)).entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<K, Slot> entry = entries.next();
+                if (entry.getValue().rounds <= 0) {
+                    due.add(entry.getKey());
+                    slots.remove(entry.getKey());
+                    entries.remove();
+                } else {
+                    entry.getValue().rounds--;
+                }
+            }
+            currentTick++;
+        }
+        return due;
+    }
+
+    public synchronized boolean contains(K key) {
+        return slots.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private static final class Slot {
+        private final int bucket;
+        private long rounds;
+
+        private Slot(int bucket, long rounds) {
+            this.bucket = bucket;
+            this.rounds = rounds;
+        }
+    }
+}
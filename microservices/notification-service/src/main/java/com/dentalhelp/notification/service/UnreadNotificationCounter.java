@@ -0,0 +1,63 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.model.NotificationStatus;
+import com.dentalhelp.notification.repository.AdminNotificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory count of {@link NotificationStatus#NEW} admin notifications, so badge refreshes never hit the table.
+ * Adjustments are applied after commit; the periodic resync bounds drift from rolled back work
+ * and from changes made by other instances.
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class UnreadNotificationCounter {
+
+    private static final long NOT_LOADED = -1;
+
+    private final AdminNotificationRepository notificationRepository;
+    private final AtomicLong unread = new AtomicLong(NOT_LOADED);
+
+    public long get() {
+        long current = unread.get();
+        if (current == NOT_LOADED) {
+            resync();
+            current = unread.get();
+        }
+        return Math.max(current, 0);
+    }
+
+    public void adjustAfterCommit(long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust(delta);
+                }
+            });
+        } else {
+            adjust(delta);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.unread.resync-ms:300000}")
+    public void resync() {
+        unread.set(notificationRepository.countByNotificationStatus(NotificationStatus.NEW));
+    }
+
+    private void adjust(long delta) {
+        // Not loaded yet: the first read counts from the table anyway
+        unread.getAndUpdate(current -> current == NOT_LOADED ? NOT_LOADED : current + delta);
+    }
+}
@@ -0,0 +1,51 @@
+package com.dentalhelp.notification.config;
+
+import com.dentalhelp.notification.event.AppointmentEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageConverterTest {
+
+    private MessageConverter messageConverter;
+
+    @BeforeEach
+    void setUp() {
+        RabbitMQConfig config = new RabbitMQConfig();
+        ReflectionTestUtils.setField(config, "serializationFormat", "json");
+        messageConverter = config.messageConverter();
+    }
+
+    @Test
+    void testFromMessage_AcceptsJsonAndCborEvents() {
+        AppointmentEvent event = new AppointmentEvent(1L, "1234567890123", "a@test.com", "2024-12-01T10:00:00", "CREATED", "evt-1");
+
+        for (MessageConverter producer : new MessageConverter[]{new Jackson2JsonMessageConverter(), new Jackson2CborMessageConverter()}) {
+            Message message = producer.toMessage(event, new MessageProperties());
+            // As set by the listener adapter from the @RabbitListener method signature
+            message.getMessageProperties().setInferredArgumentType(AppointmentEvent.class);
+
+            assertEquals(event, messageConverter.fromMessage(message));
+        }
+    }
+
+    @Test
+    void testFromMessage_DecodesCborEmailMapFromTypeHeader() {
+        Map<String, String> emailData = new HashMap<>();
+        emailData.put("to", "a@test.com");
+        emailData.put("subject", "Subject");
+        emailData.put("body", "Body");
+        Message message = new Jackson2CborMessageConverter().toMessage(emailData, new MessageProperties());
+
+        assertEquals(emailData, messageConverter.fromMessage(message));
+    }
+}
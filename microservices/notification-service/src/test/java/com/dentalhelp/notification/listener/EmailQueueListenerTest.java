@@ -0,0 +1,93 @@
+package com.dentalhelp.notification.listener;
+
+import com.dentalhelp.notification.exception.MessageInProgressException;
+import com.dentalhelp.notification.service.MailDispatcher;
+import com.dentalhelp.notification.service.MessageDeduplicator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.mail.MailSendException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailQueueListenerTest {
+
+    @Mock
+    private MailDispatcher mailDispatcher;
+
+    @Mock
+    private MessageConverter messageConverter;
+
+    @Mock
+    private FailedMessageRouter failedMessageRouter;
+
+    @Mock
+    private MessageDeduplicator messageDeduplicator;
+
+    @InjectMocks
+    private EmailQueueListener emailQueueListener;
+
+    private Message message(String id) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(id);
+        properties.setConsumerQueue("email.queue");
+        return new Message("{}".getBytes(), properties);
+    }
+
+    @Test
+    void testHandleEmailRequests_RoutesOnlyFailedMessages() {
+        Message sent = message("m1");
+        Message failed = message("m2");
+        when(messageDeduplicator.tryClaim(anyString(), anyString())).thenReturn(true);
+        when(messageConverter.fromMessage(any())).thenReturn(Map.of("to", "a@b.c", "subject", "s", "body", "b"));
+        MailDispatcher.BatchResult result = spy(new MailDispatcher.BatchResult());
+        MailSendException failure = new MailSendException("mailbox full");
+        when(result.getFailures()).thenReturn(Map.of(1, failure));
+        when(mailDispatcher.sendBatch(anyList())).thenReturn(result);
+
+        emailQueueListener.handleEmailRequests(List.of(sent, failed));
+
+        verify(failedMessageRouter).recover(failed, failure);
+        verify(failedMessageRouter, never()).recover(eq(sent), any());
+        verify(messageDeduplicator).release("m2");
+        verify(messageDeduplicator).complete("m1");
+        verify(messageDeduplicator, never()).complete("m2");
+    }
+
+    @Test
+    void testHandleEmailRequests_MessageInProgressElsewhereGoesToRetryTier() {
+        Message message = message("m1");
+        MessageInProgressException inProgress = new MessageInProgressException("m1");
+        when(messageDeduplicator.tryClaim("m1", "email.queue")).thenThrow(inProgress);
+        when(mailDispatcher.sendBatch(anyList())).thenReturn(new MailDispatcher.BatchResult());
+
+        emailQueueListener.handleEmailRequests(List.of(message));
+
+        verify(failedMessageRouter).recover(message, inProgress);
+        verify(messageDeduplicator, never()).complete(anyString());
+    }
+
+    @Test
+    void testHandleEmailRequests_UnexpectedBatchFailureRoutesEachMessageInsteadOfRethrowing() {
+        Message first = message("m1");
+        Message second = message("m2");
+        when(messageDeduplicator.tryClaim(anyString(), anyString())).thenReturn(true);
+        when(messageConverter.fromMessage(any())).thenReturn(Map.of("to", "a@b.c", "subject", "s", "body", "b"));
+        when(mailDispatcher.sendBatch(anyList())).thenThrow(new IllegalStateException("pool closed"));
+
+        emailQueueListener.handleEmailRequests(List.of(first, second));
+
+        verify(failedMessageRouter).recover(eq(first), any(IllegalStateException.class));
+        verify(failedMessageRouter).recover(eq(second), any(IllegalStateException.class));
+    }
+}
@@ -0,0 +1,56 @@
+package com.dentalhelp.notification.listener;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FailedMessageRouterTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @InjectMocks
+    private FailedMessageRouter failedMessageRouter;
+
+    private Message message(int retries) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue("email.queue");
+        if (retries > 0) {
+            properties.setHeader(FailedMessageRouter.RETRY_COUNT_HEADER, retries);
+        }
+        return new Message("{}".getBytes(), properties);
+    }
+
+    @Test
+    void testRecover_SendsToNextRetryTierWithIncrementedCount() {
+        Message message = message(1);
+
+        failedMessageRouter.recover(message, new RuntimeException("smtp timeout"));
+
+        verify(rabbitTemplate).send("notification.retry.exchange", "email.queue.retry.1", message);
+        assertEquals(2, FailedMessageRouter.retryCount(message.getMessageProperties()));
+        assertEquals("RuntimeException: smtp timeout",
+                message.getMessageProperties().getHeader(FailedMessageRouter.LAST_ERROR_HEADER));
+    }
+
+    @Test
+    void testRecover_ParksAfterLastRetryTier() {
+        Message message = message(3);
+
+        failedMessageRouter.recover(message, new RuntimeException("still failing"));
+
+        verify(rabbitTemplate).send("notification.dlx", "email.queue", message);
+        verify(rabbitTemplate, never()).send(eq("notification.retry.exchange"), anyString(), any(Message.class));
+        assertEquals("email.queue", message.getMessageProperties().getHeader(FailedMessageRouter.ORIGINAL_QUEUE_HEADER));
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -170,4 +171,45 @@ class NotificationRepositoryTest {
         assertEquals(NotificationType.CANCEL_APPOINTMENT, saved.getNotificationType());
         assertEquals(NotificationStatus.NEW, saved.getNotificationStatus());
     }
+
+    @Test
+    void testUpdateStatusByIdIn_CountsOnlyChangedRows() {
+        // Arrange
+        AdminNotification unread = notificationRepository.save(testNotification);
+        AdminNotification seen = notificationRepository.save(AdminNotification.builder()
+                .appointmentId(101L)
+                .patientCnp("1234567890123")
+                .notificationType(NotificationType.CANCEL_APPOINTMENT)
+                .notificationStatus(NotificationStatus.SEEN)
+                .build());
+        entityManager.flush();
+
+        // Act
+        int updated = notificationRepository.updateStatusByIdIn(
+                List.of(unread.getNotificationId(), seen.getNotificationId()), NotificationStatus.SEEN);
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(0, notificationRepository.countByNotificationStatus(NotificationStatus.NEW));
+        assertEquals(2, notificationRepository.countByNotificationStatus(NotificationStatus.SEEN));
+    }
+
+    @Test
+    void testFindByNotificationIdGreaterThan_ReturnsNewerInAscendingOrder() {
+        // Arrange
+        AdminNotification first = notificationRepository.save(testNotification);
+        AdminNotification second = notificationRepository.save(AdminNotification.builder()
+                .appointmentId(101L).notificationStatus(NotificationStatus.NEW).build());
+        AdminNotification third = notificationRepository.save(AdminNotification.builder()
+                .appointmentId(102L).notificationStatus(NotificationStatus.NEW).build());
+        entityManager.flush();
+
+        // Act
+        List<AdminNotification> result = notificationRepository.findByNotificationIdGreaterThanOrderByNotificationIdAsc(
+                first.getNotificationId(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(second.getNotificationId(), third.getNotificationId()),
+                result.stream().map(AdminNotification::getNotificationId).toList());
+    }
 }
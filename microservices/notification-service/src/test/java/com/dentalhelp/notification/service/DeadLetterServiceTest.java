@@ -0,0 +1,153 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.dto.ReplayResultDto;
+import com.dentalhelp.notification.exception.BadRequestException;
+import com.dentalhelp.notification.exception.ResourceNotFoundException;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterServiceTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitAdmin rabbitAdmin;
+
+    @Mock
+    private Channel channel;
+
+    private DeadLetterService deadLetterService;
+
+    @BeforeEach
+    void setUp() {
+        deadLetterService = new DeadLetterService(rabbitTemplate, rabbitAdmin, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(deadLetterService, "appointmentNotificationQueue", "appointment.notification.queue");
+        ReflectionTestUtils.setField(deadLetterService, "userNotificationQueue", "user.notification.queue");
+        ReflectionTestUtils.setField(deadLetterService, "emailQueue", "email.queue");
+    }
+
+    private GetResponse parked(long deliveryTag) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .headers(Map.of("x-retry-count", 3, "x-last-error", "MailSendException: timeout"))
+                .build();
+        return new GetResponse(new Envelope(deliveryTag, false, "notification.dlx", "email.queue"),
+                properties, "{}".getBytes(), 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplayParkedMessages_RepublishesWithoutRetryHeaders() throws Exception {
+        when(rabbitTemplate.execute(any(ChannelCallback.class)))
+                .thenAnswer(invocation -> ((ChannelCallback<?>) invocation.getArgument(0)).doInRabbit(channel));
+        when(channel.basicGet("email.queue.parking-lot", false)).thenReturn(parked(1L), parked(2L), null);
+        when(channel.waitForConfirms(anyLong())).thenReturn(true);
+
+        ReplayResultDto started = deadLetterService.startReplay("email.queue", 10, 1000);
+        ReplayResultDto result = deadLetterService.getReplayJob(started.getJobId());
+
+        assertEquals(ReplayResultDto.Status.COMPLETED, result.getStatus());
+        assertEquals(2, result.getReplayed());
+        verify(channel).confirmSelect();
+        ArgumentCaptor<AMQP.BasicProperties> properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        verify(channel, times(2)).basicPublish(eq(""), eq("email.queue"), eq(true), properties.capture(), any(byte[].class));
+        assertFalse(properties.getValue().getHeaders().containsKey("x-retry-count"));
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicAck(2L, false);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplayParkedMessages_UnconfirmedPublishStaysParked() throws Exception {
+        when(rabbitTemplate.execute(any(ChannelCallback.class)))
+                .thenAnswer(invocation -> ((ChannelCallback<?>) invocation.getArgument(0)).doInRabbit(channel));
+        when(channel.basicGet("email.queue.parking-lot", false)).thenReturn(parked(1L), parked(2L), null);
+        when(channel.waitForConfirms(anyLong())).thenReturn(true, false);
+
+        ReplayResultDto started = deadLetterService.startReplay("email.queue", 10, 1000);
+        ReplayResultDto result = deadLetterService.getReplayJob(started.getJobId());
+
+        assertEquals(ReplayResultDto.Status.FAILED, result.getStatus());
+        assertEquals(1, result.getReplayed());
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicNack(2L, false, true);
+        verify(channel, never()).basicAck(2L, false);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPeekParkedMessages_RequeuesEverything() throws Exception {
+        when(rabbitTemplate.execute(any(ChannelCallback.class)))
+                .thenAnswer(invocation -> ((ChannelCallback<?>) invocation.getArgument(0)).doInRabbit(channel));
+        when(channel.basicGet("email.queue.parking-lot", false)).thenReturn(parked(1L), parked(2L), null);
+
+        var messages = deadLetterService.peekParkedMessages("email.queue", 20);
+
+        assertEquals(2, messages.size());
+        assertEquals(3, messages.get(0).getRetryCount());
+        verify(channel).basicNack(2L, true, true);
+        verify(channel, never()).basicPublish(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void testReplayParkedMessages_UnknownQueue() {
+        assertThrows(BadRequestException.class,
+                () -> deadLetterService.startReplay("unknown.queue", 10, 10));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStartReplay_BrokerFailureMarksJobFailed() {
+        when(rabbitTemplate.execute(any(ChannelCallback.class))).thenThrow(new AmqpConnectException(new RuntimeException("down")));
+
+        ReplayResultDto started = deadLetterService.startReplay("email.queue", 10, 10);
+
+        ReplayResultDto job = deadLetterService.getReplayJob(started.getJobId());
+        assertEquals(ReplayResultDto.Status.FAILED, job.getStatus());
+        assertEquals(0, job.getReplayed());
+        assertNotNull(job.getError());
+    }
+
+    @Test
+    void testStartReplay_ReturnsRunningJobWithoutWaiting() {
+        TaskExecutor deferred = task -> { };
+        DeadLetterService service = new DeadLetterService(rabbitTemplate, rabbitAdmin, deferred);
+        ReflectionTestUtils.setField(service, "appointmentNotificationQueue", "appointment.notification.queue");
+        ReflectionTestUtils.setField(service, "userNotificationQueue", "user.notification.queue");
+        ReflectionTestUtils.setField(service, "emailQueue", "email.queue");
+
+        ReplayResultDto started = service.startReplay("email.queue", 500, 20);
+
+        assertEquals(ReplayResultDto.Status.RUNNING, started.getStatus());
+        assertNotNull(started.getJobId());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void testGetReplayJob_UnknownId() {
+        assertThrows(ResourceNotFoundException.class, () -> deadLetterService.getReplayJob("missing"));
+    }
+}
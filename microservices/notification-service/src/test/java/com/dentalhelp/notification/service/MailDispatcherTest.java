@@ -0,0 +1,86 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.dto.OutgoingEmail;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MailDispatcher pooledDispatcher() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        return new MailDispatcher(mailSender, meterRegistry, "clinic@denthelp.test", 2, 5000, 1000);
+    }
+
+    @Test
+    void testSendBatch_DeliversAllMessagesOverPooledConnection() throws Exception {
+        MailDispatcher dispatcher = pooledDispatcher();
+        List<OutgoingEmail> emails = IntStream.range(0, 25)
+                .mapToObj(i -> new OutgoingEmail("patient" + i + "@denthelp.test", "Reminder " + i, "Body " + i))
+                .toList();
+
+        MailDispatcher.BatchResult result = dispatcher.sendBatch(emails);
+        dispatcher.destroy();
+
+        assertEquals(25, result.getSent());
+        assertTrue(result.getFailures().isEmpty());
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(25, received.length);
+        assertEquals("clinic@denthelp.test", received[0].getFrom()[0].toString());
+        assertEquals(25.0, meterRegistry.get("mail.dispatch.messages").tag("result", "sent").counter().count());
+        assertEquals(1, meterRegistry.get("mail.dispatch.batch").timer().count());
+    }
+
+    @Test
+    void testSendBatch_ReportsInvalidRecipientPerItem() {
+        MailDispatcher dispatcher = pooledDispatcher();
+
+        MailDispatcher.BatchResult result = dispatcher.sendBatch(List.of(
+                new OutgoingEmail("ok@denthelp.test", "Subject", "Body"),
+                new OutgoingEmail("not a valid address", "Subject", "Body")));
+        dispatcher.destroy();
+
+        assertEquals(1, result.getSent());
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getFailures().containsKey(1));
+    }
+
+    @Test
+    void testSendBatch_FallsBackToMailSenderAndMapsFailures() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doAnswer(invocation -> {
+            SimpleMailMessage second = invocation.getArgument(1);
+            throw new MailSendException(Map.of(second, new RuntimeException("rejected")));
+        }).when(mailSender).send(any(SimpleMailMessage.class), any(SimpleMailMessage.class));
+        MailDispatcher dispatcher = new MailDispatcher(mailSender, meterRegistry, "clinic@denthelp.test", 2, 5000, 1000);
+
+        MailDispatcher.BatchResult result = dispatcher.sendBatch(List.of(
+                new OutgoingEmail("a@denthelp.test", "S", "B"),
+                new OutgoingEmail("b@denthelp.test", "S", "B")));
+
+        assertEquals(1, result.getSent());
+        assertTrue(result.getFailures().containsKey(1));
+    }
+}
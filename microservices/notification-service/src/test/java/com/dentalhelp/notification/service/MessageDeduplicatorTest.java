@@ -0,0 +1,100 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.exception.MessageInProgressException;
+import com.dentalhelp.notification.model.ProcessedMessage;
+import com.dentalhelp.notification.repository.ProcessedMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MessageDeduplicatorTest {
+
+    @Autowired
+    private ProcessedMessageRepository processedMessageRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessageDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        processedMessageRepository.deleteAll();
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = new MessageDeduplicator(processedMessageRepository, meterRegistry, 2, 168, 120000);
+    }
+
+    @Test
+    void testRunOnce_DropsRedelivery() {
+        AtomicInteger runs = new AtomicInteger();
+
+        deduplicator.runOnce("msg-1", "appointment.notification.queue", runs::incrementAndGet);
+        deduplicator.runOnce("msg-1", "appointment.notification.queue", runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+        assertEquals(1.0, meterRegistry.get("rabbitmq.consumer.duplicates").counter().count());
+    }
+
+    @Test
+    void testTryClaim_TableCatchesIdsEvictedFromCache() {
+        for (String id : new String[] {"msg-1", "msg-2", "msg-3"}) {
+            assertTrue(deduplicator.tryClaim(id, "q"));
+            deduplicator.complete(id);
+        }
+
+        // msg-1 fell out of the two-entry LRU, the primary key still rejects it
+        assertFalse(deduplicator.tryClaim("msg-1", "q"));
+        // A fresh instance (e.g. after restart) has an empty cache
+        assertFalse(new MessageDeduplicator(processedMessageRepository, meterRegistry, 2, 168, 120000).tryClaim("msg-3", "q"));
+    }
+
+    @Test
+    void testRunOnce_FailureReleasesClaim() {
+        assertThrows(IllegalStateException.class, () -> deduplicator.runOnce("msg-1", "q", () -> {
+            throw new IllegalStateException("smtp down");
+        }));
+
+        assertFalse(processedMessageRepository.existsById("msg-1"));
+        assertTrue(deduplicator.tryClaim("msg-1", "q"));
+    }
+
+    @Test
+    void testTryClaim_LiveClaimIsRetriedNotDropped() {
+        assertTrue(deduplicator.tryClaim("msg-1", "q"));
+
+        // The first consumer has not finished yet; dropping the redelivery would lose the message if it crashes
+        assertThrows(MessageInProgressException.class, () -> deduplicator.tryClaim("msg-1", "q"));
+        assertEquals(0, meterRegistry.find("rabbitmq.consumer.duplicates").counters().size());
+    }
+
+    @Test
+    void testTryClaim_AbandonedClaimIsTakenOver() throws InterruptedException {
+        MessageDeduplicator crashed = new MessageDeduplicator(processedMessageRepository, meterRegistry, 2, 168, 1);
+        assertTrue(crashed.tryClaim("msg-1", "q"));
+        Thread.sleep(20);
+
+        MessageDeduplicator survivor = new MessageDeduplicator(processedMessageRepository, meterRegistry, 2, 168, 1);
+        AtomicInteger runs = new AtomicInteger();
+        survivor.runOnce("msg-1", "q", runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+        assertEquals(ProcessedMessage.Status.DONE, processedMessageRepository.findById("msg-1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testTryClaim_MessagesWithoutIdAlwaysProcessed() {
+        assertTrue(deduplicator.tryClaim(null, "q"));
+        assertTrue(deduplicator.tryClaim(null, "q"));
+        assertEquals(0, processedMessageRepository.count());
+    }
+}
@@ -0,0 +1,124 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.event.AdminNotificationChangedEvent;
+import com.dentalhelp.notification.model.AdminNotification;
+import com.dentalhelp.notification.model.NotificationStatus;
+import com.dentalhelp.notification.model.NotificationType;
+import com.dentalhelp.notification.repository.AdminNotificationArchiveRepository;
+import com.dentalhelp.notification.repository.AdminNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationRetentionJobTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AdminNotificationRepository notificationRepository;
+
+    @Autowired
+    private AdminNotificationArchiveRepository archiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ApplicationEventPublisher eventPublisher;
+    private NotificationRetentionJob retentionJob;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        retentionJob = new NotificationRetentionJob(notificationRepository, archiveRepository,
+                transactionManager, eventPublisher, meterRegistry, 90, 2, 10, 0, true);
+    }
+
+    @Test
+    void testArchiveExpired_MovesOnlyOldSeenNotifications() {
+        // Arrange
+        LocalDateTime old = LocalDateTime.now().minusDays(120);
+        Long oldSeen1 = persist(NotificationStatus.SEEN, old).getNotificationId();
+        Long oldSeen2 = persist(NotificationStatus.SEEN, old.plusDays(1)).getNotificationId();
+        Long oldSeen3 = persist(NotificationStatus.SEEN, old.plusDays(2)).getNotificationId();
+        persist(NotificationStatus.NEW, old);
+        persist(NotificationStatus.SEEN, LocalDateTime.now().minusDays(10));
+        entityManager.flush();
+
+        // Act
+        int moved = retentionJob.archiveExpired(LocalDateTime.now().minusDays(90));
+
+        // Assert
+        assertEquals(3, moved);
+        assertEquals(2, notificationRepository.count());
+        assertTrue(archiveRepository.existsById(oldSeen1));
+        assertTrue(archiveRepository.existsById(oldSeen2));
+        assertTrue(archiveRepository.existsById(oldSeen3));
+        assertEquals(3.0, meterRegistry.get("notifications.retention.rows").tag("action", "archived").counter().count());
+        ArgumentCaptor<AdminNotificationChangedEvent> events = ArgumentCaptor.forClass(AdminNotificationChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertTrue(events.getAllValues().stream().allMatch(e -> "DELETED".equals(e.getChangeType())));
+        assertEquals(List.of(oldSeen1, oldSeen2, oldSeen3),
+                events.getAllValues().stream().map(e -> e.getNotification().getNotificationId()).sorted().toList());
+    }
+
+    @Test
+    void testBackfillCreatedAt_ParsesFormattedDate() {
+        // Arrange
+        AdminNotification legacy = persist(NotificationStatus.SEEN, null);
+        legacy.setDate("2023-01-15 14:30:00");
+        AdminNotification unparsable = persist(NotificationStatus.SEEN, null);
+        unparsable.setDate("yesterday");
+        entityManager.flush();
+
+        // Act
+        int filled = retentionJob.backfillCreatedAt();
+
+        // Assert
+        assertEquals(2, filled);
+        assertEquals(LocalDateTime.of(2023, 1, 15, 14, 30),
+                notificationRepository.findById(legacy.getNotificationId()).orElseThrow().getCreatedAt());
+        assertNotNull(notificationRepository.findById(unparsable.getNotificationId()).orElseThrow().getCreatedAt());
+    }
+
+    @Test
+    void testRun_StopsBackfillingOnceComplete() {
+        // Arrange
+        retentionJob.run();
+        AdminNotification late = persist(NotificationStatus.SEEN, null);
+        entityManager.flush();
+
+        // Act
+        retentionJob.run();
+
+        // Assert - createdAt is always set on new rows, so nothing is queried for after the first pass
+        assertNull(notificationRepository.findById(late.getNotificationId()).orElseThrow().getCreatedAt());
+    }
+
+    private AdminNotification persist(NotificationStatus status, LocalDateTime createdAt) {
+        return entityManager.persist(AdminNotification.builder()
+                .appointmentId(100L)
+                .patientCnp("1234567890123")
+                .notificationType(NotificationType.NEW_APPOINTMENT)
+                .notificationStatus(status)
+                .createdAt(createdAt)
+                .build());
+    }
+}
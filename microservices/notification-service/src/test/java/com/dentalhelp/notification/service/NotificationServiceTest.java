@@ -1,6 +1,8 @@
 package com.dentalhelp.notification.service;
 
 import com.dentalhelp.notification.dto.AdminNotificationDto;
+import com.dentalhelp.notification.event.AdminNotificationChangedEvent;
+import com.dentalhelp.notification.exception.BadRequestException;
 import com.dentalhelp.notification.exception.ResourceNotFoundException;
 import com.dentalhelp.notification.model.AdminNotification;
 import com.dentalhelp.notification.model.NotificationStatus;
@@ -9,16 +11,20 @@ import com.dentalhelp.notification.repository.AdminNotificationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +33,12 @@ class NotificationServiceTest {
     @Mock
     private AdminNotificationRepository notificationRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UnreadNotificationCounter unreadCounter;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -217,4 +229,94 @@ class NotificationServiceTest {
         assertEquals(testNotification.getNotificationType(), dto.getNotificationType());
         assertEquals(testNotification.getNotificationStatus(), dto.getNotificationStatus());
     }
+
+    @Test
+    void testMarkAllAsRead_SingleUpdateAndCounterAdjusted() {
+        // Arrange
+        AdminNotification other = AdminNotification.builder()
+                .notificationId(3L)
+                .patientCnp("9876543210987")
+                .notificationType(NotificationType.NEW_APPOINTMENT)
+                .notificationStatus(NotificationStatus.NEW)
+                .build();
+        when(notificationRepository.findByNotificationIdInAndNotificationStatus(List.of(1L, 2L, 3L), NotificationStatus.NEW))
+                .thenReturn(List.of(testNotification, other));
+        when(notificationRepository.updateStatusByIdIn(List.of(1L, 3L), NotificationStatus.SEEN)).thenReturn(2);
+
+        // Act
+        int updated = notificationService.markAllAsRead(Arrays.asList(1L, 2L, 2L, null, 3L));
+
+        // Assert
+        assertEquals(2, updated);
+        verify(unreadCounter).adjustAfterCommit(-2);
+        verify(notificationRepository, never()).save(any(AdminNotification.class));
+    }
+
+    @Test
+    void testMarkAllAsRead_PublishesFullDtoOnlyForChangedRows() {
+        // Arrange
+        when(notificationRepository.findByNotificationIdInAndNotificationStatus(List.of(1L, 2L), NotificationStatus.NEW))
+                .thenReturn(List.of(testNotification));
+        when(notificationRepository.updateStatusByIdIn(List.of(1L), NotificationStatus.SEEN)).thenReturn(1);
+
+        // Act
+        notificationService.markAllAsRead(List.of(1L, 2L));
+
+        // Assert
+        ArgumentCaptor<AdminNotificationChangedEvent> captor = ArgumentCaptor.forClass(AdminNotificationChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        AdminNotificationDto dto = captor.getValue().getNotification();
+        assertEquals(1L, dto.getNotificationId());
+        assertEquals(NotificationStatus.SEEN, dto.getNotificationStatus());
+        assertEquals(testNotification.getPatientCnp(), dto.getPatientCnp());
+        assertEquals(testNotification.getObservations(), dto.getObservations());
+    }
+
+    @Test
+    void testMarkAllAsRead_NothingUnreadPublishesNothing() {
+        // Arrange
+        when(notificationRepository.findByNotificationIdInAndNotificationStatus(List.of(7L), NotificationStatus.NEW))
+                .thenReturn(List.of());
+
+        // Act
+        int updated = notificationService.markAllAsRead(List.of(7L));
+
+        // Assert
+        assertEquals(0, updated);
+        verify(notificationRepository, never()).updateStatusByIdIn(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testMarkAllAsRead_TooManyIds() {
+        // Arrange
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> notificationService.markAllAsRead(ids));
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void testMarkAsRead_AlreadySeenDoesNotDecrementCounter() {
+        // Arrange
+        testNotification.setNotificationStatus(NotificationStatus.SEEN);
+        when(notificationRepository.findByNotificationId(1L)).thenReturn(Optional.of(testNotification));
+
+        // Act
+        notificationService.markAsRead(1L);
+
+        // Assert
+        verify(unreadCounter, never()).adjustAfterCommit(anyLong());
+    }
+
+    @Test
+    void testGetUnreadCount_ReadsCounter() {
+        // Arrange
+        when(unreadCounter.get()).thenReturn(4L);
+
+        // Act & Assert
+        assertEquals(4L, notificationService.getUnreadCount());
+        verifyNoInteractions(notificationRepository);
+    }
 }
@@ -0,0 +1,116 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.dto.AdminNotificationDto;
+import com.dentalhelp.notification.event.AdminNotificationChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationStreamServiceTest {
+
+    private NotificationStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        streamService = new NotificationStreamService(3, 60000, Runnable::run);
+    }
+
+    @Test
+    void testEventsAfter_ReturnsOnlyMissedEvents() {
+        publish(1L);
+        String firstId = streamService.getLastEventId();
+        publish(2L);
+        publish(3L);
+
+        Optional<List<NotificationStreamService.BufferedEvent>> missed = streamService.eventsAfter(firstId);
+
+        assertTrue(missed.isPresent());
+        assertEquals(2, missed.get().size());
+        assertTrue(missed.get().get(0).getId().endsWith("-2"));
+        assertTrue(missed.get().get(1).getId().endsWith("-3"));
+    }
+
+    @Test
+    void testEventsAfter_UpToDateClientGetsNothing() {
+        publish(1L);
+        String lastId = streamService.getLastEventId();
+
+        Optional<List<NotificationStreamService.BufferedEvent>> missed = streamService.eventsAfter(lastId);
+
+        assertTrue(missed.isPresent());
+        assertTrue(missed.get().isEmpty());
+    }
+
+    @Test
+    void testEventsAfter_EvictedOrForeignIdRequiresReset() {
+        publish(1L);
+        String firstId = streamService.getLastEventId();
+        for (long id = 2; id <= 5; id++) {
+            publish(id);
+        }
+
+        assertTrue(streamService.eventsAfter(firstId).isEmpty());
+        assertTrue(streamService.eventsAfter("previous-process-4").isEmpty());
+        assertTrue(streamService.eventsAfter(firstId.replaceAll("-\\d+$", "-99")).isEmpty());
+    }
+
+    @Test
+    void testSubscribe_RegistersEmitter() {
+        streamService.subscribe(null);
+
+        assertEquals(1, streamService.getSubscriberCount());
+    }
+
+    @Test
+    void testOnNotificationChanged_SendsOnStreamExecutorNotCallerThread() {
+        List<Runnable> queued = new ArrayList<>();
+        NotificationStreamService deferred = new NotificationStreamService(3, 60000, queued::add);
+        deferred.subscribe(null);
+
+        deferred.onNotificationChanged(change(1L));
+        deferred.onNotificationChanged(change(2L));
+
+        // One drain task per subscriber, however many events are waiting
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertEquals(1, deferred.getSubscriberCount());
+    }
+
+    @Test
+    void testOnNotificationChanged_DisconnectsSubscriberThatFallsBehind() {
+        NotificationStreamService deferred = new NotificationStreamService(3, 60000, task -> { });
+        deferred.subscribe(null);
+
+        for (long id = 1; id <= 4; id++) {
+            deferred.onNotificationChanged(change(id));
+        }
+
+        assertEquals(0, deferred.getSubscriberCount());
+    }
+
+    @Test
+    void testSubscribe_WithLastEventIdRegistersAfterReplay() {
+        publish(1L);
+        String firstId = streamService.getLastEventId();
+        publish(2L);
+
+        streamService.subscribe(firstId);
+        publish(3L);
+
+        assertEquals(1, streamService.getSubscriberCount());
+    }
+
+    private AdminNotificationChangedEvent change(Long notificationId) {
+        return new AdminNotificationChangedEvent("CREATED", AdminNotificationDto.builder().notificationId(notificationId).build());
+    }
+
+    private void publish(Long notificationId) {
+        AdminNotificationDto dto = AdminNotificationDto.builder().notificationId(notificationId).build();
+        streamService.onNotificationChanged(new AdminNotificationChangedEvent("CREATED", dto));
+    }
+}
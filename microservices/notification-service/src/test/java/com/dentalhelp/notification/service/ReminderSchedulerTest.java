@@ -0,0 +1,196 @@
+package com.dentalhelp.notification.service;
+
+import com.dentalhelp.notification.dto.OutgoingEmail;
+import com.dentalhelp.notification.event.AppointmentEvent;
+import com.dentalhelp.notification.model.AppointmentReminder;
+import com.dentalhelp.notification.model.ReminderStatus;
+import com.dentalhelp.notification.repository.AppointmentReminderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+
+    @Mock
+    private AppointmentReminderRepository reminderRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private MailDispatcher mailDispatcher;
+
+    @Mock
+    private PatientDirectory patientDirectory;
+
+    private ReminderScheduler reminderScheduler;
+
+    @BeforeEach
+    void setUp() {
+        reminderScheduler = new ReminderScheduler(reminderRepository, emailService, mailDispatcher, patientDirectory,
+                new SimpleMeterRegistry(), 24, 10, 64, 50, 3, 60000, 600000);
+    }
+
+    @Test
+    void testSchedule_PersistsReminderLeadHoursBeforeAppointment() {
+        LocalDateTime appointmentAt = LocalDateTime.now().plusDays(3).withNano(0);
+
+        reminderScheduler.schedule(event(7L, appointmentAt.toString(), "patient@test.com"));
+
+        ArgumentCaptor<AppointmentReminder> captor = ArgumentCaptor.forClass(AppointmentReminder.class);
+        verify(reminderRepository).save(captor.capture());
+        assertEquals(appointmentAt.minusHours(24), captor.getValue().getRemindAt());
+        assertEquals(1, reminderScheduler.getPendingCount());
+    }
+
+    @Test
+    void testSchedule_WithoutPatientOrInPastCancels() {
+        reminderScheduler.schedule(new AppointmentEvent(7L, null, null, LocalDateTime.now().plusDays(3).toString(), "CONFIRMED", null));
+        reminderScheduler.schedule(event(8L, LocalDateTime.now().minusDays(1).toString(), "patient@test.com"));
+        reminderScheduler.schedule(event(9L, "2024-12-01", "patient@test.com"));
+
+        verify(reminderRepository, never()).save(any());
+        assertEquals(0, reminderScheduler.getPendingCount());
+    }
+
+    @Test
+    void testCancel_RemovesFromWheelAndTable() {
+        reminderScheduler.schedule(event(7L, LocalDateTime.now().plusDays(3).toString(), "patient@test.com"));
+        when(reminderRepository.existsById(7L)).thenReturn(true);
+
+        reminderScheduler.cancel(7L);
+
+        verify(reminderRepository).deleteById(7L);
+        assertEquals(0, reminderScheduler.getPendingCount());
+    }
+
+    @Test
+    void testFireDueReminders_SendsBatchAndDeletesSentRows() throws InterruptedException {
+        String appointmentDate = LocalDateTime.now().plusHours(2).withNano(0).toString();
+        reminderScheduler.schedule(event(7L, appointmentDate, "patient@test.com"));
+        AppointmentReminder reminder = reminder(7L, appointmentDate, "patient@test.com");
+        when(reminderRepository.findAllById(List.of(7L))).thenReturn(List.of(reminder));
+        when(reminderRepository.claim(eq(7L), any(), any(), any(), any())).thenReturn(1);
+        when(emailService.buildAppointmentReminderEmail("patient@test.com", appointmentDate))
+                .thenReturn(new OutgoingEmail("patient@test.com", "Reminder", "Body"));
+        when(mailDispatcher.sendBatch(anyList())).thenReturn(new MailDispatcher.BatchResult());
+
+        Thread.sleep(30);
+        reminderScheduler.fireDueReminders();
+
+        verify(mailDispatcher).sendBatch(anyList());
+        verify(reminderRepository).deleteAllByIdInBatch(List.of(7L));
+        assertEquals(0, reminderScheduler.getPendingCount());
+    }
+
+    @Test
+    void testFireDueReminders_ReschedulesFailedSend() throws InterruptedException {
+        String appointmentDate = LocalDateTime.now().plusHours(2).withNano(0).toString();
+        reminderScheduler.schedule(event(7L, appointmentDate, "patient@test.com"));
+        AppointmentReminder reminder = reminder(7L, appointmentDate, "patient@test.com");
+        when(reminderRepository.findAllById(List.of(7L))).thenReturn(List.of(reminder));
+        when(reminderRepository.claim(eq(7L), any(), any(), any(), any())).thenReturn(1);
+        when(emailService.buildAppointmentReminderEmail(anyString(), anyString()))
+                .thenReturn(new OutgoingEmail("patient@test.com", "Reminder", "Body"));
+        MailDispatcher.BatchResult failed = new MailDispatcher.BatchResult();
+        failed.getFailures().put(0, new MailSendException("smtp down"));
+        when(mailDispatcher.sendBatch(anyList())).thenReturn(failed);
+
+        Thread.sleep(30);
+        reminderScheduler.fireDueReminders();
+
+        assertEquals(1, reminder.getAttempts());
+        assertEquals(ReminderStatus.PENDING, reminder.getStatus());
+        verify(reminderRepository).saveAll(List.of(reminder));
+        verify(reminderRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(1, reminderScheduler.getPendingCount());
+    }
+
+    @Test
+    void testFireDueReminders_ProducerEventWithoutEmailLooksUpPatient() throws Exception {
+        // Shaped like appointment-service's outbox payload: only the CNP identifies the patient
+        String appointmentDate = LocalDateTime.now().plusHours(2).withSecond(0).withNano(0).toString();
+        AppointmentEvent event = new ObjectMapper().readValue("""
+                {"eventId":"5b7c1f0e-1d2a-4c39-9f1e-0d8f3c1f2a10","appointmentId":7,"patientCnp":"1234567890123",
+                 "patientEmail":null,"appointmentDate":"%s","eventType":"CONFIRMED"}
+                """.formatted(appointmentDate), AppointmentEvent.class);
+
+        reminderScheduler.schedule(event);
+
+        ArgumentCaptor<AppointmentReminder> saved = ArgumentCaptor.forClass(AppointmentReminder.class);
+        verify(reminderRepository).save(saved.capture());
+        assertEquals(1, reminderScheduler.getPendingCount());
+
+        when(reminderRepository.findAllById(List.of(7L))).thenReturn(List.of(saved.getValue()));
+        when(reminderRepository.claim(eq(7L), any(), any(), any(), any())).thenReturn(1);
+        when(patientDirectory.findEmail("1234567890123")).thenReturn(Optional.of("patient@test.com"));
+        when(emailService.buildAppointmentReminderEmail("patient@test.com", appointmentDate))
+                .thenReturn(new OutgoingEmail("patient@test.com", "Reminder", "Body"));
+        when(mailDispatcher.sendBatch(anyList())).thenReturn(new MailDispatcher.BatchResult());
+
+        Thread.sleep(30);
+        reminderScheduler.fireDueReminders();
+
+        verify(mailDispatcher).sendBatch(List.of(new OutgoingEmail("patient@test.com", "Reminder", "Body")));
+        verify(reminderRepository).deleteAllByIdInBatch(List.of(7L));
+    }
+
+    @Test
+    void testFireDueReminders_SkipsReminderClaimedByAnotherInstance() throws InterruptedException {
+        String appointmentDate = LocalDateTime.now().plusHours(2).withNano(0).toString();
+        reminderScheduler.schedule(event(7L, appointmentDate, "patient@test.com"));
+        when(reminderRepository.findAllById(List.of(7L))).thenReturn(List.of(reminder(7L, appointmentDate, "patient@test.com")));
+        when(reminderRepository.claim(eq(7L), any(), any(), any(), any())).thenReturn(0);
+
+        Thread.sleep(30);
+        reminderScheduler.fireDueReminders();
+
+        verifyNoInteractions(mailDispatcher);
+        verify(reminderRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void testRebuildSchedule_LoadsPersistedReminders() {
+        AppointmentReminder first = reminder(1L, LocalDateTime.now().plusDays(2).toString(), "a@test.com");
+        AppointmentReminder second = reminder(2L, LocalDateTime.now().plusDays(5).toString(), "b@test.com");
+        when(reminderRepository.findByAppointmentIdGreaterThanOrderByAppointmentIdAsc(eq(Long.MIN_VALUE), any()))
+                .thenReturn(List.of(first, second));
+        when(reminderRepository.findByAppointmentIdGreaterThanOrderByAppointmentIdAsc(eq(2L), any()))
+                .thenReturn(List.of());
+
+        reminderScheduler.rebuildSchedule();
+
+        assertEquals(2, reminderScheduler.getPendingCount());
+    }
+
+    private AppointmentEvent event(Long appointmentId, String appointmentDate, String email) {
+        return new AppointmentEvent(appointmentId, "1234567890123", email, appointmentDate, "CONFIRMED", null);
+    }
+
+    private AppointmentReminder reminder(Long appointmentId, String appointmentDate, String email) {
+        LocalDateTime appointmentAt = LocalDateTime.parse(appointmentDate);
+        return AppointmentReminder.builder()
+                .appointmentId(appointmentId)
+                .patientCnp("1234567890123")
+                .patientEmail(email)
+                .appointmentDate(appointmentDate)
+                .appointmentAt(appointmentAt)
+                .remindAt(appointmentAt.minusHours(24).isBefore(LocalDateTime.now()) ? LocalDateTime.now() : appointmentAt.minusHours(24))
+                .build();
+    }
+}
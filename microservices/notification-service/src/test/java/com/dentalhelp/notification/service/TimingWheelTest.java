@@ -0,0 +1,73 @@
+package com.dentalhelp.notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void testAdvance_ReturnsKeysOnlyOnceTheirDeadlinePassed() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule(1L, 250);
+        wheel.schedule(2L, 550);
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(300));
+        assertTrue(wheel.advance(500).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(600));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testAdvance_HandlesDeadlinesBeyondOneRevolution() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 4, 0);
+        // Same bucket as tick 2, but three revolutions later
+        wheel.schedule(1L, 1400);
+
+        assertTrue(wheel.advance(1300).isEmpty());
+        assertTrue(wheel.contains(1L));
+        assertEquals(List.of(1L), wheel.advance(1400));
+    }
+
+    @Test
+    void testSchedule_ReplacesExistingDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule(1L, 200);
+        wheel.schedule(1L, 900);
+
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(800).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(900));
+    }
+
+    @Test
+    void testCancel_RemovesKey() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule(1L, 200);
+
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+        assertTrue(wheel.advance(1000).isEmpty());
+    }
+
+    @Test
+    void testSchedule_PastDeadlineFiresOnNextTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.advance(500);
+        wheel.schedule(1L, 100);
+
+        assertEquals(List.of(1L), wheel.advance(600));
+    }
+
+    @Test
+    void testScheduleIfAbsent_KeepsExistingDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule(1L, 700);
+
+        assertFalse(wheel.scheduleIfAbsent(1L, 100));
+        assertTrue(wheel.advance(600).isEmpty());
+    }
+}
@@ -0,0 +1,22 @@
+package com.dentalhelp.treatment.controller;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Content-derived ETags for batch lookups. Spring answers a matching If-None-Match on GET with
+ * 304 once the ETag is set on the ResponseEntity, so history views can revalidate cheaply.
+ */
+final class BatchETags {
+
+    private BatchETags() {
+    }
+
+    static String of(Map<Long, ?> results) {
+        StringBuilder content = new StringBuilder();
+        results.forEach((appointmentId, dto) -> content.append(appointmentId).append('=').append(dto).append('\n'));
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
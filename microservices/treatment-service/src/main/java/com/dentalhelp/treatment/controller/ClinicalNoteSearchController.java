@@ -0,0 +1,45 @@
+package com.dentalhelp.treatment.controller;
+
+import com.dentalhelp.treatment.dto.ApiResponse;
+import com.dentalhelp.treatment.dto.ClinicalNoteSearchResultDto;
+import com.dentalhelp.treatment.search.ClinicalNotesIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/patients/medical-record")
+@RequiredArgsConstructor
+public class ClinicalNoteSearchController {
+
+    private final ClinicalNotesIndex clinicalNotesIndex;
+
+    /**
+     * Full-text search over treatment sheet and medical report notes. The date range applies to
+     * medical report dates, so it narrows results to reports.
+     */
+    @GetMapping("/search-clinical-notes")
+    public ResponseEntity<ApiResponse> searchClinicalNotes(
+            @RequestParam String q,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) String recordType,
+            @RequestParam(required = false) Long appointmentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        ClinicalNoteSearchResultDto result =
+                clinicalNotesIndex.search(q, fields, recordType, appointmentId, from, to, page, size);
+        return ResponseEntity.ok(ApiResponse.success("Clinical notes search results", result));
+    }
+
+    @PostMapping("/rebuild-search-index")
+    public ResponseEntity<ApiResponse> rebuildSearchIndex() {
+        int indexed = clinicalNotesIndex.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Search index rebuilt", indexed));
+    }
+}
@@ -0,0 +1,30 @@
+package com.dentalhelp.treatment.controller;
+
+import com.dentalhelp.treatment.dto.ApiResponse;
+import com.dentalhelp.treatment.dto.EncounterDto;
+import com.dentalhelp.treatment.service.EncounterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/in/treatment-sheet")
+@RequiredArgsConstructor
+public class EncounterController {
+
+    private final EncounterService encounterService;
+
+    @GetMapping("/get-encounter/{appointmentId}")
+    public ResponseEntity<ApiResponse> getEncounter(@PathVariable Long appointmentId) {
+        EncounterDto encounter = encounterService.getEncounter(appointmentId);
+        return ResponseEntity.ok(ApiResponse.success("Encounter retrieved successfully", encounter));
+    }
+
+    @PostMapping("/get-encounters")
+    public ResponseEntity<ApiResponse> getEncounters(@RequestBody List<Long> appointmentIds) {
+        List<EncounterDto> encounters = encounterService.getEncounters(appointmentIds);
+        return ResponseEntity.ok(ApiResponse.success("Encounters retrieved successfully", encounters));
+    }
+}
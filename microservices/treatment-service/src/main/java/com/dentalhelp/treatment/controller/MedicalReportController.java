@@ -7,6 +7,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin/patients/medical-record")
 @RequiredArgsConstructor
@@ -20,6 +23,14 @@ public class MedicalReportController {
         return ResponseEntity.ok(ApiResponse.success("Medical report retrieved successfully", report));
     }
 
+    @GetMapping("/get-medical-records")
+    public ResponseEntity<ApiResponse> getMedicalReports(@RequestParam List<Long> appointmentIds) {
+        Map<Long, MedicalReportDto> reports = treatmentService.getMedicalReportsByAppointmentIds(appointmentIds);
+        return ResponseEntity.ok()
+                .eTag(BatchETags.of(reports))
+                .body(ApiResponse.success("Medical reports retrieved successfully", reports));
+    }
+
     @PostMapping("/new-medical-record")
     public ResponseEntity<ApiResponse> saveMedicalReport(@RequestBody MedicalReportDto dto) {
         treatmentService.saveMedicalReport(dto);
@@ -7,6 +7,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/in/treatment-sheet")
 @RequiredArgsConstructor
@@ -20,6 +23,14 @@ public class TreatmentSheetController {
         return ResponseEntity.ok(ApiResponse.success("Treatment sheet retrieved successfully", sheet));
     }
 
+    @GetMapping("/get-treatment-sheets")
+    public ResponseEntity<ApiResponse> getTreatmentSheets(@RequestParam List<Long> appointmentIds) {
+        Map<Long, TreatmentSheetDto> sheets = treatmentService.getTreatmentSheetsByAppointmentIds(appointmentIds);
+        return ResponseEntity.ok()
+                .eTag(BatchETags.of(sheets))
+                .body(ApiResponse.success("Treatment sheets retrieved successfully", sheets));
+    }
+
     @PostMapping("/save-treatment-sheet")
     public ResponseEntity<ApiResponse> saveTreatmentSheet(@RequestBody TreatmentSheetDto dto) {
         treatmentService.saveTreatmentSheet(dto);
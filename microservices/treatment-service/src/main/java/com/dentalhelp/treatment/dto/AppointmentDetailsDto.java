@@ -0,0 +1,41 @@
+package com.dentalhelp.treatment.dto;
+
+import lombok.*;
+
+/**
+ * Appointment and anamnesis as returned by appointment-service's batch details endpoint.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentDetailsDto {
+    private Appointment appointment;
+    private Anamnesis anamnesis;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Appointment {
+        private Long appointmentId;
+        private String patientCnp;
+        private String appointmentReason;
+        private String date;
+        private String hour;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Anamnesis {
+        private Long anamneseAppointmentId;
+        private Long appointmentId;
+        private String appointmentReason;
+        private String currentMedication;
+        private String recentMedication;
+        private String pregnancy;
+        private String currentSymptoms;
+    }
+}
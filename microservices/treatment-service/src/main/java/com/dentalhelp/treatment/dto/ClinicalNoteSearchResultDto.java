@@ -0,0 +1,30 @@
+package com.dentalhelp.treatment.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClinicalNoteSearchResultDto {
+    private long totalHits;
+    private int page;
+    private int size;
+    private List<Hit> hits;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Hit {
+        private String recordType;
+        private Long recordId;
+        private Long appointmentId;
+        private String date;
+        private float score;
+        private Map<String, String> fields;
+    }
+}
@@ -0,0 +1,20 @@
+package com.dentalhelp.treatment.dto;
+
+import lombok.*;
+
+/**
+ * Everything recorded for one appointment: the appointment and anamnesis owned by
+ * appointment-service plus the treatment sheet and medical report stored here.
+ * Any part may be null when it has not been recorded (or appointment-service is unreachable).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EncounterDto {
+    private Long appointmentId;
+    private AppointmentDetailsDto.Appointment appointment;
+    private AppointmentDetailsDto.Anamnesis anamnesis;
+    private TreatmentSheetDto treatmentSheet;
+    private MedicalReportDto medicalReport;
+}
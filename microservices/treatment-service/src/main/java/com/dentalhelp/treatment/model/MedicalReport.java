@@ -9,7 +9,9 @@ import lombok.*;
 @Setter
 @Entity
 @Builder
-@Table(name = "medical_reports")
+@Table(name = "medical_reports", indexes = {
+    @Index(name = "idx_medical_report_appointment_id", columnList = "appointmentId")
+})
 public class MedicalReport {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -9,7 +9,9 @@ import lombok.*;
 @Setter
 @Entity
 @Builder
-@Table(name = "treatment_sheets")
+@Table(name = "treatment_sheets", indexes = {
+    @Index(name = "idx_treatment_sheet_appointment_id", columnList = "appointmentId")
+})
 public class TreatmentSheet {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,12 +1,21 @@
 package com.dentalhelp.treatment.repository;
 
+import com.dentalhelp.treatment.dto.MedicalReportDto;
 import com.dentalhelp.treatment.model.MedicalReport;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MedicalReportRepository extends JpaRepository<MedicalReport, Long> {
     Optional<MedicalReport> findByAppointmentId(Long appointmentId);
+
+    @Query("SELECT new com.dentalhelp.treatment.dto.MedicalReportDto(m.id, m.appointmentId, m.treatmentDetails, m.medication, m.date, m.hour) "
+            + "FROM MedicalReport m WHERE m.appointmentId IN :appointmentIds")
+    List<MedicalReportDto> findDtosByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds);
 }
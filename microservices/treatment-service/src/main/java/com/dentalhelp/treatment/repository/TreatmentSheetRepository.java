@@ -1,13 +1,22 @@
 package com.dentalhelp.treatment.repository;
 
+import com.dentalhelp.treatment.dto.TreatmentSheetDto;
 import com.dentalhelp.treatment.model.TreatmentSheet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TreatmentSheetRepository extends JpaRepository<TreatmentSheet, Long> {
     Optional<TreatmentSheet> findByAppointmentId(Long appointmentId);
+
+    @Query("SELECT new com.dentalhelp.treatment.dto.TreatmentSheetDto(t.treatmentNumber, t.appointmentId, t.appointmentObservations, t.recommendations, t.medication) "
+            + "FROM TreatmentSheet t WHERE t.appointmentId IN :appointmentIds")
+    List<TreatmentSheetDto> findDtosByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds);
     Optional<TreatmentSheet> findByTreatmentNumber(Long treatmentNumber);
 }
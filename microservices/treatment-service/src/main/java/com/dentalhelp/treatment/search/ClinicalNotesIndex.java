@@ -0,0 +1,479 @@
+package com.dentalhelp.treatment.search;
+
+import com.dentalhelp.treatment.dto.ClinicalNoteSearchResultDto;
+import com.dentalhelp.treatment.exception.BadRequestException;
+import com.dentalhelp.treatment.model.MedicalReport;
+import com.dentalhelp.treatment.model.TreatmentSheet;
+import com.dentalhelp.treatment.repository.MedicalReportRepository;
+import com.dentalhelp.treatment.repository.TreatmentSheetRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process Lucene index over the free-text fields of treatment sheets and medical reports.
+ * Writes are applied after the surrounding transaction commits. A full rebuild loads the database
+ * into a staging directory without holding the write lock, then swaps it in under the lock and
+ * replays the updates that committed meanwhile, so incremental writes never wait on the reload.
+ * The index directory is in memory unless clinical-search.index-path is set.
+ */
+@Slf4j
+@Component
+public class ClinicalNotesIndex {
+
+    public static final String TYPE_TREATMENT_SHEET = "TREATMENT_SHEET";
+    public static final String TYPE_MEDICAL_REPORT = "MEDICAL_REPORT";
+
+    public static final List<String> SEARCHABLE_FIELDS =
+            List.of("appointmentObservations", "recommendations", "medication", "treatmentDetails");
+
+    public static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private static final String KEY = "key";
+    private static final String RECORD_TYPE = "recordType";
+    private static final String RECORD_ID = "recordId";
+    private static final String APPOINTMENT_ID = "appointmentId";
+    private static final String DATE = "date";
+    private static final String DATE_EPOCH_DAY = "dateEpochDay";
+
+    private static final List<DateTimeFormatter> LEGACY_DATE_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("d.M.yyyy"),
+            DateTimeFormatter.ofPattern("d/M/yyyy"),
+            DateTimeFormatter.ofPattern("d-M-yyyy"));
+
+    private final TreatmentSheetRepository treatmentSheetRepository;
+    private final MedicalReportRepository medicalReportRepository;
+    private final String indexPath;
+    private final Analyzer analyzer = new ClinicalNotesAnalyzer();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private Directory directory;
+    // Latest document per key (null for a delete) written while a rebuild is staging; guarded by writeLock
+    private Map<String, Document> updatesDuringRebuild;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+
+    public ClinicalNotesIndex(TreatmentSheetRepository treatmentSheetRepository,
+                              MedicalReportRepository medicalReportRepository,
+                              @Value("${clinical-search.index-path:}") String indexPath) {
+        this.treatmentSheetRepository = treatmentSheetRepository;
+        this.medicalReportRepository = medicalReportRepository;
+        this.indexPath = indexPath;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        directory = indexPath == null || indexPath.isBlank()
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Path.of(indexPath));
+        openWriter();
+    }
+
+    private void openWriter() throws IOException {
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    // Incremental Maintenance
+
+    public void indexTreatmentSheet(TreatmentSheet sheet) {
+        Document document = toDocument(sheet);
+        afterCommit(() -> update(key(TYPE_TREATMENT_SHEET, sheet.getTreatmentNumber()), document));
+    }
+
+    public void indexMedicalReport(MedicalReport report) {
+        Document document = toDocument(report);
+        afterCommit(() -> update(key(TYPE_MEDICAL_REPORT, report.getId()), document));
+    }
+
+    public void removeTreatmentSheet(Long treatmentNumber) {
+        afterCommit(() -> update(key(TYPE_TREATMENT_SHEET, treatmentNumber), null));
+    }
+
+    public void removeMedicalReport(Long id) {
+        afterCommit(() -> update(key(TYPE_MEDICAL_REPORT, id), null));
+    }
+
+    /**
+     * Replaces the whole index with the current database content. Searches keep seeing the
+     * previous snapshot until the rebuild has committed.
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try (Directory staging = new ByteBuffersDirectory()) {
+            recordUpdatesDuringRebuild(true);
+            int indexed = buildInto(staging);
+            swapIn(staging);
+            return indexed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Rebuilding the clinical notes index failed", e);
+        } finally {
+            recordUpdatesDuringRebuild(false);
+            rebuildLock.unlock();
+        }
+    }
+
+    private void recordUpdatesDuringRebuild(boolean enabled) {
+        writeLock.lock();
+        try {
+            updatesDuringRebuild = enabled ? new LinkedHashMap<>() : null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int buildInto(Directory staging) throws IOException {
+        try (IndexWriter stagingWriter = new IndexWriter(staging, new IndexWriterConfig(analyzer))) {
+            int indexed = 0;
+
+            Page<TreatmentSheet> sheets;
+            int page = 0;
+            do {
+                sheets = treatmentSheetRepository.findAll(
+                        PageRequest.of(page++, REBUILD_PAGE_SIZE, Sort.by("treatmentNumber")));
+                for (TreatmentSheet sheet : sheets) {
+                    stagingWriter.addDocument(toDocument(sheet));
+                    indexed++;
+                }
+            } while (sheets.hasNext());
+
+            Page<MedicalReport> reports;
+            page = 0;
+            do {
+                reports = medicalReportRepository.findAll(
+                        PageRequest.of(page++, REBUILD_PAGE_SIZE, Sort.by("id")));
+                for (MedicalReport report : reports) {
+                    stagingWriter.addDocument(toDocument(report));
+                    indexed++;
+                }
+            } while (reports.hasNext());
+
+            return indexed;
+        }
+    }
+
+    // Only the segment copy and the replay run under the write lock, not the database reload
+    private void swapIn(Directory staging) throws IOException {
+        writeLock.lock();
+        try {
+            writer.deleteAll();
+            writer.addIndexes(staging);
+            for (Map.Entry<String, Document> update : updatesDuringRebuild.entrySet()) {
+                apply(update.getKey(), update.getValue());
+            }
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException | RuntimeException e) {
+            rollbackQuietly();
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return writer.getDocStats().numDocs == 0;
+    }
+
+    // Search
+
+    public ClinicalNoteSearchResultDto search(String text, Collection<String> fields, String recordType,
+                                              Long appointmentId, LocalDate from, LocalDate to,
+                                              int page, int size) {
+        if (text == null || text.isBlank()) {
+            throw new BadRequestException("Search text is required");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((long) (page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new BadRequestException("Results beyond the first " + MAX_RESULT_WINDOW + " hits are not available, refine the search");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+
+        Query query = buildQuery(text, fields, recordType, appointmentId, from, to);
+        SearcherManager manager;
+        IndexSearcher searcher;
+        while (true) {
+            manager = searcherManager;
+            try {
+                searcher = manager.acquire();
+                break;
+            } catch (AlreadyClosedException e) {
+                // A failed rebuild replaced the manager after we read it; retry on the new one
+                if (manager == searcherManager) {
+                    throw e;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        try {
+            TopDocs top = searcher.search(query, (page + 1) * size);
+            StoredFields storedFields = searcher.storedFields();
+
+            List<ClinicalNoteSearchResultDto.Hit> hits = new ArrayList<>();
+            ScoreDoc[] scoreDocs = top.scoreDocs;
+            for (int i = page * size; i < scoreDocs.length; i++) {
+                hits.add(toHit(storedFields.document(scoreDocs[i].doc), scoreDocs[i].score));
+            }
+
+            return ClinicalNoteSearchResultDto.builder()
+                    .totalHits(searcher.count(query))
+                    .page(page)
+                    .size(size)
+                    .hits(hits)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                manager.release(searcher);
+            } catch (IOException e) {
+                log.warn("Releasing clinical notes searcher failed", e);
+            }
+        }
+    }
+
+    private Query buildQuery(String text, Collection<String> fields, String recordType,
+                             Long appointmentId, LocalDate from, LocalDate to) {
+        List<String> searchFields = fields == null || fields.isEmpty() ? SEARCHABLE_FIELDS : List.copyOf(fields);
+        for (String field : searchFields) {
+            if (!SEARCHABLE_FIELDS.contains(field)) {
+                throw new BadRequestException("Unknown search field: " + field + ", expected one of " + SEARCHABLE_FIELDS);
+            }
+        }
+
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(searchFields.toArray(new String[0]), analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        try {
+            query.add(parser.parse(QueryParser.escape(text.trim())), BooleanClause.Occur.MUST);
+        } catch (ParseException e) {
+            throw new BadRequestException("Search text could not be parsed");
+        }
+
+        if (recordType != null) {
+            if (!TYPE_TREATMENT_SHEET.equals(recordType) && !TYPE_MEDICAL_REPORT.equals(recordType)) {
+                throw new BadRequestException("Unknown record type: " + recordType);
+            }
+            query.add(new TermQuery(new Term(RECORD_TYPE, recordType)), BooleanClause.Occur.FILTER);
+        }
+        if (appointmentId != null) {
+            query.add(LongPoint.newExactQuery(APPOINTMENT_ID, appointmentId), BooleanClause.Occur.FILTER);
+        }
+        if (from != null || to != null) {
+            query.add(LongPoint.newRangeQuery(DATE_EPOCH_DAY,
+                    from != null ? from.toEpochDay() : Long.MIN_VALUE,
+                    to != null ? to.toEpochDay() : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private ClinicalNoteSearchResultDto.Hit toHit(Document document, float score) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String field : SEARCHABLE_FIELDS) {
+            String value = document.get(field);
+            if (value != null) {
+                fields.put(field, value);
+            }
+        }
+        IndexableField appointmentId = document.getField(APPOINTMENT_ID);
+
+        return ClinicalNoteSearchResultDto.Hit.builder()
+                .recordType(document.get(RECORD_TYPE))
+                .recordId(Long.valueOf(document.get(RECORD_ID)))
+                .appointmentId(appointmentId != null ? appointmentId.numericValue().longValue() : null)
+                .date(document.get(DATE))
+                .score(score)
+                .fields(fields)
+                .build();
+    }
+
+    // Document Mapping
+
+    private Document toDocument(TreatmentSheet sheet) {
+        Document document = baseDocument(TYPE_TREATMENT_SHEET, sheet.getTreatmentNumber(), sheet.getAppointmentId());
+        addText(document, "appointmentObservations", sheet.getAppointmentObservations());
+        addText(document, "recommendations", sheet.getRecommendations());
+        addText(document, "medication", sheet.getMedication());
+        return document;
+    }
+
+    private Document toDocument(MedicalReport report) {
+        Document document = baseDocument(TYPE_MEDICAL_REPORT, report.getId(), report.getAppointmentId());
+        addText(document, "treatmentDetails", report.getTreatmentDetails());
+        addText(document, "medication", report.getMedication());
+        if (report.getDate() != null) {
+            document.add(new StoredField(DATE, report.getDate()));
+            LocalDate date = parseDate(report.getDate());
+            if (date != null) {
+                document.add(new LongPoint(DATE_EPOCH_DAY, date.toEpochDay()));
+            }
+        }
+        return document;
+    }
+
+    private static Document baseDocument(String recordType, Long recordId, Long appointmentId) {
+        Document document = new Document();
+        document.add(new StringField(KEY, key(recordType, recordId), Field.Store.NO));
+        document.add(new StringField(RECORD_TYPE, recordType, Field.Store.YES));
+        document.add(new StoredField(RECORD_ID, String.valueOf(recordId)));
+        if (appointmentId != null) {
+            document.add(new LongPoint(APPOINTMENT_ID, appointmentId));
+            document.add(new StoredField(APPOINTMENT_ID, appointmentId));
+        }
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            document.add(new TextField(field, value, Field.Store.YES));
+        }
+    }
+
+    private static String key(String recordType, Long recordId) {
+        return recordType + ":" + recordId;
+    }
+
+    /**
+     * Medical report dates are free text; ISO dates and timestamps and the day-first formats
+     * used by the frontend are understood, anything else is indexed without a date.
+     */
+    static LocalDate parseDate(String raw) {
+        String value = raw.trim();
+        if (value.length() >= 10) {
+            try {
+                return LocalDate.parse(value.substring(0, 10));
+            } catch (DateTimeParseException ignored) {
+                // fall through to the day-first formats
+            }
+        }
+        String datePart = value.split("[ T]", 2)[0];
+        for (DateTimeFormatter format : LEGACY_DATE_FORMATS) {
+            try {
+                return LocalDate.parse(datePart, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+
+    // Write Helpers
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Replaces (or, with a null document, deletes) one record. Failures are logged rather than
+     * thrown because the database write has already committed; the next rebuild repairs the gap.
+     */
+    private void update(String key, Document document) {
+        writeLock.lock();
+        try {
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.put(key, document);
+            }
+            apply(key, document);
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException | RuntimeException e) {
+            log.error("Updating clinical notes index entry {} failed", key, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(String key, Document document) throws IOException {
+        if (document == null) {
+            writer.deleteDocuments(new Term(KEY, key));
+        } else {
+            writer.updateDocument(new Term(KEY, key), document);
+        }
+    }
+
+    private void rollbackQuietly() {
+        SearcherManager previous = searcherManager;
+        try {
+            // IndexWriter.rollback closes the writer, so reopen it on the same directory. The old
+            // manager is closed only after the new one is published; searches that still acquire
+            // from it retry, and searchers already handed out stay usable until released
+            writer.rollback();
+            openWriter();
+            previous.close();
+        } catch (IOException e) {
+            log.error("Reopening the clinical notes index after a failed rebuild failed", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dentalhelp.treatment.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills an empty index on startup and periodically rebuilds it. Each instance keeps its own
+ * index and only sees its own writes incrementally, so the periodic rebuild is what bounds
+ * how stale another replica's writes can be.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "clinical-search.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class ClinicalNotesIndexMaintenance {
+
+    private final ClinicalNotesIndex clinicalNotesIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (clinicalNotesIndex.isEmpty()) {
+            rebuild("startup");
+        }
+    }
+
+    @Scheduled(initialDelayString = "${clinical-search.rebuild-interval-ms:900000}",
+            fixedDelayString = "${clinical-search.rebuild-interval-ms:900000}")
+    public void rebuildPeriodically() {
+        rebuild("scheduled");
+    }
+
+    private void rebuild(String reason) {
+        try {
+            long start = System.nanoTime();
+            int indexed = clinicalNotesIndex.rebuild();
+            log.info("Rebuilt clinical notes index ({}): {} records in {} ms",
+                    reason, indexed, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Rebuilding clinical notes index ({}) failed", reason, e);
+        }
+    }
+}
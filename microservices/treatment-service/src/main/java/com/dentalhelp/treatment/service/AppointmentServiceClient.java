@@ -0,0 +1,68 @@
+package com.dentalhelp.treatment.service;
+
+import com.dentalhelp.treatment.dto.AppointmentDetailsDto;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads appointment and anamnesis data from appointment-service in one batched call.
+ * Failures are logged and reported as an empty map so callers can still serve what this service owns.
+ */
+@Slf4j
+@Component
+public class AppointmentServiceClient {
+
+    private final RestTemplate restTemplate;
+    private final String appointmentServiceUrl;
+
+    public AppointmentServiceClient(RestTemplate restTemplate,
+                                    @Value("${appointment-service.url:http://APPOINTMENT-SERVICE}") String appointmentServiceUrl) {
+        this.restTemplate = restTemplate;
+        this.appointmentServiceUrl = appointmentServiceUrl;
+    }
+
+    public Map<Long, AppointmentDetailsDto> getAppointmentDetails(Collection<Long> appointmentIds) {
+        Map<Long, AppointmentDetailsDto> detailsById = new HashMap<>();
+        if (appointmentIds.isEmpty()) {
+            return detailsById;
+        }
+
+        try {
+            ResponseEntity<DetailsResponse> response = restTemplate.postForEntity(
+                    appointmentServiceUrl + "/api/in/appointment_request/getAppointmentsDetails",
+                    appointmentIds,
+                    DetailsResponse.class);
+
+            DetailsResponse body = response.getBody();
+            if (body == null || body.getData() == null) {
+                return detailsById;
+            }
+            for (AppointmentDetailsDto details : body.getData()) {
+                if (details.getAppointment() != null && details.getAppointment().getAppointmentId() != null) {
+                    detailsById.put(details.getAppointment().getAppointmentId(), details);
+                }
+            }
+        } catch (RestClientException e) {
+            log.warn("Could not fetch details for {} appointments from appointment-service: {}",
+                    appointmentIds.size(), e.getMessage());
+        }
+        return detailsById;
+    }
+
+    @Data
+    static class DetailsResponse {
+        private String message;
+        private List<AppointmentDetailsDto> data;
+        private boolean success;
+    }
+}
@@ -0,0 +1,105 @@
+package com.dentalhelp.treatment.service;
+
+import com.dentalhelp.treatment.dto.AppointmentDetailsDto;
+import com.dentalhelp.treatment.dto.EncounterDto;
+import com.dentalhelp.treatment.dto.MedicalReportDto;
+import com.dentalhelp.treatment.dto.TreatmentSheetDto;
+import com.dentalhelp.treatment.exception.BadRequestException;
+import com.dentalhelp.treatment.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Assembles the full record of one or many appointments. The treatment sheet and medical report
+ * lookups are batched IN queries, and they run concurrently with the batched appointment-service call.
+ */
+@Service
+public class EncounterService {
+
+    public static final int MAX_ENCOUNTERS = 200;
+
+    private final TreatmentService treatmentService;
+    private final AppointmentServiceClient appointmentServiceClient;
+    private final Executor encounterExecutor;
+
+    public EncounterService(TreatmentService treatmentService,
+                            AppointmentServiceClient appointmentServiceClient,
+                            @Qualifier("encounterExecutor") Executor encounterExecutor) {
+        this.treatmentService = treatmentService;
+        this.appointmentServiceClient = appointmentServiceClient;
+        this.encounterExecutor = encounterExecutor;
+    }
+
+    public EncounterDto getEncounter(Long appointmentId) {
+        EncounterDto encounter = getEncounters(List.of(appointmentId)).get(0);
+        if (encounter.getAppointment() == null
+                && encounter.getTreatmentSheet() == null
+                && encounter.getMedicalReport() == null) {
+            throw new ResourceNotFoundException("No encounter data found for appointment: " + appointmentId);
+        }
+        return encounter;
+    }
+
+    /**
+     * Returns one encounter per distinct requested id, in request order.
+     */
+    public List<EncounterDto> getEncounters(List<Long> appointmentIds) {
+        if (appointmentIds == null || appointmentIds.isEmpty()) {
+            throw new BadRequestException("At least one appointment id is required");
+        }
+        List<Long> distinctIds = appointmentIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinctIds.isEmpty()) {
+            throw new BadRequestException("At least one appointment id is required");
+        }
+        if (distinctIds.size() > MAX_ENCOUNTERS) {
+            throw new BadRequestException("A maximum of " + MAX_ENCOUNTERS + " encounters can be retrieved at once");
+        }
+
+        CompletableFuture<Map<Long, AppointmentDetailsDto>> appointments = CompletableFuture.supplyAsync(
+                () -> appointmentServiceClient.getAppointmentDetails(distinctIds), encounterExecutor);
+        CompletableFuture<Map<Long, TreatmentSheetDto>> sheets = CompletableFuture.supplyAsync(
+                () -> treatmentService.getTreatmentSheetsByAppointmentIds(distinctIds), encounterExecutor);
+        CompletableFuture<Map<Long, MedicalReportDto>> reports = CompletableFuture.supplyAsync(
+                () -> treatmentService.getMedicalReportsByAppointmentIds(distinctIds), encounterExecutor);
+
+        Map<Long, AppointmentDetailsDto> appointmentsById = join(appointments);
+        Map<Long, TreatmentSheetDto> sheetsById = join(sheets);
+        Map<Long, MedicalReportDto> reportsById = join(reports);
+
+        List<EncounterDto> encounters = new ArrayList<>(distinctIds.size());
+        for (Long appointmentId : distinctIds) {
+            AppointmentDetailsDto details = appointmentsById.get(appointmentId);
+
+            encounters.add(EncounterDto.builder()
+                    .appointmentId(appointmentId)
+                    .appointment(details != null ? details.getAppointment() : null)
+                    .anamnesis(details != null ? details.getAnamnesis() : null)
+                    .treatmentSheet(sheetsById.get(appointmentId))
+                    .medicalReport(reportsById.get(appointmentId))
+                    .build());
+        }
+        return encounters;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -2,21 +2,35 @@ package com.dentalhelp.treatment.service;
 
 import com.dentalhelp.treatment.dto.MedicalReportDto;
 import com.dentalhelp.treatment.dto.TreatmentSheetDto;
+import com.dentalhelp.treatment.exception.BadRequestException;
 import com.dentalhelp.treatment.exception.ResourceNotFoundException;
 import com.dentalhelp.treatment.model.MedicalReport;
 import com.dentalhelp.treatment.model.TreatmentSheet;
 import com.dentalhelp.treatment.repository.MedicalReportRepository;
 import com.dentalhelp.treatment.repository.TreatmentSheetRepository;
+import com.dentalhelp.treatment.search.ClinicalNotesIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
 @Service
 @RequiredArgsConstructor
 public class TreatmentService {
 
+    public static final int MAX_BATCH_LOOKUP = 500;
+    // Keeps each IN list well inside driver and optimizer limits for large history views
+    static final int IN_QUERY_CHUNK_SIZE = 100;
+
     private final TreatmentSheetRepository treatmentSheetRepository;
     private final MedicalReportRepository medicalReportRepository;
+    private final ClinicalNotesIndex clinicalNotesIndex;
 
     // Treatment Sheet Operations
 
@@ -26,6 +40,15 @@ public class TreatmentService {
         return convertToTreatmentSheetDto(sheet);
     }
 
+    /**
+     * Treatment sheets for the given appointments keyed by appointment id, in request order.
+     * Appointments without a sheet are absent from the map.
+     */
+    public Map<Long, TreatmentSheetDto> getTreatmentSheetsByAppointmentIds(List<Long> appointmentIds) {
+        return findByAppointmentIds(appointmentIds, treatmentSheetRepository::findDtosByAppointmentIdIn,
+                TreatmentSheetDto::getAppointmentId);
+    }
+
     @Transactional
     public void saveTreatmentSheet(TreatmentSheetDto dto) {
         TreatmentSheet sheet = TreatmentSheet.builder()
@@ -35,7 +58,7 @@ public class TreatmentService {
                 .medication(dto.getMedication())
                 .build();
 
-        treatmentSheetRepository.save(sheet);
+        clinicalNotesIndex.indexTreatmentSheet(treatmentSheetRepository.save(sheet));
     }
 
     @Transactional
@@ -47,7 +70,7 @@ public class TreatmentService {
         sheet.setRecommendations(dto.getRecommendations());
         sheet.setMedication(dto.getMedication());
 
-        treatmentSheetRepository.save(sheet);
+        clinicalNotesIndex.indexTreatmentSheet(treatmentSheetRepository.save(sheet));
     }
 
     @Transactional
@@ -55,6 +78,7 @@ public class TreatmentService {
         TreatmentSheet sheet = treatmentSheetRepository.findByTreatmentNumber(treatmentNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Treatment sheet not found"));
         treatmentSheetRepository.delete(sheet);
+        clinicalNotesIndex.removeTreatmentSheet(sheet.getTreatmentNumber());
     }
 
     // Medical Report Operations
@@ -65,6 +89,15 @@ public class TreatmentService {
         return convertToMedicalReportDto(report);
     }
 
+    /**
+     * Medical reports for the given appointments keyed by appointment id, in request order.
+     * Appointments without a report are absent from the map.
+     */
+    public Map<Long, MedicalReportDto> getMedicalReportsByAppointmentIds(List<Long> appointmentIds) {
+        return findByAppointmentIds(appointmentIds, medicalReportRepository::findDtosByAppointmentIdIn,
+                MedicalReportDto::getAppointmentId);
+    }
+
     @Transactional
     public void saveMedicalReport(MedicalReportDto dto) {
         MedicalReport report = MedicalReport.builder()
@@ -75,7 +108,7 @@ public class TreatmentService {
                 .hour(dto.getHour())
                 .build();
 
-        medicalReportRepository.save(report);
+        clinicalNotesIndex.indexMedicalReport(medicalReportRepository.save(report));
     }
 
     @Transactional
@@ -88,7 +121,7 @@ public class TreatmentService {
         report.setDate(dto.getDate());
         report.setHour(dto.getHour());
 
-        medicalReportRepository.save(report);
+        clinicalNotesIndex.indexMedicalReport(medicalReportRepository.save(report));
     }
 
     @Transactional
@@ -96,6 +129,46 @@ public class TreatmentService {
         MedicalReport report = medicalReportRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Medical report not found"));
         medicalReportRepository.delete(report);
+        clinicalNotesIndex.removeMedicalReport(report.getId());
+    }
+
+    // Batch Lookup Helpers
+
+    private <T> Map<Long, T> findByAppointmentIds(List<Long> appointmentIds,
+                                                  Function<Collection<Long>, List<T>> query,
+                                                  Function<T, Long> appointmentIdOf) {
+        List<Long> distinctIds = distinctAppointmentIds(appointmentIds);
+
+        Map<Long, T> found = new LinkedHashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += IN_QUERY_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + IN_QUERY_CHUNK_SIZE, distinctIds.size()));
+            for (T row : query.apply(chunk)) {
+                found.putIfAbsent(appointmentIdOf.apply(row), row);
+            }
+        }
+
+        Map<Long, T> ordered = new LinkedHashMap<>();
+        for (Long appointmentId : distinctIds) {
+            T row = found.get(appointmentId);
+            if (row != null) {
+                ordered.put(appointmentId, row);
+            }
+        }
+        return ordered;
+    }
+
+    private List<Long> distinctAppointmentIds(List<Long> appointmentIds) {
+        List<Long> distinctIds = appointmentIds == null ? List.of() : appointmentIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinctIds.isEmpty()) {
+            throw new BadRequestException("At least one appointment id is required");
+        }
+        if (distinctIds.size() > MAX_BATCH_LOOKUP) {
+            throw new BadRequestException("A maximum of " + MAX_BATCH_LOOKUP + " appointments can be looked up at once");
+        }
+        return distinctIds;
     }
 
     // Converter Methods
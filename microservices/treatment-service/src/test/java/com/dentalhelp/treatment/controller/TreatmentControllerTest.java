@@ -11,6 +11,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -54,6 +57,26 @@ class TreatmentControllerTest {
         verify(treatmentService, times(1)).getTreatmentSheetByAppointmentId(appointmentId);
     }
 
+    @Test
+    void testGetTreatmentSheets_ReturnsMapAndHonoursETag() throws Exception {
+        // Arrange
+        when(treatmentService.getTreatmentSheetsByAppointmentIds(List.of(100L, 101L)))
+                .thenReturn(Map.of(100L, treatmentDto));
+
+        // Act & Assert
+        String etag = mockMvc.perform(get("/api/in/treatment-sheet/get-treatment-sheets")
+                        .param("appointmentIds", "100,101"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.data.100.treatmentNumber").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/in/treatment-sheet/get-treatment-sheets")
+                        .param("appointmentIds", "100,101")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void testSaveTreatmentSheet_Success() throws Exception {
         // Arrange
@@ -1,5 +1,6 @@
 package com.dentalhelp.treatment.repository;
 
+import com.dentalhelp.treatment.dto.TreatmentSheetDto;
 import com.dentalhelp.treatment.model.TreatmentSheet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -191,4 +192,24 @@ class TreatmentSheetRepositoryTest {
         assertEquals("First treatment", found1.get().getAppointmentObservations());
         assertEquals("Second treatment", found2.get().getAppointmentObservations());
     }
+
+    @Test
+    void testFindDtosByAppointmentIdIn() {
+        // Arrange
+        entityManager.persistAndFlush(testTreatmentSheet);
+
+        TreatmentSheet other = new TreatmentSheet();
+        other.setAppointmentId(400L);
+        other.setAppointmentObservations("Other treatment");
+        entityManager.persistAndFlush(other);
+
+        // Act
+        List<TreatmentSheetDto> found = treatmentRepository.findDtosByAppointmentIdIn(List.of(100L, 400L, 999L));
+
+        // Assert
+        assertEquals(2, found.size());
+        assertTrue(found.stream().anyMatch(sheet -> sheet.getAppointmentId().equals(100L)));
+        assertTrue(found.stream().anyMatch(sheet -> sheet.getAppointmentId().equals(400L)
+                && "Other treatment".equals(sheet.getAppointmentObservations())));
+    }
 }
@@ -0,0 +1,168 @@
+package com.dentalhelp.treatment.search;
+
+import com.dentalhelp.treatment.dto.ClinicalNoteSearchResultDto;
+import com.dentalhelp.treatment.exception.BadRequestException;
+import com.dentalhelp.treatment.model.MedicalReport;
+import com.dentalhelp.treatment.model.TreatmentSheet;
+import com.dentalhelp.treatment.repository.MedicalReportRepository;
+import com.dentalhelp.treatment.repository.TreatmentSheetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ClinicalNotesIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClinicalNotesIndexTest {
+
+    @Autowired
+    private ClinicalNotesIndex clinicalNotesIndex;
+
+    @Autowired
+    private TreatmentSheetRepository treatmentSheetRepository;
+
+    @Autowired
+    private MedicalReportRepository medicalReportRepository;
+
+    @AfterEach
+    void tearDown() {
+        treatmentSheetRepository.deleteAll();
+        medicalReportRepository.deleteAll();
+        clinicalNotesIndex.rebuild();
+    }
+
+    @Test
+    void testRebuild_IndexesAllNotesAndMatchesAcrossFields() {
+        treatmentSheetRepository.save(TreatmentSheet.builder()
+                .appointmentId(1L)
+                .appointmentObservations("Abscess on 36")
+                .medication("Amoxicilină 500mg three times daily")
+                .build());
+        medicalReportRepository.save(MedicalReport.builder()
+                .appointmentId(2L)
+                .treatmentDetails("Extraction of 48")
+                .medication("Amoxicillin 500mg")
+                .date("2025-03-14")
+                .build());
+        medicalReportRepository.save(MedicalReport.builder()
+                .appointmentId(3L)
+                .treatmentDetails("Scaling")
+                .medication("Chlorhexidine rinse")
+                .build());
+
+        assertEquals(3, clinicalNotesIndex.rebuild());
+
+        ClinicalNoteSearchResultDto result = clinicalNotesIndex.search("amoxicilina", null, null, null, null, null, 0, 20);
+        assertEquals(1, result.getTotalHits());
+        assertEquals(ClinicalNotesIndex.TYPE_TREATMENT_SHEET, result.getHits().get(0).getRecordType());
+        assertEquals(1L, result.getHits().get(0).getAppointmentId());
+
+        ClinicalNoteSearchResultDto reports = clinicalNotesIndex.search("500mg", List.of("medication"),
+                ClinicalNotesIndex.TYPE_MEDICAL_REPORT, null, null, null, 0, 20);
+        assertEquals(1, reports.getTotalHits());
+        assertEquals("2025-03-14", reports.getHits().get(0).getDate());
+    }
+
+    @Test
+    void testIncrementalUpdates_AreVisibleToSearch() {
+        TreatmentSheet sheet = treatmentSheetRepository.save(TreatmentSheet.builder()
+                .appointmentId(10L)
+                .recommendations("Avoid hard foods")
+                .build());
+        clinicalNotesIndex.indexTreatmentSheet(sheet);
+        assertEquals(1, clinicalNotesIndex.search("hard foods", null, null, null, null, null, 0, 20).getTotalHits());
+
+        sheet.setRecommendations("Use a soft toothbrush");
+        clinicalNotesIndex.indexTreatmentSheet(treatmentSheetRepository.save(sheet));
+        assertEquals(0, clinicalNotesIndex.search("hard foods", null, null, null, null, null, 0, 20).getTotalHits());
+        assertEquals(1, clinicalNotesIndex.search("toothbrush", null, null, null, null, null, 0, 20).getTotalHits());
+
+        treatmentSheetRepository.delete(sheet);
+        clinicalNotesIndex.removeTreatmentSheet(sheet.getTreatmentNumber());
+        assertEquals(0, clinicalNotesIndex.search("toothbrush", null, null, null, null, null, 0, 20).getTotalHits());
+    }
+
+    @Test
+    void testRebuild_DoesNotBlockUpdatesAndKeepsThem() throws Exception {
+        TreatmentSheetRepository sheets = mock(TreatmentSheetRepository.class);
+        MedicalReportRepository reports = mock(MedicalReportRepository.class);
+        ClinicalNotesIndex index = new ClinicalNotesIndex(sheets, reports, "");
+        index.open();
+        TreatmentSheet loaded = TreatmentSheet.builder().treatmentNumber(1L).medication("Ibuprofen").build();
+        TreatmentSheet savedMeanwhile = TreatmentSheet.builder().treatmentNumber(2L).medication("Paracetamol").build();
+        when(sheets.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            // An update from another thread completes while the reload is still running
+            CompletableFuture.runAsync(() -> index.indexTreatmentSheet(savedMeanwhile)).get(5, TimeUnit.SECONDS);
+            return new PageImpl<>(List.of(loaded));
+        });
+        when(reports.findAll(any(Pageable.class))).thenReturn(Page.empty());
+
+        try {
+            assertEquals(1, index.rebuild());
+            assertEquals(1, index.search("ibuprofen", null, null, null, null, null, 0, 20).getTotalHits());
+            assertEquals(1, index.search("paracetamol", null, null, null, null, null, 0, 20).getTotalHits());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    void testSearch_FiltersByDateRangeAndPages() {
+        for (int day = 1; day <= 5; day++) {
+            clinicalNotesIndex.indexMedicalReport(medicalReportRepository.save(MedicalReport.builder()
+                    .appointmentId(100L + day)
+                    .treatmentDetails("Filling")
+                    .date(day + ".1.2025")
+                    .build()));
+        }
+        clinicalNotesIndex.indexMedicalReport(medicalReportRepository.save(MedicalReport.builder()
+                .appointmentId(200L)
+                .treatmentDetails("Filling")
+                .date("2024-06-01")
+                .build()));
+
+        ClinicalNoteSearchResultDto january = clinicalNotesIndex.search("filling", null, null, null,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 1, 2);
+        assertEquals(5, january.getTotalHits());
+        assertEquals(2, january.getHits().size());
+
+        ClinicalNoteSearchResultDto single = clinicalNotesIndex.search("filling", null, null, 200L, null, null, 0, 20);
+        assertEquals(1, single.getTotalHits());
+    }
+
+    @Test
+    void testSearch_RejectsInvalidRequests() {
+        assertThrows(BadRequestException.class, () ->
+                clinicalNotesIndex.search(" ", null, null, null, null, null, 0, 20));
+        assertThrows(BadRequestException.class, () ->
+                clinicalNotesIndex.search("filling", List.of("patientCnp"), null, null, null, null, 0, 20));
+        assertThrows(BadRequestException.class, () ->
+                clinicalNotesIndex.search("filling", null, null, null, null, null, 0, ClinicalNotesIndex.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void testParseDate() {
+        assertEquals(LocalDate.of(2025, 3, 14), ClinicalNotesIndex.parseDate("2025-03-14T10:00"));
+        assertEquals(LocalDate.of(2025, 3, 4), ClinicalNotesIndex.parseDate("4/3/2025 10:00"));
+        assertNull(ClinicalNotesIndex.parseDate("next tuesday"));
+    }
+}
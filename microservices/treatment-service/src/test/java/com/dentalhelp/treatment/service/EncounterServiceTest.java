@@ -0,0 +1,111 @@
+package com.dentalhelp.treatment.service;
+
+import com.dentalhelp.treatment.dto.AppointmentDetailsDto;
+import com.dentalhelp.treatment.dto.EncounterDto;
+import com.dentalhelp.treatment.dto.MedicalReportDto;
+import com.dentalhelp.treatment.dto.TreatmentSheetDto;
+import com.dentalhelp.treatment.exception.BadRequestException;
+import com.dentalhelp.treatment.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EncounterServiceTest {
+
+    @Mock
+    private TreatmentService treatmentService;
+
+    @Mock
+    private AppointmentServiceClient appointmentServiceClient;
+
+    private EncounterService encounterService;
+
+    @BeforeEach
+    void setUp() {
+        encounterService = new EncounterService(treatmentService, appointmentServiceClient, Runnable::run);
+    }
+
+    @Test
+    void testGetEncounters_AssemblesAllSourcesInRequestOrder() {
+        List<Long> ids = List.of(2L, 1L);
+        TreatmentSheetDto sheet = TreatmentSheetDto.builder()
+                .treatmentNumber(10L)
+                .appointmentId(1L)
+                .appointmentObservations("Observations")
+                .build();
+        MedicalReportDto report = MedicalReportDto.builder()
+                .id(20L)
+                .appointmentId(2L)
+                .treatmentDetails("Filling")
+                .build();
+        AppointmentDetailsDto details = AppointmentDetailsDto.builder()
+                .appointment(AppointmentDetailsDto.Appointment.builder().appointmentId(2L).patientCnp("1234567890123").build())
+                .anamnesis(AppointmentDetailsDto.Anamnesis.builder().appointmentId(2L).currentSymptoms("Pain").build())
+                .build();
+
+        when(treatmentService.getTreatmentSheetsByAppointmentIds(ids)).thenReturn(Map.of(1L, sheet));
+        when(treatmentService.getMedicalReportsByAppointmentIds(ids)).thenReturn(Map.of(2L, report));
+        when(appointmentServiceClient.getAppointmentDetails(ids)).thenReturn(Map.of(2L, details));
+
+        List<EncounterDto> encounters = encounterService.getEncounters(ids);
+
+        assertEquals(2, encounters.size());
+        EncounterDto first = encounters.get(0);
+        assertEquals(2L, first.getAppointmentId());
+        assertEquals("1234567890123", first.getAppointment().getPatientCnp());
+        assertEquals("Pain", first.getAnamnesis().getCurrentSymptoms());
+        assertEquals("Filling", first.getMedicalReport().getTreatmentDetails());
+        assertNull(first.getTreatmentSheet());
+
+        EncounterDto second = encounters.get(1);
+        assertEquals(1L, second.getAppointmentId());
+        assertEquals(10L, second.getTreatmentSheet().getTreatmentNumber());
+        assertNull(second.getAppointment());
+        assertNull(second.getMedicalReport());
+    }
+
+    @Test
+    void testGetEncounters_DeduplicatesIdsAndQueriesOnce() {
+        when(treatmentService.getTreatmentSheetsByAppointmentIds(any())).thenReturn(Map.of());
+        when(treatmentService.getMedicalReportsByAppointmentIds(any())).thenReturn(Map.of());
+        when(appointmentServiceClient.getAppointmentDetails(any())).thenReturn(Map.of());
+
+        List<EncounterDto> encounters = encounterService.getEncounters(Arrays.asList(5L, null, 5L, 6L));
+
+        assertEquals(List.of(5L, 6L), encounters.stream().map(EncounterDto::getAppointmentId).toList());
+        verify(treatmentService, times(1)).getTreatmentSheetsByAppointmentIds(List.of(5L, 6L));
+        verify(treatmentService, times(1)).getMedicalReportsByAppointmentIds(List.of(5L, 6L));
+        verify(appointmentServiceClient, times(1)).getAppointmentDetails(List.of(5L, 6L));
+    }
+
+    @Test
+    void testGetEncounters_RejectsEmptyAndOversizedRequests() {
+        assertThrows(BadRequestException.class, () -> encounterService.getEncounters(List.of()));
+
+        List<Long> tooMany = LongStream.rangeClosed(1, EncounterService.MAX_ENCOUNTERS + 1).boxed().toList();
+        assertThrows(BadRequestException.class, () -> encounterService.getEncounters(tooMany));
+
+        verifyNoInteractions(treatmentService, appointmentServiceClient);
+    }
+
+    @Test
+    void testGetEncounter_NotFound() {
+        when(treatmentService.getTreatmentSheetsByAppointmentIds(any())).thenReturn(Map.of());
+        when(treatmentService.getMedicalReportsByAppointmentIds(any())).thenReturn(Map.of());
+        when(appointmentServiceClient.getAppointmentDetails(any())).thenReturn(Map.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> encounterService.getEncounter(999L));
+    }
+}
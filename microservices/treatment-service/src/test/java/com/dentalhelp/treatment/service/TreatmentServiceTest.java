@@ -2,11 +2,13 @@ package com.dentalhelp.treatment.service;
 
 import com.dentalhelp.treatment.dto.MedicalReportDto;
 import com.dentalhelp.treatment.dto.TreatmentSheetDto;
+import com.dentalhelp.treatment.exception.BadRequestException;
 import com.dentalhelp.treatment.exception.ResourceNotFoundException;
 import com.dentalhelp.treatment.model.MedicalReport;
 import com.dentalhelp.treatment.model.TreatmentSheet;
 import com.dentalhelp.treatment.repository.MedicalReportRepository;
 import com.dentalhelp.treatment.repository.TreatmentSheetRepository;
+import com.dentalhelp.treatment.search.ClinicalNotesIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,7 +16,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +36,9 @@ class TreatmentServiceTest {
     @Mock
     private MedicalReportRepository medicalReportRepository;
 
+    @Mock
+    private ClinicalNotesIndex clinicalNotesIndex;
+
     @InjectMocks
     private TreatmentService treatmentService;
 
@@ -118,6 +128,7 @@ class TreatmentServiceTest {
 
         // Assert
         verify(treatmentSheetRepository).save(any(TreatmentSheet.class));
+        verify(clinicalNotesIndex).indexTreatmentSheet(testTreatmentSheet);
     }
 
     @Test
@@ -282,6 +293,7 @@ class TreatmentServiceTest {
         // Assert
         verify(medicalReportRepository).findById(1L);
         verify(medicalReportRepository).delete(testMedicalReport);
+        verify(clinicalNotesIndex).removeMedicalReport(testMedicalReport.getId());
     }
 
     @Test
@@ -296,4 +308,42 @@ class TreatmentServiceTest {
         verify(medicalReportRepository).findById(999L);
         verify(medicalReportRepository, never()).delete(any());
     }
+
+    @Test
+    void testGetTreatmentSheetsByAppointmentIds_ChunksQueriesAndKeepsRequestOrder() {
+        // Arrange
+        List<Long> ids = LongStream.rangeClosed(1, TreatmentService.IN_QUERY_CHUNK_SIZE + 5).boxed().toList();
+        List<Collection<Long>> chunks = new ArrayList<>();
+        when(treatmentSheetRepository.findDtosByAppointmentIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> chunk = invocation.getArgument(0);
+            chunks.add(List.copyOf(chunk));
+            return chunk.stream()
+                    .filter(id -> id % 2 == 0)
+                    .sorted((a, b) -> Long.compare(b, a))
+                    .map(id -> TreatmentSheetDto.builder().treatmentNumber(id * 10).appointmentId(id).build())
+                    .toList();
+        });
+
+        // Act
+        Map<Long, TreatmentSheetDto> sheets = treatmentService.getTreatmentSheetsByAppointmentIds(ids);
+
+        // Assert
+        assertEquals(2, chunks.size());
+        assertEquals(TreatmentService.IN_QUERY_CHUNK_SIZE, chunks.get(0).size());
+        assertEquals(5, chunks.get(1).size());
+        assertEquals(ids.stream().filter(id -> id % 2 == 0).toList(), List.copyOf(sheets.keySet()));
+        assertEquals(40L, sheets.get(4L).getTreatmentNumber());
+    }
+
+    @Test
+    void testGetMedicalReportsByAppointmentIds_RejectsEmptyAndOversizedRequests() {
+        assertThrows(BadRequestException.class, () ->
+            treatmentService.getMedicalReportsByAppointmentIds(List.of()));
+
+        List<Long> tooMany = LongStream.rangeClosed(1, TreatmentService.MAX_BATCH_LOOKUP + 1).boxed().toList();
+        assertThrows(BadRequestException.class, () ->
+            treatmentService.getMedicalReportsByAppointmentIds(tooMany));
+
+        verifyNoInteractions(medicalReportRepository);
+    }
 }
@@ -0,0 +1,71 @@
+package com.dentalhelp.xray.config;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.util.HttpClientOptions;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.common.policy.RequestRetryOptions;
+import com.azure.storage.common.policy.RetryPolicyType;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+/**
+ * One container client for the whole service. Building it parses the connection string and
+ * creates the HTTP pipeline and connection pool, which is far too expensive to repeat per
+ * upload or delete; the client is thread-safe and meant to be shared.
+ */
+@Slf4j
+@Configuration
+@Profile("!local-storage")
+public class AzureStorageConfig {
+
+    @Bean
+    public BlobContainerClient xrayContainerClient(
+            @Value("${azure.storage.connection-string}") String connectionString,
+            @Value("${azure.storage.container-name}") String containerName,
+            @Value("${azure.storage.create-container:false}") boolean createContainer,
+            @Value("${azure.storage.http.max-connections:50}") int maxConnections,
+            @Value("${azure.storage.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${azure.storage.http.response-timeout-ms:30000}") long responseTimeoutMs,
+            @Value("${azure.storage.http.read-timeout-ms:60000}") long readTimeoutMs,
+            @Value("${azure.storage.http.write-timeout-ms:60000}") long writeTimeoutMs,
+            @Value("${azure.storage.http.idle-timeout-ms:60000}") long idleTimeoutMs,
+            @Value("${azure.storage.retry.max-tries:4}") int maxTries,
+            @Value("${azure.storage.retry.try-timeout-seconds:120}") int tryTimeoutSeconds,
+            @Value("${azure.storage.retry.delay-ms:500}") long retryDelayMs,
+            @Value("${azure.storage.retry.max-delay-ms:8000}") long maxRetryDelayMs,
+            MeterRegistry meterRegistry) {
+
+        HttpClient httpClient = HttpClient.createDefault(new HttpClientOptions()
+                .setMaximumConnectionPoolSize(maxConnections)
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .setResponseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMs))
+                .setWriteTimeout(Duration.ofMillis(writeTimeoutMs))
+                .setConnectionIdleTimeout(Duration.ofMillis(idleTimeoutMs)));
+
+        // The try timeout bounds a single block or download request, not a whole large upload
+        RequestRetryOptions retryOptions = new RequestRetryOptions(RetryPolicyType.EXPONENTIAL,
+                maxTries, tryTimeoutSeconds, retryDelayMs, maxRetryDelayMs, null);
+
+        BlobContainerClient containerClient = new BlobContainerClientBuilder()
+                .connectionString(connectionString)
+                .containerName(containerName)
+                .httpClient(httpClient)
+                .retryOptions(retryOptions)
+                .addPolicy(new BlobLatencyPolicy(meterRegistry))
+                .buildClient();
+
+        // Handy against a fresh Azurite instance; production containers are provisioned up front
+        if (createContainer && containerClient.createIfNotExists()) {
+            log.info("Created blob container {}", containerName);
+        }
+        return containerClient;
+    }
+}
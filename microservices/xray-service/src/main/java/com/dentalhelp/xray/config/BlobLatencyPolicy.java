@@ -0,0 +1,45 @@
+package com.dentalhelp.xray.config;
+
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every HTTP request the blob client sends, including each staged block and each
+ * retry, as xray.blob.http.requests tagged with method and status. Operation-level latency
+ * is recorded separately by the storage service.
+ */
+class BlobLatencyPolicy implements HttpPipelinePolicy {
+
+    private final MeterRegistry meterRegistry;
+
+    BlobLatencyPolicy(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        String method = context.getHttpRequest().getHttpMethod().name();
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.process()
+                    .doOnSuccess(response -> record(method, response != null ? String.valueOf(response.getStatusCode()) : "NONE", start))
+                    .doOnError(error -> record(method, error.getClass().getSimpleName(), start));
+        });
+    }
+
+    private void record(String method, String status, long startNanos) {
+        Timer.builder("xray.blob.http.requests")
+                .description("Latency of individual blob storage HTTP requests")
+                .tag("method", method)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
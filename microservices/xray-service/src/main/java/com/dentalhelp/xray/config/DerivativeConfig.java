@@ -0,0 +1,24 @@
+package com.dentalhelp.xray.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class DerivativeConfig {
+
+    // Each worker holds one decoded image, so the pool size is also the memory bound
+    @Bean
+    public ThreadPoolTaskExecutor derivativeExecutor(@Value("${xray.derivatives.workers:2}") int workers,
+                                                     @Value("${xray.derivatives.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("xray-derivative-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
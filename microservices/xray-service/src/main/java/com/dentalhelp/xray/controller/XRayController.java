@@ -4,11 +4,13 @@ import com.dentalhelp.xray.dto.ApiResponse;
 import com.dentalhelp.xray.dto.XRayDto;
 import com.dentalhelp.xray.service.XRayService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -35,6 +37,25 @@ public class XRayController {
         return ResponseEntity.ok(ApiResponse.success("X-Ray uploaded successfully", savedXRay));
     }
 
+    /**
+     * Streaming alternative to save-xray for large scans: the file is the raw request body
+     * (not multipart) and its name travels in the X-File-Name header.
+     */
+    @PostMapping("/upload-xray-stream")
+    public ResponseEntity<ApiResponse> uploadXRayStream(
+            @RequestParam("patientCnp") String patientCnp,
+            @RequestParam("date") String date,
+            @RequestParam(value = "observations", required = false) String observations,
+            @RequestHeader(value = "X-File-Name", required = false) String fileName,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream body) throws IOException {
+
+        XRayDto savedXRay = xrayService.saveXRayStream(patientCnp, date, observations, fileName,
+                contentType, contentLength, body);
+        return ResponseEntity.ok(ApiResponse.success("X-Ray uploaded successfully", savedXRay));
+    }
+
     @PutMapping("/update-xray/{id}")
     public ResponseEntity<ApiResponse> updateXRay(
             @PathVariable Long id,
@@ -45,6 +66,12 @@ public class XRayController {
         return ResponseEntity.ok(ApiResponse.success("X-Ray updated successfully", null));
     }
 
+    @PostMapping("/regenerate-derivatives/{id}")
+    public ResponseEntity<ApiResponse> regenerateDerivatives(@PathVariable Long id) {
+        xrayService.regenerateDerivatives(id);
+        return ResponseEntity.accepted().body(ApiResponse.success("Derivative generation scheduled", null));
+    }
+
     @DeleteMapping("/delete-xray/{id}")
     public ResponseEntity<ApiResponse> deleteXRay(@PathVariable Long id) {
         xrayService.deleteXRay(id);
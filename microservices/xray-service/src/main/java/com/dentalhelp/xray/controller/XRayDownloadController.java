@@ -0,0 +1,122 @@
+package com.dentalhelp.xray.controller;
+
+import com.dentalhelp.xray.service.DownloadableXRay;
+import com.dentalhelp.xray.service.XRayDownloadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves X-ray files through the service rather than from storage URLs. Supports single byte
+ * ranges (resumable downloads), If-None-Match and If-Range against a strong ETag built from
+ * the content hash, and marks responses immutable when the URL carries the current hash.
+ * Local files are handed to Tomcat's sendfile so the bytes never pass through the JVM heap.
+ */
+@RestController
+@RequestMapping("/api/patient/xray/download")
+@RequiredArgsConstructor
+public class XRayDownloadController {
+
+    private static final String IMMUTABLE = "private, max-age=31536000, immutable";
+    private static final String REVALIDATE = "private, no-cache";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    // Tomcat request attributes for sendfile; the end offset is exclusive
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final XRayDownloadService downloadService;
+
+    @GetMapping("/{id}")
+    public void downloadXRay(@PathVariable Long id,
+                             @RequestParam(value = "v", required = false) String version,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(downloadService.resolve(id, null), version, request, response);
+    }
+
+    @GetMapping("/{id}/{variant}")
+    public void downloadDerivative(@PathVariable Long id, @PathVariable String variant,
+                                   @RequestParam(value = "v", required = false) String version,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(downloadService.resolve(id, variant), version, request, response);
+    }
+
+    private void send(DownloadableXRay file, String version, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        String etag = file.getSha256() != null ? "\"" + file.getSha256() + "\"" : null;
+        boolean versioned = etag != null && version != null
+                && version.length() == XRayDownloadService.VERSION_LENGTH && file.getSha256().startsWith(version);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, versioned ? IMMUTABLE : REVALIDATE);
+        if (etag != null && new ServletWebRequest(request, response).checkNotModified(etag)) {
+            // 304 and the ETag header are already set
+            return;
+        }
+
+        long size = file.getSizeBytes();
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && size > 0 && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag)) {
+            List<HttpRange> ranges = parseRanges(range);
+            // Multiple ranges are answered with the whole file, which RFC 9110 allows
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+                if (start >= size || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.getContentType() != null ? file.getContentType() : DEFAULT_CONTENT_TYPE);
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline");
+        if (length == 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        Optional<Path> localPath = downloadService.localPath(file);
+        if (localPath.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file after this handler returns, with FileChannel.transferTo
+            request.setAttribute(SENDFILE_FILENAME, localPath.get().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        downloadService.transfer(file, start, length, Channels.newChannel(response.getOutputStream()));
+    }
+
+    // A stale If-Range means the client's partial copy is of other content: send it all
+    private static boolean ifRangeMatches(String ifRange, String etag) {
+        return ifRange == null || (etag != null && etag.equals(ifRange.trim()));
+    }
+
+    // Unparseable Range headers are ignored rather than rejected
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
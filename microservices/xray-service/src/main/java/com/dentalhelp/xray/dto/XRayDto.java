@@ -2,6 +2,8 @@ package com.dentalhelp.xray.dto;
 
 import lombok.*;
 
+import java.util.List;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -12,4 +14,21 @@ public class XRayDto {
     private String date;
     private String filePath;
     private String observations;
+    private String contentType;
+    private Long sizeBytes;
+    private String sha256;
+    private String downloadUrl;
+    private List<Derivative> derivatives;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Derivative {
+        private String variant;
+        private String url;
+        private int width;
+        private int height;
+        private Long sizeBytes;
+    }
 }
@@ -19,4 +19,10 @@ public class XRay {
     private String date;
     private String filePath;
     private String observations;
+
+    private String contentType;
+    private Long sizeBytes;
+
+    @Column(length = 64)
+    private String sha256;
 }
@@ -0,0 +1,28 @@
+package com.dentalhelp.xray.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Builder
+@Table(name = "xray_derivatives", indexes = @Index(name = "idx_xray_derivative_xray_id", columnList = "xrayId"))
+public class XRayDerivative {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long derivativeId;
+
+    private Long xrayId;
+    private String variant;
+    private int width;
+    private int height;
+    private String location;
+    private String contentType;
+    private Long sizeBytes;
+
+    @Column(length = 64)
+    private String sha256;
+}
@@ -0,0 +1,17 @@
+package com.dentalhelp.xray.repository;
+
+import com.dentalhelp.xray.model.XRayDerivative;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface XRayDerivativeRepository extends JpaRepository<XRayDerivative, Long> {
+    List<XRayDerivative> findByXrayId(Long xrayId);
+    List<XRayDerivative> findByXrayIdIn(Collection<Long> xrayIds);
+    Optional<XRayDerivative> findFirstByXrayIdAndVariantOrderByDerivativeIdDesc(Long xrayId, String variant);
+    long countByLocation(String location);
+}
@@ -1,7 +1,9 @@
 package com.dentalhelp.xray.repository;
 
 import com.dentalhelp.xray.model.XRay;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,10 @@ import java.util.Optional;
 public interface XRayRepository extends JpaRepository<XRay, Long> {
     List<XRay> findByPatientCnp(String patientCnp);
     Optional<XRay> findByXrayId(Long xrayId);
+
+    // Serializes deleting an X-ray with recording its derivatives
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<XRay> findWithLockByXrayId(Long xrayId);
+
+    long countByFilePath(String filePath);
 }
@@ -1,58 +1,156 @@
 package com.dentalhelp.xray.service;
 
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
-import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.dentalhelp.xray.exception.PayloadTooLargeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
-public class AzureBlobStorageService {
+@Profile("!local-storage")
+public class AzureBlobStorageService implements XRayStorage {
 
-    @Value("${azure.storage.connection-string}")
-    private String connectionString;
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int MAX_FILE_NAME_LENGTH = 200;
 
-    @Value("${azure.storage.container-name}")
-    private String containerName;
+    private final BlobContainerClient containerClient;
+    private final MeterRegistry meterRegistry;
 
-    public String uploadFile(MultipartFile file) throws IOException {
-        BlobContainerClient containerClient = new BlobContainerClientBuilder()
-                .connectionString(connectionString)
-                .containerName(containerName)
-                .buildClient();
+    @Value("${xray.upload.block-size-bytes:4194304}")
+    private long blockSizeBytes = 4_194_304L;
 
+    @Value("${xray.upload.max-block-concurrency:4}")
+    private int maxBlockConcurrency = 4;
+
+    public AzureBlobStorageService(BlobContainerClient xrayContainerClient, MeterRegistry meterRegistry) {
+        this.containerClient = xrayContainerClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Uploads a stream of unknown length as staged blocks, at most max-block-concurrency in
+     * flight, so the client buffers roughly block-size x concurrency bytes whatever the file
+     * size. Streams shorter than one block go up in a single put.
+     */
+    @Override
+    public StoredXRay store(InputStream data, String originalFilename, String contentType, long maxBytes) {
         // Generate unique file name
-        String fileName = UUID.randomUUID() + "-" + file.getOriginalFilename();
+        String fileName = UUID.randomUUID() + "-" + sanitizeFileName(originalFilename);
 
         // Get blob client
         BlobClient blobClient = containerClient.getBlobClient(fileName);
 
+        ParallelTransferOptions transferOptions = new ParallelTransferOptions()
+                .setBlockSizeLong(blockSizeBytes)
+                .setMaxSingleUploadSizeLong(blockSizeBytes)
+                .setMaxConcurrency(maxBlockConcurrency);
+        DigestingInputStream digesting = new DigestingInputStream(data, maxBytes);
+        BlobParallelUploadOptions options = new BlobParallelUploadOptions(digesting)
+                .setParallelTransferOptions(transferOptions)
+                .setHeaders(new BlobHttpHeaders()
+                        .setContentType(contentType != null && !contentType.isBlank() ? contentType : DEFAULT_CONTENT_TYPE));
+
         // Upload file
-        blobClient.upload(file.getInputStream(), file.getSize(), true);
+        try {
+            timed("upload", () -> blobClient.uploadWithResponse(options, null, Context.NONE));
+        } catch (RuntimeException e) {
+            // The blob client wraps stream failures, so check the flag rather than the type
+            if (digesting.isLimitExceeded()) {
+                throw new PayloadTooLargeException("File exceeds the maximum upload size of " + maxBytes + " bytes");
+            }
+            throw e;
+        }
 
         // Return file URL
-        return blobClient.getBlobUrl();
+        return StoredXRay.builder()
+                .location(blobClient.getBlobUrl())
+                .sha256(digesting.getSha256())
+                .sizeBytes(digesting.getCount())
+                .build();
     }
 
-    public void deleteFile(String fileUrl) {
+    @Override
+    public void delete(String fileUrl) {
         try {
-            BlobContainerClient containerClient = new BlobContainerClientBuilder()
-                    .connectionString(connectionString)
-                    .containerName(containerName)
-                    .buildClient();
-
-            // Extract blob name from URL
-            String blobName = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
-
-            BlobClient blobClient = containerClient.getBlobClient(blobName);
-            blobClient.delete();
+            BlobClient blobClient = containerClient.getBlobClient(blobName(fileUrl));
+            timed("delete", () -> blobClient.deleteIfExists());
         } catch (Exception e) {
             // Log error but don't fail the operation
-            System.err.println("Failed to delete blob: " + e.getMessage());
+            log.warn("Failed to delete blob {}: {}", fileUrl, e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream openStream(String fileUrl) {
+        return containerClient.getBlobClient(blobName(fileUrl)).openInputStream();
+    }
+
+    @Override
+    public long size(String fileUrl) {
+        BlobClient blobClient = containerClient.getBlobClient(blobName(fileUrl));
+        return timed("properties", () -> blobClient.getProperties().getBlobSize());
+    }
+
+    @Override
+    public void transferTo(String fileUrl, long position, long count, WritableByteChannel target) {
+        BlobClient blobClient = containerClient.getBlobClient(blobName(fileUrl));
+        OutputStream out = Channels.newOutputStream(target);
+        timed("download", () -> blobClient.downloadStreamWithResponse(out, new BlobRange(position, count),
+                null, null, false, null, Context.NONE));
+    }
+
+    // Extract blob name from URL
+    private static String blobName(String fileUrl) {
+        return fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+    }
+
+    private <T> T timed(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            Timer.builder("xray.blob.operations")
+                    .description("End-to-end latency of blob storage operations, retries included")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Client-supplied names end up in the blob URL, so keep only a safe final path segment
+    static String sanitizeFileName(String originalFilename) {
+        if (originalFilename == null || originalFilename.isBlank()) {
+            return "xray";
+        }
+        String name = originalFilename.substring(Math.max(originalFilename.lastIndexOf('/'), originalFilename.lastIndexOf('\\')) + 1);
+        name = name.replaceAll("[^A-Za-z0-9._-]", "_");
+        if (name.length() > MAX_FILE_NAME_LENGTH) {
+            name = name.substring(name.length() - MAX_FILE_NAME_LENGTH);
         }
+        return name.isEmpty() || name.chars().allMatch(c -> c == '.') ? "xray" : name;
     }
 }
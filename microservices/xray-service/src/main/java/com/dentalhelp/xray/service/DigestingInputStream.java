@@ -0,0 +1,95 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.exception.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Counts and SHA-256 hashes bytes as they pass through, so the digest of an upload is known
+ * once the storage client has drained the stream without a second read. Reading past
+ * maxBytes fails the stream; the limit-exceeded flag survives whatever wrapping the storage
+ * client applies to that failure.
+ */
+class DigestingInputStream extends FilterInputStream {
+
+    private final MessageDigest digest;
+    private final long maxBytes;
+    private long count;
+    private boolean limitExceeded;
+
+    DigestingInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            record(1);
+            digest.update((byte) b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            record(read);
+            digest.update(buffer, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        // Skipped bytes would be missing from the digest
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private void record(int read) {
+        count += read;
+        if (count > maxBytes) {
+            limitExceeded = true;
+            throw new PayloadTooLargeException("File exceeds the maximum upload size of " + maxBytes + " bytes");
+        }
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    /** Hex SHA-256 of everything read so far; call once, after the stream is exhausted. */
+    String getSha256() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,17 @@
+package com.dentalhelp.xray.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DownloadableXRay {
+    private String location;
+    private String sha256;
+    private long sizeBytes;
+    private String contentType;
+}
@@ -0,0 +1,145 @@
+package com.dentalhelp.xray.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Content-addressed store on local disk for single-host deployments. Uploads stream into a
+ * temporary file through a FileChannel while being hashed, are fsynced, then renamed
+ * atomically to objects/ab/cd/&lt;sha256&gt;, so readers never see a partial file and identical
+ * scans are kept once. Reads use FileChannel.transferTo, which the kernel can serve without
+ * copying through the heap when the target is a file or socket channel. The returned location
+ * stays pinned in StoragePins until the caller has recorded it and called
+ * StorageReferences.release, so a concurrent unreferenced-file delete cannot remove it first.
+ */
+@Slf4j
+@Service
+@Profile("local-storage")
+public class LocalXRayStorage implements XRayStorage {
+
+    private static final long TRANSFER_CHUNK_BYTES = 8L * 1024 * 1024;
+
+    private final Path objectsDir;
+    private final Path tmpDir;
+    private final StoragePins storagePins;
+
+    public LocalXRayStorage(@Value("${xray.storage.local.root-dir}") String rootDir, StoragePins storagePins) {
+        Path root = Path.of(rootDir).toAbsolutePath().normalize();
+        this.objectsDir = root.resolve("objects");
+        // Same filesystem as objects/, so the final move is a rename
+        this.tmpDir = root.resolve("tmp");
+        this.storagePins = storagePins;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(objectsDir);
+        Files.createDirectories(tmpDir);
+    }
+
+    @Override
+    public StoredXRay store(InputStream data, String originalFilename, String contentType, long maxBytes) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            DigestingInputStream digesting = new DigestingInputStream(data, maxBytes);
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ReadableByteChannel in = Channels.newChannel(digesting);
+                long position = 0;
+                long transferred;
+                while ((transferred = out.transferFrom(in, position, TRANSFER_CHUNK_BYTES)) > 0) {
+                    position += transferred;
+                }
+                out.force(true);
+            }
+
+            String sha256 = digesting.getSha256();
+            String key = keyFor(sha256);
+            Path target = objectsDir.resolve(key);
+            synchronized (storagePins.lockFor(key)) {
+                if (Files.exists(target)) {
+                    // Same content already stored
+                    Files.delete(tmp);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    // Uploads of the same content hold the same stripe lock, so no other move can
+                    // land between the exists check and this one
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                storagePins.pin(key);
+            }
+            return StoredXRay.builder()
+                    .location(key)
+                    .sha256(sha256)
+                    .sizeBytes(digesting.getCount())
+                    .build();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String location) {
+        try {
+            Files.deleteIfExists(resolve(location));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete stored X-ray {}: {}", location, e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream openStream(String location) throws IOException {
+        return Files.newInputStream(resolve(location));
+    }
+
+    @Override
+    public long size(String location) throws IOException {
+        return Files.size(resolve(location));
+    }
+
+    @Override
+    public Optional<Path> localPath(String location) {
+        return Optional.of(resolve(location));
+    }
+
+    @Override
+    public void transferTo(String location, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel in = FileChannel.open(resolve(location), StandardOpenOption.READ)) {
+            long end = Math.min(position + count, in.size());
+            while (position < end) {
+                long transferred = in.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    Path resolve(String location) {
+        Path path = objectsDir.resolve(location).normalize();
+        if (!path.startsWith(objectsDir)) {
+            throw new IllegalArgumentException("Location is outside the storage directory: " + location);
+        }
+        return path;
+    }
+
+    private static String keyFor(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+}
@@ -0,0 +1,43 @@
+package com.dentalhelp.xray.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locations handed out by a deduplicating store() but not yet recorded in a row. Without the
+ * pin, StorageReferences could count zero references to an existing file that an upload has
+ * just matched and delete it before the upload's row is saved. Pinning and the
+ * check-then-delete both run under the location's stripe lock.
+ */
+@Component
+public class StoragePins {
+
+    private static final int STRIPES = 64;
+
+    private final Object[] stripes = new Object[STRIPES];
+    private final Map<String, Integer> pins = new ConcurrentHashMap<>();
+
+    public StoragePins() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public Object lockFor(String location) {
+        return stripes[Math.floorMod(location.hashCode(), STRIPES)];
+    }
+
+    public void pin(String location) {
+        pins.merge(location, 1, Integer::sum);
+    }
+
+    public void unpin(String location) {
+        pins.computeIfPresent(location, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public boolean isPinned(String location) {
+        return pins.containsKey(location);
+    }
+}
@@ -0,0 +1,60 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.repository.XRayDerivativeRepository;
+import com.dentalhelp.xray.repository.XRayRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Content-addressed storage shares one file between identical originals or derivatives, so a
+ * stored file is removed only once no X-ray or derivative row points at it any more. Inside a
+ * transaction the check runs after commit, so a rolled-back delete never loses the file and
+ * the count sees the committed rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class StorageReferences {
+
+    private final XRayRepository xrayRepository;
+    private final XRayDerivativeRepository derivativeRepository;
+    private final XRayStorage xrayStorage;
+    private final StoragePins storagePins;
+
+    public void deleteIfUnreferenced(String location) {
+        if (location == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteNowIfUnreferenced(location);
+                }
+            });
+        } else {
+            deleteNowIfUnreferenced(location);
+        }
+    }
+
+    /**
+     * Ends the pin store() put on a location. Call it once the row pointing at the location is
+     * committed, or before discarding the location when no row will be written.
+     */
+    public void release(String location) {
+        if (location != null) {
+            storagePins.unpin(location);
+        }
+    }
+
+    private void deleteNowIfUnreferenced(String location) {
+        synchronized (storagePins.lockFor(location)) {
+            if (!storagePins.isPinned(location)
+                    && xrayRepository.countByFilePath(location) == 0
+                    && derivativeRepository.countByLocation(location) == 0) {
+                xrayStorage.delete(location);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dentalhelp.xray.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many streaming uploads run at once. Each one holds up to
+ * block-size x max-concurrency bytes of buffers inside the blob client, so this bound is
+ * what keeps upload memory flat regardless of file size.
+ */
+@Component
+public class UploadPermits {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    public UploadPermits(@Value("${xray.upload.max-concurrent-uploads:8}") int maxConcurrentUploads,
+                         @Value("${xray.upload.permit-timeout-ms:2000}") long acquireTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrentUploads, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    public boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,179 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.model.XRay;
+import com.dentalhelp.xray.model.XRayDerivative;
+import com.dentalhelp.xray.repository.XRayDerivativeRepository;
+import com.dentalhelp.xray.repository.XRayRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates downscaled copies of uploaded X-rays (thumbnails and web previews) off the request
+ * thread, on the bounded derivativeExecutor. Derivatives are stored through the same
+ * XRayStorage as the original. Work that does not fit in the queue is dropped with a warning
+ * and can be redone through the regenerate endpoint. New rows are recorded under the X-ray's
+ * row lock, which deleteXRay takes as well, so overlapping runs and deletes serialize there.
+ */
+@Slf4j
+@Service
+public class XRayDerivativeService {
+
+    public static final String DERIVATIVE_CONTENT_TYPE = "image/jpeg";
+
+    private final XRayRepository xrayRepository;
+    private final XRayDerivativeRepository derivativeRepository;
+    private final XRayStorage xrayStorage;
+    private final StorageReferences storageReferences;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor derivativeExecutor;
+    // Variant name -> longest edge in pixels, largest first
+    private final Map<String, Integer> sizes;
+    private final long maxSourceBytes;
+    private final float jpegQuality;
+
+    public XRayDerivativeService(XRayRepository xrayRepository,
+                                 XRayDerivativeRepository derivativeRepository,
+                                 XRayStorage xrayStorage,
+                                 StorageReferences storageReferences,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier("derivativeExecutor") TaskExecutor derivativeExecutor,
+                                 @Value("${xray.derivatives.sizes:preview:1280,small:512,thumbnail:256}") String sizes,
+                                 @Value("${xray.derivatives.max-source-bytes:104857600}") long maxSourceBytes,
+                                 @Value("${xray.derivatives.jpeg-quality:0.82}") float jpegQuality) {
+        this.xrayRepository = xrayRepository;
+        this.derivativeRepository = derivativeRepository;
+        this.xrayStorage = xrayStorage;
+        this.storageReferences = storageReferences;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.derivativeExecutor = derivativeExecutor;
+        this.sizes = parseSizes(sizes);
+        this.maxSourceBytes = maxSourceBytes;
+        this.jpegQuality = jpegQuality;
+    }
+
+    public void generateAsync(Long xrayId) {
+        try {
+            derivativeExecutor.execute(() -> generate(xrayId));
+        } catch (TaskRejectedException e) {
+            log.warn("Derivative queue is full, skipping derivatives for X-ray {}", xrayId);
+        }
+    }
+
+    /**
+     * Replaces the X-ray's derivatives with freshly generated ones. Failures are logged rather
+     * than thrown: the original is stored either way, and the gallery falls back to it.
+     */
+    void generate(Long xrayId) {
+        XRay xray = xrayRepository.findByXrayId(xrayId).orElse(null);
+        if (xray == null || xray.getFilePath() == null) {
+            return;
+        }
+        if (xray.getSizeBytes() != null && xray.getSizeBytes() > maxSourceBytes) {
+            log.info("X-ray {} is {} bytes, above the derivative source limit, skipping", xrayId, xray.getSizeBytes());
+            return;
+        }
+
+        List<XRayDerivative> created = new ArrayList<>();
+        try {
+            BufferedImage image;
+            try (InputStream in = xrayStorage.openStream(xray.getFilePath())) {
+                image = DerivativeImages.decode(in, sizes.values().iterator().next());
+            }
+            if (image == null) {
+                log.debug("X-ray {} is not in a format ImageIO can decode, no derivatives", xrayId);
+                return;
+            }
+
+            // Each size is scaled from the previous, larger one
+            for (Map.Entry<String, Integer> size : sizes.entrySet()) {
+                image = DerivativeImages.scaleToFit(image, size.getValue());
+                byte[] jpeg = DerivativeImages.encodeProgressiveJpeg(image, jpegQuality);
+                StoredXRay stored = xrayStorage.store(new ByteArrayInputStream(jpeg),
+                        "xray-" + xrayId + "-" + size.getKey() + ".jpg", DERIVATIVE_CONTENT_TYPE, jpeg.length);
+                created.add(XRayDerivative.builder()
+                        .xrayId(xrayId)
+                        .variant(size.getKey())
+                        .width(image.getWidth())
+                        .height(image.getHeight())
+                        .location(stored.getLocation())
+                        .contentType(DERIVATIVE_CONTENT_TYPE)
+                        .sizeBytes(stored.getSizeBytes())
+                        .sha256(stored.getSha256())
+                        .build());
+            }
+
+            boolean recorded = Boolean.TRUE.equals(transactionTemplate.execute(status -> replaceDerivatives(xrayId, created)));
+            created.forEach(derivative -> storageReferences.release(derivative.getLocation()));
+            if (!recorded) {
+                log.debug("X-ray {} was deleted while its derivatives were generated", xrayId);
+                created.forEach(derivative -> storageReferences.deleteIfUnreferenced(derivative.getLocation()));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Generating derivatives for X-ray {} failed: {}", xrayId, e.getMessage());
+            // Files of this attempt; ones that did get recorded are kept by the reference count
+            created.forEach(derivative -> {
+                storageReferences.release(derivative.getLocation());
+                storageReferences.deleteIfUnreferenced(derivative.getLocation());
+            });
+        }
+    }
+
+    // Re-reads the X-ray under its row lock: a delete that committed first leaves nothing to
+    // attach to, and a concurrent run's rows are replaced instead of piling up next to ours
+    private boolean replaceDerivatives(Long xrayId, List<XRayDerivative> created) {
+        if (xrayRepository.findWithLockByXrayId(xrayId).isEmpty()) {
+            return false;
+        }
+        release(derivativeRepository.findByXrayId(xrayId));
+        derivativeRepository.saveAll(created);
+        return true;
+    }
+
+    public void deleteDerivatives(Long xrayId) {
+        release(derivativeRepository.findByXrayId(xrayId));
+    }
+
+    private void release(List<XRayDerivative> derivatives) {
+        if (derivatives.isEmpty()) {
+            return;
+        }
+        derivativeRepository.deleteAllInBatch(derivatives);
+        derivatives.forEach(derivative -> storageReferences.deleteIfUnreferenced(derivative.getLocation()));
+    }
+
+    static Map<String, Integer> parseSizes(String sizes) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (String entry : sizes.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalArgumentException("Derivative sizes must look like name:pixels, got '" + entry + "'");
+            }
+            int edge = Integer.parseInt(parts[1].trim());
+            if (edge < 1) {
+                throw new IllegalArgumentException("Derivative size must be positive: " + entry);
+            }
+            entries.add(Map.entry(parts[0].trim(), edge));
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+
+        Map<String, Integer> parsed = new LinkedHashMap<>();
+        entries.forEach(entry -> parsed.put(entry.getKey(), entry.getValue()));
+        return parsed;
+    }
+}
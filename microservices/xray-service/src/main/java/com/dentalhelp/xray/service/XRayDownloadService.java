@@ -0,0 +1,71 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.exception.ResourceNotFoundException;
+import com.dentalhelp.xray.model.XRay;
+import com.dentalhelp.xray.model.XRayDerivative;
+import com.dentalhelp.xray.repository.XRayDerivativeRepository;
+import com.dentalhelp.xray.repository.XRayRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class XRayDownloadService {
+
+    public static final String DOWNLOAD_PATH = "/api/patient/xray/download/";
+    // Length of the hash prefix carried in download URLs as ?v=
+    public static final int VERSION_LENGTH = 16;
+
+    private final XRayRepository xrayRepository;
+    private final XRayDerivativeRepository derivativeRepository;
+    private final XRayStorage xrayStorage;
+
+    /** The original when variant is null, otherwise the newest derivative of that variant. */
+    public DownloadableXRay resolve(Long xrayId, String variant) throws IOException {
+        if (variant == null) {
+            XRay xray = xrayRepository.findByXrayId(xrayId)
+                    .orElseThrow(() -> new ResourceNotFoundException("X-Ray not found with id: " + xrayId));
+            return DownloadableXRay.builder()
+                    .location(xray.getFilePath())
+                    .sha256(xray.getSha256())
+                    // Rows from before sizes were recorded ask the storage
+                    .sizeBytes(xray.getSizeBytes() != null ? xray.getSizeBytes() : xrayStorage.size(xray.getFilePath()))
+                    .contentType(xray.getContentType())
+                    .build();
+        }
+
+        XRayDerivative derivative = derivativeRepository.findFirstByXrayIdAndVariantOrderByDerivativeIdDesc(xrayId, variant)
+                .orElseThrow(() -> new ResourceNotFoundException("No " + variant + " derivative for X-Ray with id: " + xrayId));
+        return DownloadableXRay.builder()
+                .location(derivative.getLocation())
+                .sha256(derivative.getSha256())
+                .sizeBytes(derivative.getSizeBytes() != null ? derivative.getSizeBytes() : xrayStorage.size(derivative.getLocation()))
+                .contentType(derivative.getContentType())
+                .build();
+    }
+
+    public Optional<Path> localPath(DownloadableXRay file) {
+        return xrayStorage.localPath(file.getLocation());
+    }
+
+    public void transfer(DownloadableXRay file, long position, long count, WritableByteChannel target) throws IOException {
+        xrayStorage.transferTo(file.getLocation(), position, count, target);
+    }
+
+    /**
+     * Download URL for an original (variant null) or a derivative. The content hash prefix in
+     * v makes the URL change whenever the content does, which is what lets the response be
+     * cached as immutable.
+     */
+    public static String downloadUrl(Long xrayId, String variant, String sha256) {
+        String url = DOWNLOAD_PATH + xrayId + (variant != null ? "/" + variant : "");
+        return sha256 != null && sha256.length() >= VERSION_LENGTH
+                ? url + "?v=" + sha256.substring(0, VERSION_LENGTH)
+                : url;
+    }
+}
@@ -1,16 +1,25 @@
 package com.dentalhelp.xray.service;
 
 import com.dentalhelp.xray.dto.XRayDto;
+import com.dentalhelp.xray.exception.BadRequestException;
+import com.dentalhelp.xray.exception.PayloadTooLargeException;
 import com.dentalhelp.xray.exception.ResourceNotFoundException;
+import com.dentalhelp.xray.exception.ServiceBusyException;
 import com.dentalhelp.xray.model.XRay;
+import com.dentalhelp.xray.model.XRayDerivative;
+import com.dentalhelp.xray.repository.XRayDerivativeRepository;
 import com.dentalhelp.xray.repository.XRayRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,30 +27,85 @@ import java.util.stream.Collectors;
 public class XRayService {
 
     private final XRayRepository xrayRepository;
-    private final AzureBlobStorageService azureBlobStorageService;
+    private final XRayStorage xrayStorage;
+    private final UploadPermits uploadPermits;
+    private final XRayDerivativeRepository derivativeRepository;
+    private final XRayDerivativeService derivativeService;
+    private final StorageReferences storageReferences;
+
+    @Value("${xray.upload.max-size-bytes:536870912}")
+    private long maxUploadBytes = 536_870_912L;
 
     public List<XRayDto> getPatientXRays(String patientCnp) {
         List<XRay> xrays = xrayRepository.findByPatientCnp(patientCnp);
+        if (xrays.isEmpty()) {
+            return List.of();
+        }
+
+        // One query for the derivatives of every X-ray in the gallery
+        Map<Long, List<XRayDerivative>> derivatives = derivativeRepository.findByXrayIdIn(
+                        xrays.stream().map(XRay::getXrayId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(XRayDerivative::getXrayId));
         return xrays.stream()
-                .map(this::convertToDto)
+                .map(xray -> convertToDto(xray, derivatives.getOrDefault(xray.getXrayId(), List.of())))
                 .collect(Collectors.toList());
     }
 
-    @Transactional
     public XRayDto saveXRay(String patientCnp, String date, String observations, MultipartFile file) throws IOException {
-        // Upload file to Azure
-        String filePath = azureBlobStorageService.uploadFile(file);
-
-        // Save metadata to database
-        XRay xray = XRay.builder()
-                .patientCnp(patientCnp)
-                .date(date)
-                .filePath(filePath)
-                .observations(observations)
-                .build();
+        try (InputStream data = file.getInputStream()) {
+            return store(patientCnp, date, observations, file.getOriginalFilename(), file.getContentType(), data);
+        }
+    }
 
-        XRay savedXRay = xrayRepository.save(xray);
-        return convertToDto(savedXRay);
+    /**
+     * Stores an X-ray sent as the raw request body. Nothing is spooled: the body is hashed and
+     * counted while the storage backend writes it, and the metadata row is written only
+     * after the file is stored, so no database transaction is held open during the transfer.
+     */
+    public XRayDto saveXRayStream(String patientCnp, String date, String observations, String fileName,
+                                  String contentType, Long contentLength, InputStream body) throws IOException {
+        if (contentLength != null && contentLength > maxUploadBytes) {
+            throw new PayloadTooLargeException("File exceeds the maximum upload size of " + maxUploadBytes + " bytes");
+        }
+        return store(patientCnp, date, observations, fileName, contentType, body);
+    }
+
+    private XRayDto store(String patientCnp, String date, String observations, String fileName,
+                          String contentType, InputStream data) throws IOException {
+        if (!uploadPermits.tryAcquire()) {
+            throw new ServiceBusyException("Too many X-ray uploads in progress, retry shortly");
+        }
+        try {
+            StoredXRay stored = xrayStorage.store(data, fileName, contentType, maxUploadBytes);
+            XRay savedXRay;
+            try {
+                if (stored.getSizeBytes() == 0) {
+                    throw new BadRequestException("File is empty");
+                }
+
+                // Save metadata to database
+                XRay xray = XRay.builder()
+                        .patientCnp(patientCnp)
+                        .date(date)
+                        .filePath(stored.getLocation())
+                        .observations(observations)
+                        .contentType(contentType)
+                        .sizeBytes(stored.getSizeBytes())
+                        .sha256(stored.getSha256())
+                        .build();
+                savedXRay = xrayRepository.save(xray);
+            } catch (RuntimeException e) {
+                storageReferences.release(stored.getLocation());
+                storageReferences.deleteIfUnreferenced(stored.getLocation());
+                throw e;
+            }
+            storageReferences.release(stored.getLocation());
+            derivativeService.generateAsync(savedXRay.getXrayId());
+            return convertToDto(savedXRay, List.of());
+        } finally {
+            uploadPermits.release();
+        }
     }
 
     @Transactional
@@ -57,23 +121,45 @@ public class XRayService {
 
     @Transactional
     public void deleteXRay(Long xrayId) {
-        XRay xray = xrayRepository.findByXrayId(xrayId)
+        XRay xray = xrayRepository.findWithLockByXrayId(xrayId)
                 .orElseThrow(() -> new ResourceNotFoundException("X-Ray not found with id: " + xrayId));
 
-        // Delete from Azure Blob Storage
-        azureBlobStorageService.deleteFile(xray.getFilePath());
-
         // Delete from database
+        derivativeService.deleteDerivatives(xrayId);
         xrayRepository.delete(xray);
+
+        // Delete from storage once the delete has committed
+        storageReferences.deleteIfUnreferenced(xray.getFilePath());
+    }
+
+    public void regenerateDerivatives(Long xrayId) {
+        if (xrayRepository.findByXrayId(xrayId).isEmpty()) {
+            throw new ResourceNotFoundException("X-Ray not found with id: " + xrayId);
+        }
+        derivativeService.generateAsync(xrayId);
     }
 
-    private XRayDto convertToDto(XRay xray) {
+    private XRayDto convertToDto(XRay xray, List<XRayDerivative> derivatives) {
         return XRayDto.builder()
                 .xrayId(xray.getXrayId())
                 .patientCnp(xray.getPatientCnp())
                 .date(xray.getDate())
                 .filePath(xray.getFilePath())
                 .observations(xray.getObservations())
+                .contentType(xray.getContentType())
+                .sizeBytes(xray.getSizeBytes())
+                .sha256(xray.getSha256())
+                .downloadUrl(XRayDownloadService.downloadUrl(xray.getXrayId(), null, xray.getSha256()))
+                .derivatives(derivatives.stream()
+                        .sorted(Comparator.comparingInt(XRayDerivative::getWidth))
+                        .map(derivative -> XRayDto.Derivative.builder()
+                                .variant(derivative.getVariant())
+                                .url(XRayDownloadService.downloadUrl(xray.getXrayId(), derivative.getVariant(), derivative.getSha256()))
+                                .width(derivative.getWidth())
+                                .height(derivative.getHeight())
+                                .sizeBytes(derivative.getSizeBytes())
+                                .build())
+                        .toList())
                 .build();
     }
 }
@@ -0,0 +1,39 @@
+package com.dentalhelp.xray.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where X-ray files live. The active backend is chosen by profile: Azure Blob Storage by
+ * default, the local filesystem under the local-storage profile. Locations returned by
+ * {@link #store} are opaque and are what XRay.filePath holds.
+ */
+public interface XRayStorage {
+
+    /**
+     * Stores the stream, failing with PayloadTooLargeException once more than maxBytes have
+     * been read. The caller owns and closes the stream.
+     */
+    StoredXRay store(InputStream data, String originalFilename, String contentType, long maxBytes) throws IOException;
+
+    /** Best effort: failures are logged, not thrown, since the metadata row is what matters. */
+    void delete(String location);
+
+    InputStream openStream(String location) throws IOException;
+
+    long size(String location) throws IOException;
+
+    /**
+     * The file behind the location when it is on local disk, letting the web server send it
+     * with sendfile instead of copying it through the JVM.
+     */
+    default Optional<Path> localPath(String location) {
+        return Optional.empty();
+    }
+
+    /** Writes count bytes starting at position to the target channel. */
+    void transferTo(String location, long position, long count, WritableByteChannel target) throws IOException;
+}
@@ -0,0 +1,148 @@
+package com.dentalhelp.xray.controller;
+
+import com.dentalhelp.xray.exception.ResourceNotFoundException;
+import com.dentalhelp.xray.service.DownloadableXRay;
+import com.dentalhelp.xray.service.XRayDownloadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(XRayDownloadController.class)
+class XRayDownloadControllerTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final String SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    private static final String ETAG = "\"" + SHA256 + "\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private XRayDownloadService downloadService;
+
+    private DownloadableXRay file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = DownloadableXRay.builder()
+                .location("ba/78/" + SHA256)
+                .sha256(SHA256)
+                .sizeBytes(CONTENT.length())
+                .contentType("image/jpeg")
+                .build();
+        when(downloadService.resolve(1L, null)).thenReturn(file);
+        when(downloadService.localPath(file)).thenReturn(Optional.empty());
+        doAnswer(invocation -> {
+            int position = (int) invocation.getArgument(1, Long.class).longValue();
+            int count = (int) invocation.getArgument(2, Long.class).longValue();
+            invocation.getArgument(3, WritableByteChannel.class).write(ByteBuffer.wrap(
+                    CONTENT.substring(position, position + count).getBytes(StandardCharsets.US_ASCII)));
+            return null;
+        }).when(downloadService).transfer(eq(file), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testDownload_FullWithVersionedUrlIsImmutable() throws Exception {
+        mockMvc.perform(get("/api/patient/xray/download/1").param("v", SHA256.substring(0, 16)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void testDownload_UnversionedUrlMustRevalidate() throws Exception {
+        mockMvc.perform(get("/api/patient/xray/download/1").param("v", "0000000000000000"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"));
+    }
+
+    @Test
+    void testDownload_IfNoneMatchReturns304() throws Exception {
+        mockMvc.perform(get("/api/patient/xray/download/1").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(downloadService, never()).transfer(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testDownload_Range() throws Exception {
+        mockMvc.perform(get("/api/patient/xray/download/1").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void testDownload_SuffixRangeResumesTail() throws Exception {
+        mockMvc.perform(get("/api/patient/xray/download/1").header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void testDownload_UnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/api/patient/xray/download/1").header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void testDownload_StaleIfRangeSendsWholeFile() throws Exception {
+        mockMvc.perform(get("/api/patient/xray/download/1")
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"something-else\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void testDownload_LocalFileUsesSendfileWhenSupported() throws Exception {
+        Path path = Files.createTempFile("xray", ".jpg");
+        try {
+            when(downloadService.localPath(file)).thenReturn(Optional.of(path));
+
+            mockMvc.perform(get("/api/patient/xray/download/1")
+                            .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                            .header(HttpHeaders.RANGE, "bytes=2-5"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 2L))
+                    .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 6L))
+                    .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", path.toRealPath().toString()));
+
+            verify(downloadService, never()).transfer(any(), anyLong(), anyLong(), any());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testDownload_NotFound() throws Exception {
+        when(downloadService.resolve(99L, "thumbnail")).thenThrow(new ResourceNotFoundException("missing"));
+
+        mockMvc.perform(get("/api/patient/xray/download/99/thumbnail"))
+                .andExpect(status().isNotFound());
+    }
+}
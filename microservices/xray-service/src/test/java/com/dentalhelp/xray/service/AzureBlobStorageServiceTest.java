@@ -0,0 +1,106 @@
+package com.dentalhelp.xray.service;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.dentalhelp.xray.exception.PayloadTooLargeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AzureBlobStorageServiceTest {
+
+    @Mock
+    private BlobContainerClient containerClient;
+
+    @Mock
+    private BlobClient blobClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AzureBlobStorageService storageService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        storageService = new AzureBlobStorageService(containerClient, meterRegistry);
+    }
+
+    @Test
+    void testDeleteFile_ReusesContainerClientAndRecordsLatency() {
+        when(containerClient.getBlobClient("abc-scan.jpg")).thenReturn(blobClient);
+        when(blobClient.deleteIfExists()).thenReturn(true);
+
+        storageService.delete("https://account.blob.core.windows.net/xrays/abc-scan.jpg");
+        storageService.delete("https://account.blob.core.windows.net/xrays/abc-scan.jpg");
+
+        verify(blobClient, times(2)).deleteIfExists();
+        assertEquals(2, meterRegistry.get("xray.blob.operations")
+                .tag("operation", "delete").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void testDeleteFile_FailureIsSwallowedAndCounted() {
+        when(containerClient.getBlobClient("abc-scan.jpg")).thenReturn(blobClient);
+        when(blobClient.deleteIfExists()).thenThrow(new IllegalStateException("boom"));
+
+        assertDoesNotThrow(() -> storageService.delete("https://host/xrays/abc-scan.jpg"));
+        assertEquals(1, meterRegistry.get("xray.blob.operations")
+                .tag("operation", "delete").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void testStore_LimitExceededInsideClientIsReportedAsTooLarge() {
+        when(containerClient.getBlobClient(anyString())).thenReturn(blobClient);
+        when(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    try {
+                        invocation.getArgument(0, BlobParallelUploadOptions.class).getDataStream().readAllBytes();
+                    } catch (RuntimeException e) {
+                        // The SDK surfaces stream failures wrapped in its own exceptions
+                        throw new IllegalStateException("upload aborted", e);
+                    }
+                    return null;
+                });
+
+        assertThrows(PayloadTooLargeException.class, () ->
+                storageService.store(new ByteArrayInputStream(new byte[5]), "scan.dcm", null, 4));
+    }
+
+    @Test
+    void testStore_ReturnsDigestOfUploadedBytes() {
+        when(containerClient.getBlobClient(anyString())).thenReturn(blobClient);
+        when(blobClient.getBlobUrl()).thenReturn("https://host/xrays/x-scan.dcm");
+        when(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(0, BlobParallelUploadOptions.class).getDataStream().readAllBytes();
+                    return null;
+                });
+
+        StoredXRay stored = storageService.store(
+                new ByteArrayInputStream("abc".getBytes(StandardCharsets.US_ASCII)), "scan.dcm", null, 10);
+
+        assertEquals("https://host/xrays/x-scan.dcm", stored.getLocation());
+        assertEquals(3, stored.getSizeBytes());
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", stored.getSha256());
+    }
+
+    @Test
+    void testSanitizeFileName() {
+        assertEquals("scan_1.dcm", AzureBlobStorageService.sanitizeFileName("C:\\scans\\scan 1.dcm"));
+        assertEquals("passwd", AzureBlobStorageService.sanitizeFileName("../../etc/passwd"));
+        assertEquals("xray", AzureBlobStorageService.sanitizeFileName(".."));
+        assertEquals("xray", AzureBlobStorageService.sanitizeFileName(null));
+    }
+}
@@ -0,0 +1,44 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestingInputStreamTest {
+
+    @Test
+    void testDigestAndCount() throws IOException {
+        byte[] content = "abc".getBytes(StandardCharsets.US_ASCII);
+        DigestingInputStream stream = new DigestingInputStream(new ByteArrayInputStream(content), 10);
+
+        assertEquals('a', stream.read());
+        assertEquals(2, stream.read(new byte[8], 0, 8));
+        assertEquals(-1, stream.read());
+
+        assertEquals(3, stream.getCount());
+        assertFalse(stream.isLimitExceeded());
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", stream.getSha256());
+    }
+
+    @Test
+    void testLimitExceeded() {
+        DigestingInputStream stream = new DigestingInputStream(new ByteArrayInputStream(new byte[5]), 4);
+
+        assertThrows(PayloadTooLargeException.class, stream::readAllBytes);
+        assertTrue(stream.isLimitExceeded());
+    }
+
+    @Test
+    void testSkipAndResetAreRefused() {
+        DigestingInputStream stream = new DigestingInputStream(new ByteArrayInputStream(new byte[5]), 10);
+
+        assertEquals(0, stream.skip(3));
+        assertFalse(stream.markSupported());
+        assertThrows(IOException.class, stream::reset);
+    }
+}
@@ -0,0 +1,90 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalXRayStorageTest {
+
+    private static final String ABC_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @TempDir
+    Path root;
+
+    private LocalXRayStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new LocalXRayStorage(root.toString(), new StoragePins());
+        storage.init();
+    }
+
+    @Test
+    void testStore_ContentAddressedAndDeduplicated() throws IOException {
+        StoredXRay first = storage.store(stream("abc"), "a.jpg", "image/jpeg", 100);
+        StoredXRay second = storage.store(stream("abc"), "b.jpg", "image/jpeg", 100);
+
+        assertEquals("ba/78/" + ABC_SHA256, first.getLocation());
+        assertEquals(first.getLocation(), second.getLocation());
+        assertEquals(ABC_SHA256, first.getSha256());
+        assertEquals(3, first.getSizeBytes());
+        assertEquals("abc", Files.readString(root.resolve("objects").resolve(first.getLocation())));
+        assertTempDirEmpty();
+    }
+
+    @Test
+    void testStore_TooLargeLeavesNothingBehind() throws IOException {
+        assertThrows(PayloadTooLargeException.class, () -> storage.store(stream("abcdef"), "a.jpg", null, 4));
+
+        assertTempDirEmpty();
+        try (Stream<Path> objects = Files.walk(root.resolve("objects"))) {
+            assertEquals(1, objects.count());
+        }
+    }
+
+    @Test
+    void testTransferTo_Range() throws IOException {
+        StoredXRay stored = storage.store(stream("0123456789"), "a.jpg", null, 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        storage.transferTo(stored.getLocation(), 2, 5, Channels.newChannel(out));
+
+        assertEquals("23456", out.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testDelete() throws IOException {
+        StoredXRay stored = storage.store(stream("abc"), "a.jpg", null, 100);
+
+        storage.delete(stored.getLocation());
+
+        assertFalse(Files.exists(root.resolve("objects").resolve(stored.getLocation())));
+    }
+
+    @Test
+    void testResolve_RejectsLocationsOutsideTheStore() {
+        assertThrows(IllegalArgumentException.class, () -> storage.resolve("../../etc/passwd"));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void assertTempDirEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.repository.XRayDerivativeRepository;
+import com.dentalhelp.xray.repository.XRayRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageReferencesTest {
+
+    private static final String LOCATION = "ba/78/ba7816bf";
+
+    @Mock
+    private XRayRepository xrayRepository;
+
+    @Mock
+    private XRayDerivativeRepository derivativeRepository;
+
+    @Mock
+    private XRayStorage xrayStorage;
+
+    @Spy
+    private StoragePins storagePins = new StoragePins();
+
+    @InjectMocks
+    private StorageReferences storageReferences;
+
+    @Test
+    void testDeletesUnreferencedFile() {
+        when(xrayRepository.countByFilePath(LOCATION)).thenReturn(0L);
+        when(derivativeRepository.countByLocation(LOCATION)).thenReturn(0L);
+
+        storageReferences.deleteIfUnreferenced(LOCATION);
+
+        verify(xrayStorage).delete(LOCATION);
+    }
+
+    @Test
+    void testKeepsFileSharedWithAnotherXRay() {
+        when(xrayRepository.countByFilePath(LOCATION)).thenReturn(1L);
+
+        storageReferences.deleteIfUnreferenced(LOCATION);
+
+        verify(xrayStorage, never()).delete(anyString());
+    }
+
+    @Test
+    void testKeepsFileSharedWithADerivative() {
+        when(xrayRepository.countByFilePath(LOCATION)).thenReturn(0L);
+        when(derivativeRepository.countByLocation(LOCATION)).thenReturn(2L);
+
+        storageReferences.deleteIfUnreferenced(LOCATION);
+
+        verify(xrayStorage, never()).delete(anyString());
+    }
+
+    @Test
+    void testKeepsFilePinnedByAnUploadUntilReleased() {
+        storagePins.pin(LOCATION);
+
+        storageReferences.deleteIfUnreferenced(LOCATION);
+        verify(xrayStorage, never()).delete(anyString());
+
+        when(xrayRepository.countByFilePath(LOCATION)).thenReturn(0L);
+        when(derivativeRepository.countByLocation(LOCATION)).thenReturn(0L);
+        storageReferences.release(LOCATION);
+        storageReferences.deleteIfUnreferenced(LOCATION);
+        verify(xrayStorage).delete(LOCATION);
+    }
+
+    @Test
+    void testInsideTransaction_DeletesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            storageReferences.deleteIfUnreferenced(LOCATION);
+            verifyNoInteractions(xrayRepository, xrayStorage);
+
+            when(xrayRepository.countByFilePath(LOCATION)).thenReturn(0L);
+            when(derivativeRepository.countByLocation(LOCATION)).thenReturn(0L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(xrayStorage).delete(LOCATION);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.model.XRay;
+import com.dentalhelp.xray.model.XRayDerivative;
+import com.dentalhelp.xray.repository.XRayDerivativeRepository;
+import com.dentalhelp.xray.repository.XRayRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class XRayDerivativeServiceTest {
+
+    private static final String LOCATION = "https://host/xrays/original.png";
+
+    @Mock
+    private XRayRepository xrayRepository;
+
+    @Mock
+    private XRayDerivativeRepository derivativeRepository;
+
+    @Mock
+    private XRayStorage xrayStorage;
+
+    @Mock
+    private StorageReferences storageReferences;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private XRayDerivativeService derivativeService;
+
+    @BeforeEach
+    void setUp() {
+        derivativeService = new XRayDerivativeService(xrayRepository, derivativeRepository, xrayStorage,
+                storageReferences, transactionManager, Runnable::run, "thumbnail:64,preview:300", 10_000_000L, 0.8f);
+    }
+
+    @Test
+    void testGenerate_StoresEverySizeAsJpeg() throws IOException {
+        // Arrange
+        when(xrayRepository.findByXrayId(1L)).thenReturn(Optional.of(xray(1L)));
+        when(xrayRepository.findWithLockByXrayId(1L)).thenReturn(Optional.of(xray(1L)));
+        when(xrayStorage.openStream(LOCATION)).thenReturn(png(1200, 900));
+        List<byte[]> storedBytes = new ArrayList<>();
+        when(xrayStorage.store(any(InputStream.class), anyString(), eq("image/jpeg"), anyLong()))
+                .thenAnswer(invocation -> {
+                    storedBytes.add(invocation.getArgument(0, InputStream.class).readAllBytes());
+                    return new StoredXRay("derivative-" + storedBytes.size(), "sha", storedBytes.size());
+                });
+
+        // Act
+        derivativeService.generateAsync(1L);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<XRayDerivative>> saved = ArgumentCaptor.forClass(List.class);
+        verify(derivativeRepository).saveAll(saved.capture());
+        List<XRayDerivative> derivatives = saved.getValue();
+        assertEquals(List.of("preview", "thumbnail"), derivatives.stream().map(XRayDerivative::getVariant).toList());
+        assertEquals(300, derivatives.get(0).getWidth());
+        assertEquals(225, derivatives.get(0).getHeight());
+        assertEquals(64, derivatives.get(1).getWidth());
+        assertEquals(48, derivatives.get(1).getHeight());
+
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(storedBytes.get(1)));
+        assertEquals(64, thumbnail.getWidth());
+    }
+
+    @Test
+    void testGenerate_ReplacesPreviousDerivatives() throws IOException {
+        // Arrange
+        XRayDerivative previous = XRayDerivative.builder().derivativeId(7L).xrayId(1L).location("old.jpg").build();
+        when(xrayRepository.findByXrayId(1L)).thenReturn(Optional.of(xray(1L)));
+        when(xrayRepository.findWithLockByXrayId(1L)).thenReturn(Optional.of(xray(1L)));
+        when(xrayStorage.openStream(LOCATION)).thenReturn(png(100, 100));
+        when(xrayStorage.store(any(InputStream.class), anyString(), anyString(), anyLong()))
+                .thenReturn(new StoredXRay("new.jpg", "sha", 10));
+        when(derivativeRepository.findByXrayId(1L)).thenReturn(List.of(previous));
+
+        // Act
+        derivativeService.generateAsync(1L);
+
+        // Assert
+        verify(derivativeRepository).deleteAllInBatch(List.of(previous));
+        verify(storageReferences).deleteIfUnreferenced("old.jpg");
+        verify(storageReferences, times(2)).release("new.jpg");
+        verify(storageReferences, never()).deleteIfUnreferenced("new.jpg");
+    }
+
+    @Test
+    void testGenerate_XRayDeletedMeanwhileDiscardsNewFiles() throws IOException {
+        // Arrange
+        when(xrayRepository.findByXrayId(1L)).thenReturn(Optional.of(xray(1L)));
+        when(xrayRepository.findWithLockByXrayId(1L)).thenReturn(Optional.empty());
+        when(xrayStorage.openStream(LOCATION)).thenReturn(png(100, 100));
+        when(xrayStorage.store(any(InputStream.class), anyString(), anyString(), anyLong()))
+                .thenReturn(new StoredXRay("new.jpg", "sha", 10));
+
+        // Act
+        derivativeService.generateAsync(1L);
+
+        // Assert
+        verify(derivativeRepository, never()).saveAll(any());
+        verify(storageReferences, times(2)).release("new.jpg");
+        verify(storageReferences, times(2)).deleteIfUnreferenced("new.jpg");
+    }
+
+    @Test
+    void testGenerate_SkipsFormatsImageIoCannotRead() throws IOException {
+        // Arrange
+        when(xrayRepository.findByXrayId(1L)).thenReturn(Optional.of(xray(1L)));
+        when(xrayStorage.openStream(LOCATION)).thenReturn(new ByteArrayInputStream("DICM not an image".getBytes()));
+
+        // Act
+        derivativeService.generateAsync(1L);
+
+        // Assert
+        verify(xrayStorage, never()).store(any(), any(), any(), anyLong());
+        verify(derivativeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testGenerate_SkipsOversizedSources() throws IOException {
+        // Arrange
+        XRay xray = xray(1L);
+        xray.setSizeBytes(20_000_000L);
+        when(xrayRepository.findByXrayId(1L)).thenReturn(Optional.of(xray));
+
+        // Act
+        derivativeService.generateAsync(1L);
+
+        // Assert
+        verify(xrayStorage, never()).openStream(anyString());
+    }
+
+    @Test
+    void testParseSizes_OrdersLargestFirst() {
+        Map<String, Integer> sizes = XRayDerivativeService.parseSizes("thumbnail:256, preview:1280 ,small:512");
+
+        assertEquals(List.of("preview", "small", "thumbnail"), List.copyOf(sizes.keySet()));
+        assertThrows(IllegalArgumentException.class, () -> XRayDerivativeService.parseSizes("thumbnail"));
+    }
+
+    private static XRay xray(Long id) {
+        return XRay.builder().xrayId(id).filePath(LOCATION).sizeBytes(1000L).build();
+    }
+
+    private static ByteArrayInputStream png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+}
@@ -0,0 +1,85 @@
+package com.dentalhelp.xray.service;
+
+import com.dentalhelp.xray.exception.ResourceNotFoundException;
+import com.dentalhelp.xray.model.XRay;
+import com.dentalhelp.xray.model.XRayDerivative;
+import com.dentalhelp.xray.repository.XRayDerivativeRepository;
+import com.dentalhelp.xray.repository.XRayRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class XRayDownloadServiceTest {
+
+    private static final String SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @Mock
+    private XRayRepository xrayRepository;
+
+    @Mock
+    private XRayDerivativeRepository derivativeRepository;
+
+    @Mock
+    private XRayStorage xrayStorage;
+
+    @InjectMocks
+    private XRayDownloadService downloadService;
+
+    @Test
+    void testResolve_Original() throws IOException {
+        when(xrayRepository.findByXrayId(1L)).thenReturn(Optional.of(XRay.builder()
+                .xrayId(1L).filePath("loc").sha256(SHA256).sizeBytes(10L).contentType("image/png").build()));
+
+        DownloadableXRay file = downloadService.resolve(1L, null);
+
+        assertEquals("loc", file.getLocation());
+        assertEquals(10L, file.getSizeBytes());
+        verifyNoInteractions(xrayStorage);
+    }
+
+    @Test
+    void testResolve_LegacyRowAsksStorageForSize() throws IOException {
+        when(xrayRepository.findByXrayId(1L)).thenReturn(Optional.of(XRay.builder().xrayId(1L).filePath("loc").build()));
+        when(xrayStorage.size("loc")).thenReturn(42L);
+
+        DownloadableXRay file = downloadService.resolve(1L, null);
+
+        assertEquals(42L, file.getSizeBytes());
+        assertNull(file.getSha256());
+    }
+
+    @Test
+    void testResolve_Derivative() throws IOException {
+        when(derivativeRepository.findFirstByXrayIdAndVariantOrderByDerivativeIdDesc(1L, "thumbnail"))
+                .thenReturn(Optional.of(XRayDerivative.builder().xrayId(1L).variant("thumbnail")
+                        .location("thumb").sha256(SHA256).sizeBytes(5L).contentType("image/jpeg").build()));
+
+        DownloadableXRay file = downloadService.resolve(1L, "thumbnail");
+
+        assertEquals("thumb", file.getLocation());
+        assertEquals("image/jpeg", file.getContentType());
+    }
+
+    @Test
+    void testResolve_MissingDerivative() {
+        when(derivativeRepository.findFirstByXrayIdAndVariantOrderByDerivativeIdDesc(1L, "preview"))
+                .thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> downloadService.resolve(1L, "preview"));
+    }
+
+    @Test
+    void testDownloadUrl() {
+        assertEquals("/api/patient/xray/download/1?v=ba7816bf8f01cfea", XRayDownloadService.downloadUrl(1L, null, SHA256));
+        assertEquals("/api/patient/xray/download/1/thumbnail", XRayDownloadService.downloadUrl(1L, "thumbnail", null));
+    }
+}
@@ -1,24 +1,35 @@
 package com.dentalhelp.xray.service;
 
 import com.dentalhelp.xray.dto.XRayDto;
+import com.dentalhelp.xray.exception.BadRequestException;
+import com.dentalhelp.xray.exception.PayloadTooLargeException;
 import com.dentalhelp.xray.exception.ResourceNotFoundException;
+import com.dentalhelp.xray.exception.ServiceBusyException;
 import com.dentalhelp.xray.model.XRay;
+import com.dentalhelp.xray.model.XRayDerivative;
+import com.dentalhelp.xray.repository.XRayDerivativeRepository;
 import com.dentalhelp.xray.repository.XRayRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,7 +39,19 @@ class XrayServiceTest {
     private XRayRepository xrayRepository;
 
     @Mock
-    private AzureBlobStorageService azureBlobStorageService;
+    private XRayStorage xrayStorage;
+
+    @Mock
+    private UploadPermits uploadPermits;
+
+    @Mock
+    private XRayDerivativeRepository derivativeRepository;
+
+    @Mock
+    private XRayDerivativeService derivativeService;
+
+    @Mock
+    private StorageReferences storageReferences;
 
     @Mock
     private MultipartFile mockFile;
@@ -91,7 +114,11 @@ class XrayServiceTest {
         String date = "2024-01-15";
         String observations = "Normal dental x-ray";
 
-        when(azureBlobStorageService.uploadFile(mockFile)).thenReturn(filePath);
+        when(uploadPermits.tryAcquire()).thenReturn(true);
+        when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        when(mockFile.getOriginalFilename()).thenReturn("test-xray.jpg");
+        when(xrayStorage.store(any(InputStream.class), eq("test-xray.jpg"), any(), anyLong()))
+                .thenReturn(new StoredXRay(filePath, "ab12", 3));
         when(xrayRepository.save(any(XRay.class))).thenReturn(testXRay);
 
         // Act
@@ -102,8 +129,11 @@ class XrayServiceTest {
         assertEquals(testXRay.getXrayId(), result.getXrayId());
         assertEquals(testXRay.getPatientCnp(), result.getPatientCnp());
         assertEquals(testXRay.getFilePath(), result.getFilePath());
-        verify(azureBlobStorageService).uploadFile(mockFile);
+        verify(xrayStorage).store(any(InputStream.class), eq("test-xray.jpg"), any(), anyLong());
         verify(xrayRepository).save(any(XRay.class));
+        verify(storageReferences).release(filePath);
+        verify(derivativeService).generateAsync(testXRay.getXrayId());
+        verify(uploadPermits).release();
     }
 
     @Test
@@ -112,14 +142,89 @@ class XrayServiceTest {
         String date = "2024-01-15";
         String observations = "Normal dental x-ray";
 
-        when(azureBlobStorageService.uploadFile(mockFile))
-                .thenThrow(new IOException("Upload failed"));
+        when(mockFile.getInputStream()).thenThrow(new IOException("Upload failed"));
 
         // Act & Assert
         assertThrows(IOException.class, () ->
             xrayService.saveXRay(patientCnp, date, observations, mockFile));
-        verify(azureBlobStorageService).uploadFile(mockFile);
+        verify(xrayStorage, never()).store(any(), any(), any(), anyLong());
+        verify(xrayRepository, never()).save(any(XRay.class));
+    }
+
+    @Test
+    void testSaveXRayStream_RecordsSizeAndDigest() throws IOException {
+        // Arrange
+        String sha256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        when(uploadPermits.tryAcquire()).thenReturn(true);
+        when(xrayStorage.store(any(InputStream.class), eq("scan.dcm"), eq("application/dicom"), anyLong()))
+                .thenReturn(new StoredXRay(filePath, sha256, 3));
+        when(xrayRepository.save(any(XRay.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        XRayDto result = xrayService.saveXRayStream(patientCnp, "2024-01-15", null, "scan.dcm",
+                "application/dicom", 3L, new ByteArrayInputStream("abc".getBytes(StandardCharsets.US_ASCII)));
+
+        // Assert
+        assertEquals(3L, result.getSizeBytes());
+        assertEquals(sha256, result.getSha256());
+        assertEquals("application/dicom", result.getContentType());
+        assertEquals(filePath, result.getFilePath());
+        verify(uploadPermits).release();
+    }
+
+    @Test
+    void testSaveXRayStream_EmptyBody() throws IOException {
+        // Arrange
+        when(uploadPermits.tryAcquire()).thenReturn(true);
+        when(xrayStorage.store(any(InputStream.class), any(), any(), anyLong()))
+                .thenReturn(new StoredXRay(filePath, "e3b0", 0));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () ->
+            xrayService.saveXRayStream(patientCnp, "2024-01-15", null, "scan.dcm",
+                    null, null, new ByteArrayInputStream(new byte[0])));
+        InOrder inOrder = inOrder(storageReferences);
+        inOrder.verify(storageReferences).release(filePath);
+        inOrder.verify(storageReferences).deleteIfUnreferenced(filePath);
+        verify(xrayRepository, never()).save(any(XRay.class));
+        verify(uploadPermits).release();
+    }
+
+    @Test
+    void testSaveXRayStream_DeclaredLengthTooLarge() {
+        // Act & Assert
+        assertThrows(PayloadTooLargeException.class, () ->
+            xrayService.saveXRayStream(patientCnp, "2024-01-15", null, "scan.dcm",
+                    "application/dicom", Long.MAX_VALUE, new ByteArrayInputStream(new byte[0])));
+        verifyNoInteractions(uploadPermits, xrayStorage, xrayRepository);
+    }
+
+    @Test
+    void testSaveXRayStream_BodyTooLarge() throws IOException {
+        // Arrange
+        when(uploadPermits.tryAcquire()).thenReturn(true);
+        when(xrayStorage.store(any(InputStream.class), any(), any(), anyLong()))
+                .thenThrow(new PayloadTooLargeException("too large"));
+
+        // Act & Assert
+        assertThrows(PayloadTooLargeException.class, () ->
+            xrayService.saveXRayStream(patientCnp, "2024-01-15", null, "scan.dcm",
+                    null, null, new ByteArrayInputStream(new byte[]{1, 2, 3})));
         verify(xrayRepository, never()).save(any(XRay.class));
+        verify(uploadPermits).release();
+    }
+
+    @Test
+    void testSaveXRayStream_NoPermit() {
+        // Arrange
+        when(uploadPermits.tryAcquire()).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ServiceBusyException.class, () ->
+            xrayService.saveXRayStream(patientCnp, "2024-01-15", null, "scan.dcm",
+                    null, 3L, new ByteArrayInputStream(new byte[]{1, 2, 3})));
+        verifyNoInteractions(xrayStorage);
+        verify(uploadPermits, never()).release();
     }
 
     @Test
@@ -166,16 +271,16 @@ class XrayServiceTest {
         // Arrange
         Long xrayId = 1L;
 
-        when(xrayRepository.findByXrayId(xrayId))
+        when(xrayRepository.findWithLockByXrayId(xrayId))
                 .thenReturn(Optional.of(testXRay));
-        doNothing().when(azureBlobStorageService).deleteFile(filePath);
 
         // Act
         xrayService.deleteXRay(xrayId);
 
         // Assert
-        verify(xrayRepository).findByXrayId(xrayId);
-        verify(azureBlobStorageService).deleteFile(filePath);
+        verify(xrayRepository).findWithLockByXrayId(xrayId);
+        verify(derivativeService).deleteDerivatives(xrayId);
+        verify(storageReferences).deleteIfUnreferenced(filePath);
         verify(xrayRepository).delete(testXRay);
     }
 
@@ -184,14 +289,14 @@ class XrayServiceTest {
         // Arrange
         Long xrayId = 999L;
 
-        when(xrayRepository.findByXrayId(xrayId))
+        when(xrayRepository.findWithLockByXrayId(xrayId))
                 .thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () ->
             xrayService.deleteXRay(xrayId));
-        verify(xrayRepository).findByXrayId(xrayId);
-        verify(azureBlobStorageService, never()).deleteFile(anyString());
+        verify(xrayRepository).findWithLockByXrayId(xrayId);
+        verify(storageReferences, never()).deleteIfUnreferenced(anyString());
         verify(xrayRepository, never()).delete(any());
     }
 
@@ -212,4 +317,29 @@ class XrayServiceTest {
         assertEquals(testXRay.getFilePath(), dto.getFilePath());
         assertEquals(testXRay.getObservations(), dto.getObservations());
     }
+
+    @Test
+    void testGetPatientXRays_IncludesDerivativesSmallestFirst() {
+        // Arrange
+        when(xrayRepository.findByPatientCnp(patientCnp)).thenReturn(List.of(testXRay));
+        when(derivativeRepository.findByXrayIdIn(List.of(1L))).thenReturn(List.of(
+                XRayDerivative.builder().xrayId(1L).variant("preview").width(1280).height(960).location("p.jpg").build(),
+                XRayDerivative.builder().xrayId(1L).variant("thumbnail").width(256).height(192).location("t.jpg").build()));
+
+        // Act
+        XRayDto dto = xrayService.getPatientXRays(patientCnp).get(0);
+
+        // Assert
+        assertEquals(List.of("thumbnail", "preview"),
+                dto.getDerivatives().stream().map(XRayDto.Derivative::getVariant).toList());
+        assertEquals("/api/patient/xray/download/1/thumbnail", dto.getDerivatives().get(0).getUrl());
+    }
+
+    @Test
+    void testRegenerateDerivatives_NotFound() {
+        when(xrayRepository.findByXrayId(999L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> xrayService.regenerateDerivatives(999L));
+        verifyNoInteractions(derivativeService);
+    }
 }